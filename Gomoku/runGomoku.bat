@@ -6,6 +6,7 @@ src\main\java\model\*.java ^
 src\main\java\util\*.java ^
 src\main\java\ai\*.java ^
 src\main\java\save\*.java ^
+src\main\java\server\*.java ^
 src\main\java\app\*.java 
 
 if %errorlevel% neq 0 (
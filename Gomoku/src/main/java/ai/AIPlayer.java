@@ -1,6 +1,8 @@
 
 package ai;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -9,6 +11,7 @@ import model.Direction;
 import model.Grid;
 import model.Piece;
 import model.Player;
+import util.EngineLog;
 
 
 /**
@@ -35,7 +38,7 @@ import model.Player;
  * </ul>
  *
  * @author Erkin Tunc Boya
- * @version 1.3
+ * @version 1.6
  * @since 2025-04-20
  */
 public class AIPlayer extends Player {
@@ -49,6 +52,15 @@ public class AIPlayer extends Player {
     /** Number of pieces needed to win. */
     private int winLength;
 
+    /** Scores used by the evaluator, loaded from the weights file at startup. */
+    private EvalWeights weights = EvalWeights.startup();
+
+    /** Number of moves evaluated by {@link #choosePieceLocation(Grid, int)} since this player was created. */
+    private transient long nodes;
+
+    /** Score of the last move chosen. */
+    private transient int lastScore;
+
     /** Serial version UID for serialization. */
     private static final long serialVersionUID = 1L;
 
@@ -115,25 +127,89 @@ public class AIPlayer extends Player {
             throw new IllegalArgumentException("Grid cannot be null.");
             
         }
+        return choosePieceLocation(grid, winLength, grid.getSize(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Gives the best move like {@link #choosePieceLocation(Grid, int)}, within a part of
+     * the grid and a time limit (for the Gomocup protocol, whose boards may have an even
+     * size and whose moves have a time budget).
+     * <p>
+     * Only the cells whose row and column are below {@code boardSize} are considered.
+     * When {@code deadline} is passed, the moves not evaluated yet are skipped and the
+     * best one so far is played (at least one move is always evaluated).
+     * </p>
+     *
+     * @param grid the current game grid
+     * @param winLength the number of aligned pieces needed to win
+     * @param boardSize the rows and columns in play, from the top left corner
+     * @param deadline the {@link System#nanoTime()} at which to stop, or {@code Long.MAX_VALUE} for none
+     * @return the coordinates [row, col] of the selected move
+     * @throws IllegalArgumentException if {@code grid} is {@code null}, {@code winLength <= 0}
+     *         or no empty cell in play touches a piece
+     */
+    public int[] choosePieceLocation(Grid grid, int winLength, int boardSize, long deadline) {
+        return search(grid, winLength, boardSize, deadline, null);
+    }
+
+    /**
+     * Evaluates the candidate moves one by one and keeps the best (the search behind
+     * every {@code choosePieceLocation} and {@link MoveSearch}).
+     * <p>
+     * Every 8 candidates, the search checks the deadline and the {@link MoveSearch}:
+     * it stops without a move when the search was cancelled, and with the best move so
+     * far when it is out of time or asked to move now.
+     * </p>
+     *
+     * @param grid the current game grid
+     * @param winLength the number of aligned pieces needed to win
+     * @param boardSize the rows and columns in play, from the top left corner
+     * @param deadline the {@link System#nanoTime()} at which to stop, or {@code Long.MAX_VALUE} for none
+     * @param control the asynchronous search to report to, or {@code null}
+     * @return the coordinates [row, col] of the selected move, or {@code null} if the
+     *         search was cancelled before any move was evaluated
+     * @throws IllegalArgumentException if {@code grid} is {@code null}, {@code winLength <= 0}
+     *         or no empty cell in play touches a piece
+     */
+    int[] search(Grid grid, int winLength, int boardSize, long deadline, MoveSearch control) {
+        if (grid == null) {
+            throw new IllegalArgumentException("Grid cannot be null.");
+        }
         if (winLength <= 0) {
             throw new IllegalArgumentException("winLength must be positive.");
         }
         List<int[]> validMoves = new ArrayList<>();
-        int size = grid.getSize();
+        int size = Math.min(grid.getSize(), boardSize);
+        boolean timed = deadline != Long.MAX_VALUE;
+        int candidates = control == null ? 0 : countCandidates(grid, size);
         int bestScore = Integer.MIN_VALUE;
         int[] bestMove = null;
 
+        search:
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
                 if (grid.getPiece(row, col) == null && grid.hasNeighbor(row, col)) {
+                    if (bestMove != null && (validMoves.size() & 7) == 0) {
+                        if (control != null) {
+                            control.report(validMoves.size(), candidates, bestMove, bestScore);
+                            if (control.isDone() || control.isMoveNow()) {
+                                break search; // cancelled, or the best move so far is wanted
+                            }
+                        }
+                        if (timed && System.nanoTime() - deadline > 0) {
+                            break search; // out of time: play the best move found
+                        }
+                    }
                     validMoves.add(new int[]{row, col});
 
                     // Simulate the move
                     Piece simulatedPiece = new Piece(this.playerColor, row, col);
                     int score = gomokuEvaluater(grid, simulatedPiece, winLength); // dynamique winLength
+                    nodes++;
 
-                    //Testing
-                    // System.out.println("Simulating move at (" + row + "," + col + ") = " + score + " pts");
+                    if (EngineLog.AI_DEBUG) {
+                        EngineLog.log(EngineLog.Event.AI_CANDIDATE, row, col, score);
+                    }
 
                     if (score > bestScore) {
                         bestScore = score;
@@ -144,15 +220,64 @@ public class AIPlayer extends Player {
         }
 
         if (bestMove == null) {
+            if (control != null && control.isDone()) {
+                return null;
+            }
+            if (validMoves.isEmpty()) {
+                throw new IllegalArgumentException("No empty cell next to a piece.");
+            }
             // Fallback: If there is no good option it will play randomly
             bestMove = validMoves.get(random.nextInt(validMoves.size()));
         }
 
-        System.out
-                .println(name + " (AI) played at (" + bestMove[0] + ", " + bestMove[1] + ") with score = " + bestScore);
+        if (EngineLog.AI_INFO) {
+            EngineLog.log(EngineLog.Event.AI_MOVE, bestMove[0], bestMove[1], bestScore);
+        }
+        if (control != null) {
+            control.report(validMoves.size(), candidates, bestMove, bestScore);
+        }
+        lastScore = bestScore;
         return bestMove;
     }
 
+    /**
+     * Counts the moves a search evaluates: the empty cells in play touching a piece.
+     *
+     * @param grid the game grid
+     * @param size the rows and columns in play
+     * @return the number of candidate moves
+     */
+    private static int countCandidates(Grid grid, int size) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (grid.getPiece(row, col) == null && grid.hasNeighbor(row, col)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Scores a move of this player with the same evaluation as {@link #choosePieceLocation(Grid, int)},
+     * without playing it (used by {@link BlunderAnalyzer} to compare the moves of a game).
+     *
+     * @param grid the game grid
+     * @param row the row of the move
+     * @param col the column of the move
+     * @return the score; {@code Integer.MAX_VALUE} for a winning move
+     * @throws IllegalArgumentException if {@code grid} is null or the cell is outside the grid or taken
+     */
+    public int scoreMove(Grid grid, int row, int col) {
+        if (grid == null) {
+            throw new IllegalArgumentException("Grid cannot be null.");
+        }
+        if (!grid.inBounds(row, col) || grid.getPiece(row, col) != null) {
+            throw new IllegalArgumentException("Cell " + row + "," + col + " is not free.");
+        }
+        return gomokuEvaluater(grid, new Piece(this.playerColor, row, col), winLength);
+    }
 
     /**
      * Updates the number of pieces required to win for the AI logic.
@@ -176,16 +301,68 @@ public class AIPlayer extends Player {
         return winLength;
     }
 
+    /**
+     * Replaces the evaluation weights (used by the tuner to test candidate vectors).
+     *
+     * @param weights the new weights
+     * @throws IllegalArgumentException if {@code weights} is null
+     */
+    public void setWeights(EvalWeights weights) {
+        if (weights == null) {
+            throw new IllegalArgumentException("Weights cannot be null.");
+        }
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the number of moves evaluated since this player was created (to measure its speed).
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the score of the last move chosen, {@code Integer.MAX_VALUE} for a winning move.
+     *
+     * @return the score
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Sets the score of the last move chosen, when {@link MoveSearch#moveNow()} played
+     * a move before the search ended.
+     *
+     * @param score the score of the move played
+     */
+    void setLastScore(int score) {
+        this.lastScore = score;
+    }
+
+    /**
+     * Returns the evaluation weights this AI plays with.
+     *
+     * @return the current weights
+     */
+    public EvalWeights getWeights() {
+        return weights;
+    }
+
     /**
      * Evaluates the potential score of placing a given piece at a location.
      * Considers both options for offensive and defensive .
      *
-     * Scoring tiers:
+     * Scoring tiers (default values, see {@link EvalWeights}):
      * <ul>
      *   <li>Open (n-1): +50</li>
      *   <li>Open (n-2): +20</li>
      *   <li>Semi-open (n-1): +30</li>
      *   <li>Semi-open (n-2): +10</li>
+     *   <li>Block opponent open (n-1): +40</li>
+     *   <li>Block opponent semi-open (n-1): +15</li>
      *   <li>Block opponent win: +{@code Integer.MAX_VALUE / 2}</li>
      * </ul>
      *
@@ -223,13 +400,13 @@ public class AIPlayer extends Player {
         // === AI's own pattern scoring ===
         for (Direction dir : Direction.values()) {
             if (isOpenSequenceAt(grid, row, col, color, dir, winLength - 1)) {
-                score += 50;
+                score += weights.get(EvalWeights.OPEN_1);
             } else if (isOpenSequenceAt(grid, row, col, color, dir, winLength - 2)) {
-                score += 20;
+                score += weights.get(EvalWeights.OPEN_2);
             } else if (isSemiOpenSequenceAt(grid, row, col, color, dir, winLength - 1)) {
-                score += 30;
+                score += weights.get(EvalWeights.SEMI_OPEN_1);
             } else if (isSemiOpenSequenceAt(grid, row, col, color, dir, winLength - 2)) {
-                score += 10;
+                score += weights.get(EvalWeights.SEMI_OPEN_2);
             }
         }
 
@@ -237,14 +414,14 @@ public class AIPlayer extends Player {
         int enemyColor = (color == 0) ? 1 : 0;
 
         if (grid.wouldAlignWith(row, col, enemyColor, winLength)) {
-            score += Integer.MAX_VALUE / 2;
+            score += weights.get(EvalWeights.BLOCK_WIN);
         }
 
         for (Direction dir : Direction.values()) {
             if (isOpenSequenceAt(grid, row, col, enemyColor, dir, winLength - 1)) {
-                score += 40;
+                score += weights.get(EvalWeights.BLOCK_OPEN);
             } else if (isSemiOpenSequenceAt(grid, row, col, enemyColor, dir, winLength - 1)) {
-                score += 15;
+                score += weights.get(EvalWeights.BLOCK_SEMI_OPEN);
             }
         }
 
@@ -350,6 +527,21 @@ public class AIPlayer extends Player {
         };
     }
 
+    /**
+     * Restores an AI from a save file. Saves made before the weights existed
+     * have no weights in them, so they get the startup weights.
+     *
+     * @param in the stream to read from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a class of the save cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (weights == null) {
+            weights = EvalWeights.startup();
+        }
+    }
+
     /**
      * Enum representing the types of sequences: OPEN or SEMI_OPEN.
      */
@@ -0,0 +1,398 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.GameRecord;
+import model.Grid;
+import model.ReplayEngine;
+
+/**
+ * Finds where each player went wrong in a finished game.
+ * <p>
+ * Every move is compared with the best move the {@link AIPlayer} evaluation finds in
+ * the same position: the difference of the two scores is the swing of the move. A
+ * move which does not win when a winning cell was free is a missed win; a move which
+ * does not take the only winning cell of the opponent (when it could not win first)
+ * is a missed block.
+ * The automatic center piece is not analysed.
+ * </p>
+ *
+ * <p>
+ * The positions do not depend on each other, so the moves are cut into one slice per
+ * thread. Each slice is analysed by its own {@link ReplayEngine} and its own players,
+ * stepping forward through its moves: a whole game takes about the time of its
+ * slice.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-06
+ */
+public final class BlunderAnalyzer {
+
+    /**
+     * Analysis of one move.
+     */
+    public static final class Ply {
+
+        /** Index of the move in the game (0 is the center piece). */
+        private final int ply;
+        /** The move, packed like in {@link GameRecord}. */
+        private final int move;
+        /** Score of the move played. */
+        private final int playedScore;
+        /** Best move of the position, packed like in {@link GameRecord}. */
+        private final int best;
+        /** Score of the best move. */
+        private final int bestScore;
+        /** {@code true} if a winning cell was free and the move did not win. */
+        private final boolean missedWin;
+        /** {@code true} if the move did not take the only winning cell of the opponent. */
+        private final boolean missedBlock;
+
+        /**
+         * Creates the analysis of a move.
+         *
+         * @param ply the index of the move
+         * @param move the move played
+         * @param playedScore its score
+         * @param best the best move
+         * @param bestScore its score
+         * @param missedWin whether a win was missed
+         * @param missedBlock whether a block was missed
+         */
+        Ply(int ply, int move, int playedScore, int best, int bestScore, boolean missedWin, boolean missedBlock) {
+            this.ply = ply;
+            this.move = move;
+            this.playedScore = playedScore;
+            this.best = best;
+            this.bestScore = bestScore;
+            this.missedWin = missedWin;
+            this.missedBlock = missedBlock;
+        }
+
+        /**
+         * Returns the index of the move in the game.
+         *
+         * @return the ply
+         */
+        public int getPly() {
+            return ply;
+        }
+
+        /**
+         * Returns the move played, packed like in {@link GameRecord}.
+         *
+         * @return the move
+         */
+        public int getMove() {
+            return move;
+        }
+
+        /**
+         * Returns the score of the move played.
+         *
+         * @return the score
+         */
+        public int getPlayedScore() {
+            return playedScore;
+        }
+
+        /**
+         * Returns the best move of the position, packed like in {@link GameRecord}.
+         *
+         * @return the best move
+         */
+        public int getBest() {
+            return best;
+        }
+
+        /**
+         * Returns the score of the best move.
+         *
+         * @return the score
+         */
+        public int getBestScore() {
+            return bestScore;
+        }
+
+        /**
+         * Returns how much worse the move played was than the best move.
+         *
+         * @return the swing, 0 for a best move
+         */
+        public long getSwing() {
+            return (long) bestScore - playedScore;
+        }
+
+        /**
+         * Tells if the player could win with this move and did not.
+         *
+         * @return {@code true} for a missed win
+         */
+        public boolean isMissedWin() {
+            return missedWin;
+        }
+
+        /**
+         * Tells if the move did not take the only winning cell of the opponent.
+         *
+         * @return {@code true} for a missed block
+         */
+        public boolean isMissedBlock() {
+            return missedBlock;
+        }
+
+        /**
+         * Returns one line: the move, the best move and the swing or the mistake.
+         *
+         * @return the line
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(ply + 1).append(". ").append(GameRecord.colorOf(move) == 1 ? 'X' : 'O');
+            appendCell(sb.append(' '), move);
+            appendCell(sb.append(" best"), best);
+            if (missedWin) {
+                sb.append(" missed win");
+            } else if (missedBlock) {
+                sb.append(" missed block");
+            } else {
+                sb.append(" swing ").append(getSwing());
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Appends a cell as {@code (row,col)}.
+         *
+         * @param sb where to append
+         * @param move the packed move
+         */
+        private static void appendCell(StringBuilder sb, int move) {
+            sb.append('(').append(GameRecord.rowOf(move)).append(',').append(GameRecord.colOf(move)).append(')');
+        }
+    }
+
+    /**
+     * Analysis of a whole game.
+     */
+    public static final class Report {
+
+        /** Analysis of every move after the center piece, in game order. */
+        private final List<Ply> plies;
+        /** Time of the analysis in nanoseconds. */
+        private final long nanos;
+
+        /**
+         * Creates a report.
+         *
+         * @param plies the analysis of the moves
+         * @param nanos the time it took
+         */
+        Report(List<Ply> plies, long nanos) {
+            this.plies = plies;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the analysis of every move after the center piece, in game order.
+         *
+         * @return the moves
+         */
+        public List<Ply> getPlies() {
+            return plies;
+        }
+
+        /**
+         * Returns the moves of a player which were not the best.
+         *
+         * @param color the color of the player
+         * @return the mistakes, in game order
+         */
+        public List<Ply> getMistakes(int color) {
+            List<Ply> mistakes = new ArrayList<>();
+            for (Ply p : plies) {
+                if (GameRecord.colorOf(p.move) == color && (p.getSwing() > 0 || p.missedWin || p.missedBlock)) {
+                    mistakes.add(p);
+                }
+            }
+            return mistakes;
+        }
+
+        /**
+         * Returns the time of the analysis.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the report: a summary line per player, then its biggest mistakes.
+         *
+         * @return the report
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int color = 1; color >= 0; color--) {
+                List<Ply> mistakes = getMistakes(color);
+                int wins = 0;
+                int blocks = 0;
+                for (Ply p : mistakes) {
+                    wins += p.missedWin ? 1 : 0;
+                    blocks += p.missedBlock ? 1 : 0;
+                }
+                sb.append(color == 1 ? 'X' : 'O').append(": ").append(mistakes.size()).append(" inaccurate moves, ")
+                  .append(wins).append(" missed wins, ").append(blocks).append(" missed blocks\n");
+                mistakes.sort((a, b) -> Long.compare(weight(b), weight(a)));
+                for (int i = 0; i < Math.min(REPORTED_MISTAKES, mistakes.size()); i++) {
+                    sb.append("  ").append(mistakes.get(i)).append('\n');
+                }
+            }
+            sb.append(String.format("Analysed %d moves in %.1f ms", plies.size(), nanos / 1e6));
+            return sb.toString();
+        }
+
+        /**
+         * Orders the mistakes: missed wins, then missed blocks, then by swing.
+         *
+         * @param p a mistake
+         * @return its weight
+         */
+        private static long weight(Ply p) {
+            return p.missedWin ? Long.MAX_VALUE : p.missedBlock ? Long.MAX_VALUE - 1 : p.getSwing();
+        }
+    }
+
+    /** Number of mistakes of each player shown by {@link Report#toString()}. */
+    private static final int REPORTED_MISTAKES = 5;
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private BlunderAnalyzer() {
+    }
+
+    /**
+     * Analyses every move of a game, in parallel.
+     *
+     * @param record the game
+     * @param weights the evaluation weights to judge the moves with
+     * @param threads the number of threads
+     * @return the report
+     * @throws IllegalArgumentException if a move of the game is illegal
+     * @throws IllegalStateException if the analysis is interrupted
+     */
+    public static Report analyze(GameRecord record, EvalWeights weights, int threads) {
+        long start = System.nanoTime();
+        int moves = record.getMoveCount();
+        int slices = Math.max(1, Math.min(threads, moves - 1));
+        List<Ply> plies = new ArrayList<>(Math.max(0, moves - 1));
+        if (moves <= 1) {
+            return new Report(plies, System.nanoTime() - start);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(slices, r -> {
+            Thread t = new Thread(r, "blunder-analysis");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<List<Ply>>> parts = new ArrayList<>();
+            for (int i = 0; i < slices; i++) {
+                int from = 1 + (int) ((long) (moves - 1) * i / slices);
+                int to = 1 + (int) ((long) (moves - 1) * (i + 1) / slices);
+                parts.add(pool.submit(() -> analyzeSlice(record, weights, from, to)));
+            }
+            for (Future<List<Ply>> part : parts) {
+                plies.addAll(part.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Analysis interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException illegal) {
+                throw illegal;
+            }
+            throw new IllegalStateException("Analysis failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Report(plies, System.nanoTime() - start);
+    }
+
+    /**
+     * Analyses the moves {@code from} to {@code to - 1} of a game (run by one thread).
+     *
+     * @param record the game
+     * @param weights the evaluation weights
+     * @param from the first move
+     * @param to the move after the last one
+     * @return the analysis of the moves
+     */
+    private static List<Ply> analyzeSlice(GameRecord record, EvalWeights weights, int from, int to) {
+        AIPlayer[] players = new AIPlayer[2];
+        for (int color = 0; color < 2; color++) {
+            players[color] = new AIPlayer("Analyzer", color, record.getWinLength());
+            players[color].setWeights(weights);
+        }
+        ReplayEngine replay = new ReplayEngine(record);
+        List<Ply> plies = new ArrayList<>(to - from);
+        for (int ply = from; ply < to; ply++) {
+            replay.seek(ply);
+            plies.add(analyzeMove(replay.getGrid(), players, record.getWinLength(), ply, record.getMove(ply)));
+        }
+        return plies;
+    }
+
+    /**
+     * Compares a move with every other free cell next to a piece.
+     *
+     * @param grid the position before the move
+     * @param players an evaluator for each color
+     * @param winLength the win length of the game
+     * @param ply the index of the move
+     * @param move the move played
+     * @return the analysis of the move
+     */
+    private static Ply analyzeMove(Grid grid, AIPlayer[] players, int winLength, int ply, int move) {
+        int color = GameRecord.colorOf(move);
+        int row = GameRecord.rowOf(move);
+        int col = GameRecord.colOf(move);
+        AIPlayer player = players[color];
+        int best = move;
+        int bestScore = player.scoreMove(grid, row, col);
+        int playedScore = bestScore;
+        boolean canWin = false;
+        int threats = 0; // cells where the opponent would win
+        int size = grid.getSize();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (grid.getPiece(r, c) != null || !grid.hasNeighbor(r, c)) {
+                    continue;
+                }
+                canWin |= grid.wouldAlignWith(r, c, color, winLength);
+                if (grid.wouldAlignWith(r, c, 1 - color, winLength)) {
+                    threats++;
+                }
+                int score = player.scoreMove(grid, r, c);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = GameRecord.pack(color, r, c);
+                }
+            }
+        }
+        boolean won = grid.wouldAlignWith(row, col, color, winLength);
+        boolean blocked = grid.wouldAlignWith(row, col, 1 - color, winLength);
+        // with two threats or more the game was already lost: the mistake is an earlier move
+        return new Ply(ply, move, playedScore, best, bestScore, canWin && !won, !canWin && threats == 1 && !blocked);
+    }
+}
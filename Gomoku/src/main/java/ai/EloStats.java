@@ -0,0 +1,224 @@
+package ai;
+
+/**
+ * Win/draw/loss counter of one engine against another, with the statistics
+ * needed to decide if an engine change made it stronger or weaker.
+ * <p>
+ * It computes:
+ * <ul>
+ *   <li>the Elo difference and its 95% confidence interval,</li>
+ *   <li>the likelihood of superiority (LOS),</li>
+ *   <li>the log-likelihood ratio of a sequential probability ratio test (SPRT)
+ *       between {@code H0: elo = elo0} and {@code H1: elo = elo1}.</li>
+ * </ul>
+ * The SPRT uses the usual normal approximation of the game score, so a match
+ * can be stopped as soon as the ratio crosses one of its two bounds.
+ *
+ * <p>
+ * The class is not thread-safe: the tournament updates it from a single thread.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-05-24
+ */
+public class EloStats {
+
+    /** z value of a two-sided 95% confidence interval. */
+    private static final double Z_95 = 1.959964;
+
+    /** Games won by the first engine. */
+    private int wins;
+    /** Drawn games. */
+    private int draws;
+    /** Games lost by the first engine. */
+    private int losses;
+
+    /**
+     * Creates empty statistics.
+     */
+    public EloStats() {
+    }
+
+    /**
+     * Adds one game result seen from the first engine.
+     *
+     * @param score 1 for a win, 0.5 for a draw, 0 for a loss
+     * @throws IllegalArgumentException if the score is another value
+     */
+    public void add(double score) {
+        if (score == 1) {
+            wins++;
+        } else if (score == 0.5) {
+            draws++;
+        } else if (score == 0) {
+            losses++;
+        } else {
+            throw new IllegalArgumentException("Score must be 0, 0.5 or 1.");
+        }
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return wins + draws + losses
+     */
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Returns the mean score of the first engine.
+     *
+     * @return a value between 0 and 1 (0.5 if no game was played)
+     */
+    public double getScore() {
+        int n = getGames();
+        return n == 0 ? 0.5 : (wins + 0.5 * draws) / n;
+    }
+
+    /**
+     * Returns the variance of one game score.
+     *
+     * @return the per-game variance
+     */
+    private double variance() {
+        int n = getGames();
+        if (n == 0) {
+            return 0;
+        }
+        double s = getScore();
+        double w = (double) wins / n;
+        double d = (double) draws / n;
+        double l = (double) losses / n;
+        return w * (1 - s) * (1 - s) + d * (0.5 - s) * (0.5 - s) + l * s * s;
+    }
+
+    /**
+     * Returns the Elo difference matching the current score.
+     *
+     * @return the Elo difference (infinite if one engine won every game)
+     */
+    public double getElo() {
+        return scoreToElo(getScore());
+    }
+
+    /**
+     * Returns the half width of the 95% confidence interval of {@link #getElo()}.
+     *
+     * @return the error margin in Elo, infinite if it cannot be computed yet
+     */
+    public double getEloError() {
+        int n = getGames();
+        double sigma = Math.sqrt(variance() / Math.max(1, n));
+        if (n < 2 || sigma == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double s = getScore();
+        if (s <= 0 || s >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // error of the score times the slope of the Elo curve at that score
+        return Z_95 * sigma * 400 / (Math.log(10) * s * (1 - s));
+    }
+
+    /**
+     * Returns the likelihood of superiority: the chance that the first engine is really stronger.
+     * Draws do not count.
+     *
+     * @return a value between 0 and 1
+     */
+    public double getLos() {
+        if (wins + losses == 0) {
+            return 0.5;
+        }
+        return 0.5 * (1 + erf((wins - losses) / Math.sqrt(2.0 * (wins + losses))));
+    }
+
+    /**
+     * Returns the log-likelihood ratio of {@code H1: elo = elo1} against {@code H0: elo = elo0}.
+     *
+     * @param elo0 the Elo of the null hypothesis (e.g. 0: "no progress")
+     * @param elo1 the Elo of the alternative hypothesis (e.g. 10)
+     * @return the LLR, 0 while there is not enough data
+     */
+    public double llr(double elo0, double elo1) {
+        double var = variance();
+        if (getGames() < 2 || var == 0) {
+            return 0;
+        }
+        double s0 = eloToScore(elo0);
+        double s1 = eloToScore(elo1);
+        return getGames() * (s1 - s0) * (2 * getScore() - s0 - s1) / (2 * var);
+    }
+
+    /**
+     * Runs the SPRT decision.
+     *
+     * @param elo0 the Elo of H0
+     * @param elo1 the Elo of H1
+     * @param alpha the false positive rate (e.g. 0.05)
+     * @param beta the false negative rate (e.g. 0.05)
+     * @return 1 if H1 is accepted, -1 if H0 is accepted, 0 if the test must continue
+     */
+    public int sprt(double elo0, double elo1, double alpha, double beta) {
+        double llr = llr(elo0, elo1);
+        if (llr >= Math.log((1 - beta) / alpha)) {
+            return 1;
+        }
+        if (llr <= Math.log(beta / (1 - alpha))) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a one-line summary: results, Elo with error and LOS.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return String.format("+%d =%d -%d  score %.3f  Elo %+.1f +/- %.1f  LOS %.1f%%",
+                wins, draws, losses, getScore(), getElo(), getEloError(), 100 * getLos());
+    }
+
+    /**
+     * Converts a mean score to an Elo difference.
+     *
+     * @param score a value between 0 and 1
+     * @return the Elo difference
+     */
+    public static double scoreToElo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Converts an Elo difference to the expected mean score.
+     *
+     * @param elo the Elo difference
+     * @return the expected score
+     */
+    public static double eloToScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Error function (Abramowitz and Stegun 7.1.26, error below 1.5e-7).
+     *
+     * @param x the argument
+     * @return erf(x)
+     */
+    private static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t
+                + 0.254829592) * t * Math.exp(-x * x);
+        return x >= 0 ? y : -y;
+    }
+}
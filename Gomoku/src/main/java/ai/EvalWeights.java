@@ -0,0 +1,238 @@
+package ai;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * The parameter vector used by {@link AIPlayer} to score a simulated move.
+ * <p>
+ * Before this class the scores were magic numbers written directly inside
+ * {@code AIPlayer.gomokuEvaluater}. Now they live in a small int vector so that
+ * the {@link WeightTuner} can treat them as a point in a search space and
+ * write the best point it finds into a weights file.
+ * </p>
+ *
+ * <p>
+ * The file is a plain {@code .properties} file (one {@code name=value} per line),
+ * by default {@code data/weights.properties}. If it is missing or broken the
+ * hand written defaults are used, so the game always starts.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public final class EvalWeights implements Serializable {
+
+    /** Own open sequence of (winLength - 1). */
+    public static final int OPEN_1 = 0;
+    /** Own open sequence of (winLength - 2). */
+    public static final int OPEN_2 = 1;
+    /** Own semi-open sequence of (winLength - 1). */
+    public static final int SEMI_OPEN_1 = 2;
+    /** Own semi-open sequence of (winLength - 2). */
+    public static final int SEMI_OPEN_2 = 3;
+    /** Blocking an open enemy sequence of (winLength - 1). */
+    public static final int BLOCK_OPEN = 4;
+    /** Blocking a semi-open enemy sequence of (winLength - 1). */
+    public static final int BLOCK_SEMI_OPEN = 5;
+    /** Blocking an enemy winning move. */
+    public static final int BLOCK_WIN = 6;
+
+    /** Names used as keys in the weights file, indexed like the constants above. */
+    static final String[] NAMES = {
+        "open1", "open2", "semiOpen1", "semiOpen2", "blockOpen", "blockSemiOpen", "blockWin"
+    };
+
+    /** The original hand written values of {@code gomokuEvaluater}. */
+    private static final int[] DEFAULTS = {50, 20, 30, 10, 40, 15, Integer.MAX_VALUE / 2};
+
+    /** Default location of the weights file (relative to the working directory like "data/" saves). */
+    public static final Path DEFAULT_FILE = Paths.get("data", "weights.properties");
+
+    /** Serial version UID for serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** Weights read once from {@link #DEFAULT_FILE} the first time an AI needs them. */
+    private static volatile EvalWeights startup;
+
+    /** The weight values, never shared outside this class. */
+    private final int[] values;
+
+    /**
+     * Creates a weight vector from the given values (copied).
+     *
+     * @param values one value per weight, in the order of the index constants
+     * @throws IllegalArgumentException if the number of values is wrong or one is negative
+     */
+    public EvalWeights(int[] values) {
+        if (values == null || values.length != NAMES.length) {
+            throw new IllegalArgumentException("Expected " + NAMES.length + " weights.");
+        }
+        for (int v : values) {
+            if (v < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative.");
+            }
+        }
+        this.values = values.clone();
+    }
+
+    /**
+     * Returns the hand written weights the AI always used.
+     *
+     * @return default weights
+     */
+    public static EvalWeights defaults() {
+        return new EvalWeights(DEFAULTS);
+    }
+
+    /**
+     * Returns the weights loaded at startup. The file is read only once per run,
+     * so creating many AI players (e.g. during self-play) does not hit the disk.
+     *
+     * @return the startup weights
+     */
+    public static EvalWeights startup() {
+        EvalWeights result = startup;
+        if (result == null) {
+            result = loadDefault();
+            startup = result;
+        }
+        return result;
+    }
+
+    /**
+     * Loads the weights from {@link #DEFAULT_FILE}, or returns the defaults
+     * if the file does not exist or cannot be read.
+     *
+     * @return the weights the AI should use at startup
+     */
+    public static EvalWeights loadDefault() {
+        if (!Files.exists(DEFAULT_FILE)) {
+            return defaults();
+        }
+        try {
+            return load(DEFAULT_FILE);
+        } catch (IOException | IllegalArgumentException e) {
+            return defaults(); // a broken tuning file should never stop the game
+        }
+    }
+
+    /**
+     * Reads weights from a properties file. Missing keys keep their default value.
+     *
+     * @param file the file to read
+     * @return the loaded weights
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a value is not a valid number
+     */
+    public static EvalWeights load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(in);
+        }
+        int[] loaded = DEFAULTS.clone();
+        for (int i = 0; i < NAMES.length; i++) {
+            String value = props.getProperty(NAMES[i]);
+            if (value != null) {
+                loaded[i] = Integer.parseInt(value.trim());
+            }
+        }
+        return new EvalWeights(loaded);
+    }
+
+    /**
+     * Writes these weights to a properties file, creating the parent folder if needed.
+     *
+     * @param file the destination file
+     * @param comment a comment written on top of the file (can be {@code null})
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file, String comment) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < NAMES.length; i++) {
+                if (i == 0 && comment != null) {
+                    out.write("# " + comment + "\n");
+                }
+                out.write(NAMES[i] + "=" + values[i] + "\n");
+            }
+        }
+    }
+
+    /**
+     * Gets one weight.
+     *
+     * @param index one of the index constants (e.g. {@link #OPEN_1})
+     * @return the weight value
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of all the weights.
+     *
+     * @return the weights as an array
+     */
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * Returns the number of weights in the vector.
+     *
+     * @return the vector length
+     */
+    public static int size() {
+        return NAMES.length;
+    }
+
+    /**
+     * Compares two weight vectors value by value.
+     *
+     * @param o the other object
+     * @return {@code true} if both vectors hold the same values
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EvalWeights other && Arrays.equals(values, other.values);
+    }
+
+    /**
+     * Hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    /**
+     * Returns the weights as "name=value" pairs.
+     *
+     * @return a readable form of the vector
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < NAMES.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(NAMES[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
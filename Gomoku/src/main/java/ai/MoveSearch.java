@@ -0,0 +1,250 @@
+package ai;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import model.Grid;
+
+/**
+ * A move of an {@link AIPlayer} searched on another thread.
+ * <p>
+ * {@link #start(AIPlayer, Grid, Executor, ProgressListener)} returns at once; the
+ * move comes in {@link #result()}. While it runs, the search reports how many
+ * candidate moves it evaluated and the best one so far, to the listener and through
+ * the getters. It can be stopped at any time:
+ * </p>
+ * <ul>
+ *   <li>{@link #moveNow()} ends it and returns the best move found so far;</li>
+ *   <li>{@link #cancel()} (or cancelling {@link #result()}) ends it without a move.</li>
+ * </ul>
+ * <p>
+ * Stopping is cooperative: the search checks it every few candidates, so an abandoned
+ * search stops using the processor almost at once. {@link #moveNow()} returns only once
+ * the search thread has left the grid; after {@link #cancel()}, wait for
+ * {@link #stopped()} before changing the grid. The grid must not be changed until
+ * then, or until the result is complete.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-14
+ */
+public final class MoveSearch {
+
+    /**
+     * Told about the progress of a search, on the search thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called every few candidates and at the end of the search.
+         *
+         * @param evaluated the candidate moves evaluated so far
+         * @param candidates the candidate moves in all
+         * @param best the best move so far {row, col}
+         * @param score its score
+         */
+        void onProgress(int evaluated, int candidates, int[] best, int score);
+    }
+
+    /** The player searching. */
+    private final AIPlayer ai;
+    /** The position. */
+    private final Grid grid;
+    /** Told about the progress, may be {@code null}. */
+    private final ProgressListener listener;
+    /** The move, completed by the search, {@link #moveNow()} or {@link #cancel()}. */
+    private final CompletableFuture<int[]> result = new CompletableFuture<>();
+    /** Completed when the search thread no longer reads the grid. */
+    private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+    /** {@code true} once a move is wanted at once. */
+    private volatile boolean moveNow;
+    /** Candidates evaluated so far. */
+    private volatile int evaluated;
+    /** Candidates in all, 0 until the search started. */
+    private volatile int candidates;
+    /** Best move so far and its score {row, col, score}, {@code null} before the first candidate. */
+    private volatile int[] best;
+
+    /**
+     * Creates a search.
+     *
+     * @param ai the player
+     * @param grid the position
+     * @param listener told about the progress, may be {@code null}
+     */
+    private MoveSearch(AIPlayer ai, Grid grid, ProgressListener listener) {
+        this.ai = ai;
+        this.grid = grid;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts searching the move of a player.
+     *
+     * @param ai the player
+     * @param grid the position, not changed until the search is done
+     * @param executor runs the search
+     * @param listener told about the progress on the search thread, may be {@code null}
+     * @return the running search
+     * @throws IllegalArgumentException if {@code ai}, {@code grid} or {@code executor} is null
+     */
+    public static MoveSearch start(AIPlayer ai, Grid grid, Executor executor, ProgressListener listener) {
+        if (ai == null || grid == null || executor == null) {
+            throw new IllegalArgumentException("Player, grid and executor cannot be null.");
+        }
+        MoveSearch search = new MoveSearch(ai, grid, listener);
+        try {
+            executor.execute(search::run);
+        } catch (RejectedExecutionException e) {
+            search.result.completeExceptionally(e);
+            search.stopped.complete(null);
+        }
+        return search;
+    }
+
+    /**
+     * Runs the search, unless it was cancelled while waiting for a thread.
+     */
+    private void run() {
+        try {
+            if (result.isDone()) {
+                return;
+            }
+            int[] move = ai.search(grid, ai.getWinLength(), grid.getSize(), Long.MAX_VALUE, this);
+            if (move != null) {
+                result.complete(move); // ignored if moveNow() already played the best move
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        } finally {
+            stopped.complete(null);
+        }
+    }
+
+    /**
+     * Returns the move, complete when the search ends.
+     *
+     * @return the move {row, col}; cancelled by {@link #cancel()}
+     */
+    public CompletableFuture<int[]> result() {
+        return result;
+    }
+
+    /**
+     * Returns the end of the search thread's work: once it is complete, the grid is no
+     * longer read and no more progress is reported.
+     *
+     * @return completed when the search stopped
+     */
+    public CompletableFuture<Void> stopped() {
+        return stopped;
+    }
+
+    /**
+     * Ends the search and returns the best move found so far. If no candidate was
+     * evaluated yet, it waits for the first one. It returns once the search thread
+     * stopped, so the grid can be changed right away.
+     *
+     * @return the move {row, col}
+     * @throws java.util.concurrent.CancellationException if the search was cancelled
+     * @throws java.util.concurrent.CompletionException if the search failed
+     */
+    public int[] moveNow() {
+        moveNow = true;
+        int[] move = best;
+        boolean early = move != null && result.complete(new int[]{move[0], move[1]});
+        int[] played = result.join();
+        stopped.join();
+        if (early) {
+            ai.setLastScore(move[2]); // the search kept its own best, which was not played
+        }
+        return played;
+    }
+
+    /**
+     * Ends the search without a move. The search thread stops at its next check (see
+     * {@link #stopped()}).
+     *
+     * @return {@code true} if it was still running
+     */
+    public boolean cancel() {
+        return result.cancel(false);
+    }
+
+    /**
+     * Returns the number of candidate moves evaluated so far.
+     *
+     * @return the count
+     */
+    public int getEvaluated() {
+        return evaluated;
+    }
+
+    /**
+     * Returns the number of candidate moves of the position.
+     *
+     * @return the count, 0 until the search started
+     */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns the best move found so far.
+     *
+     * @return the move {row, col}, or {@code null} before the first candidate
+     */
+    public int[] getBestMove() {
+        int[] move = best;
+        return move == null ? null : new int[]{move[0], move[1]};
+    }
+
+    /**
+     * Returns the score of the best move found so far.
+     *
+     * @return the score, {@code Integer.MAX_VALUE} for a winning move, or
+     *         {@code Integer.MIN_VALUE} before the first candidate
+     */
+    public int getBestScore() {
+        int[] move = best;
+        return move == null ? Integer.MIN_VALUE : move[2];
+    }
+
+    /**
+     * Tells the search to stop without a result (called by the search).
+     *
+     * @return {@code true} if the result is already complete
+     */
+    boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * Tells the search to stop with its best move (called by the search).
+     *
+     * @return {@code true} if a move is wanted at once
+     */
+    boolean isMoveNow() {
+        return moveNow;
+    }
+
+    /**
+     * Records the progress of the search (called by the search).
+     *
+     * @param evaluated the candidates evaluated
+     * @param candidates the candidates in all
+     * @param move the best move so far
+     * @param score its score
+     */
+    void report(int evaluated, int candidates, int[] move, int score) {
+        this.candidates = candidates;
+        this.best = new int[]{move[0], move[1], score};
+        this.evaluated = evaluated;
+        if (listener != null && !result.isDone()) { // nothing is reported once the move is played
+            listener.onProgress(evaluated, candidates, move.clone(), score);
+        }
+    }
+}
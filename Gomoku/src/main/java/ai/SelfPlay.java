@@ -0,0 +1,239 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import model.GameCore;
+import model.GameListener;
+import model.GameRecord;
+import model.Grid;
+import model.Piece;
+import model.Player;
+import util.LatencyHistogram;
+
+/**
+ * Plays complete games between two players without any console input or output.
+ * <p>
+ * The rules are the ones of {@link GameCore}, the same object used by
+ * {@code app.GameEngine}: the first player's first piece is placed automatically at
+ * the center, every player has a piece budget, a full grid is a draw unless the grid
+ * is expandable (then it grows to {@code 2n-1} and both players get their starting
+ * pieces again).
+ * </p>
+ *
+ * <p>
+ * It is used by the {@link WeightTuner} and by {@code app.Arena} to play a lot of
+ * engine-vs-engine games in parallel. Each call only touches its own {@link Grid}, so several games can
+ * run at the same time on different threads as long as they don't share players.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.2
+ * @since 2025-05-20
+ */
+public final class SelfPlay {
+
+    /** Result value returned when the game ends without a winner. */
+    public static final int DRAW = GameRecord.DRAW;
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private SelfPlay() {
+    }
+
+    /**
+     * Plays one game until somebody wins or it is a draw.
+     *
+     * @param first the player who starts (its first piece goes to the center)
+     * @param second the other player
+     * @param gridSize the starting grid size (odd)
+     * @param playerPiece the number of pieces each player starts with
+     * @param winLength the number of aligned pieces needed to win
+     * @param expandable {@code true} if a full grid grows instead of ending the game
+     * @param opening moves {row, col} played after the center piece, alternating
+     *                from {@code second}; can be {@code null}
+     * @return the color of the winner, or {@link #DRAW}
+     * @throws IllegalArgumentException if both players have the same color or an opening move is illegal
+     */
+    public static int playGame(Player first, Player second, int gridSize, int playerPiece,
+                               int winLength, boolean expandable, int[][] opening) {
+        return play(first, second, gridSize, playerPiece, winLength, expandable, opening, null).getResult();
+    }
+
+    /**
+     * Plays one game and returns its full record.
+     *
+     * @param first the player who starts (its first piece goes to the center)
+     * @param second the other player
+     * @param gridSize the starting grid size (odd)
+     * @param playerPiece the number of pieces each player starts with
+     * @param winLength the number of aligned pieces needed to win
+     * @param expandable {@code true} if a full grid grows instead of ending the game
+     * @param opening moves {row, col} played after the center piece, alternating
+     *                from {@code second}; can be {@code null}
+     * @param latency histogram receiving the thinking time of every engine move; can be {@code null}
+     * @return the record of the game
+     * @throws IllegalArgumentException if both players have the same color or an opening move is illegal
+     */
+    public static GameRecord play(Player first, Player second, int gridSize, int playerPiece,
+                                  int winLength, boolean expandable, int[][] opening,
+                                  LatencyHistogram latency) {
+        return play(first, second, gridSize, playerPiece, winLength, expandable, opening, latency, null);
+    }
+
+    /**
+     * Plays one game and returns its full record, telling a listener about every event.
+     *
+     * @param first the player who starts (its first piece goes to the center)
+     * @param second the other player
+     * @param gridSize the starting grid size (odd)
+     * @param playerPiece the number of pieces each player starts with
+     * @param winLength the number of aligned pieces needed to win
+     * @param expandable {@code true} if a full grid grows instead of ending the game
+     * @param opening moves {row, col} played after the center piece, alternating
+     *                from {@code second}; can be {@code null}
+     * @param latency histogram receiving the thinking time of every engine move; can be {@code null}
+     * @param listener receives the events of the game, on the calling thread; can be {@code null}
+     * @return the record of the game; unfinished if the thread was interrupted
+     * @throws IllegalArgumentException if both players have the same color or an opening move is illegal
+     */
+    public static GameRecord play(Player first, Player second, int gridSize, int playerPiece,
+                                  int winLength, boolean expandable, int[][] opening,
+                                  LatencyHistogram latency, GameListener listener) {
+        if (first.getPlayerColor() == second.getPlayerColor()) {
+            throw new IllegalArgumentException("Players must have different colors.");
+        }
+        first.newGame(playerPiece);
+        second.newGame(playerPiece);
+
+        GameCore game = new GameCore(new Grid(gridSize), first, second, playerPiece, winLength, expandable);
+        if (listener != null) {
+            game.addListener(listener);
+        }
+        game.start();
+
+        int openingIndex = 0;
+        while (!game.isTerminal()) {
+            if (Thread.currentThread().isInterrupted()) {
+                game.abort(); // cancelled (e.g. a tournament match already decided): stop between moves
+                break;
+            }
+            Player current = game.getCurrentPlayer();
+            int[] coords;
+            boolean fromOpening = opening != null && openingIndex < opening.length;
+            if (fromOpening) {
+                coords = opening[openingIndex++];
+            } else {
+                long start = System.nanoTime();
+                coords = current.choosePieceLocation(game.getGrid());
+                if (latency != null) {
+                    latency.record(System.nanoTime() - start);
+                }
+            }
+
+            try {
+                game.submitMove(coords[0], coords[1]);
+            } catch (IllegalArgumentException e) {
+                if (fromOpening) {
+                    throw new IllegalArgumentException("Illegal opening move (" + coords[0] + ", " + coords[1] + ").");
+                }
+                game.resign(); // An engine that plays an illegal move loses instead of looping forever
+            }
+        }
+        return game.toRecord();
+    }
+
+    /**
+     * Plays one opening twice between two weight vectors, swapping colors in the
+     * second game. Playing both sides of the same opening cancels most of the
+     * advantage an opening can give to one color.
+     *
+     * @param first the weights whose results are returned
+     * @param second the opponent weights
+     * @param gridSize the starting grid size (odd)
+     * @param playerPiece the number of pieces each player starts with
+     * @param winLength the number of aligned pieces needed to win
+     * @param opening the opening played in both games; can be {@code null}
+     * @return the score of {@code first} in both games (1 win, 0.5 draw, 0 loss)
+     * @throws CancellationException if the thread is interrupted (the pair stops between two moves)
+     */
+    public static double[] playPair(EvalWeights first, EvalWeights second, int gridSize, int playerPiece,
+                                    int winLength, int[][] opening) {
+        double[] scores = new double[2];
+        for (int game = 0; game < 2; game++) {
+            boolean firstStarts = (game == 0);
+            AIPlayer black = newEngine(firstStarts ? first : second, 1, winLength, playerPiece);
+            AIPlayer white = newEngine(firstStarts ? second : first, 0, winLength, playerPiece);
+            int winner = playGame(black, white, gridSize, playerPiece, winLength, false, opening);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Pair cancelled.");
+            }
+            if (winner == DRAW) {
+                scores[game] = 0.5;
+            } else {
+                scores[game] = ((winner == 1) == firstStarts) ? 1 : 0;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Creates a silent AI with the given weights.
+     *
+     * @param weights the weights of the engine
+     * @param color the color of the engine
+     * @param winLength the number of aligned pieces needed to win
+     * @param playerPiece the number of pieces of the engine
+     * @return a new AI player
+     */
+    private static AIPlayer newEngine(EvalWeights weights, int color, int winLength, int playerPiece) {
+        AIPlayer engine = new AIPlayer("engine-" + color, color, winLength, playerPiece);
+        engine.setWeights(weights);
+        return engine;
+    }
+
+    /**
+     * Builds a random but legal opening to play after the automatic center piece.
+     * <p>
+     * Engines are deterministic, so without openings two engines would play the same
+     * game again and again. Each move is placed next to an existing piece and
+     * close to the center, which keeps openings balanced.
+     * </p>
+     *
+     * @param gridSize the grid size of the game
+     * @param plies the number of opening moves to generate
+     * @param random the random source (one per thread)
+     * @return an array of {row, col} moves
+     */
+    public static int[][] randomOpening(int gridSize, int plies, Random random) {
+        Grid grid = new Grid(gridSize);
+        int center = (gridSize - 1) / 2;
+        grid.placeTheFirstPiece(center, center, new Piece(1, center, center));
+
+        int[][] moves = new int[plies][];
+        int radius = 2;
+        for (int i = 0; i < plies; i++) {
+            List<int[]> candidates = new ArrayList<>();
+            for (int r = center - radius; r <= center + radius; r++) {
+                for (int c = center - radius; c <= center + radius; c++) {
+                    if (grid.inBounds(r, c) && grid.getPiece(r, c) == null && grid.hasNeighbor(r, c)) {
+                        candidates.add(new int[]{r, c});
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                int[][] shorter = new int[i][];
+                System.arraycopy(moves, 0, shorter, 0, i);
+                return shorter;
+            }
+            int[] move = candidates.get(random.nextInt(candidates.size()));
+            int color = (i % 2 == 0) ? 0 : 1; // the center piece is color 1, the opening starts with the other color
+            grid.placePiece(new Piece(color, move[0], move[1]), move[0], move[1]);
+            moves[i] = move;
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,130 @@
+package ai;
+
+/**
+ * Decides how long the AI may think about one move, from the limits of a match.
+ * <p>
+ * A match can limit each move ({@code turnMillis}) and the whole match
+ * ({@code matchMillis}, with the time left given before each move). The budget of a
+ * move is the smaller of the move limit and a share of the time left, minus a safety
+ * margin for reading the board and answering. A limit of 0 means no limit for the
+ * match, and "as fast as possible" for a move, like in the Gomocup protocol.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-13
+ */
+public final class TimeManager {
+
+    /** Default limit of one move. */
+    public static final long DEFAULT_TURN_MILLIS = 30_000;
+    /** Moves the time left is shared between. */
+    private static final int MOVES_TO_GO = 20;
+    /** Smallest safety margin. */
+    private static final long MIN_MARGIN_MILLIS = 30;
+
+    /** Limit of one move, 0 to play at once. */
+    private long turnMillis = DEFAULT_TURN_MILLIS;
+    /** Limit of the match, 0 for none. */
+    private long matchMillis;
+    /** Time left in the match, -1 if not told. */
+    private long timeLeftMillis = -1;
+
+    /**
+     * Sets the limit of one move.
+     *
+     * @param millis the limit, 0 to play at once
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public void setTurnMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative.");
+        }
+        this.turnMillis = millis;
+    }
+
+    /**
+     * Sets the limit of the match.
+     *
+     * @param millis the limit, 0 for none
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public void setMatchMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative.");
+        }
+        this.matchMillis = millis;
+    }
+
+    /**
+     * Sets the time left in the match.
+     *
+     * @param millis the time left
+     */
+    public void setTimeLeftMillis(long millis) {
+        this.timeLeftMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Counts the time used by a move, when the time left is not told again.
+     *
+     * @param millis the time used
+     */
+    public void moveDone(long millis) {
+        if (timeLeftMillis >= 0) {
+            timeLeftMillis = Math.max(0, timeLeftMillis - millis);
+        }
+    }
+
+    /**
+     * Returns the time the AI may think about the next move.
+     *
+     * @return the budget in milliseconds (0 to play at once)
+     */
+    public long moveBudgetMillis() {
+        long budget = turnMillis;
+        if (matchMillis > 0) {
+            long left = timeLeftMillis >= 0 ? timeLeftMillis : matchMillis;
+            budget = Math.min(budget, left / MOVES_TO_GO);
+        }
+        long margin = Math.max(MIN_MARGIN_MILLIS, budget / 10);
+        return Math.max(0, budget - margin);
+    }
+
+    /**
+     * Returns when the AI must stop thinking about a move started at {@code startNanos}.
+     *
+     * @param startNanos the {@link System#nanoTime()} at which the move was asked
+     * @return the deadline, in {@link System#nanoTime()} time
+     */
+    public long deadline(long startNanos) {
+        return startNanos + moveBudgetMillis() * 1_000_000;
+    }
+
+    /**
+     * Returns the limit of one move.
+     *
+     * @return the limit, 0 to play at once
+     */
+    public long getTurnMillis() {
+        return turnMillis;
+    }
+
+    /**
+     * Returns the limit of the match.
+     *
+     * @return the limit, 0 for none
+     */
+    public long getMatchMillis() {
+        return matchMillis;
+    }
+
+    /**
+     * Returns the time left in the match.
+     *
+     * @return the time left, -1 if not told
+     */
+    public long getTimeLeftMillis() {
+        return timeLeftMillis;
+    }
+}
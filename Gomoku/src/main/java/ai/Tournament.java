@@ -0,0 +1,302 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays statistically sound matches between {@link AIPlayer} configurations.
+ * <p>
+ * An engine configuration is a name and a set of {@link EvalWeights}. Two
+ * schedules are supported:
+ * <ul>
+ *   <li>{@link Schedule#ROUND_ROBIN}: every engine plays every other engine,</li>
+ *   <li>{@link Schedule#GAUNTLET}: the first engine plays all the others.</li>
+ * </ul>
+ * Every match is a list of game pairs: one random opening near the center, played
+ * once with each color. The pairs run in parallel on a thread pool and the results
+ * go into an {@link EloStats}.
+ *
+ * <p>
+ * When SPRT is enabled, a match stops as soon as the test accepts one of its two
+ * hypotheses, so an obviously better (or worse) engine does not need the full
+ * number of games.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes ai.Tournament [rr|gauntlet] [maxPairs] [sprt elo0 elo1] engineA.properties engineB.properties ...
+ * }</pre>
+ * The word {@code default} can be used instead of a file for the hand written weights.
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-05-24
+ */
+public class Tournament {
+
+    /** Number of random moves after the center piece in each opening. */
+    private static final int OPENING_PLIES = 3;
+
+    /**
+     * The way engines are paired.
+     */
+    public enum Schedule {
+        /** Every engine plays every other engine. */
+        ROUND_ROBIN,
+        /** The first engine plays every other engine. */
+        GAUNTLET
+    }
+
+    /**
+     * An engine configuration taking part in the tournament.
+     */
+    public static final class Engine {
+        /** Name shown in the report. */
+        private final String name;
+        /** Weights of the engine. */
+        private final EvalWeights weights;
+
+        /**
+         * Creates an engine configuration.
+         *
+         * @param name the name shown in the report
+         * @param weights the evaluation weights of the engine
+         */
+        public Engine(String name, EvalWeights weights) {
+            this.name = name;
+            this.weights = weights;
+        }
+
+        /**
+         * Returns the name of the engine.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the weights of the engine.
+         *
+         * @return the weights
+         */
+        public EvalWeights getWeights() {
+            return weights;
+        }
+    }
+
+    /** Grid size of the games. */
+    private final int gridSize;
+    /** Win length of the games. */
+    private final int winLength;
+    /** Pieces of each player. */
+    private final int playerPiece;
+    /** Maximum number of game pairs in one match. */
+    private final int maxPairs;
+    /** Number of game threads. */
+    private final int threads;
+
+    /** {@code true} if matches stop on an SPRT decision. */
+    private boolean sprtEnabled;
+    /** Elo of the SPRT null hypothesis. */
+    private double elo0;
+    /** Elo of the SPRT alternative hypothesis. */
+    private double elo1;
+    /** SPRT false positive rate. */
+    private double alpha = 0.05;
+    /** SPRT false negative rate. */
+    private double beta = 0.05;
+
+    /** Source of the opening seeds. */
+    private final Random random;
+
+    /**
+     * Creates a tournament runner.
+     *
+     * @param gridSize the grid size of the games (odd)
+     * @param winLength the win length of the games
+     * @param maxPairs the maximum number of game pairs per match
+     * @param threads the number of game threads
+     * @param seed the seed of the openings
+     * @throws IllegalArgumentException if a parameter is not positive
+     */
+    public Tournament(int gridSize, int winLength, int maxPairs, int threads, long seed) {
+        if (gridSize <= 0 || winLength <= 0 || maxPairs <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Tournament parameters must be positive.");
+        }
+        this.gridSize = gridSize;
+        this.winLength = winLength;
+        this.playerPiece = (gridSize * gridSize) / 2 + 1;
+        this.maxPairs = maxPairs;
+        this.threads = threads;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Enables early stopping with an SPRT between {@code elo0} and {@code elo1}.
+     *
+     * @param elo0 the Elo of H0 (e.g. 0)
+     * @param elo1 the Elo of H1 (e.g. 10)
+     * @param alpha the false positive rate
+     * @param beta the false negative rate
+     * @throws IllegalArgumentException if {@code elo1 <= elo0} or a rate is not in (0, 1)
+     */
+    public void enableSprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be greater than elo0.");
+        }
+        if (alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("alpha and beta must be between 0 and 1.");
+        }
+        this.sprtEnabled = true;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /**
+     * Runs all the matches of a schedule and prints a report for each match.
+     *
+     * @param engines the engines (at least two)
+     * @param schedule the pairing schedule
+     * @return the statistics of every match, in the order they were played
+     * @throws InterruptedException if the thread is interrupted while waiting for games
+     * @throws IllegalArgumentException if fewer than two engines are given
+     */
+    public List<EloStats> run(List<Engine> engines, Schedule schedule) throws InterruptedException {
+        if (engines.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two engines.");
+        }
+        List<EloStats> results = new ArrayList<>();
+        double[] points = new double[engines.size()];
+        int[] games = new int[engines.size()];
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int lastFirst = (schedule == Schedule.GAUNTLET) ? 1 : engines.size() - 1;
+            for (int i = 0; i < lastFirst; i++) {
+                for (int j = i + 1; j < engines.size(); j++) {
+                    Engine a = engines.get(i);
+                    Engine b = engines.get(j);
+                    EloStats stats = runMatch(pool, a, b);
+                    results.add(stats);
+
+                    points[i] += stats.getScore() * stats.getGames();
+                    points[j] += (1 - stats.getScore()) * stats.getGames();
+                    games[i] += stats.getGames();
+                    games[j] += stats.getGames();
+                    System.out.println(a.getName() + " vs " + b.getName() + ": " + stats);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.out.println("\n==== Standings ====");
+        for (int i = 0; i < engines.size(); i++) {
+            System.out.printf("%-20s %6.1f / %d%n", engines.get(i).getName(), points[i], games[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Plays one match, keeping a few pairs ahead of the threads so no core waits,
+     * and stops early if the SPRT has decided.
+     *
+     * @param pool the game threads
+     * @param a the first engine (results are seen from it)
+     * @param b the second engine
+     * @return the match statistics
+     * @throws InterruptedException if the thread is interrupted while waiting for games
+     */
+    private EloStats runMatch(ExecutorService pool, Engine a, Engine b) throws InterruptedException {
+        CompletionService<double[]> done = new ExecutorCompletionService<>(pool);
+        List<Future<double[]>> running = new ArrayList<>();
+        EloStats stats = new EloStats();
+
+        int submitted = 0;
+        int finished = 0;
+        int decision = 0;
+        while (finished < submitted || (submitted < maxPairs && decision == 0)) {
+            while (decision == 0 && submitted < maxPairs && submitted - finished < 2 * threads) {
+                long seed = random.nextLong();
+                running.add(done.submit(() -> SelfPlay.playPair(a.getWeights(), b.getWeights(), gridSize,
+                        playerPiece, winLength, SelfPlay.randomOpening(gridSize, OPENING_PLIES, new Random(seed)))));
+                submitted++;
+            }
+            if (decision != 0) {
+                break; // the remaining pairs are cancelled below and stop at their next move
+            }
+            try {
+                for (double score : done.take().get()) {
+                    stats.add(score);
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A tournament game failed.", e.getCause());
+            }
+            finished++;
+            if (sprtEnabled) {
+                decision = stats.sprt(elo0, elo1, alpha, beta);
+            }
+        }
+
+        for (Future<double[]> future : running) {
+            future.cancel(true);
+        }
+        if (sprtEnabled) {
+            String verdict = decision > 0 ? "H1 accepted" : decision < 0 ? "H0 accepted" : "inconclusive";
+            System.out.printf("SPRT [%.1f, %.1f]: LLR %.2f, %s after %d games%n",
+                    elo0, elo1, stats.llr(elo0, elo1), verdict, stats.getGames());
+        }
+        return stats;
+    }
+
+    /**
+     * Runs a tournament from the command line.
+     *
+     * @param args schedule, max pairs, optional "sprt elo0 elo1", then two or more weights files
+     * @throws IOException if a weights file cannot be read
+     * @throws InterruptedException if the tournament is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String usage = "Usage: ai.Tournament [rr|gauntlet] maxPairs [sprt elo0 elo1] engine1 engine2 ...";
+        if (args.length < 4) {
+            System.out.println(usage);
+            return;
+        }
+        Schedule schedule = args[0].equalsIgnoreCase("gauntlet") ? Schedule.GAUNTLET : Schedule.ROUND_ROBIN;
+        int maxPairs = Integer.parseInt(args[1]);
+        boolean sprt = args[2].equalsIgnoreCase("sprt");
+        int next = sprt ? 5 : 2;
+        if (next + 2 > args.length) { // at least two engines after the options
+            System.out.println(usage);
+            return;
+        }
+
+        Tournament tournament = new Tournament(15, 5, maxPairs, Runtime.getRuntime().availableProcessors(),
+                System.nanoTime());
+        if (sprt) {
+            tournament.enableSprt(Double.parseDouble(args[3]), Double.parseDouble(args[4]), 0.05, 0.05);
+        }
+
+        List<Engine> engines = new ArrayList<>();
+        for (int i = next; i < args.length; i++) {
+            EvalWeights weights = args[i].equalsIgnoreCase("default")
+                    ? EvalWeights.defaults()
+                    : EvalWeights.load(Paths.get(args[i]));
+            engines.add(new Engine(args[i], weights));
+        }
+        tournament.run(engines, schedule);
+    }
+}
@@ -0,0 +1,273 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the {@link EvalWeights} of the AI with SPSA (Simultaneous Perturbation
+ * Stochastic Approximation) and engine-vs-engine self-play.
+ * <p>
+ * Every iteration all the weights are moved at the same time by a random
+ * {@code +step / -step}. An engine with {@code theta + step} plays a match against
+ * an engine with {@code theta - step}, and the match result tells in which direction
+ * the vector should move. Only one match is needed per iteration, whatever the
+ * number of weights, which is why SPSA fits noisy game results well.
+ * </p>
+ *
+ * <p>
+ * The games of a match are independent, so they are played in parallel on a
+ * thread pool with one thread per core. Each game uses its own {@link AIPlayer}
+ * objects and its own grid through {@link SelfPlay}.
+ * </p>
+ *
+ * <p>
+ * The weight {@link EvalWeights#BLOCK_WIN} is kept fixed: it must stay larger than any
+ * sum of the other weights, otherwise the AI stops blocking a winning move.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes ai.WeightTuner [iterations] [gamePairsPerIteration] [gridSize] [winLength]
+ * }</pre>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class WeightTuner {
+
+    /** Smallest value a tuned weight can take. */
+    private static final int MIN_WEIGHT = 1;
+    /** Biggest value a tuned weight can take. */
+    private static final int MAX_WEIGHT = 1000;
+    /** Number of random moves played after the center piece in every game. */
+    private static final int OPENING_PLIES = 3;
+
+    /** SPSA step size factor for the update. */
+    private final double a;
+    /** SPSA perturbation size factor (relative to the weight). */
+    private final double c;
+    /** Stability constant of the update step size. */
+    private final double bigA;
+
+    /** Grid size of the tuning games. */
+    private final int gridSize;
+    /** Win length of the tuning games. */
+    private final int winLength;
+    /** Pieces given to each player. */
+    private final int playerPiece;
+    /** Number of game pairs (same opening, colors swapped) per iteration. */
+    private final int gamePairs;
+
+    /** Thread pool used to play the games. */
+    private final ExecutorService pool;
+    /** Random source for perturbations and openings seeds. */
+    private final Random random;
+
+    /** Current weights, kept as doubles so small updates are not lost by rounding. */
+    private final double[] theta;
+
+    /**
+     * Creates a tuner starting from the given weights.
+     *
+     * @param start the weights to start from
+     * @param gridSize grid size of the tuning games (odd)
+     * @param winLength win length of the tuning games
+     * @param gamePairs number of game pairs per iteration
+     * @param threads number of threads used to play games
+     * @param seed seed of the random source, to make a run reproducible
+     * @throws IllegalArgumentException if a parameter is not positive
+     */
+    public WeightTuner(EvalWeights start, int gridSize, int winLength, int gamePairs, int threads, long seed) {
+        if (gridSize <= 0 || winLength <= 0 || gamePairs <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Tuner parameters must be positive.");
+        }
+        this.gridSize = gridSize;
+        this.winLength = winLength;
+        this.playerPiece = (gridSize * gridSize) / 2 + 1; // enough pieces to fill the grid
+        this.gamePairs = gamePairs;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.random = new Random(seed);
+        this.a = 0.2;
+        this.c = 0.2;
+        this.bigA = 10;
+
+        int[] values = start.toArray();
+        this.theta = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            theta[i] = values[i];
+        }
+    }
+
+    /**
+     * Runs one SPSA iteration: perturb, play a match, update the weights.
+     *
+     * @param k the iteration number (starting at 0)
+     * @return the match score of the "plus" engine, between -1 and 1
+     * @throws InterruptedException if the thread is interrupted while waiting for games
+     */
+    public double step(int k) throws InterruptedException {
+        double ak = a / Math.pow(k + 1 + bigA, 0.602);
+        double ck = c / Math.pow(k + 1, 0.101);
+
+        int n = theta.length;
+        double[] delta = new double[n];
+        int[] plus = new int[n];
+        int[] minus = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (!isTuned(i)) {
+                plus[i] = minus[i] = (int) theta[i];
+                continue;
+            }
+            delta[i] = random.nextBoolean() ? 1 : -1;
+            double step = Math.max(1, ck * theta[i]) * delta[i]; // at least 1 so the rounding keeps a difference
+            plus[i] = clamp(theta[i] + step);
+            minus[i] = clamp(theta[i] - step);
+        }
+
+        double result = playMatch(new EvalWeights(plus), new EvalWeights(minus));
+
+        for (int i = 0; i < n; i++) {
+            if (!isTuned(i)) {
+                continue;
+            }
+            // The perturbation is relative to the weight, so the gradient is too:
+            // a weight moves by the same percentage whether it is 10 or 500.
+            double gradient = result / (2 * ck * delta[i]);
+            theta[i] = Math.max(MIN_WEIGHT, Math.min(MAX_WEIGHT, theta[i] * (1 + ak * gradient)));
+        }
+        return result;
+    }
+
+    /**
+     * Plays {@code gamePairs} pairs of games between two weight vectors in parallel.
+     * Both games of a pair use the same random opening with colors swapped.
+     *
+     * @param first the weights scored by the result
+     * @param second the opponent weights
+     * @return (wins of first - wins of second) / number of games
+     * @throws InterruptedException if the thread is interrupted while waiting for games
+     */
+    public double playMatch(EvalWeights first, EvalWeights second) throws InterruptedException {
+        List<Future<Integer>> games = new ArrayList<>();
+        for (int p = 0; p < gamePairs; p++) {
+            long seed = random.nextLong();
+            games.add(pool.submit(() -> playPair(first, second, seed)));
+        }
+
+        int total = 0;
+        for (Future<Integer> game : games) {
+            try {
+                total += game.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A tuning game failed.", e.getCause());
+            }
+        }
+        return total / (2.0 * gamePairs);
+    }
+
+    /**
+     * Plays one opening twice with swapped colors.
+     *
+     * @param first the weights scored by the result
+     * @param second the opponent weights
+     * @param seed the seed of the opening
+     * @return the number of games won by {@code first} minus the ones won by {@code second}
+     */
+    private int playPair(EvalWeights first, EvalWeights second, long seed) {
+        int[][] opening = SelfPlay.randomOpening(gridSize, OPENING_PLIES, new Random(seed));
+        int score = 0;
+        for (double game : SelfPlay.playPair(first, second, gridSize, playerPiece, winLength, opening)) {
+            score += (int) (2 * game - 1); // win 1, draw 0, loss -1
+        }
+        return score;
+    }
+
+    /**
+     * Returns the current weights rounded to integers.
+     *
+     * @return the tuned weights
+     */
+    public EvalWeights getWeights() {
+        int[] values = new int[theta.length];
+        for (int i = 0; i < theta.length; i++) {
+            values[i] = isTuned(i) ? clamp(theta[i]) : (int) theta[i];
+        }
+        return new EvalWeights(values);
+    }
+
+    /**
+     * Stops the thread pool. The tuner cannot be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Tells if a weight is changed by the tuner.
+     *
+     * @param index the weight index
+     * @return {@code false} only for {@link EvalWeights#BLOCK_WIN}
+     */
+    private static boolean isTuned(int index) {
+        return index != EvalWeights.BLOCK_WIN;
+    }
+
+    /**
+     * Rounds a weight and keeps it inside the allowed range.
+     *
+     * @param value the raw value
+     * @return the rounded value between {@link #MIN_WEIGHT} and {@link #MAX_WEIGHT}
+     */
+    private static int clamp(double value) {
+        return (int) Math.max(MIN_WEIGHT, Math.min(MAX_WEIGHT, Math.round(value)));
+    }
+
+    /**
+     * Runs the tuner from the command line and writes the result to
+     * {@link EvalWeights#DEFAULT_FILE} after every iteration, so a long run can be stopped at any time.
+     *
+     * @param args optional: iterations, game pairs per iteration, grid size, win length
+     * @throws InterruptedException if the tuning is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int gridSize = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        int winLength = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        WeightTuner tuner = new WeightTuner(EvalWeights.loadDefault(), gridSize, winLength, pairs, threads,
+                System.nanoTime());
+        Path out = EvalWeights.DEFAULT_FILE;
+        System.out.println("Tuning on " + threads + " threads, " + (2 * pairs) + " games per iteration.");
+        System.out.println("Start: " + tuner.getWeights());
+
+        try {
+            for (int k = 0; k < iterations; k++) {
+                long start = System.nanoTime();
+                double result = tuner.step(k);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                EvalWeights current = tuner.getWeights();
+                System.out.printf("[%d/%d] plus score %+.3f, %.1f games/s, %s%n",
+                        k + 1, iterations, result, 2 * pairs / seconds, current);
+                try {
+                    current.save(out, "tuned by WeightTuner, iteration " + (k + 1));
+                } catch (IOException e) {
+                    System.out.println("Can't write " + out + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            tuner.shutdown();
+        }
+        System.out.println("Weights written to " + Paths.get("").toAbsolutePath().resolve(out));
+    }
+}
@@ -0,0 +1,366 @@
+package app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+import model.GameRecord;
+import model.ReplayEngine;
+import save.GameArchive;
+import save.GameRecordWriter;
+import save.PositionIndex;
+import save.RecordDecoder;
+import save.RecordEncoder;
+import save.RecordImporter;
+import save.SaveManager;
+import save.TextRecordFormat;
+import save.TextRecordWriter;
+
+/**
+ * Command line tool for the game archive (see {@link GameArchive}).
+ * <p>
+ * It imports record files made by the {@link Arena} (or exported by this tool) and
+ * text collections ({@code .txt} move lists, {@code .xml}/{@code .rif} RIF files,
+ * see {@link TextRecordFormat}), exports the whole archive as a compact record
+ * stream (see {@link RecordEncoder}), deflated with {@code -z}, or as a text
+ * collection, prints statistics about all the archived games (with
+ * the scan speed), and shows one game by its number. It also builds the position
+ * index of the archive (see {@link PositionIndex}) and finds the games which went
+ * through the position of game k at a given ply, and replays game k to a given ply
+ * (see {@link ReplayEngine}), timing random seeks through the game.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes app.ArchiveTool import records.rec [archiveDir]
+ * java -cp target/classes app.ArchiveTool import games.xml [archiveDir]
+ * java -cp target/classes app.ArchiveTool export games.gmc [archiveDir] [-z]
+ * java -cp target/classes app.ArchiveTool export games.txt [archiveDir]
+ * java -cp target/classes app.ArchiveTool stats [archiveDir]
+ * java -cp target/classes app.ArchiveTool show k [archiveDir]
+ * java -cp target/classes app.ArchiveTool index [archiveDir]
+ * java -cp target/classes app.ArchiveTool query k ply [archiveDir]
+ * java -cp target/classes app.ArchiveTool replay k ply [archiveDir]
+ * }</pre>
+ * The default archive folder is {@code data/archive}.
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.4
+ * @since 2025-05-31
+ */
+public final class ArchiveTool {
+
+    /** Win length of the games of text collections (five in a row). */
+    private static final int TEXT_WIN_LENGTH = 5;
+    /** Number of random seeks timed by the replay command. */
+    private static final int REPLAY_SEEKS = 100_000;
+
+    /**
+     * Private constructor, this class only has a main method.
+     */
+    private ArchiveTool() {
+    }
+
+    /**
+     * Runs one command of the tool.
+     *
+     * @param args the command and its arguments
+     * @throws IOException if the archive or a record file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: app.ArchiveTool import file [dir] | export file [dir] [-z]"
+                    + " | stats [dir] | show k [dir] | index [dir] | query k ply [dir] | replay k ply [dir]");
+            return;
+        }
+        switch (args[0]) {
+            case "import" -> importRecords(Paths.get(args[1]), archiveDir(args, 2));
+            case "export" -> export(Paths.get(args[1]), archiveDir(args, 2),
+                    args[args.length - 1].equals("-z"));
+            case "stats" -> printStats(archiveDir(args, 1));
+            case "show" -> show(Long.parseLong(args[1]), archiveDir(args, 2));
+            case "index" -> buildIndex(archiveDir(args, 1));
+            case "query" -> query(Long.parseLong(args[1]), Integer.parseInt(args[2]), archiveDir(args, 3));
+            case "replay" -> replay(Long.parseLong(args[1]), Integer.parseInt(args[2]), archiveDir(args, 3));
+            default -> System.out.println("Unknown command: " + args[0]);
+        }
+    }
+
+    /**
+     * Adds every game of a record file to the archive.
+     *
+     * @param file the record file written by a {@link GameRecordWriter}, a compact record stream
+     *             or a text collection
+     * @param dir the archive folder
+     * @throws IOException if a file cannot be read or written
+     */
+    private static void importRecords(Path file, Path dir) throws IOException {
+        if (TextRecordFormat.isTextFile(file)) {
+            importText(file, dir);
+            return;
+        }
+        List<GameRecord> records = RecordDecoder.isCompactStream(file) ? readCompact(file) : GameRecordWriter.readAll(file);
+        long start = System.nanoTime();
+        try (GameArchive archive = GameArchive.open(dir)) {
+            for (GameRecord record : records) {
+                archive.append(record);
+            }
+            archive.flush();
+            System.out.printf("Imported %d games in %.1f ms, archive has %d games.%n",
+                    records.size(), (System.nanoTime() - start) / 1e6, archive.size());
+        }
+    }
+
+    /**
+     * Adds every valid game of a text collection to the archive, using all the processors.
+     *
+     * @param file the text collection
+     * @param dir the archive folder
+     * @throws IOException if a file cannot be read or written
+     */
+    private static void importText(Path file, Path dir) throws IOException {
+        try (GameArchive archive = GameArchive.open(dir)) {
+            RecordImporter.Summary summary = RecordImporter.importFile(file, TextRecordFormat.of(file),
+                    TEXT_WIN_LENGTH, archive, Runtime.getRuntime().availableProcessors());
+            archive.flush();
+            System.out.println(summary + ", archive has " + archive.size() + " games.");
+            for (String error : summary.getErrors()) {
+                System.out.println("  rejected: " + error);
+            }
+        }
+    }
+
+    /**
+     * Writes every game of the archive to a compact record stream, or to a text collection.
+     *
+     * @param file the stream file to write
+     * @param dir the archive folder
+     * @param compress {@code true} to deflate the blocks
+     * @throws IOException if a file cannot be read or written
+     */
+    private static void export(Path file, Path dir, boolean compress) throws IOException {
+        if (TextRecordFormat.isTextFile(file)) {
+            exportText(file, dir);
+            return;
+        }
+        long start = System.nanoTime();
+        try (GameArchive archive = GameArchive.open(dir);
+             RecordEncoder encoder = new RecordEncoder(
+                     new BufferedOutputStream(Files.newOutputStream(file), 1 << 16), compress)) {
+            IOException[] failure = new IOException[1];
+            archive.scan(record -> {
+                try {
+                    if (failure[0] == null) {
+                        encoder.write(record);
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            System.out.printf("Exported %d games in %.1f ms.%n", archive.size(), (System.nanoTime() - start) / 1e6);
+        }
+        System.out.println("Stream size: " + Files.size(file) + " bytes" + (compress ? " (deflated)" : ""));
+    }
+
+    /**
+     * Writes every game of the archive that the text format can describe to a text collection.
+     *
+     * @param file the text file to write
+     * @param dir the archive folder
+     * @throws IOException if a file cannot be read or written
+     */
+    private static void exportText(Path file, Path dir) throws IOException {
+        TextRecordFormat format = TextRecordFormat.of(file);
+        long start = System.nanoTime();
+        long[] skipped = new long[1];
+        try (GameArchive archive = GameArchive.open(dir);
+             TextRecordWriter writer = new TextRecordWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8),
+                     format)) {
+            IOException[] failure = new IOException[1];
+            archive.scan(record -> {
+                try {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    if (TextRecordWriter.canWrite(record, format)) {
+                        writer.write(record);
+                    } else {
+                        skipped[0]++;
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            System.out.printf("Exported %d games as %s in %.1f ms (%d skipped: grid grew, turn skipped "
+                    + "or grid not supported by the format).%n", writer.getWritten(), format,
+                    (System.nanoTime() - start) / 1e6, skipped[0]);
+        }
+    }
+
+    /**
+     * Reads every game of a compact record stream.
+     *
+     * @param file the stream file
+     * @return the games in stream order
+     * @throws IOException if the file cannot be read
+     */
+    private static List<GameRecord> readCompact(Path file) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+             RecordDecoder decoder = new RecordDecoder(raw)) {
+            for (GameRecord record = decoder.read(); record != null; record = decoder.read()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Scans the whole archive and prints the results and the average game length.
+     *
+     * @param dir the archive folder
+     * @throws IOException if the archive cannot be read
+     */
+    private static void printStats(Path dir) throws IOException {
+        try (GameArchive archive = GameArchive.open(dir)) {
+            LongAdder moves = new LongAdder();
+            long[] results = new long[4]; // unfinished, draw, white, black
+            long start = System.nanoTime();
+            archive.scan(record -> {
+                moves.add(record.getMoveCount());
+                results[record.getResult() + 2]++;
+            });
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long games = archive.size();
+            System.out.println("Games: " + games);
+            System.out.printf("White wins: %d, black wins: %d, draws: %d, unfinished: %d%n",
+                    results[2], results[3], results[1], results[0]);
+            System.out.printf("Average moves: %.1f%n", games == 0 ? 0.0 : moves.sum() / (double) games);
+            System.out.printf("Scan: %.1f ms (%.0f games/s)%n", seconds * 1000, games / Math.max(seconds, 1e-9));
+        }
+    }
+
+    /**
+     * Prints one game.
+     *
+     * @param k the game number
+     * @param dir the archive folder
+     * @throws IOException if the archive cannot be read
+     */
+    private static void show(long k, Path dir) throws IOException {
+        try (GameArchive archive = GameArchive.open(dir)) {
+            GameRecord record = archive.get(k);
+            System.out.println(record);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < record.getMoveCount(); i++) {
+                int move = record.getMove(i);
+                sb.append(GameRecord.colorOf(move) == 1 ? 'X' : 'O')
+                  .append('(').append(GameRecord.rowOf(move)).append(',').append(GameRecord.colOf(move)).append(") ");
+            }
+            System.out.println(sb.toString().trim());
+        }
+    }
+
+    /**
+     * Indexes the positions of the archived games the position index does not have yet.
+     *
+     * @param dir the archive folder
+     * @throws IOException if the archive or the index cannot be read or written
+     */
+    private static void buildIndex(Path dir) throws IOException {
+        long start = System.nanoTime();
+        try (GameArchive archive = GameArchive.open(dir);
+             PositionIndex index = PositionIndex.open(dir.resolve("positions"))) {
+            long added = index.catchUp(archive);
+            index.flush();
+            System.out.printf("Indexed %d games in %.1f ms (%d games, %d runs).%n", added,
+                    (System.nanoTime() - start) / 1e6, index.getIndexedGames(), index.getRunCount());
+        }
+    }
+
+    /**
+     * Finds the games which went through the position of game k after a number of moves.
+     *
+     * @param k the game number
+     * @param ply the number of moves played in the position
+     * @param dir the archive folder
+     * @throws IOException if the archive or the index cannot be read
+     */
+    private static void query(long k, int ply, Path dir) throws IOException {
+        try (GameArchive archive = GameArchive.open(dir);
+             PositionIndex index = PositionIndex.open(dir.resolve("positions"))) {
+            long[] hashes = PositionIndex.positionHashes(archive.get(k));
+            if (ply < 1 || ply > hashes.length) {
+                System.out.println("Game " + k + " has " + hashes.length + " moves.");
+                return;
+            }
+            long start = System.nanoTime();
+            PositionIndex.Result result = index.find(hashes[ply - 1], 10);
+            double millis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%d games through this position (%.2f ms): white %d, black %d, draws %d%n",
+                    result.getGames(), millis, result.getWins(0), result.getWins(1), result.getDraws());
+            for (PositionIndex.Posting posting : result.getPostings()) {
+                System.out.println("  game " + posting.getGame() + " at move " + posting.getPly());
+            }
+        }
+    }
+
+    /**
+     * Prints the grid of game k after a number of moves, then times random seeks in the game.
+     *
+     * @param k the game number
+     * @param ply the number of moves to play
+     * @param dir the archive folder
+     * @throws IOException if the archive cannot be read
+     */
+    private static void replay(long k, int ply, Path dir) throws IOException {
+        GameRecord record;
+        try (GameArchive archive = GameArchive.open(dir)) {
+            record = archive.get(k);
+        }
+        ReplayEngine engine = new ReplayEngine(record);
+        if (ply < 0 || ply > engine.getMoveCount()) {
+            System.out.println("Game " + k + " has " + engine.getMoveCount() + " moves.");
+            return;
+        }
+        engine.seek(ply);
+        System.out.println("Game " + k + " after " + ply + " of " + engine.getMoveCount() + " moves:");
+        System.out.println(engine.getGrid());
+
+        Random random = new Random(k);
+        long start = System.nanoTime();
+        for (int i = 0; i < REPLAY_SEEKS; i++) {
+            engine.seek(random.nextInt(engine.getMoveCount() + 1));
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%d random seeks in %.1f ms (%.2f us each).%n", REPLAY_SEEKS, millis,
+                millis * 1000 / REPLAY_SEEKS);
+    }
+
+    /**
+     * Returns the archive folder given at a position of the arguments, or the default one.
+     *
+     * @param args the arguments
+     * @param position the position of the folder
+     * @return the archive folder
+     */
+    private static Path archiveDir(String[] args, int position) {
+        return args.length > position && !args[position].startsWith("-")
+                ? Paths.get(args[position]) : SaveManager.ARCHIVE_DIR;
+    }
+}
@@ -0,0 +1,180 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import ai.AIPlayer;
+import ai.SelfPlay;
+import model.GameRecord;
+import save.GameRecordWriter;
+import util.LatencyHistogram;
+
+/**
+ * Headless self-play arena: runs many AI-vs-AI games at the same time on a thread pool.
+ * <p>
+ * Games are played with the same rules as {@link GameEngine} (center first piece,
+ * piece budgets, draw on a full grid, optional expandable grid) through
+ * {@link SelfPlay}, but without clearing the screen, printing the grid or waiting
+ * for input. Only the final report is printed.
+ * </p>
+ *
+ * <p>
+ * The report gives the number of games per second, the results and the time the
+ * engines spent on each move. If an output file is given, every finished game is
+ * streamed to it as a compact {@link GameRecord} by a {@link GameRecordWriter}.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes app.Arena [games] [threads] [gridSize] [winLength] [expandable] [output.rec]
+ * }</pre>
+ *
+ * @author Erkin Tunç Boya
+ * @version 1.0
+ * @since 2025-05-22
+ */
+public class Arena {
+
+    /** Number of random moves after the center piece, so games are not all the same. */
+    private static final int OPENING_PLIES = 2;
+
+    /** Starting grid size of every game. */
+    private final int gridSize;
+    /** Pieces given to each player. */
+    private final int playerPiece;
+    /** Number of aligned pieces needed to win. */
+    private final int winLength;
+    /** {@code true} if the grid grows when full. */
+    private final boolean expandable;
+
+    /** Thinking time of every engine move, over all games. */
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    /** Wins per color (index 0 = white, 1 = black). */
+    private final LongAdder[] wins = {new LongAdder(), new LongAdder()};
+    /** Number of drawn games. */
+    private final LongAdder draws = new LongAdder();
+    /** Total number of moves over all games. */
+    private final AtomicLong totalMoves = new AtomicLong();
+
+    /**
+     * Creates an arena with the given rules (same checks as {@link GameEngine}).
+     *
+     * @param gridSize the starting grid size (odd)
+     * @param playerPiece the pieces of each player
+     * @param winLength the number of aligned pieces needed to win
+     * @param expandable {@code true} if the grid grows when full
+     * @throws IllegalArgumentException if the rules are invalid
+     */
+    public Arena(int gridSize, int playerPiece, int winLength, boolean expandable) {
+        GameEngine.validateSettings(gridSize, playerPiece, winLength);
+        this.gridSize = gridSize;
+        this.playerPiece = playerPiece;
+        this.winLength = winLength;
+        this.expandable = expandable;
+    }
+
+    /**
+     * Plays {@code games} games on {@code threads} threads and prints a report.
+     *
+     * @param games the number of games
+     * @param threads the number of game threads
+     * @param output the record file, or {@code null} to keep nothing
+     * @param seed the seed of the random openings
+     * @throws IOException if the record file cannot be written
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void run(int games, int threads, Path output, long seed) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        GameRecordWriter writer = (output == null) ? null : new GameRecordWriter(output, 4096);
+        Random seeds = new Random(seed);
+
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(games);
+            for (int g = 0; g < games; g++) {
+                long gameSeed = seeds.nextLong();
+                futures.add(pool.submit(() -> {
+                    GameRecord record = playOne(gameSeed);
+                    if (writer != null) {
+                        writer.append(record);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An arena game failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Games: %d on %d threads in %.2fs (%.1f games/s)%n", games, threads, seconds, games / seconds);
+        System.out.printf("Black wins: %d | White wins: %d | Draws: %d%n", wins[1].sum(), wins[0].sum(), draws.sum());
+        System.out.printf("Average moves per game: %.1f%n", (double) totalMoves.get() / games);
+        System.out.println("Move latency: " + moveLatency.summary());
+        if (writer != null) {
+            System.out.println("Records: " + writer.getWritten() + " written to " + output);
+        }
+    }
+
+    /**
+     * Plays one game between two fresh AI players, alternating who starts.
+     *
+     * @param seed the seed of the random opening
+     * @return the record of the game
+     */
+    private GameRecord playOne(long seed) {
+        Random random = new Random(seed);
+        int[][] opening = SelfPlay.randomOpening(gridSize, OPENING_PLIES, random);
+
+        AIPlayer black = new AIPlayer("Arena-Black", 1, winLength, playerPiece);
+        AIPlayer white = new AIPlayer("Arena-White", 0, winLength, playerPiece);
+
+        boolean blackFirst = random.nextBoolean();
+        GameRecord record = blackFirst
+                ? SelfPlay.play(black, white, gridSize, playerPiece, winLength, expandable, opening, moveLatency)
+                : SelfPlay.play(white, black, gridSize, playerPiece, winLength, expandable, opening, moveLatency);
+
+        if (record.getResult() == GameRecord.DRAW) {
+            draws.increment();
+        } else {
+            wins[record.getResult()].increment();
+        }
+        totalMoves.addAndGet(record.getMoveCount());
+        return record;
+    }
+
+    /**
+     * Runs the arena from the command line.
+     *
+     * @param args optional: games, threads, grid size, win length, expandable (true/false), output file
+     * @throws IOException if the record file cannot be written
+     * @throws InterruptedException if the run is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int gridSize = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        int winLength = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        boolean expandable = args.length > 4 && Boolean.parseBoolean(args[4]);
+        Path output = args.length > 5 ? Paths.get(args[5]) : null;
+
+        new Arena(gridSize, 60, winLength, expandable).run(games, threads, output, System.nanoTime());
+    }
+}
@@ -0,0 +1,107 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.GameCore;
+import model.GameListener;
+import model.Player;
+import util.ColorInConsole;
+
+/**
+ * The console front end of a {@link GameCore}: turns game events into colored messages.
+ * <p>
+ * {@link GameEngine} clears the screen and redraws the grid every turn, so a message
+ * printed right away would be erased before anybody could read it. That's why the
+ * messages are kept until {@link #flush()} is called, just after the grid is drawn.
+ * </p>
+ *
+ * @author Erkin Tunç Boya
+ * @version 1.0
+ * @since 2025-05-26
+ */
+public class ConsoleGameListener implements GameListener {
+
+    /** Messages waiting to be printed. */
+    private final List<String> pending = new ArrayList<>();
+
+    /**
+     * Creates a console listener with no pending message.
+     */
+    public ConsoleGameListener() {
+    }
+
+    /**
+     * Shows where a piece was placed. The automatic center piece gets its own message.
+     *
+     * @param game the game
+     * @param player the player who placed the piece
+     * @param row the row of the piece
+     * @param col the column of the piece
+     */
+    @Override
+    public void onMove(GameCore game, Player player, int row, int col) {
+        if (game.getPly() == 1 && game.hasFullHistory()) {
+            pending.add(ColorInConsole.BrightBlue + player.getName() + " placed the first piece at ("
+                    + row + ", " + col + ")" + "automatically." + ColorInConsole.Reset);
+        } else {
+            pending.add(player.getName() + " played at (" + row + ", " + col + ")");
+        }
+    }
+
+    /**
+     * Announces the winner.
+     *
+     * @param game the game
+     * @param winner the winning player
+     */
+    @Override
+    public void onWin(GameCore game, Player winner) {
+        pending.add(winner.getName() + " wins!");
+    }
+
+    /**
+     * Announces a draw.
+     *
+     * @param game the game
+     * @param reason why the game is a draw
+     */
+    @Override
+    public void onDraw(GameCore game, String reason) {
+        pending.add(ColorInConsole.Yellow + "Draw! " + reason + ColorInConsole.Reset);
+    }
+
+    /**
+     * Announces a grid expansion and the new pieces.
+     *
+     * @param game the game
+     * @param newSize the new grid size
+     * @param additionalPieces the pieces given to each player
+     */
+    @Override
+    public void onExpand(GameCore game, int newSize, int additionalPieces) {
+        pending.add(ColorInConsole.Green + "Grid has been expanded to " + newSize + "x" + newSize + ColorInConsole.Reset);
+        pending.add(ColorInConsole.Green + "Each player received " + additionalPieces + " additional pieces." + ColorInConsole.Reset);
+    }
+
+    /**
+     * Announces that a player without pieces loses their turn.
+     *
+     * @param game the game
+     * @param skipped the skipped player
+     */
+    @Override
+    public void onTurnSkipped(GameCore game, Player skipped) {
+        pending.add(ColorInConsole.Yellow + skipped.getName() + " has no pieces left. Skipping turn." + ColorInConsole.Reset);
+    }
+
+    /**
+     * Prints and forgets the pending messages.
+     */
+    public void flush() {
+        for (String message : pending) {
+            System.out.println(message);
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,200 @@
+package app;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+
+import model.GameCore;
+import model.GameListener;
+import model.Grid;
+import model.Player;
+
+/**
+ * Draws the grid in the console, sending only the cells which changed since the last frame.
+ * <p>
+ * The first frame (and the first one after the grid grew or the {@link Viewport}
+ * moved) clears the screen and prints the window of the grid. After that the
+ * renderer compares the window with the frame it remembers and, for each cell that
+ * differs, moves the cursor to the cell and writes its symbol: a normal turn sends
+ * the new piece and the last move mark, whatever the size of the grid. Then the
+ * cursor goes back under the grid and the text below it (messages, menus) is
+ * erased, like after a clear screen.
+ * </p>
+ *
+ * <p>
+ * The renderer listens to the game to know the last move, which is shown on a
+ * yellow background. The cursor positions assume that the grid and the text under it
+ * fit in the terminal; {@link #invalidate()} forces a full frame (after another screen
+ * was shown, for example). Frames are built by a {@link FrameBuilder} and sent with
+ * one write.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.3
+ * @since 2025-06-07
+ */
+public class DiffRenderer implements GameListener {
+
+    /** Where the frames are written, {@code null} when they go to {@link #channel}. */
+    private final PrintStream out;
+    /** The standard output, when {@link #out} is {@code null}. */
+    private final WritableByteChannel channel;
+    /** Part of the grid which is drawn. */
+    private final Viewport viewport = new Viewport();
+    /** Bytes of the frame, reused. */
+    private final FrameBuilder frame = new FrameBuilder();
+    /** Cells of the window on the screen, as {@link FrameBuilder#cellCode}. */
+    private byte[] shown = new byte[0];
+    /** Size of the grid on the screen, 0 if the screen must be drawn again. */
+    private int shownSize;
+    /** First row of the window on the screen. */
+    private int shownTop;
+    /** First column of the window on the screen. */
+    private int shownLeft;
+    /** Rows and columns of the window on the screen. */
+    private int shownSpan;
+    /** Row of the last move on the current grid, -1 if none. */
+    private int lastRow = -1;
+    /** Column of the last move on the current grid. */
+    private int lastCol = -1;
+
+    /**
+     * Creates a renderer writing to the standard output. The first frame is a full one.
+     */
+    public DiffRenderer() {
+        this.out = null;
+        this.channel = FrameBuilder.stdout();
+    }
+
+    /**
+     * Creates a renderer. The first frame is a full one.
+     *
+     * @param out where the frames are written
+     */
+    public DiffRenderer(PrintStream out) {
+        this.out = out;
+        this.channel = null;
+    }
+
+    /**
+     * Draws a frame: the whole window the first time, after an expansion or when the
+     * window moved, else only the changed cells.
+     *
+     * @param grid the grid to show
+     */
+    public void render(Grid grid) {
+        int size = grid.getSize();
+        if (!viewport.hasPieces()) {
+            viewport.fit(grid); // a loaded grid, whose moves were not seen
+        }
+        viewport.place(size);
+        int top = viewport.getTop();
+        int left = viewport.getLeft();
+        int span = viewport.getShown();
+        frame.begin();
+        if (size != shownSize || top != shownTop || left != shownLeft || span != shownSpan) {
+            frame.clearScreen().window(grid, top, left, span);
+            if (shown.length < span * span) {
+                shown = new byte[span * span];
+            }
+            for (int row = 0; row < span; row++) {
+                for (int col = 0; col < span; col++) {
+                    shown[row * span + col] = FrameBuilder.cellCode(grid, top + row, left + col, false);
+                }
+            }
+            shownSize = size;
+            shownTop = top;
+            shownLeft = left;
+            shownSpan = span;
+        }
+
+        for (int row = 0; row < span; row++) {
+            for (int col = 0; col < span; col++) {
+                byte code = FrameBuilder.cellCode(grid, top + row, left + col,
+                        top + row == lastRow && left + col == lastCol);
+                if (code != shown[row * span + col]) {
+                    shown[row * span + col] = code;
+                    frame.cell(row, col, code);
+                }
+            }
+        }
+        frame.cursor(span + 5, 1); // under the grid, where the text after a full frame starts
+        frame.eraseBelow(); // the text of the last turn
+        try {
+            if (out != null) {
+                frame.writeTo(out);
+            } else {
+                System.out.flush(); // the text printed before the frame stays before it
+                frame.writeTo(channel);
+            }
+        } catch (IOException e) {
+            invalidate(); // like a PrintStream, a console error is not reported; try a full frame next time
+        }
+    }
+
+    /**
+     * Draws a frame of a grid whose moves were not all seen (a sampled game): the last
+     * move is given, and the viewport is fitted around the pieces again.
+     *
+     * @param grid the grid to show
+     * @param row the row of the last move, -1 if none
+     * @param col the column of the last move
+     */
+    public void render(Grid grid, int row, int col) {
+        viewport.fit(grid);
+        lastRow = row;
+        lastCol = col;
+        if (row >= 0) {
+            viewport.include(row, col);
+        }
+        render(grid);
+    }
+
+    /**
+     * Returns the part of the grid which is drawn, to pan or zoom it.
+     *
+     * @return the viewport
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Makes the next frame a full one.
+     */
+    public void invalidate() {
+        shownSize = 0;
+    }
+
+    /**
+     * Remembers the last move, to mark it, and adds it to the box followed by the viewport.
+     *
+     * @param game the game
+     * @param player the player who placed the piece
+     * @param row the row of the piece
+     * @param col the column of the piece
+     */
+    @Override
+    public void onMove(GameCore game, Player player, int row, int col) {
+        lastRow = row;
+        lastCol = col;
+        viewport.include(row, col);
+    }
+
+    /**
+     * Moves the last move mark and the viewport with the pieces, to the center of the bigger grid.
+     *
+     * @param game the game
+     * @param newSize the new grid size
+     * @param additionalPieces the pieces given to each player
+     */
+    @Override
+    public void onExpand(GameCore game, int newSize, int additionalPieces) {
+        int shift = (newSize - (newSize + 1) / 2) / 2; // the old size was (newSize + 1) / 2
+        if (lastRow >= 0) {
+            lastRow += shift;
+            lastCol += shift;
+        }
+        viewport.shift(shift);
+    }
+}
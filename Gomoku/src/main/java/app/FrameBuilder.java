@@ -0,0 +1,341 @@
+package app;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import model.Grid;
+import model.Piece;
+import util.ColorInConsole;
+
+/**
+ * Builds the bytes of a console frame without creating objects.
+ * <p>
+ * Every piece of text a frame is made of is turned into bytes once: the symbol of
+ * each cell state (empty, white, black, last move) with its colors, and the row and
+ * column labels of every coordinate. A frame is then a sequence of copies into a
+ * direct {@link ByteBuffer} which is reused from frame to frame (it only grows when a
+ * bigger grid is drawn), and it is sent with a single write. A frame is laid out like
+ * {@link Grid#toString()}: column labels, the rows between their labels, a blank
+ * line and the column labels again.
+ * </p>
+ *
+ * <p>
+ * A builder is not thread safe; each renderer has its own.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-08
+ */
+public final class FrameBuilder {
+
+    /** State of an empty cell. */
+    public static final byte EMPTY = 0;
+    /** Flag added to the state of the cell of the last move. */
+    public static final byte LAST_MOVE = 4;
+    /** Width of a cell on the screen. */
+    public static final int CELL_WIDTH = 4;
+    /** Column of the first cell on the screen (row label and padding before it), from 1. */
+    public static final int FIRST_CELL_COLUMN = 7;
+
+    /** ANSI sequence clearing the screen, as {@link ColorInConsole#clearScreen()}. */
+    private static final byte[] CLEAR_SCREEN = bytes("\033[H\033[2J");
+    /** ANSI sequence erasing from the cursor to the end of the screen. */
+    private static final byte[] ERASE_BELOW = bytes("\u001b[J");
+    /** Spaces after a cell which is not the last of its row. */
+    private static final byte[] CELL_PADDING = bytes("   ");
+    /** Symbol of each cell state (color + 1, with {@link #LAST_MOVE}). */
+    private static final byte[][] SYMBOLS = new byte[8][];
+
+    static {
+        for (int code = 0; code < SYMBOLS.length; code++) {
+            String background = (code & LAST_MOVE) != 0 ? ColorInConsole.BackgroundYellow : "";
+            SYMBOLS[code] = bytes(switch (code & ~LAST_MOVE) {
+                case 1 -> background + ColorInConsole.BrightWhite + "O" + ColorInConsole.Reset;
+                case 2 -> background + ColorInConsole.BrightBlack + "X" + ColorInConsole.Reset;
+                default -> background.isEmpty() ? "." : background + "." + ColorInConsole.Reset;
+            });
+        }
+    }
+
+    /** The frame being built, reused. */
+    private ByteBuffer frame = ByteBuffer.allocateDirect(1 << 14);
+    /** Copy of the frame for a stream write, reused. */
+    private byte[] copy = new byte[0];
+    /** Left label of each row: number, padding. */
+    private byte[][] rowLabels = new byte[0][];
+    /** Right label of each row, with the end of the line. */
+    private byte[][] rowEnds = new byte[0][];
+    /** Label of each column. */
+    private byte[][] colLabels = new byte[0][];
+
+    /**
+     * Creates a builder with an empty frame.
+     */
+    public FrameBuilder() {
+    }
+
+    /**
+     * Returns the state of a cell.
+     *
+     * @param grid the grid
+     * @param row the row
+     * @param col the column
+     * @param last {@code true} for the cell of the last move
+     * @return {@link #EMPTY} or the color of the piece + 1, with {@link #LAST_MOVE} if {@code last}
+     */
+    public static byte cellCode(Grid grid, int row, int col, boolean last) {
+        Piece piece = grid.getPiece(row, col);
+        byte code = piece == null ? EMPTY : (byte) (piece.getColor() + 1);
+        return last ? (byte) (code | LAST_MOVE) : code;
+    }
+
+    /**
+     * Starts a new frame.
+     *
+     * @return this builder
+     */
+    public FrameBuilder begin() {
+        frame.clear();
+        return this;
+    }
+
+    /**
+     * Adds the sequence clearing the screen.
+     *
+     * @return this builder
+     */
+    public FrameBuilder clearScreen() {
+        return put(CLEAR_SCREEN);
+    }
+
+    /**
+     * Adds the whole grid, followed by an empty line.
+     *
+     * @param grid the grid
+     * @return this builder
+     */
+    public FrameBuilder grid(Grid grid) {
+        return window(grid, 0, 0, grid.getSize());
+    }
+
+    /**
+     * Adds a square window of the grid with its labels, followed by an empty line.
+     *
+     * @param grid the grid
+     * @param top the first row
+     * @param left the first column
+     * @param span the number of rows and columns
+     * @return this builder
+     */
+    public FrameBuilder window(Grid grid, int top, int left, int span) {
+        prepareLabels(Math.max(top, left) + span);
+        ensure((span + 3) * (2 * colLabels[0].length + span * (SYMBOLS[7].length + CELL_PADDING.length)));
+        columnLabels(left, span);
+        for (int row = top; row < top + span; row++) {
+            frame.put(rowLabels[row]);
+            for (int col = left; col < left + span; col++) {
+                frame.put(SYMBOLS[cellCode(grid, row, col, false)]);
+                frame.put(CELL_PADDING, 0, col == left + span - 1 ? 1 : CELL_PADDING.length);
+            }
+            frame.put(rowEnds[row]);
+        }
+        frame.put((byte) '\n');
+        columnLabels(left, span);
+        frame.put((byte) '\n');
+        return this;
+    }
+
+    /**
+     * Adds a cell drawn over a window already on the screen.
+     *
+     * @param row the row of the cell in the window
+     * @param col the column of the cell in the window
+     * @param code the state of the cell
+     * @return this builder
+     */
+    public FrameBuilder cell(int row, int col, byte code) {
+        cursor(row + 2, FIRST_CELL_COLUMN + col * CELL_WIDTH);
+        return put(SYMBOLS[code]);
+    }
+
+    /**
+     * Adds the ANSI sequence moving the cursor.
+     *
+     * @param line the line, from 1
+     * @param column the column, from 1
+     * @return this builder
+     */
+    public FrameBuilder cursor(int line, int column) {
+        ensure(16);
+        frame.put((byte) 0x1b).put((byte) '[');
+        putNumber(line);
+        frame.put((byte) ';');
+        putNumber(column);
+        frame.put((byte) 'H');
+        return this;
+    }
+
+    /**
+     * Adds the sequence erasing the screen from the cursor to the end.
+     *
+     * @return this builder
+     */
+    public FrameBuilder eraseBelow() {
+        return put(ERASE_BELOW);
+    }
+
+    /**
+     * Returns the number of bytes of the frame.
+     *
+     * @return the size of the frame
+     */
+    public int size() {
+        return frame.position();
+    }
+
+    /**
+     * Sends the frame with one write (a channel may need several calls for a large frame).
+     *
+     * @param channel where to write
+     * @throws IOException if writing fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        frame.flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        frame.clear();
+    }
+
+    /**
+     * Sends the frame to a stream with one write, through a reused array.
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        int length = frame.position();
+        if (copy.length < length) {
+            copy = new byte[Math.max(length, copy.length * 2)];
+        }
+        frame.flip();
+        frame.get(copy, 0, length);
+        frame.clear();
+        out.write(copy, 0, length);
+        out.flush();
+    }
+
+    /**
+     * Opens a channel on the standard output. {@code System.out} must be flushed
+     * before a frame is written to it, so the text printed before stays before.
+     *
+     * @return the channel
+     */
+    public static WritableByteChannel stdout() {
+        return new FileOutputStream(FileDescriptor.out).getChannel();
+    }
+
+    /**
+     * Copies bytes into the frame.
+     *
+     * @param data the bytes
+     * @return this builder
+     */
+    private FrameBuilder put(byte[] data) {
+        ensure(data.length);
+        frame.put(data);
+        return this;
+    }
+
+    /**
+     * Adds the column labels of a window and the end of the line.
+     *
+     * @param left the first column
+     * @param span the number of columns
+     */
+    private void columnLabels(int left, int span) {
+        frame.put(CELL_PADDING);
+        for (int col = left; col < left + span; col++) {
+            frame.put(colLabels[col]);
+        }
+        frame.put((byte) '\n');
+    }
+
+    /**
+     * Writes a positive number in decimal.
+     *
+     * @param value the number
+     */
+    private void putNumber(int value) {
+        int divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            frame.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Makes room for more bytes, moving the frame to a bigger buffer if needed.
+     *
+     * @param more the number of bytes about to be added
+     */
+    private void ensure(int more) {
+        if (frame.remaining() >= more) {
+            return;
+        }
+        ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(frame.capacity() * 2, frame.position() + more));
+        frame.flip();
+        bigger.put(frame);
+        frame = bigger;
+    }
+
+    /**
+     * Builds the labels of the coordinates below a limit, the first time they are needed.
+     *
+     * @param limit the number of coordinates needed
+     */
+    private void prepareLabels(int limit) {
+        int from = rowLabels.length;
+        if (limit <= from) {
+            return;
+        }
+        rowLabels = Arrays.copyOf(rowLabels, limit);
+        rowEnds = Arrays.copyOf(rowEnds, limit);
+        colLabels = Arrays.copyOf(colLabels, limit);
+        for (int i = from; i < limit; i++) {
+            rowLabels[i] = bytes(ColorInConsole.Blue + pad(i, CELL_WIDTH) + ColorInConsole.Reset + "  ");
+            rowEnds[i] = bytes(ColorInConsole.Blue + pad(i, 3) + ColorInConsole.Reset + "\n");
+            colLabels[i] = bytes(ColorInConsole.Red + pad(i, CELL_WIDTH) + ColorInConsole.Reset);
+        }
+    }
+
+    /**
+     * Writes a number aligned to the right.
+     *
+     * @param value the number
+     * @param width the width
+     * @return the text
+     */
+    private static String pad(int value, int width) {
+        return " ".repeat(Math.max(0, width - String.valueOf(value).length())) + value;
+    }
+
+    /**
+     * Returns the bytes of a text.
+     *
+     * @param text the text
+     * @return its UTF-8 bytes
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
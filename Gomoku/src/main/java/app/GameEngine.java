@@ -1,32 +1,52 @@
 
 package app;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import util.*;
+import ai.AIPlayer;
+import ai.BlunderAnalyzer;
+import ai.EvalWeights;
+import ai.MoveSearch;
+import model.GameCore;
+import model.GameState;
 import model.Grid;
-import model.Piece;
 import model.Player;
+import save.MoveJournal;
 import save.SaveManager;
+import save.SavedGame;
 
 /**
  * <p>
  * Core class that manages the gameplay mechanics of the Gomoku game.
  * </p>
+ * The rules themselves live in {@link model.GameCore}; this class is the console
+ * front end around it.
  * This class handles:
  * <ul>
  *   <li>Managing the players, the grid, and game state</li>
  *   <li>Starting new games and resuming loaded games</li>
  *   <li>Executing rounds of gameplay, including move validation and win checking</li>
  *   <li>Expanding the grid dynamically if enabled</li>
- *   <li>Supporting save and load operations via serialization</li>
+ *   <li>Supporting save and load operations, and an autosave journal of every move</li>
  * </ul>
  * <p>
  * It also provides getters and setters to adjust game settings such as grid size,
  * win condition length, and initial piece counts.
  *</p>
  * @author Erkin Tunç Boya
- * @version 1.8
+ * @version 1.11
  * @since 2025-03-26
  */
 public class GameEngine {
@@ -57,7 +77,39 @@ public class GameEngine {
     private Player currentPlayer;
     /** Flag to indicate if the game is over. */
     private boolean gameOver = false;
-    /** Scanner for user input. */
+    /** The rules of the game being played (moves, wins, draws, expansions). */
+    private GameCore core;
+    /** Console front end of the core, printing its events after each redraw. */
+    private ConsoleGameListener console;
+    /** Draws the grid of the core, only the changed cells after the first frame. */
+    private DiffRenderer renderer;
+    /** Last save started from the menu, until its result is shown. */
+    private CompletableFuture<Path> pendingSave;
+    /** Autosave of the game being played, {@code null} if it could not be created. */
+    private MoveJournal journal;
+    /** File of the autosave journal, which can be loaded like a save. */
+    static final Path AUTOSAVE = Paths.get("data", "autosave" + MoveJournal.EXTENSION);
+    /** Moves of a loaded game since its start, used by the next {@link #resumeGame()}; {@code null} if unknown. */
+    private int[] loadedHistory;
+    /** Grid size at the start of the loaded game (with {@link #loadedHistory}). */
+    private int loadedStartSize;
+    /** Thread searching the moves of computer players, so that the console is not blocked. */
+    private static final ExecutorService AI_THREAD = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ai-search");
+        t.setDaemon(true);
+        return t;
+    });
+    /** Thread reading the console lines, so that the AI's search and the user can be waited for together. */
+    private static final ExecutorService INPUT_THREAD = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "console-input");
+        t.setDaemon(true);
+        return t;
+    });
+    /** Time between two progress reports of a long search (and before the first one). */
+    private static final long PROGRESS_NANOS = 200_000_000L;
+    /** Console line being read on the {@link #INPUT_THREAD}, {@code null} if none is asked for. */
+    private CompletableFuture<String> pendingLine;
+    /** Scanner for user input, read only on the {@link #INPUT_THREAD} (see {@link #readLine()}). */
     Scanner scanner = new Scanner(System.in);
 
     /**
@@ -73,6 +125,23 @@ public class GameEngine {
      * @throws IllegalArgumentException if gridSize is less than winLength.
      */
     public GameEngine(int gridSize, int playerPiece, int winLength) {
+        validateSettings(gridSize, playerPiece, winLength);
+        this.gridSize = gridSize;
+        this.playerPiece = playerPiece;
+        this.winLength = winLength;
+        this.grid = new Grid(gridSize);
+    }
+
+    /**
+     * Checks the rules of a game, like the constructor does, without creating anything
+     * (used by {@link Arena}, so both always accept the same settings).
+     *
+     * @param gridSize size of the grid (must be odd)
+     * @param playerPiece number of pieces each player starts with
+     * @param winLength number of pieces needed to win
+     * @throws IllegalArgumentException if the settings are invalid (see {@link #GameEngine(int, int, int)})
+     */
+    public static void validateSettings(int gridSize, int playerPiece, int winLength) {
         if (gridSize % 2 != 1) {
             throw new IllegalArgumentException("Grid size should be odd");
         }
@@ -88,10 +157,6 @@ public class GameEngine {
         if (winLength <= 2) {
             throw new IllegalArgumentException("Win Length should be more than 2");
         }
-        this.gridSize = gridSize;
-        this.playerPiece = playerPiece;
-        this.winLength = winLength;
-        this.grid = new Grid(gridSize);
     }
 
     /**
@@ -108,9 +173,8 @@ public class GameEngine {
      * This method:
      * <ul>
      *   <li>Clears the console screen for a fresh start</li>
-     *   <li>Calculates the center coordinates based on the current grid size</li>
-     *   <li>Creates and places the first piece for Player 1 at the center</li>
-     *   <li>Displays a message indicating the first move's placement</li>
+     *   <li>Creates the {@link GameCore} holding the rules, with the console as its listener</li>
+     *   <li>Lets the core place Player 1's first piece at the center</li>
      *   <li>Switches the turn to Player 2 after the first move</li>
      * </ul>
      * <p>
@@ -120,22 +184,10 @@ public class GameEngine {
 
         ColorInConsole.clearScreen();
 
-        int gridSize = this.grid.getSize();
-        int player1Color = player1.getPlayerColor();
-
-        int centerLocation = (gridSize - 1) / 2;
-
-        // Creating a Piece
-        Piece piece = new Piece(player1Color, centerLocation, centerLocation);
-
-        // Placing the first piece
-        this.grid.placeTheFirstPiece(centerLocation, centerLocation, piece);
+        this.core = newCore();
+        core.start(); // places the center piece and gives the turn to player2
 
-        // Playing the first piece
-        System.out.println(ColorInConsole.BrightBlue + player1.getName() + " placed the first piece at (" + centerLocation + ", " + centerLocation + ")" +"automatically." +ColorInConsole.Reset);
-
-        //Change the Current Player
-        this.currentPlayer = player2;
+        syncFromCore();
     }
 
     /**
@@ -144,14 +196,13 @@ public class GameEngine {
      * This method handles:
      * <ul>
      *   <li>Displaying the current player's status (name, remaining pieces, win length)</li>
-     *   <li>Presenting in-game options: play a move, save the game, or exit to the main menu</li>
+     *   <li>Presenting in-game options: play a move, save the game, exit to the main menu, or move the view</li>
      *   <li>Managing the player's chosen action (move, save, or exit)</li>
-     *   <li>Validating the move and checking for win conditions or a draw</li>
-     *   <li>Switching turns between players if the game continues</li>
+     *   <li>Submitting the move to the {@link GameCore}, which checks it and applies the rules</li>
      * </ul>
      * 
      *
-     * @see save.SaveManager#saveGame(String, model.Grid, model.Player, model.Player)
+     * @see save.SaveManager#saveGameAsync(String, save.SavedGame)
      */
     public void playRound() {
 
@@ -166,69 +217,69 @@ public class GameEngine {
         String midTurmOptionsString = "1. Play move" + "\n"
                                     + "2. Save game" + "\n"
                                     + "3. Exit to main menu" + "\n"
+                                    + "4. Move the view" + "\n"
                                     + ColorInConsole.BrightBlack + "Choose an option: " + ColorInConsole.Reset;
 
         midTurmOptionsString = ConvertToJavaStringLiteral.addTabToEachLine(midTurmOptionsString);
         System.out.print(midTurmOptionsString);                        
         
-        String option = scanner.nextLine().trim();
+        String option = readLine().trim();
     
         switch (option) {
             case "1":
-                // Normal gameplay: player plays a move
-                int[] coords = currentPlayer.choosePieceLocation(this.grid);
-                int row = coords[0];
-                int col = coords[1];
+                // Normal gameplay: player plays a move (the AI thinks in the background)
+                int[] coords = currentPlayer instanceof AIPlayer ai ? think(ai) : currentPlayer.choosePieceLocation(this.grid);
+                if (coords == null) {
+                    return; // search cancelled: back to the options
+                }
     
                 try {
-                    currentPlayer.play(grid, row, col);
+                    core.submitMove(coords[0], coords[1]); // win, draw, expansion and turn switch happen here
                 } catch (IllegalArgumentException e) {
                     System.out.println(ColorInConsole.Red + "Invalid move: " + e.getMessage() + ColorInConsole.Reset);
                     return; // Same player retries
                 }
-
-    
-                // Check for win
-                if (currentPlayer.hasWon(grid, row, col, winLength)) {
-                    System.out.println(currentPlayer.getName() + " wins!");
-                    gameOver = true;
-                    Gomoku.pressToContinue(scanner);
-                    return;
+                syncFromCore();
+
+                if (core.isTerminal()) {
+                    // Show the final position with the result
+                    renderer.render(grid);
+                    console.flush();
+                    printAnalysis();
+                    pressToContinue();
                 }
-    
-                // Check for draw
-                if (grid.isGridFull()) {
-                    if (!expendibleGrid) {
-                        System.out.println(ColorInConsole.Yellow + "Draw! The board is full." + ColorInConsole.Reset);
-                        gameOver = true;
-                        Gomoku.pressToContinue(scanner);
-                        return;
-                    } else {
-                        System.out.println("Grid is full, will be expanded soon.");
-                    }
-                }
-    
-                // Switch turns
-                currentPlayer = (currentPlayer == player1) ? player2 : player1;
                 break;
     
             case "2":
                 // Save Game
                 System.out.print("Enter filename to save (example: save.dat): ");
-                String filename = scanner.nextLine().trim();
-                SaveManager.saveGame(filename, this.grid, this.player1, this.player2);
-                System.out.println("Game saved successfully.");
+                String filename = readLine().trim();
+                pendingSave = SaveManager.saveGameAsync(filename, toSavedGame()); // the game goes on while it is written
+                System.out.println("Saving in the background...");
                 break;
     
             case "3":
                 // Exit to Main Menu
                 System.out.println("Exiting to Main Menu...");
+                core.abort();
                 gameOver = true;
+                closeJournal(); // kept, so the game can be loaded again from the autosave
                 break;
     
+            case "4":
+                // Pan, zoom or center the part of the grid which is shown
+                System.out.print("View (w/a/s/d pan, +/- zoom, f follow the game, row,col center): ");
+                try {
+                    renderer.getViewport().apply(readLine().trim());
+                } catch (IllegalArgumentException e) {
+                    System.out.println(ColorInConsole.Red + e.getMessage() + ColorInConsole.Reset);
+                    pressToContinue();
+                }
+                break;
+
             default:
-                System.out.println(ColorInConsole.Red + "Invalid option. Please select 1, 2, or 3." + ColorInConsole.Reset);
-                Gomoku.pressToContinue(scanner);
+                System.out.println(ColorInConsole.Red + "Invalid option. Please select 1, 2, 3 or 4." + ColorInConsole.Reset);
+                pressToContinue();
                 break;
         }
     }
@@ -236,50 +287,20 @@ public class GameEngine {
     /**
      * Runs the main gameplay loop after the first move.
      * <p>
-     * This method manages the overall flow of the game:
-     * <ul>
-     *   <li>Handles player turns and checks if a player has run out of pieces</li>
-     *   <li>Detects when the grid is full and dynamically expands it if expandable mode is enabled</li>
-     *   <li>Ends the game when a player wins or when both players have no pieces left (draw)</li>
-     * </ul>
-     * <p>
-     * The game continues in a loop until a win condition or draw is detected.
+     * The rules (piece exhaustion, draws, grid expansion) are applied by the
+     * {@link GameCore}; this loop only redraws the grid, shows the messages of the
+     * last turn and plays rounds until the game is over.
      */
     public void playGame() {
         playFirstRound();
-
-        while (!gameOver) {
-            ColorInConsole.clearScreen(); // Clear the console
-            System.out.println(grid); // Display the current grid
-            
-            // Check if both players are out of pieces
-            if (player1.getPieceNum() <= 0 && player2.getPieceNum() <= 0) {
-                System.out.println(ColorInConsole.Yellow + "Both players are out of pieces. Game over! It's a draw!" + ColorInConsole.Reset);
-                break;
-            }
-            
-            // Skip player's turn if they're out of pieces
-            if (currentPlayer == player1 && player1.getPieceNum() <= 0) {
-                System.out.println(ColorInConsole.Yellow + currentPlayer.getName() + " has no pieces left. Skipping turn." + ColorInConsole.Reset);
-                setCurrentPlayer(player2);
-                
-            }
-            if (currentPlayer == player2 && player2.getPieceNum() <= 0) {
-                System.out.println(ColorInConsole.Yellow + currentPlayer.getName() + " has no pieces left. Skipping turn." + ColorInConsole.Reset);
-                setCurrentPlayer(player1);
-                
-            }
-            // Play normal round
-            playRound();
-
-            expandGridIfNeeded(); // Check if we need to expand the grid
-        }
+        runLoop();
     }
 
     /**
      * Resumes an already started game, typically after loading a saved state.
      *
-     * <p>This method displays the current grid and re-enters the game loop, managing:
+     * <p>A new {@link GameCore} is created on the loaded grid and continues with
+     * the current player. It manages:
      * <ul>
      *   <li>Player turns (Human vs Human or Human vs AI)</li>
      *   <li>Piece exhaustion: skips players who have no remaining pieces</li>
@@ -294,30 +315,241 @@ public class GameEngine {
      *
      */
     public void resumeGame() {
-        this.gameOver = false;
-        System.out.println(grid); // Display the current grid
+        this.core = newCore();
+        if (loadedHistory != null) {
+            core.resume(currentPlayer, loadedStartSize, loadedHistory);
+            loadedHistory = null;
+        } else {
+            core.resume(currentPlayer);
+        }
+        syncFromCore();
 
+        if (gameOver) { // e.g. both players were already out of pieces
+            System.out.println(grid);
+            console.flush();
+            pressToContinue();
+            return;
+        }
+        runLoop();
+    }
+
+    /**
+     * Redraws the grid and plays rounds until the game is over.
+     */
+    private void runLoop() {
         while (!gameOver) {
-            
-            System.out.println(currentPlayer.getName() + "'s turn:"); // Display current player's name
+            renderer.render(grid); // Only the cells changed by the last turn
+            console.flush(); // Moves, skipped turns and expansions of the last turn
+            reportSave();
 
-            if (player1.getPieceNum() <= 0 && player2.getPieceNum() <= 0) {
-                System.out.println(ColorInConsole.Yellow + "Both players are out of pieces. Game over! It's a draw!" + ColorInConsole.Reset);
-                break;
+            // Play normal round
+            playRound();
+        }
+    }
+
+    /**
+     * Prints where each player went wrong in the finished game (see {@link BlunderAnalyzer}).
+     * Games loaded without their full history cannot be replayed, so they are not analysed.
+     */
+    private void printAnalysis() {
+        if (!core.hasFullHistory()) {
+            return;
+        }
+        try {
+            BlunderAnalyzer.Report report = BlunderAnalyzer.analyze(core.toRecord(), EvalWeights.startup(),
+                    Runtime.getRuntime().availableProcessors());
+            System.out.println(ColorInConsole.BrightBlack + "Game analysis:\n" + report + ColorInConsole.Reset);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.out.println(ColorInConsole.Red + "Analysis failed: " + e.getMessage() + ColorInConsole.Reset);
+        }
+    }
+
+    /**
+     * Searches the move of a computer player on the {@link #AI_THREAD} while the
+     * console stays responsive. A quick search returns silently; a long one shows its
+     * progress, and the user can press Enter to play the best move so far or type
+     * {@code c} to cancel it. The search has stopped reading the grid when this returns.
+     *
+     * @param ai the computer player
+     * @return the move {row, col}, or {@code null} if the search was cancelled
+     */
+    private int[] think(AIPlayer ai) {
+        AtomicLong shown = new AtomicLong(); // 0 until the hint is printed
+        MoveSearch search = MoveSearch.start(ai, grid, AI_THREAD, (evaluated, candidates, best, score) -> {
+            long last = shown.get();
+            long now = System.nanoTime();
+            if (last != 0 && now - last > PROGRESS_NANOS && shown.compareAndSet(last, now)) {
+                System.out.print("\r" + ColorInConsole.BrightBlack + "Thinking: " + evaluated + "/" + candidates
+                        + " moves, best (" + best[0] + ", " + best[1] + ") score " + score + ColorInConsole.Reset);
             }
-    
-            if (currentPlayer == player1 && player1.getPieceNum() <= 0) {
-                System.out.println(ColorInConsole.Yellow + currentPlayer.getName() + " has no pieces left. Skipping turn." + ColorInConsole.Reset);
-                setCurrentPlayer(player2);
+        });
+        try {
+            try {
+                return search.result().get(PROGRESS_NANOS, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // a long search: let the user stop it
             }
-            if (currentPlayer == player2 && player2.getPieceNum() <= 0) {
-                System.out.println(ColorInConsole.Yellow + currentPlayer.getName() + " has no pieces left. Skipping turn." + ColorInConsole.Reset);
-                setCurrentPlayer(player1);
+            System.out.println(ColorInConsole.BrightBlack + "Press Enter to move now, or type c to cancel."
+                    + ColorInConsole.Reset);
+            shown.set(System.nanoTime());
+            CompletableFuture<String> input = nextLineAsync();
+            CompletableFuture.anyOf(search.result(), input).handle((done, failure) -> null).get();
+            if (search.result().isDone()) {
+                return search.result().get(); // a line typed meanwhile is kept for the next question
+            }
+            String line;
+            try {
+                line = readLine();
+            } catch (RuntimeException e) {
+                search.cancel(); // no console left: do not search for nobody
+                search.stopped().join();
+                throw e;
+            }
+            if (line.trim().equalsIgnoreCase("c")) {
+                search.cancel();
+                search.stopped().join();
+                System.out.println("\n" + ColorInConsole.Red + "Search cancelled." + ColorInConsole.Reset);
+                return null;
+            }
+            return search.moveNow();
+        } catch (InterruptedException e) {
+            search.cancel();
+            search.stopped().join();
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("AI failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Starts reading the next console line on the {@link #INPUT_THREAD}, unless a line
+     * is already being read.
+     *
+     * @return the line
+     */
+    private CompletableFuture<String> nextLineAsync() {
+        if (pendingLine == null) {
+            pendingLine = CompletableFuture.supplyAsync(scanner::nextLine, INPUT_THREAD);
+        }
+        return pendingLine;
+    }
+
+    /**
+     * Reads the next console line. Every line of the game is read through here, so a
+     * line asked for by {@link #think(AIPlayer)} and not used is not lost.
+     *
+     * @return the line
+     */
+    private String readLine() {
+        try {
+            return nextLineAsync().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause; // e.g. the end of the input, like Scanner.nextLine()
+            }
+            throw e;
+        } finally {
+            pendingLine = null;
+        }
+    }
+
+    /**
+     * Waits for the user to press Enter (see {@link Gomoku#pressToContinue(Scanner)}).
+     */
+    private void pressToContinue() {
+        System.out.println(ColorInConsole.Yellow + "\n\tPress anything to continue..." + ColorInConsole.Reset);
+        readLine();
+    }
+
+    /**
+     * Prints the result of the last background save once it is finished.
+     */
+    private void reportSave() {
+        if (pendingSave == null || !pendingSave.isDone()) {
+            return;
+        }
+        try {
+            Path file = pendingSave.join();
+            System.out.println(ColorInConsole.Green + "Game saved to " + file + ColorInConsole.Reset);
+        } catch (CompletionException e) {
+            System.out.println(ColorInConsole.Red + "Save failed: " + e.getCause().getMessage() + ColorInConsole.Reset);
+        }
+        pendingSave = null;
+    }
+
+    /**
+     * Creates the game core for the current grid, players and settings,
+     * with a fresh console listener.
+     *
+     * @return the new core
+     */
+    private GameCore newCore() {
+        GameCore newCore = new GameCore(grid, player1, player2, playerPiece, winLength, expendibleGrid);
+        this.console = new ConsoleGameListener();
+        newCore.addListener(console);
+        this.renderer = new DiffRenderer();
+        newCore.addListener(renderer);
+        openJournal(newCore);
+        return newCore;
+    }
+
+    /**
+     * Starts the autosave journal of a new core. A game without autosave can still
+     * be played, so a failure is only reported.
+     *
+     * @param newCore the core to journal
+     */
+    private void openJournal(GameCore newCore) {
+        closeJournal();
+        try {
+            AUTOSAVE.toFile().getParentFile().mkdirs();
+            journal = new MoveJournal(AUTOSAVE, 16, 200); // checkpoint every 16 turns, force every 200 ms
+            newCore.addListener(journal);
+        } catch (IOException e) {
+            journal = null;
+            System.out.println(ColorInConsole.Red + "Autosave disabled: " + e.getMessage() + ColorInConsole.Reset);
+        }
+    }
+
+    /**
+     * Closes the autosave journal. When the game ended with a result the journal is
+     * deleted, because there is nothing left to resume.
+     */
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (core != null && core.isTerminal() && core.getStatus() != GameState.Status.ABORTED) {
+                journal.discard();
+            } else {
+                journal.close();
+            }
+        } catch (IOException e) {
+            System.out.println(ColorInConsole.Red + "Autosave error: " + e.getMessage() + ColorInConsole.Reset);
+        }
+        journal = null;
+    }
+
+    /**
+     * Copies the state of the core into the fields used by the menus and getters.
+     * The grid is a new object after an expansion, so it must be read again after every move.
+     */
+    private void syncFromCore() {
+        this.grid = core.getGrid();
+        this.currentPlayer = core.getCurrentPlayer();
+        this.gameOver = core.isTerminal();
+        if (gameOver && core.getStatus() != GameState.Status.ABORTED) {
+            closeJournal();
+            if (core.hasFullHistory()) {
+                try {
+                    SaveManager.archiveGame(core.toRecord()); // archived and indexed in the background
+                } catch (IllegalArgumentException e) { // rules too big for a record
+                    System.out.println(ColorInConsole.Red + "Archive Error! Can't archive the game. \n "
+                            + e.getMessage() + ColorInConsole.Reset);
+                }
             }
-    
-            playRound();
-    
-            expandGridIfNeeded(); // Check if we need to expand the grid
         }
     }
 
@@ -328,6 +560,48 @@ public class GameEngine {
         this.grid = new Grid(gridSize);
         this.gameOver = false;
         this.currentPlayer = player1; // Player 1 always starts first
+        this.core = null;
+        this.loadedHistory = null;
+    }
+
+    /**
+     * Takes what must be saved from the current game: grid, players, player to move,
+     * settings, and the moves if the game was played from its start.
+     *
+     * @return the game to give to {@link SaveManager#saveGame(String, SavedGame)}
+     */
+    public SavedGame toSavedGame() {
+        if (core != null) {
+            return SavedGame.fromCore(core);
+        }
+        return new SavedGame(grid, player1, player2, currentPlayer, winLength, playerPiece,
+                expendibleGrid, 0, new int[0]);
+    }
+
+    /**
+     * Puts a loaded game in place; call {@link #resumeGame()} to continue it.
+     * Saves without settings (old serialized files) keep the current settings.
+     *
+     * @param saved the loaded game
+     * @throws IllegalArgumentException if {@code saved} is null
+     */
+    public void restore(SavedGame saved) {
+        if (saved == null) {
+            throw new IllegalArgumentException("Saved game cannot be null.");
+        }
+        this.grid = saved.getGrid();
+        this.player1 = saved.getPlayer1();
+        this.player2 = saved.getPlayer2();
+        this.currentPlayer = saved.getCurrentPlayer();
+        if (saved.hasSettings()) {
+            this.winLength = saved.getWinLength();
+            this.playerPiece = saved.getPlayerPiece();
+            this.expendibleGrid = saved.isExpandable();
+        }
+        this.loadedHistory = saved.hasHistory() ? saved.getMoves() : null;
+        this.loadedStartSize = saved.getStartSize();
+        this.gameOver = false;
+        this.core = null;
     }
 
     /**
@@ -339,40 +613,13 @@ public class GameEngine {
         return gameOver;
     }
 
-
     /**
-     * Expands the grid size dynamically if expansion is enabled and the current grid is full.
-     * 
-     * <p>
-     * This method checks if the grid is full and whether expandable mode is active.
-     * If both conditions are satisfied:
-     * </p>
-     * 
-     *  <ul>
-     *   <li>The grid size is doubled (following the formula 2n-1 to keep it odd).</li>
-     *   <li>The existing grid data is transferred into a new, larger grid.</li>
-     *   <li>Both players are granted additional pieces based on the starting piece count.</li>
-     *   <li>A success message is displayed to indicate the grid expansion and new pieces awarded.</li>
-     *  </ul>
-     * 
-     * <p>
-     * If the grid is not full or expandable mode is disabled, this method does nothing.
-     * </p>
-     * 
-     * @see model.Grid#expandGrid(int)
-     */
-    private void expandGridIfNeeded(){
-        if (expendibleGrid && grid.isGridFull()) {
-            int newSize = grid.getSize() * 2 - 1; // Make sure it stays odd
-            grid = grid.expandGrid(newSize);
-            System.out.println(ColorInConsole.Green +"Grid has been expanded to " + newSize + "x" + newSize + ColorInConsole.Reset);
-            
-            // Give players more pieces when the grid expands
-            int additionalPieces = playerPiece;//startingPieces / 2;
-            player1.setPieceNum( player1.getPieceNum() + additionalPieces);
-            player2.setPieceNum( player2.getPieceNum() + additionalPieces);
-            System.out.println(ColorInConsole.Green + "Each player received " + additionalPieces + " additional pieces." + ColorInConsole.Reset);
-        }
+     * Gets the rules object of the game being played.
+     *
+     * @return the game core, or {@code null} before the first game starts
+     */
+    public GameCore getCore() {
+        return core;
     }
 
 
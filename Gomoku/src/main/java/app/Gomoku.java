@@ -3,10 +3,10 @@ package app;
 import java.util.Scanner;
 
 import ai.AIPlayer;
-import model.Grid;
 import model.Human;
 import model.Player;
 import save.SaveManager;
+import save.SavedGame;
 import util.*; 
 
 
@@ -35,7 +35,7 @@ java -cp target/classes app.Gomoku
  * This class is responsible for:
  * <ul>
  *   <li>Displaying the ASCII art logo and main menu</li>
- *   <li>Handling user choices to start a new game, load a game, access settings, or exit</li>
+ *   <li>Handling user choices to start a new game, load a game, watch the computer play, access settings, or exit</li>
  *   <li>Managing game settings through a dedicated settings menu</li>
  *   <li>Initializing a {@link app.GameEngine} instance to control gameplay</li>
  * </ul>
@@ -44,7 +44,7 @@ java -cp target/classes app.Gomoku
  * </p>
  * 
  * @author Erkin Tunç Boya
- * @version 1.7
+ * @version 1.8
  * @since 2025-03-26
  */
 public class Gomoku {
@@ -101,7 +101,8 @@ public class Gomoku {
                 + "2. Play Against Computer\n"
                 + "3. Load Game\n"
                 + "4. Settings\n"
-                + "5. Exit\n"
+                + "5. Watch Computer vs Computer\n"
+                + "6. Exit\n"
                 + ColorInConsole.BrightBlack + "Choose an option: " + ColorInConsole.Reset;
 
         mainMenu = ConvertToJavaStringLiteral.addTabToEachLine(mainMenu);
@@ -131,6 +132,9 @@ public class Gomoku {
                     settingsMenu(game);
                     break;
                 case 5:
+                    watchAIGames(scannerMain, game); // AI vs AI
+                    break;
+                case 6:
                     System.out.println(ColorInConsole.BrightBlack + "Exiting the game..." + ColorInConsole.Reset);
                     System.exit(0); // Exit the program
                     break;
@@ -203,6 +207,27 @@ public class Gomoku {
         game.playGame();
     }
     
+    /**
+     * Shows a series of computer-vs-computer games played at full speed with the
+     * current settings (see {@link Spectator}).
+     *
+     * @param scannerMain is a scanner
+     * @param game the {@link GameEngine} instance holding the settings
+     */
+    private void watchAIGames(Scanner scannerMain, GameEngine game) {
+        System.out.print("Number of games: ");
+        int games = safeNextInt(scannerMain);
+        try {
+            new Spectator(game.getGridSize(), game.getPlayerPiece(), game.getWinLength(), game.isExpandableGrid(),
+                    games, Spectator.DEFAULT_FPS).run();
+        } catch (IllegalArgumentException e) {
+            System.out.println(ColorInConsole.Red + e.getMessage() + ColorInConsole.Reset);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pressToContinue(scannerMain);
+    }
+
     /**
      * <p>
      * Loads a previously saved game(which is choosen by the user from a list of saved games) from disk and resumes gameplay.
@@ -225,14 +250,11 @@ public class Gomoku {
             return;
         }
                     
-        Object[] loadedData = SaveManager.loadGame(filename);
+        SavedGame loadedData = SaveManager.loadGame(filename);
 
 
     if (loadedData != null) {
-        game.setGrid((Grid) loadedData[0]);
-        game.setPlayer1((Player) loadedData[1]);
-        game.setPlayer2((Player) loadedData[2]);
-        game.setCurrentPlayer(game.getPlayer1());
+        game.restore(loadedData);
 
         // If player1 is a Human, reinitialize its Scanner
         if (game.getPlayer1() instanceof Human) {
@@ -246,7 +268,7 @@ public class Gomoku {
 
         // Display loaded game attributes
         System.out.println(
-            "Grid Size: " + game.getGridSize() + "\n" +
+            "Grid Size: " + game.getGrid().getSize() + "\n" +
             "Win Length: " + game.getWinLength() + "\n" +
             "Player 1: " + game.getPlayer1().getName() + "\n" +
             "Player 2: " + game.getPlayer2().getName()
@@ -0,0 +1,335 @@
+package app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import ai.AIPlayer;
+import ai.TimeManager;
+import model.Grid;
+
+/**
+ * Headless engine speaking the Gomocup (Piskvork) protocol on standard input and
+ * output, so the AI can play under the usual tournament managers.
+ * <p>
+ * Commands: {@code START size}, {@code RECTSTART w,h} (square boards only),
+ * {@code RESTART}, {@code INFO key value} ({@code timeout_turn}, {@code timeout_match},
+ * {@code time_left}; other keys are ignored), {@code BEGIN}, {@code TURN x,y},
+ * {@code BOARD} followed by {@code x,y,who} lines and {@code DONE},
+ * {@code TAKEBACK x,y}, {@code ABOUT} and {@code END}. Coordinates are {@code x,y}
+ * = column, row from 0, and the answer to a move command is the engine's move
+ * {@code x,y}. Five or more in a row win (freestyle); the Gomoku rule that a piece
+ * must touch another one is not applied to the opponent.
+ * </p>
+ *
+ * <p>
+ * Each move is chosen by the {@link AIPlayer} with the deadline given by a
+ * {@link TimeManager} from the limits of the match. Boards with an even size are
+ * played on the next odd {@link Grid}, whose last row and column stay out of play.
+ * </p>
+ *
+ * Usage (as the engine command of a manager):
+ * <pre>{@code
+ * java -cp target/classes app.PiskvorkEngine
+ * }</pre>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-13
+ */
+public class PiskvorkEngine {
+
+    /** Aligned pieces needed to win (freestyle Gomoku). */
+    private static final int WIN_LENGTH = 5;
+    /** Color of the engine's pieces. */
+    private static final int OWN = 1;
+    /** Color of the opponent's pieces. */
+    private static final int OPPONENT = 0;
+    /** Smallest board accepted. */
+    private static final int MIN_SIZE = 5;
+    /** Largest board accepted. */
+    private static final int MAX_SIZE = 99;
+
+    /** Commands from the manager. */
+    private final BufferedReader in;
+    /** Answers to the manager. */
+    private final PrintWriter out;
+    /** Time limits of the match. */
+    private final TimeManager time = new TimeManager();
+    /** The engine. */
+    private final AIPlayer ai = new AIPlayer("Gomoku", OWN, WIN_LENGTH);
+
+    /** Size of the board, 0 before {@code START}. */
+    private int size;
+    /** Size of the grid (the board size, made odd). */
+    private int gridSize;
+    /** The cells row by row: 0 empty, 1 opponent, 2 engine (like {@link Grid#toBoardImage()}). */
+    private byte[] cells;
+
+    /**
+     * Creates an engine.
+     *
+     * @param in the commands
+     * @param out the answers
+     */
+    public PiskvorkEngine(Reader in, Writer out) {
+        this.in = new BufferedReader(in);
+        this.out = new PrintWriter(out, true);
+    }
+
+    /**
+     * Answers commands until {@code END} or the end of the input.
+     *
+     * @throws IOException if the input cannot be read
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            String command = (space < 0 ? line : line.substring(0, space)).toUpperCase();
+            String argument = space < 0 ? "" : line.substring(space + 1).trim();
+            if (command.equals("END")) {
+                return;
+            }
+            try {
+                handle(command, argument);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                out.println("ERROR " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param command the command, in upper case
+     * @param argument the rest of the line
+     * @throws IOException if the lines of {@code BOARD} cannot be read
+     */
+    private void handle(String command, String argument) throws IOException {
+        switch (command) {
+            case "START" -> start(parseInt(argument));
+            case "RECTSTART" -> {
+                int[] wh = parsePair(argument);
+                if (wh[0] != wh[1]) {
+                    throw new IllegalArgumentException("only square boards are supported");
+                }
+                start(wh[0]);
+            }
+            case "RESTART" -> start(requireStarted());
+            case "INFO" -> info(argument);
+            case "BEGIN" -> {
+                requireStarted();
+                play();
+            }
+            case "TURN" -> {
+                int[] xy = parsePair(argument);
+                place(xy[0], xy[1], OPPONENT);
+                play();
+            }
+            case "BOARD" -> board();
+            case "TAKEBACK" -> {
+                int[] xy = parsePair(argument);
+                requireStarted();
+                checkInside(xy[0], xy[1]);
+                cells[xy[1] * gridSize + xy[0]] = 0;
+                out.println("OK");
+            }
+            case "ABOUT" -> out.println("name=\"Gomoku\", version=\"1.0\", author=\"Erkin Tunc Boya\"");
+            default -> out.println("UNKNOWN " + command);
+        }
+    }
+
+    /**
+     * Starts a game on an empty board.
+     *
+     * @param boardSize the board size
+     * @throws IllegalArgumentException if the size is not supported
+     */
+    private void start(int boardSize) {
+        if (boardSize < MIN_SIZE || boardSize > MAX_SIZE) {
+            throw new IllegalArgumentException("unsupported size " + boardSize);
+        }
+        size = boardSize;
+        gridSize = boardSize | 1;
+        cells = new byte[gridSize * gridSize];
+        out.println("OK");
+    }
+
+    /**
+     * Reads a limit of the match.
+     *
+     * @param argument the key and the value
+     */
+    private void info(String argument) {
+        String[] kv = argument.split("\\s+", 2);
+        if (kv.length < 2) {
+            return; // INFO has no answer, not even an error
+        }
+        try {
+            long value = Long.parseLong(kv[1].trim());
+            switch (kv[0].toLowerCase()) {
+                case "timeout_turn" -> time.setTurnMillis(value);
+                case "timeout_match" -> time.setMatchMillis(value);
+                case "time_left" -> time.setTimeLeftMillis(value);
+                default -> { } // max_memory, game_type, rule, folder: nothing to adapt
+            }
+        } catch (IllegalArgumentException e) {
+            // ignored like unknown keys
+        }
+    }
+
+    /**
+     * Reads a whole position ({@code x,y,who} lines until {@code DONE}), then plays.
+     *
+     * @throws IOException if the lines cannot be read
+     */
+    private void board() throws IOException {
+        requireStarted();
+        cells = new byte[gridSize * gridSize];
+        String line;
+        String error = null;
+        while ((line = in.readLine()) != null && !line.trim().equalsIgnoreCase("DONE")) {
+            String[] parts = line.trim().split(",");
+            try {
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("bad board line " + line.trim());
+                }
+                int who = Integer.parseInt(parts[2].trim());
+                if (who != 1 && who != 2) {
+                    throw new IllegalArgumentException("bad stone owner " + who);
+                }
+                place(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), who == 1 ? OWN : OPPONENT);
+            } catch (IllegalArgumentException e) {
+                if (error == null) {
+                    error = e.getMessage(); // keep reading until DONE
+                }
+            }
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        play();
+    }
+
+    /**
+     * Chooses, places and sends the engine's move.
+     */
+    private void play() {
+        long start = System.nanoTime();
+        int row;
+        int col;
+        boolean empty = true;
+        for (byte cell : cells) {
+            if (cell != 0) {
+                empty = false;
+                break;
+            }
+        }
+        if (empty) {
+            row = (size - 1) / 2;
+            col = (size - 1) / 2;
+        } else {
+            Grid grid = Grid.fromBoardImage(gridSize, cells);
+            int[] move = ai.choosePieceLocation(grid, WIN_LENGTH, size, time.deadline(start));
+            row = move[0];
+            col = move[1];
+        }
+        cells[row * gridSize + col] = OWN + 1;
+        time.moveDone((System.nanoTime() - start) / 1_000_000);
+        out.println(col + "," + row);
+    }
+
+    /**
+     * Puts a piece on the board.
+     *
+     * @param x the column
+     * @param y the row
+     * @param color the color of the piece
+     * @throws IllegalArgumentException if the cell is outside the board or taken
+     */
+    private void place(int x, int y, int color) {
+        requireStarted();
+        checkInside(x, y);
+        if (cells[y * gridSize + x] != 0) {
+            throw new IllegalArgumentException("cell " + x + "," + y + " is taken");
+        }
+        cells[y * gridSize + x] = (byte) (color + 1);
+    }
+
+    /**
+     * Checks that a cell is on the board.
+     *
+     * @param x the column
+     * @param y the row
+     * @throws IllegalArgumentException if it is not
+     */
+    private void checkInside(int x, int y) {
+        if (x < 0 || y < 0 || x >= size || y >= size) {
+            throw new IllegalArgumentException("cell " + x + "," + y + " is outside the board");
+        }
+    }
+
+    /**
+     * Returns the board size.
+     *
+     * @return the size
+     * @throws IllegalStateException if no game was started
+     */
+    private int requireStarted() {
+        if (size == 0) {
+            throw new IllegalStateException("no START yet");
+        }
+        return size;
+    }
+
+    /**
+     * Reads a number.
+     *
+     * @param text the text
+     * @return the number
+     * @throws IllegalArgumentException if it is not a number
+     */
+    private static int parseInt(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number " + text);
+        }
+    }
+
+    /**
+     * Reads two numbers separated by a comma.
+     *
+     * @param text the text
+     * @return the two numbers
+     * @throws IllegalArgumentException if the text is not two numbers
+     */
+    private static int[] parsePair(String text) {
+        String[] parts = text.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("expected x,y but got " + text);
+        }
+        return new int[]{parseInt(parts[0]), parseInt(parts[1])};
+    }
+
+    /**
+     * Runs the engine on standard input and output.
+     *
+     * @param args not used
+     * @throws IOException if the input cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        new PiskvorkEngine(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8)).run();
+    }
+}
@@ -0,0 +1,415 @@
+package app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small Gomocup manager for testing {@link PiskvorkEngine} (or any engine command)
+ * without a tournament program.
+ * <p>
+ * It starts two engine processes and plays games between them like Piskvork does:
+ * {@code START}, the {@code INFO} limits, then {@code BEGIN} (first game) or
+ * {@code BOARD} with a random two-stone opening (other games, and the first move of
+ * the second player), then {@code TURN} until five or more in a row or a full board. The first player alternates. Every
+ * answer is checked: it must come in time (the move limit plus a grace for the JVM)
+ * and be a free cell of the board. Lines starting with {@code MESSAGE} or
+ * {@code DEBUG} are skipped. At the end it sends {@code END} to both engines and
+ * prints the results and the slowest answer; the exit code is 1 if any rule of the
+ * protocol was broken.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes app.PiskvorkManager [games] [size] [turnMillis] [matchMillis] [engine command...]
+ * }</pre>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-13
+ */
+public class PiskvorkManager {
+
+    /** Time an answer may take over the move limit (process and JVM start-up). */
+    private static final long GRACE_MILLIS = 2_000;
+    /** Aligned pieces needed to win (freestyle). */
+    private static final int WIN_LENGTH = 5;
+
+    /**
+     * One engine process.
+     */
+    private static final class Engine implements AutoCloseable {
+
+        /** The process. */
+        private final Process process;
+        /** Commands to the engine. */
+        private final PrintWriter in;
+        /** Answer lines of the engine, read by a daemon thread. */
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        /** Name for the report. */
+        private final String name;
+        /** Time left in the match. */
+        private long timeLeft;
+        /** Slowest answer. */
+        private long slowest;
+
+        /**
+         * Starts an engine.
+         *
+         * @param command the command line
+         * @param name the name for the report
+         * @throws IOException if the process cannot be started
+         */
+        Engine(List<String> command, String name) throws IOException {
+            this.name = name;
+            this.process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            this.in = new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8), true);
+            BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                    StandardCharsets.UTF_8));
+            Thread reader = new Thread(() -> {
+                try {
+                    String line;
+                    while ((line = out.readLine()) != null) {
+                        lines.add(line.trim());
+                    }
+                } catch (IOException e) {
+                    // the engine stopped
+                }
+            }, name + "-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        /**
+         * Sends a command.
+         *
+         * @param command the command
+         */
+        void send(String command) {
+            in.println(command);
+        }
+
+        /**
+         * Waits for the next answer, skipping the messages.
+         *
+         * @param millis the longest wait
+         * @return the answer, or {@code null} if none came in time
+         * @throws InterruptedException if the manager is interrupted
+         */
+        String answer(long millis) throws InterruptedException {
+            long deadline = System.nanoTime() + millis * 1_000_000;
+            while (true) {
+                String line = lines.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (line == null) {
+                    return null;
+                }
+                if (!line.startsWith("MESSAGE") && !line.startsWith("DEBUG") && !line.isEmpty()) {
+                    return line;
+                }
+            }
+        }
+
+        /**
+         * Ends the engine, killing it if it does not stop.
+         */
+        @Override
+        public void close() {
+            send("END");
+            try {
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Board size. */
+    private final int size;
+    /** Limit of one move. */
+    private final long turnMillis;
+    /** Limit of the match, 0 for none. */
+    private final long matchMillis;
+    /** Rules broken, for the report. */
+    private final List<String> violations = new ArrayList<>();
+    /** Random opening stones. */
+    private final Random random = new Random();
+
+    /**
+     * Creates a manager.
+     *
+     * @param size the board size
+     * @param turnMillis the limit of one move
+     * @param matchMillis the limit of a match, 0 for none
+     */
+    public PiskvorkManager(int size, long turnMillis, long matchMillis) {
+        this.size = size;
+        this.turnMillis = turnMillis;
+        this.matchMillis = matchMillis;
+    }
+
+    /**
+     * Plays a match between two engines.
+     *
+     * @param games the number of games
+     * @param command the engine command line
+     * @return {@code true} if no rule was broken
+     * @throws IOException if an engine cannot be started
+     * @throws InterruptedException if the match is interrupted
+     */
+    public boolean run(int games, List<String> command) throws IOException, InterruptedException {
+        int[] wins = new int[3];
+        try (Engine first = new Engine(command, "engine1"); Engine second = new Engine(command, "engine2")) {
+            Engine[] engines = {first, second};
+            for (int game = 0; game < games && violations.isEmpty(); game++) {
+                int starter = game % 2;
+                int result = playGame(engines[starter], engines[1 - starter], game > 0);
+                wins[result < 0 ? 2 : (result == 0 ? starter : 1 - starter)]++;
+                System.out.printf("Game %d: %s%n", game + 1,
+                        result < 0 ? "draw" : engines[result == 0 ? starter : 1 - starter].name + " wins");
+            }
+            System.out.printf("engine1 %d, engine2 %d, draws %d; slowest answer %d ms / %d ms%n",
+                    wins[0], wins[1], wins[2], first.slowest, second.slowest);
+        }
+        for (String violation : violations) {
+            System.out.println("VIOLATION: " + violation);
+        }
+        return violations.isEmpty();
+    }
+
+    /**
+     * Plays one game.
+     *
+     * @param black the engine playing first
+     * @param white the other engine
+     * @param opening {@code true} to start from a random position with {@code BOARD}
+     * @return 0 if black won, 1 if white won, -1 for a draw or a broken rule
+     * @throws InterruptedException if the match is interrupted
+     */
+    private int playGame(Engine black, Engine white, boolean opening) throws InterruptedException {
+        int[][] board = new int[size][size]; // 0 empty, 1 black, 2 white
+        Engine[] players = {black, white};
+        for (Engine engine : players) {
+            engine.timeLeft = matchMillis;
+            engine.send("START " + size);
+            if (!expect(engine, "OK")) {
+                return -1;
+            }
+            engine.send("INFO timeout_turn " + turnMillis);
+            engine.send("INFO timeout_match " + matchMillis);
+            engine.send("INFO rule 0");
+        }
+
+        if (opening) {
+            int c = size / 2;
+            board[c][c] = 2; // white stone at the center, black stone next to it
+            int dr = random.nextInt(3) - 1;
+            int dc = dr == 0 ? (random.nextBoolean() ? 1 : -1) : random.nextInt(3) - 1;
+            board[c + dr][c + dc] = 1;
+        }
+
+        int[] last = null;
+        int turn = 0;
+        boolean[] synced = new boolean[2];
+        for (int ply = 0; ply < size * size; ply++) {
+            Engine mover = players[turn];
+            sendTimeLeft(mover);
+            if (!synced[turn]) {
+                sendPosition(mover, board, turn + 1);
+                synced[turn] = true;
+            } else {
+                mover.send("TURN " + last[1] + "," + last[0]);
+            }
+            long start = System.nanoTime();
+            String answer = mover.answer(turnMillis + GRACE_MILLIS);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            mover.slowest = Math.max(mover.slowest, millis);
+            if (matchMillis > 0) {
+                mover.timeLeft -= millis;
+            }
+            int[] move = check(mover, answer, board, millis);
+            if (move == null) {
+                return -1;
+            }
+            board[move[0]][move[1]] = turn + 1;
+            if (wins(board, move[0], move[1])) {
+                return turn;
+            }
+            if (isFull(board)) {
+                return -1;
+            }
+            last = move;
+            turn = 1 - turn;
+        }
+        return -1;
+    }
+
+    /**
+     * Sends the whole position to an engine for its first move: {@code BEGIN} on an
+     * empty board, {@code BOARD} otherwise.
+     *
+     * @param engine the engine
+     * @param board the board
+     * @param own the engine's value on the board
+     */
+    private void sendPosition(Engine engine, int[][] board, int own) {
+        List<String> stones = new ArrayList<>();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (board[r][c] != 0) {
+                    stones.add(c + "," + r + "," + (board[r][c] == own ? 1 : 2));
+                }
+            }
+        }
+        if (stones.isEmpty()) {
+            engine.send("BEGIN");
+            return;
+        }
+        engine.send("BOARD");
+        stones.forEach(engine::send);
+        engine.send("DONE");
+    }
+
+    /**
+     * Sends the time left in the match before a move.
+     *
+     * @param engine the engine to move
+     */
+    private void sendTimeLeft(Engine engine) {
+        if (matchMillis > 0) {
+            engine.send("INFO time_left " + Math.max(0, engine.timeLeft));
+        }
+    }
+
+    /**
+     * Checks an answer to a move command.
+     *
+     * @param engine the engine
+     * @param answer its answer, {@code null} if it did not come in time
+     * @param board the board
+     * @param millis the time the engine took
+     * @return the move {row, col}, or {@code null} if a rule was broken
+     */
+    private int[] check(Engine engine, String answer, int[][] board, long millis) {
+        if (answer == null) {
+            violations.add(engine.name + " did not answer within " + (turnMillis + GRACE_MILLIS) + " ms");
+            return null;
+        }
+        if (millis > turnMillis + GRACE_MILLIS || (matchMillis > 0 && engine.timeLeft < -GRACE_MILLIS)) {
+            violations.add(engine.name + " ran out of time (" + millis + " ms)");
+        }
+        String[] xy = answer.split(",");
+        try {
+            if (xy.length != 2) {
+                throw new NumberFormatException();
+            }
+            int col = Integer.parseInt(xy[0].trim());
+            int row = Integer.parseInt(xy[1].trim());
+            if (row < 0 || col < 0 || row >= size || col >= size || board[row][col] != 0) {
+                violations.add(engine.name + " played an illegal move: " + answer);
+                return null;
+            }
+            return new int[]{row, col};
+        } catch (NumberFormatException e) {
+            violations.add(engine.name + " answered '" + answer + "' instead of a move");
+            return null;
+        }
+    }
+
+    /**
+     * Waits for an exact answer.
+     *
+     * @param engine the engine
+     * @param expected the answer expected
+     * @return {@code true} if it came
+     * @throws InterruptedException if the match is interrupted
+     */
+    private boolean expect(Engine engine, String expected) throws InterruptedException {
+        String answer = engine.answer(turnMillis + GRACE_MILLIS);
+        if (!expected.equals(answer)) {
+            violations.add(engine.name + " answered '" + answer + "' instead of " + expected);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Tells if the piece just placed makes five or more in a row.
+     *
+     * @param board the board
+     * @param row the row of the piece
+     * @param col the column of the piece
+     * @return {@code true} if it wins
+     */
+    private boolean wins(int[][] board, int row, int col) {
+        int color = board[row][col];
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] d : directions) {
+            int count = 1;
+            for (int sign = -1; sign <= 1; sign += 2) {
+                int r = row + sign * d[0];
+                int c = col + sign * d[1];
+                while (r >= 0 && c >= 0 && r < size && c < size && board[r][c] == color) {
+                    count++;
+                    r += sign * d[0];
+                    c += sign * d[1];
+                }
+            }
+            if (count >= WIN_LENGTH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells if no cell is free.
+     *
+     * @param board the board
+     * @return {@code true} if the board is full
+     */
+    private static boolean isFull(int[][] board) {
+        for (int[] row : board) {
+            for (int cell : row) {
+                if (cell == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs a match from the command line. Without an engine command, this JVM's
+     * {@code java} runs {@link PiskvorkEngine} with the same class path.
+     *
+     * @param args optional: games, board size, move limit (ms), match limit (ms), engine command
+     * @throws IOException if an engine cannot be started
+     * @throws InterruptedException if the match is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        long turnMillis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+        long matchMillis = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        List<String> command = args.length > 4
+                ? Arrays.asList(args).subList(4, args.length)
+                : List.of(ProcessHandle.current().info().command().orElse("java"),
+                        "-cp", System.getProperty("java.class.path"), PiskvorkEngine.class.getName());
+
+        boolean ok = new PiskvorkManager(size, turnMillis, matchMillis).run(games, command);
+        System.exit(ok ? 0 : 1);
+    }
+}
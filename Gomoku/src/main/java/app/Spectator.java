@@ -0,0 +1,263 @@
+package app;
+
+import java.util.Random;
+
+import ai.AIPlayer;
+import ai.SelfPlay;
+import model.GameCore;
+import model.GameListener;
+import model.GameRecord;
+import model.GameState;
+import model.Grid;
+import model.Player;
+import util.ColorInConsole;
+
+/**
+ * Shows a series of computer-vs-computer games live, without slowing them down.
+ * <p>
+ * The games run at engine speed on their own thread ({@link SelfPlay} with a random
+ * opening each, the first player alternating). The calling thread draws a frame at
+ * a fixed rate: before each frame it asks for a sample, and the engine thread takes
+ * one {@link GameState} at its next move. Every position in between is dropped
+ * without being copied. A frame shows the grid ({@link DiffRenderer}), the game and
+ * ply, the speed of the engines in evaluated moves per second and the score of the
+ * last move. The end of a game is always sampled, but like any position it is only
+ * drawn if no newer sample replaced it before the next frame (the last game's end is
+ * always drawn).
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-08
+ */
+public class Spectator implements GameListener {
+
+    /** Default frames per second. */
+    public static final int DEFAULT_FPS = 30;
+    /** Moves of the random opening of each game. */
+    private static final int OPENING_PLIES = 4;
+
+    /**
+     * What the engine thread gives to the render thread: a position and the counters at that time.
+     */
+    private static final class Sample {
+
+        /** The position. */
+        private final GameState state;
+        /** Number of the game, from 1. */
+        private final int game;
+        /** Moves evaluated by both engines so far. */
+        private final long nodes;
+        /** Score of the last move, for the player who played it. */
+        private final int eval;
+        /** Time of the sample. */
+        private final long nanos;
+
+        /**
+         * Creates a sample.
+         *
+         * @param state the position
+         * @param game the game number
+         * @param nodes the moves evaluated so far
+         * @param eval the score of the last move
+         */
+        Sample(GameState state, int game, long nodes, int eval) {
+            this.state = state;
+            this.game = game;
+            this.nodes = nodes;
+            this.eval = eval;
+            this.nanos = System.nanoTime();
+        }
+    }
+
+    /** Starting grid size. */
+    private final int gridSize;
+    /** Pieces of each player. */
+    private final int playerPiece;
+    /** Aligned pieces needed to win. */
+    private final int winLength;
+    /** {@code true} if a full grid grows. */
+    private final boolean expandable;
+    /** Number of games to play. */
+    private final int games;
+    /** Time between two frames. */
+    private final long frameNanos;
+    /** The engine playing black (used on the engine thread). */
+    private final AIPlayer black;
+    /** The engine playing white (used on the engine thread). */
+    private final AIPlayer white;
+
+    /** Set by the render thread when it wants a new sample. */
+    private volatile boolean wanted = true;
+    /** Latest sample, published by the engine thread. */
+    private volatile Sample latest;
+    /** Number of the game being played (engine thread). */
+    private int game;
+    /** Score of the last move played (engine thread). */
+    private int lastEval;
+    /** Wins of each color and draws, written by the engine thread and read at the end. */
+    private final int[] results = new int[3];
+
+    /**
+     * Creates a spectator for a series of games.
+     *
+     * @param gridSize the starting grid size (odd)
+     * @param playerPiece the pieces of each player
+     * @param winLength the aligned pieces needed to win
+     * @param expandable {@code true} if a full grid grows instead of ending the game
+     * @param games the number of games
+     * @param fps the frames drawn per second
+     * @throws IllegalArgumentException if the number of games or the frame rate is not positive
+     */
+    public Spectator(int gridSize, int playerPiece, int winLength, boolean expandable, int games, int fps) {
+        if (games <= 0 || fps <= 0) {
+            throw new IllegalArgumentException("Games and frame rate must be positive.");
+        }
+        this.gridSize = gridSize;
+        this.playerPiece = playerPiece;
+        this.winLength = winLength;
+        this.expandable = expandable;
+        this.games = games;
+        this.frameNanos = 1_000_000_000L / fps;
+        this.black = new AIPlayer("AI-Black", 1, winLength, playerPiece);
+        this.white = new AIPlayer("AI-White", 0, winLength, playerPiece);
+    }
+
+    /**
+     * Plays the games and draws them until the last one is over.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting for a frame
+     */
+    public void run() throws InterruptedException {
+        Thread engine = new Thread(this::playAll, "spectator-engine");
+        engine.setDaemon(true);
+        long start = System.nanoTime();
+        engine.start();
+
+        DiffRenderer renderer = new DiffRenderer();
+        Sample drawn = null;
+        long nextFrame = System.nanoTime();
+        while (true) {
+            boolean finished = !engine.isAlive(); // read before the sample, so the last one is not missed
+            Sample sample = latest;
+            if (sample != null && sample != drawn) {
+                draw(renderer, sample, drawn);
+                drawn = sample;
+            }
+            if (finished && sample == latest) {
+                break;
+            }
+            wanted = true;
+            nextFrame += frameNanos;
+            long wait = nextFrame - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            } else {
+                nextFrame = System.nanoTime(); // drawing is late: skip frames instead of catching up
+            }
+        }
+        engine.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.1f s: black %d, white %d, draws %d%n", games, seconds,
+                results[1], results[0], results[2]);
+    }
+
+    /**
+     * Takes a sample when the render thread asked for one (engine thread).
+     *
+     * @param core the game
+     * @param player the player who placed the piece
+     * @param row the row of the piece
+     * @param col the column of the piece
+     */
+    @Override
+    public void onMove(GameCore core, Player player, int row, int col) {
+        lastEval = player instanceof AIPlayer ai ? ai.getLastScore() : 0;
+        if (wanted) {
+            wanted = false;
+            publish(core);
+        }
+    }
+
+    /**
+     * Publishes the final position of a won game (engine thread).
+     *
+     * @param core the game
+     * @param winner the winning player
+     */
+    @Override
+    public void onWin(GameCore core, Player winner) {
+        publish(core);
+    }
+
+    /**
+     * Publishes the final position of a drawn game (engine thread).
+     *
+     * @param core the game
+     * @param reason why the game is a draw
+     */
+    @Override
+    public void onDraw(GameCore core, String reason) {
+        publish(core);
+    }
+
+    /**
+     * Takes a sample of the game for the render thread (engine thread).
+     *
+     * @param core the game
+     */
+    private void publish(GameCore core) {
+        latest = new Sample(core.currentState(), game, black.getNodes() + white.getNodes(), lastEval);
+    }
+
+    /**
+     * Plays every game of the series (engine thread).
+     */
+    private void playAll() {
+        Random random = new Random();
+        for (game = 1; game <= games; game++) {
+            int[][] opening = SelfPlay.randomOpening(gridSize, OPENING_PLIES, random);
+            GameRecord record = game % 2 == 1
+                    ? SelfPlay.play(black, white, gridSize, playerPiece, winLength, expandable, opening, null, this)
+                    : SelfPlay.play(white, black, gridSize, playerPiece, winLength, expandable, opening, null, this);
+            results[record.getResult() == GameRecord.DRAW ? 2 : record.getResult()]++;
+        }
+    }
+
+    /**
+     * Draws one sample: the grid, then a status line.
+     *
+     * @param renderer the renderer
+     * @param sample the sample to draw
+     * @param previous the sample drawn before, {@code null} for the first one
+     */
+    private void draw(DiffRenderer renderer, Sample sample, Sample previous) {
+        GameState state = sample.state;
+        int size = state.getSize();
+        Grid grid = Grid.fromBoardImage(size, state.getCells());
+        int last = state.getLastMove();
+        int row = -1;
+        int col = -1;
+        if (last >= 0) {
+            row = GameRecord.rowOf(last);
+            col = GameRecord.colOf(last);
+            if (row >= size || col >= size || state.getCell(row, col) != GameRecord.colorOf(last)) {
+                int shift = (size - (size + 1) / 2) / 2; // played just before an expansion, on the smaller grid
+                row += shift;
+                col += shift;
+            }
+        }
+        renderer.render(grid, row, col);
+
+        double nodesPerSecond = previous == null || sample.nanos == previous.nanos ? 0
+                : (sample.nodes - previous.nodes) * 1e9 / (sample.nanos - previous.nanos);
+        String eval = sample.eval == Integer.MAX_VALUE ? "win" : String.valueOf(sample.eval);
+        String status = switch (state.getStatus()) {
+            case WON -> (state.getWinner() == 1 ? "Black" : "White") + " wins";
+            case DRAW -> "Draw";
+            default -> (state.getCurrentColor() == 1 ? "Black" : "White") + " to move";
+        };
+        System.out.printf("%sGame %d/%d  ply %d  %.0f nodes/s  eval %s  %s%s%n", ColorInConsole.Yellow,
+                sample.game, games, state.getPly(), nodesPerSecond, eval, status, ColorInConsole.Reset);
+    }
+}
@@ -0,0 +1,280 @@
+package app;
+
+import model.Grid;
+
+/**
+ * The part of the grid shown in the console: a square window of at most {@code span} cells.
+ * <p>
+ * By default the window follows the game: it is centered on the box around all the
+ * pieces, or on the last move when the box does not fit. The player can also pan
+ * it, zoom it (show more or fewer cells) or center it on a cell. The labels around
+ * the window keep the real row and column numbers, so moves are typed as usual.
+ * A grid smaller than the window is shown whole, like {@link Grid#toString()}.
+ * </p>
+ *
+ * <p>
+ * The box around the pieces is updated move by move ({@link #include(int, int)}),
+ * so placing the window and drawing it ({@link FrameBuilder#window}) only cost the
+ * size of the window, not the size of the grid.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-07
+ */
+public class Viewport {
+
+    /** Default number of rows and columns shown (fits an 80 columns terminal). */
+    public static final int DEFAULT_SPAN = 17;
+    /** Fewest rows and columns shown. */
+    public static final int MIN_SPAN = 5;
+    /** Rows or columns added or removed by a zoom. */
+    private static final int ZOOM_STEP = 4;
+
+    /** Most rows and columns shown. */
+    private int span;
+    /** {@code true} if the window follows the pieces, {@code false} if it stays on {@link #focusRow}. */
+    private boolean following = true;
+    /** Row at the center of the window when it does not follow the pieces. */
+    private int focusRow;
+    /** Column at the center of the window when it does not follow the pieces. */
+    private int focusCol;
+    /** Box around the pieces: first row, -1 if there is no piece. */
+    private int minRow = -1;
+    /** Box around the pieces: last row. */
+    private int maxRow;
+    /** Box around the pieces: first column. */
+    private int minCol;
+    /** Box around the pieces: last column. */
+    private int maxCol;
+    /** Row of the last piece. */
+    private int lastRow;
+    /** Column of the last piece. */
+    private int lastCol;
+
+    /** First row of the window (after {@link #place(int)}). */
+    private int top;
+    /** First column of the window. */
+    private int left;
+    /** Number of rows and columns of the window. */
+    private int shown;
+
+    /**
+     * Creates a viewport of {@link #DEFAULT_SPAN} cells following the pieces.
+     */
+    public Viewport() {
+        this(DEFAULT_SPAN);
+    }
+
+    /**
+     * Creates a viewport following the pieces.
+     *
+     * @param span the most rows and columns shown
+     * @throws IllegalArgumentException if the span is less than {@link #MIN_SPAN}
+     */
+    public Viewport(int span) {
+        if (span < MIN_SPAN) {
+            throw new IllegalArgumentException("The view must show at least " + MIN_SPAN + " cells.");
+        }
+        this.span = span;
+    }
+
+    /**
+     * Adds a piece to the box around the pieces and makes it the last one.
+     *
+     * @param row the row of the piece
+     * @param col the column of the piece
+     */
+    public void include(int row, int col) {
+        if (minRow < 0) {
+            minRow = maxRow = row;
+            minCol = maxCol = col;
+        } else {
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        }
+        lastRow = row;
+        lastCol = col;
+    }
+
+    /**
+     * Computes the box around the pieces of a grid (for a grid whose moves were not seen, like a loaded one).
+     *
+     * @param grid the grid
+     */
+    public void fit(Grid grid) {
+        minRow = -1;
+        for (int row = 0; row < grid.getSize(); row++) {
+            for (int col = 0; col < grid.getSize(); col++) {
+                if (grid.getPiece(row, col) != null) {
+                    include(row, col);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells if the box around the pieces is known.
+     *
+     * @return {@code true} once a piece was included
+     */
+    public boolean hasPieces() {
+        return minRow >= 0;
+    }
+
+    /**
+     * Moves everything by the same number of rows and columns, after the grid grew around its center.
+     *
+     * @param offset the number of cells added on each side
+     */
+    public void shift(int offset) {
+        if (minRow >= 0) {
+            minRow += offset;
+            maxRow += offset;
+            minCol += offset;
+            maxCol += offset;
+        }
+        lastRow += offset;
+        lastCol += offset;
+        focusRow += offset;
+        focusCol += offset;
+    }
+
+    /**
+     * Applies a view command typed by the player: {@code w a s d} pan by half a window,
+     * {@code +} and {@code -} zoom, {@code f} follows the pieces again and
+     * {@code row,col} centers the window on a cell.
+     *
+     * @param command the command
+     * @throws IllegalArgumentException if the command is not known
+     */
+    public void apply(String command) {
+        int step = Math.max(1, shown / 2);
+        switch (command) {
+            case "w" -> pan(-step, 0);
+            case "s" -> pan(step, 0);
+            case "a" -> pan(0, -step);
+            case "d" -> pan(0, step);
+            case "+" -> span = Math.max(MIN_SPAN, span - ZOOM_STEP);
+            case "-" -> span += ZOOM_STEP;
+            case "f" -> following = true;
+            default -> {
+                String[] parts = command.split(",");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Unknown view command: " + command);
+                }
+                try {
+                    focus(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Unknown view command: " + command, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the window. It stops following the pieces.
+     *
+     * @param rows rows to move down (negative for up)
+     * @param cols columns to move right (negative for left)
+     */
+    public void pan(int rows, int cols) {
+        if (following) {
+            focusRow = top + shown / 2;
+            focusCol = left + shown / 2;
+            following = false;
+        }
+        focusRow += rows;
+        focusCol += cols;
+    }
+
+    /**
+     * Centers the window on a cell. It stops following the pieces.
+     *
+     * @param row the row
+     * @param col the column
+     */
+    public void focus(int row, int col) {
+        focusRow = row;
+        focusCol = col;
+        following = false;
+    }
+
+    /**
+     * Places the window on a grid of the given size. The focus is kept inside the window's reach.
+     *
+     * @param size the grid size
+     */
+    public void place(int size) {
+        shown = Math.min(span, size);
+        int centerRow;
+        int centerCol;
+        if (!following) {
+            centerRow = focusRow;
+            centerCol = focusCol;
+        } else if (minRow < 0) {
+            centerRow = centerCol = size / 2;
+        } else if (maxRow - minRow < shown && maxCol - minCol < shown) {
+            centerRow = (minRow + maxRow) / 2;
+            centerCol = (minCol + maxCol) / 2;
+        } else {
+            centerRow = lastRow;
+            centerCol = lastCol;
+        }
+        top = clamp(centerRow - shown / 2, size - shown);
+        left = clamp(centerCol - shown / 2, size - shown);
+        if (!following) { // panning past the border does not move the focus out of reach
+            focusRow = top + shown / 2;
+            focusCol = left + shown / 2;
+        }
+    }
+
+    /**
+     * Returns the first row of the window.
+     *
+     * @return the row
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * Returns the first column of the window.
+     *
+     * @return the column
+     */
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * Returns the number of rows (and columns) of the window.
+     *
+     * @return the number of cells shown on a side
+     */
+    public int getShown() {
+        return shown;
+    }
+
+    /**
+     * Tells if the window follows the pieces.
+     *
+     * @return {@code true} if it follows them
+     */
+    public boolean isFollowing() {
+        return following;
+    }
+
+    /**
+     * Keeps a value between 0 and a maximum.
+     *
+     * @param value the value
+     * @param max the maximum
+     * @return the clamped value
+     */
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
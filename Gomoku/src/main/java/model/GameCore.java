@@ -0,0 +1,481 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import util.EngineLog;
+
+/**
+ * The rules of a Gomoku game, without any console input or output.
+ * <p>
+ * A game core owns the grid and the two players, and only changes through
+ * {@link #submitMove(int, int)}. It applies every rule the console game always used:
+ * </p>
+ * <ul>
+ *   <li>the first player's first piece is placed automatically at the center (and is free),</li>
+ *   <li>a move must be on an empty cell next to an existing piece,</li>
+ *   <li>aligning {@code winLength} pieces wins,</li>
+ *   <li>a full grid is a draw, unless the grid is expandable: then it grows to {@code 2n-1}
+ *       and both players get their starting pieces again,</li>
+ *   <li>a player without pieces is skipped, and the game is a draw when both have none.</li>
+ * </ul>
+ * <p>
+ * Everything else (printing, asking for input, saving) is done by {@link GameListener}s,
+ * so many games can run in one process and the rules can be measured on their own.
+ * A core is not thread-safe: one thread should drive it.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-05-26
+ */
+public class GameCore {
+
+    /** The grid (replaced by a bigger one on expansion). */
+    private Grid grid;
+    /** The player who starts. */
+    private final Player player1;
+    /** The other player. */
+    private final Player player2;
+    /** Pieces given at the start and at each expansion. */
+    private final int playerPiece;
+    /** Number of aligned pieces needed to win. */
+    private final int winLength;
+    /** {@code true} if a full grid grows instead of ending the game. */
+    private final boolean expandable;
+
+    /** The player to move. */
+    private Player currentPlayer;
+    /** Phase of the game. */
+    private GameState.Status status = GameState.Status.IN_PROGRESS;
+    /** The winner, once there is one. */
+    private Player winner;
+
+    /** Moves played since {@link #start()} or {@link #resume(Player)}, packed like in {@link GameRecord}. */
+    private int[] moves = new int[64];
+    /** Number of used entries of {@link #moves}. */
+    private int moveCount;
+    /** {@code true} if the history starts at the center piece (the game was started, not resumed). */
+    private boolean fullHistory;
+    /** Grid size when the game was started. */
+    private int startSize;
+
+    /** Registered listeners. */
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a game core. Call {@link #start()} for a new game or
+     * {@link #resume(Player)} for a loaded one.
+     *
+     * @param grid the grid to play on
+     * @param player1 the player who starts
+     * @param player2 the other player
+     * @param playerPiece the pieces given at the start and at each expansion
+     * @param winLength the number of aligned pieces needed to win
+     * @param expandable {@code true} if the grid grows when it is full
+     * @throws IllegalArgumentException if an argument is null, the colors are equal or {@code winLength <= 0}
+     */
+    public GameCore(Grid grid, Player player1, Player player2, int playerPiece, int winLength, boolean expandable) {
+        if (grid == null || player1 == null || player2 == null) {
+            throw new IllegalArgumentException("Grid and players cannot be null.");
+        }
+        if (player1.getPlayerColor() == player2.getPlayerColor()) {
+            throw new IllegalArgumentException("Players must have different colors.");
+        }
+        if (winLength <= 0) {
+            throw new IllegalArgumentException("winLength must be positive.");
+        }
+        this.grid = grid;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.playerPiece = playerPiece;
+        this.winLength = winLength;
+        this.expandable = expandable;
+    }
+
+    /**
+     * Adds a listener.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts a new game: places player 1's piece at the center and gives the turn to player 2.
+     *
+     * @throws IllegalStateException if the grid is not empty
+     */
+    public void start() {
+        int center = (grid.getSize() - 1) / 2;
+        for (int r = 0; r < grid.getSize(); r++) {
+            for (int c = 0; c < grid.getSize(); c++) {
+                if (grid.getPiece(r, c) != null) {
+                    throw new IllegalStateException("A new game needs an empty grid.");
+                }
+            }
+        }
+        grid.placeTheFirstPiece(center, center, new Piece(player1.getPlayerColor(), center, center));
+        moveCount = 0;
+        fullHistory = true;
+        startSize = grid.getSize();
+        record(player1, center, center);
+        for (GameListener l : listeners) {
+            l.onMove(this, player1, center, center);
+        }
+        currentPlayer = player2;
+        beginTurn();
+    }
+
+    /**
+     * Resumes a game on a grid which already has pieces (a loaded game).
+     *
+     * @param toMove the player who plays next
+     * @throws IllegalArgumentException if {@code toMove} is not one of the two players
+     */
+    public void resume(Player toMove) {
+        if (toMove != player1 && toMove != player2) {
+            throw new IllegalArgumentException("The player to move must be one of the two players.");
+        }
+        currentPlayer = toMove;
+        status = GameState.Status.IN_PROGRESS;
+        winner = null;
+        fullHistory = false;
+        moveCount = 0;
+        beginTurn();
+    }
+
+    /**
+     * Resumes a loaded game whose history is known (saved from a started game).
+     * {@link #toRecord()} then works like for a game played from the start.
+     *
+     * @param toMove the player who plays next
+     * @param initialSize the grid size when the game was started
+     * @param history the moves since the start, packed like in {@link GameRecord}
+     * @throws IllegalArgumentException if {@code toMove} is not one of the two players or the history is empty
+     */
+    public void resume(Player toMove, int initialSize, int[] history) {
+        if (history.length == 0) {
+            throw new IllegalArgumentException("The history must contain the center piece.");
+        }
+        if (toMove != player1 && toMove != player2) {
+            throw new IllegalArgumentException("The player to move must be one of the two players.");
+        }
+        currentPlayer = toMove;
+        status = GameState.Status.IN_PROGRESS;
+        winner = null;
+        moves = Arrays.copyOf(history, Math.max(64, history.length * 2));
+        moveCount = history.length;
+        startSize = initialSize;
+        fullHistory = true;
+        beginTurn();
+    }
+
+    /**
+     * Plays a move for the current player and applies all the rules that follow it.
+     *
+     * @param row the row of the move
+     * @param col the column of the move
+     * @throws IllegalStateException if the game is over or was never started
+     * @throws IllegalArgumentException if the move is illegal (the same player must retry)
+     */
+    public void submitMove(int row, int col) {
+        if (currentPlayer == null) {
+            throw new IllegalStateException("The game has not started.");
+        }
+        if (isTerminal()) {
+            throw new IllegalStateException("The game is over.");
+        }
+        if (!grid.inBounds(row, col)) {
+            throw new IllegalArgumentException("Position outside the grid.");
+        }
+
+        Player mover = currentPlayer;
+        mover.play(grid, row, col); // throws IllegalArgumentException on an illegal cell
+        record(mover, row, col);
+        for (GameListener l : listeners) {
+            l.onMove(this, mover, row, col);
+        }
+
+        if (mover.hasWon(grid, row, col, winLength)) {
+            finishWithWinner(mover);
+            return;
+        }
+
+        if (grid.isGridFull()) {
+            if (!expandable) {
+                finishWithDraw("The board is full.");
+                return;
+            }
+            int newSize = grid.getSize() * 2 - 1; // Make sure it stays odd
+            grid = grid.expandGrid(newSize);
+            player1.setPieceNum(player1.getPieceNum() + playerPiece);
+            player2.setPieceNum(player2.getPieceNum() + playerPiece);
+            for (GameListener l : listeners) {
+                l.onExpand(this, newSize, playerPiece);
+            }
+        }
+
+        currentPlayer = (mover == player1) ? player2 : player1;
+        beginTurn();
+    }
+
+    /**
+     * Makes the current player resign: the other player wins.
+     *
+     * @throws IllegalStateException if the game is already over
+     */
+    public void resign() {
+        if (isTerminal()) {
+            throw new IllegalStateException("The game is over.");
+        }
+        finishWithWinner(currentPlayer == player1 ? player2 : player1);
+    }
+
+    /**
+     * Stops the game without a result (e.g. the user went back to the main menu).
+     */
+    public void abort() {
+        if (!isTerminal()) {
+            status = GameState.Status.ABORTED;
+        }
+    }
+
+    /**
+     * Tells if the game is over (won, drawn or aborted).
+     *
+     * @return {@code true} if no more moves can be submitted
+     */
+    public boolean isTerminal() {
+        return status != GameState.Status.IN_PROGRESS;
+    }
+
+    /**
+     * Takes an immutable snapshot of the game.
+     *
+     * @return the current state
+     */
+    public GameState currentState() {
+        int size = grid.getSize();
+        byte[] cells = grid.toBoardImage();
+        int[] pieces = new int[2];
+        pieces[player1.getPlayerColor()] = player1.getPieceNum();
+        pieces[player2.getPlayerColor()] = player2.getPieceNum();
+        int last = moveCount == 0 ? -1 : moves[moveCount - 1];
+        int current = currentPlayer == null ? player1.getPlayerColor() : currentPlayer.getPlayerColor();
+        return new GameState(size, cells, getPly(), current, pieces, last, status,
+                winner == null ? -1 : winner.getPlayerColor(), winLength);
+    }
+
+    /**
+     * Returns the record of the game (rules, moves and result).
+     *
+     * @return the record
+     * @throws IllegalStateException if the game was resumed, so its first moves are unknown
+     */
+    public GameRecord toRecord() {
+        if (!fullHistory) {
+            throw new IllegalStateException("The history of a resumed game is incomplete.");
+        }
+        int result;
+        switch (status) {
+            case WON -> result = winner.getPlayerColor();
+            case DRAW -> result = GameRecord.DRAW;
+            default -> result = GameRecord.UNFINISHED;
+        }
+        return new GameRecord(startSize, winLength, playerPiece, expandable,
+                player1.getPlayerColor(), Arrays.copyOf(moves, moveCount), result);
+    }
+
+    /**
+     * Tells if {@link #toRecord()} can be used (the game was started, not resumed).
+     *
+     * @return {@code true} if the full move history is known
+     */
+    public boolean hasFullHistory() {
+        return fullHistory;
+    }
+
+    /**
+     * Returns the number of moves played since the start or the resume.
+     *
+     * @return the number of moves in the history
+     */
+    public int getPly() {
+        return moveCount;
+    }
+
+    /**
+     * Returns one move of the history.
+     *
+     * @param index the index of the move (0 is the first known move)
+     * @return the move packed like in {@link GameRecord}
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("No move " + index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Returns the grid. It is replaced by a new object when the grid expands.
+     *
+     * @return the current grid
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the player to move.
+     *
+     * @return the current player
+     */
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Returns the player who started.
+     *
+     * @return player 1
+     */
+    public Player getPlayer1() {
+        return player1;
+    }
+
+    /**
+     * Returns the second player.
+     *
+     * @return player 2
+     */
+    public Player getPlayer2() {
+        return player2;
+    }
+
+    /**
+     * Returns the winner.
+     *
+     * @return the winner, or {@code null} if there is none
+     */
+    public Player getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the phase of the game.
+     *
+     * @return the status
+     */
+    public GameState.Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the number of aligned pieces needed to win.
+     *
+     * @return the win length
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the pieces given at the start and at each expansion.
+     *
+     * @return the starting piece count
+     */
+    public int getPlayerPiece() {
+        return playerPiece;
+    }
+
+    /**
+     * Tells if the grid grows when it is full.
+     *
+     * @return {@code true} if the grid is expandable
+     */
+    public boolean isExpandable() {
+        return expandable;
+    }
+
+    /**
+     * Checks the piece budgets at the start of a turn: draw if nobody has pieces,
+     * skip the current player if only they have none.
+     */
+    private void beginTurn() {
+        if (player1.getPieceNum() <= 0 && player2.getPieceNum() <= 0) {
+            finishWithDraw("Both players are out of pieces.");
+            return;
+        }
+        if (currentPlayer.getPieceNum() <= 0) {
+            Player skipped = currentPlayer;
+            currentPlayer = (currentPlayer == player1) ? player2 : player1;
+            for (GameListener l : listeners) {
+                l.onTurnSkipped(this, skipped);
+            }
+        }
+        for (GameListener l : listeners) {
+            l.onTurn(this, currentPlayer);
+        }
+    }
+
+    /**
+     * Ends the game with a winner and tells the listeners.
+     *
+     * @param player the winner
+     */
+    private void finishWithWinner(Player player) {
+        status = GameState.Status.WON;
+        winner = player;
+        if (EngineLog.GAME_INFO) {
+            EngineLog.log(EngineLog.Event.GAME_END, player.getPlayerColor(), moveCount, 0);
+        }
+        for (GameListener l : listeners) {
+            l.onWin(this, player);
+        }
+    }
+
+    /**
+     * Ends the game with a draw and tells the listeners.
+     *
+     * @param reason the reason of the draw
+     */
+    private void finishWithDraw(String reason) {
+        status = GameState.Status.DRAW;
+        if (EngineLog.GAME_INFO) {
+            EngineLog.log(EngineLog.Event.GAME_END, GameRecord.DRAW, moveCount, 0);
+        }
+        for (GameListener l : listeners) {
+            l.onDraw(this, reason);
+        }
+    }
+
+    /**
+     * Adds a move to the history.
+     *
+     * @param player the player who moved
+     * @param row the row
+     * @param col the column
+     */
+    private void record(Player player, int row, int col) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = GameRecord.pack(player.getPlayerColor(), row, col);
+        if (EngineLog.GAME_INFO) {
+            EngineLog.log(EngineLog.Event.GAME_MOVE, moveCount, row, col);
+        }
+    }
+}
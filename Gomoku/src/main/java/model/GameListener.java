@@ -0,0 +1,79 @@
+package model;
+
+/**
+ * Receives the events of a {@link GameCore}: moves, wins, draws, expansions, skipped turns and new turns.
+ * <p>
+ * All methods have an empty default body, so a listener only overrides what it
+ * needs. Events are called synchronously on the thread that called
+ * {@link GameCore#submitMove(int, int)}, right after the game state changed.
+ * </p>
+ *
+ * <p>
+ * The console interface of {@code app.GameEngine} is one listener; saving, logging
+ * or spectating can be other ones, without touching the rules.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-05-26
+ */
+public interface GameListener {
+
+    /**
+     * Called after a piece was placed (including the automatic center piece).
+     *
+     * @param game the game
+     * @param player the player who placed the piece
+     * @param row the row of the piece
+     * @param col the column of the piece
+     */
+    default void onMove(GameCore game, Player player, int row, int col) {
+    }
+
+    /**
+     * Called when a player aligned enough pieces, or when the other player resigned.
+     *
+     * @param game the game
+     * @param winner the winning player
+     */
+    default void onWin(GameCore game, Player winner) {
+    }
+
+    /**
+     * Called when the game ends without a winner.
+     *
+     * @param game the game
+     * @param reason a short explanation (full grid, no pieces left)
+     */
+    default void onDraw(GameCore game, String reason) {
+    }
+
+    /**
+     * Called after the grid was expanded.
+     *
+     * @param game the game
+     * @param newSize the new grid size
+     * @param additionalPieces the pieces given to each player
+     */
+    default void onExpand(GameCore game, int newSize, int additionalPieces) {
+    }
+
+    /**
+     * Called when a player is skipped because they have no pieces left.
+     *
+     * @param game the game
+     * @param skipped the player who lost their turn
+     */
+    default void onTurnSkipped(GameCore game, Player skipped) {
+    }
+
+    /**
+     * Called when a player gets the turn, after the rules of the last move were applied
+     * (expansion, skipped turn). The game is then in a stable state, good for a checkpoint.
+     *
+     * @param game the game
+     * @param toMove the player who plays next
+     */
+    default void onTurn(GameCore game, Player toMove) {
+    }
+}
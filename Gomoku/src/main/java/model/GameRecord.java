@@ -0,0 +1,364 @@
+package model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The record of one game: the rules it was played with, every move in order, and the result.
+ * <p>
+ * Unlike a saved {@link Grid}, a record keeps the order of the moves, so a game can
+ * be replayed, analysed or stored in a few bytes per move. The first move is always
+ * the automatic center piece of the first player.
+ * </p>
+ *
+ * <p>
+ * A move is stored as one packed {@code int}: {@code color << 30 | row << 15 | col}.
+ * Coordinates are the ones of the grid at the moment of the move, so after an
+ * expansion they are in the coordinates of the bigger grid.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.2
+ * @since 2025-05-22
+ */
+public final class GameRecord {
+
+    /** Result value of a game that ended without a winner. */
+    public static final int DRAW = -1;
+    /** Result value of a game that is not finished. */
+    public static final int UNFINISHED = -2;
+
+    /** Biggest row or column a packed move can hold. */
+    public static final int MAX_COORD = (1 << 15) - 1;
+
+    /** Starting grid size. */
+    private final int gridSize;
+    /** Number of aligned pieces needed to win. */
+    private final int winLength;
+    /** Pieces given to each player at the start (and at each expansion). */
+    private final int playerPiece;
+    /** {@code true} if the grid grows when it is full. */
+    private final boolean expandable;
+    /** Color of the player who played the center piece. */
+    private final int firstColor;
+    /** Packed moves, in the order they were played. */
+    private final int[] moves;
+    /** Color of the winner, {@link #DRAW} or {@link #UNFINISHED}. */
+    private final int result;
+
+    /**
+     * Creates a game record.
+     *
+     * @param gridSize the starting grid size
+     * @param winLength the win length
+     * @param playerPiece the starting piece count of each player
+     * @param expandable {@code true} if the grid was expandable
+     * @param firstColor the color of the first player (0 or 1)
+     * @param moves the packed moves (copied)
+     * @param result the winner color, {@link #DRAW} or {@link #UNFINISHED}
+     * @throws IllegalArgumentException if a color or the result is invalid, or a rule
+     *         does not fit in its field (grid size and piece count 0 to 65535, win length 0 to 255)
+     */
+    public GameRecord(int gridSize, int winLength, int playerPiece, boolean expandable,
+                      int firstColor, int[] moves, int result) {
+        if (firstColor != 0 && firstColor != 1) {
+            throw new IllegalArgumentException("First color must be 0 or 1.");
+        }
+        if (result < UNFINISHED || result > 1) {
+            throw new IllegalArgumentException("Invalid result: " + result);
+        }
+        // Field widths of writeTo: a bigger value would be cut and read back as another game
+        if (gridSize < 0 || gridSize > 0xFFFF) {
+            throw new IllegalArgumentException("Grid size does not fit in a record: " + gridSize);
+        }
+        if (winLength < 0 || winLength > 0xFF) {
+            throw new IllegalArgumentException("Win length does not fit in a record: " + winLength);
+        }
+        if (playerPiece < 0 || playerPiece > 0xFFFF) {
+            throw new IllegalArgumentException("Piece count does not fit in a record: " + playerPiece);
+        }
+        this.gridSize = gridSize;
+        this.winLength = winLength;
+        this.playerPiece = playerPiece;
+        this.expandable = expandable;
+        this.firstColor = firstColor;
+        this.moves = moves.clone();
+        this.result = result;
+    }
+
+    /**
+     * Packs a move into one int.
+     *
+     * @param color the color of the piece (0 or 1)
+     * @param row the row of the move
+     * @param col the column of the move
+     * @return the packed move
+     * @throws IllegalArgumentException if a coordinate does not fit in 15 bits
+     */
+    public static int pack(int color, int row, int col) {
+        if (row < 0 || row > MAX_COORD || col < 0 || col > MAX_COORD) {
+            throw new IllegalArgumentException("Coordinates out of record range.");
+        }
+        return (color << 30) | (row << 15) | col;
+    }
+
+    /**
+     * Extracts the color of a packed move.
+     *
+     * @param move the packed move
+     * @return the color
+     */
+    public static int colorOf(int move) {
+        return move >>> 30;
+    }
+
+    /**
+     * Extracts the row of a packed move.
+     *
+     * @param move the packed move
+     * @return the row
+     */
+    public static int rowOf(int move) {
+        return (move >>> 15) & MAX_COORD;
+    }
+
+    /**
+     * Extracts the column of a packed move.
+     *
+     * @param move the packed move
+     * @return the column
+     */
+    public static int colOf(int move) {
+        return move & MAX_COORD;
+    }
+
+    /**
+     * Writes the record in a compact binary form: the rules, the result and
+     * 4 bytes per move (the color is kept in the top bit of the row).
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(gridSize);
+        out.writeByte(winLength);
+        out.writeShort(playerPiece);
+        out.writeByte((expandable ? 1 : 0) | (firstColor << 1));
+        out.writeByte(result);
+        out.writeInt(moves.length);
+        for (int move : moves) {
+            out.writeShort((colorOf(move) << 15) | rowOf(move));
+            out.writeShort(colOf(move));
+        }
+    }
+
+    /**
+     * Reads a record written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the source
+     * @return the record
+     * @throws IOException if reading fails
+     */
+    public static GameRecord readFrom(DataInput in) throws IOException {
+        int gridSize = in.readUnsignedShort();
+        int winLength = in.readUnsignedByte();
+        int playerPiece = in.readUnsignedShort();
+        int flags = in.readUnsignedByte();
+        int result = in.readByte();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupted game record.");
+        }
+        boolean expandable = (flags & 1) != 0;
+        int firstColor = (flags >> 1) & 1;
+
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            int colorAndRow = in.readUnsignedShort();
+            int col = in.readUnsignedShort();
+            moves[i] = pack(colorAndRow >>> 15, colorAndRow & MAX_COORD, col);
+        }
+        return new GameRecord(gridSize, winLength, playerPiece, expandable, firstColor, moves, result);
+    }
+
+    /**
+     * Returns the number of bytes written by {@link #writeTo(DataOutput)}.
+     *
+     * @return the encoded size
+     */
+    public int encodedSize() {
+        return 11 + 4 * moves.length;
+    }
+
+    /**
+     * Writes the record like {@link #writeTo(DataOutput)}, into a buffer.
+     *
+     * @param out the destination, with at least {@link #encodedSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putShort((short) gridSize);
+        out.put((byte) winLength);
+        out.putShort((short) playerPiece);
+        out.put((byte) ((expandable ? 1 : 0) | (firstColor << 1)));
+        out.put((byte) result);
+        out.putInt(moves.length);
+        for (int move : moves) {
+            out.putShort((short) ((colorOf(move) << 15) | rowOf(move)));
+            out.putShort((short) colOf(move));
+        }
+    }
+
+    /**
+     * Reads a record written by {@link #writeTo(ByteBuffer)} or {@link #writeTo(DataOutput)}.
+     *
+     * @param in the source, positioned at the record
+     * @return the record
+     * @throws IOException if the bytes are not a valid record
+     */
+    public static GameRecord readFrom(ByteBuffer in) throws IOException {
+        try {
+            int gridSize = Short.toUnsignedInt(in.getShort());
+            int winLength = Byte.toUnsignedInt(in.get());
+            int playerPiece = Short.toUnsignedInt(in.getShort());
+            int flags = Byte.toUnsignedInt(in.get());
+            int result = in.get();
+            int count = in.getInt();
+            if (count < 0 || count > in.remaining() / 4) {
+                throw new IOException("Corrupted game record.");
+            }
+            int[] moves = new int[count];
+            for (int i = 0; i < count; i++) {
+                int colorAndRow = Short.toUnsignedInt(in.getShort());
+                int col = Short.toUnsignedInt(in.getShort());
+                moves[i] = pack(colorAndRow >>> 15, colorAndRow & MAX_COORD, col);
+            }
+            return new GameRecord(gridSize, winLength, playerPiece, (flags & 1) != 0, (flags >> 1) & 1, moves, result);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupted game record.", e);
+        }
+    }
+
+    /**
+     * Returns the starting grid size.
+     *
+     * @return the starting grid size
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Returns the number of aligned pieces needed to win.
+     *
+     * @return the number of aligned pieces needed to win
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the starting piece count of each player.
+     *
+     * @return the starting piece count of each player
+     */
+    public int getPlayerPiece() {
+        return playerPiece;
+    }
+
+    /**
+     * Returns {@code true} if the grid was expandable.
+     *
+     * @return {@code true} if the grid was expandable
+     */
+    public boolean isExpandable() {
+        return expandable;
+    }
+
+    /**
+     * Returns the color of the first player.
+     *
+     * @return the color of the first player
+     */
+    public int getFirstColor() {
+        return firstColor;
+    }
+
+    /**
+     * Returns the winner color, {@link #DRAW} or {@link #UNFINISHED}.
+     *
+     * @return the winner color, {@link #DRAW} or {@link #UNFINISHED}
+     */
+    public int getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the number of moves, including the center piece.
+     *
+     * @return the number of moves, including the center piece
+     */
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * Returns one packed move.
+     *
+     * @param ply the index of the move (0 is the center piece)
+     * @return the packed move
+     */
+    public int getMove(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * Returns a copy of all the packed moves.
+     *
+     * @return the moves
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Compares the rules, moves and result of two records.
+     *
+     * @param o the other object
+     * @return {@code true} if both records describe the same game
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameRecord r && r.gridSize == gridSize && r.winLength == winLength
+                && r.playerPiece == playerPiece && r.expandable == expandable
+                && r.firstColor == firstColor && r.result == result && Arrays.equals(r.moves, moves);
+    }
+
+    /**
+     * Hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(moves) + result;
+    }
+
+    /**
+     * Returns a short description: rules, number of moves and result.
+     *
+     * @return a readable summary
+     */
+    @Override
+    public String toString() {
+        String outcome = switch (result) {
+            case DRAW -> "draw";
+            case UNFINISHED -> "unfinished";
+            default -> (result == 0 ? "White" : "Black") + " won";
+        };
+        return gridSize + "x" + gridSize + ", win " + winLength + ", " + moves.length + " moves, " + outcome;
+    }
+}
@@ -0,0 +1,168 @@
+package model;
+
+/**
+ * Immutable snapshot of a {@link GameCore} at one moment.
+ * <p>
+ * A snapshot copies the cells, so it can be read by another thread (a renderer,
+ * a network session...) while the game goes on. Cells are stored row by row:
+ * {@code 0} empty, {@code 1} white, {@code 2} black.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-05-26
+ */
+public final class GameState {
+
+    /**
+     * The phase of a game.
+     */
+    public enum Status {
+        /** The game goes on. */
+        IN_PROGRESS,
+        /** A player won. */
+        WON,
+        /** The game ended without a winner. */
+        DRAW,
+        /** The game was stopped before its end (e.g. exit to the main menu). */
+        ABORTED
+    }
+
+    /** Size of the grid. */
+    private final int size;
+    /** Cells row by row (0 empty, 1 white, 2 black). */
+    private final byte[] cells;
+    /** Number of pieces placed since the start of the game. */
+    private final int ply;
+    /** Color of the player to move. */
+    private final int currentColor;
+    /** Pieces left, indexed by color. */
+    private final int[] piecesLeft;
+    /** Last move packed like in {@link GameRecord}, or -1 if there is none. */
+    private final int lastMove;
+    /** Phase of the game. */
+    private final Status status;
+    /** Color of the winner, or -1. */
+    private final int winner;
+    /** Number of aligned pieces needed to win. */
+    private final int winLength;
+
+    /**
+     * Creates a snapshot. Arrays are used as given, so the caller must not modify them.
+     *
+     * @param size the grid size
+     * @param cells the cells row by row
+     * @param ply the number of pieces placed
+     * @param currentColor the color to move
+     * @param piecesLeft the pieces left of white and black
+     * @param lastMove the packed last move or -1
+     * @param status the phase of the game
+     * @param winner the winner color or -1
+     * @param winLength the win length
+     */
+    GameState(int size, byte[] cells, int ply, int currentColor, int[] piecesLeft, int lastMove,
+              Status status, int winner, int winLength) {
+        this.size = size;
+        this.cells = cells;
+        this.ply = ply;
+        this.currentColor = currentColor;
+        this.piecesLeft = piecesLeft;
+        this.lastMove = lastMove;
+        this.status = status;
+        this.winner = winner;
+        this.winLength = winLength;
+    }
+
+    /**
+     * Returns the size of the grid.
+     *
+     * @return the grid size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the color of the piece at a cell.
+     *
+     * @param row the row
+     * @param col the column
+     * @return 0 (white), 1 (black) or -1 if the cell is empty
+     */
+    public int getCell(int row, int col) {
+        return cells[row * size + col] - 1;
+    }
+
+    /**
+     * Returns a copy of the cells (0 empty, 1 white, 2 black), row by row.
+     *
+     * @return the cells
+     */
+    public byte[] getCells() {
+        return cells.clone();
+    }
+
+    /**
+     * Returns the number of pieces placed since the start.
+     *
+     * @return the ply
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Returns the color of the player to move.
+     *
+     * @return 0 or 1
+     */
+    public int getCurrentColor() {
+        return currentColor;
+    }
+
+    /**
+     * Returns the pieces left of a color.
+     *
+     * @param color 0 or 1
+     * @return the number of pieces left
+     */
+    public int getPiecesLeft(int color) {
+        return piecesLeft[color];
+    }
+
+    /**
+     * Returns the last move, packed like in {@link GameRecord}.
+     *
+     * @return the packed move, or -1 if nothing was played
+     */
+    public int getLastMove() {
+        return lastMove;
+    }
+
+    /**
+     * Returns the phase of the game.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the winner color.
+     *
+     * @return 0, 1, or -1 if there is no winner
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the number of aligned pieces needed to win.
+     *
+     * @return the win length
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+}
@@ -43,7 +43,7 @@ import util.ColorInConsole;
  * </p> 
  *
  * @author Erkin Tunc Boya
- * @version 1.2
+ * @version 1.3
  * @since 2025-03-26
  */
 public class Grid implements Serializable{
@@ -128,6 +128,31 @@ public class Grid implements Serializable{
         // fivePiecesAlligned() // checks if the new piece creates an 5 piece alligned
     }
 
+    /**
+     * Takes a piece off the board and unlinks it from its neighbors; the reverse of
+     * {@link #placePiece(Piece, int, int)}. Used to step back through a game.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return the removed piece
+     * @throws IllegalArgumentException if the cell is outside the grid or empty
+     */
+    public Piece removePiece(int row, int col) {
+        if (!inBounds(row, col) || grid[row][col] == null) {
+            throw new IllegalArgumentException("No piece to remove at " + row + "," + col + ".");
+        }
+        Piece piece = grid[row][col];
+        for (Direction dir : Direction.values()) {
+            Piece neighbor = piece.getNeighbor(dir);
+            if (neighbor != null) {
+                neighbor.removeNeighbor(dir.getOpposite());
+                piece.removeNeighbor(dir);
+            }
+        }
+        grid[row][col] = null;
+        return piece;
+    }
+
     /**
      * Checks if chosen cell(piece) has any neighbors in any direction.
      *
@@ -332,6 +357,75 @@ public class Grid implements Serializable{
         return r >= 0 && r < size && c >= 0 && c < size;
     }
 
+    /**
+     * Returns the cells of the grid row by row: {@code 0} empty, {@code 1} white, {@code 2} black.
+     * This is the board image written by the binary save format.
+     *
+     * @return a new array of {@code size * size} cells
+     */
+    public byte[] toBoardImage() {
+        byte[] cells = new byte[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (grid[i][j] != null) {
+                    cells[i * size + j] = (byte) (grid[i][j].getColor() + 1);
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Builds a grid from a board image (see {@link #toBoardImage()}).
+     * <p>
+     * Unlike placing the pieces one by one, the neighbor links are made in a single
+     * pass: each piece links itself to the pieces after it (right, down and the two
+     * lower diagonals), and the opposite link is set at the same time.
+     * </p>
+     *
+     * @param size the grid size (odd)
+     * @param cells the cells row by row
+     * @return the rebuilt grid
+     * @throws IllegalArgumentException if the size is not odd and positive, if the image has
+     *         the wrong length or if a cell is not 0, 1 or 2
+     */
+    public static Grid fromBoardImage(int size, byte[] cells) {
+        Grid result = new Grid(size);
+        if (cells.length != size * size) {
+            throw new IllegalArgumentException("Board image should have " + (size * size) + " cells.");
+        }
+        Piece[][] g = result.grid;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int cell = cells[i * size + j];
+                if (cell < 0 || cell > 2) {
+                    throw new IllegalArgumentException("Invalid cell value " + cell);
+                }
+                if (cell != 0) {
+                    g[i][j] = new Piece(cell - 1, i, j);
+                }
+            }
+        }
+
+        Direction[] forward = {Direction.RIGHT, Direction.DOWN, Direction.DOWN_RIGHT, Direction.DOWN_LEFT};
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                Piece piece = g[i][j];
+                if (piece == null) {
+                    continue;
+                }
+                for (Direction dir : forward) {
+                    Piece neighbor = result.getPiece(i + dir.getX(), j + dir.getY());
+                    if (neighbor != null) {
+                        piece.setNeighbor(dir, neighbor);
+                        neighbor.setNeighbor(dir.getOpposite(), piece);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * This function creates a bigger grid which is almost 2 times bigger ("2 times - 1" becuse it should be odd).
      * After that it will copy the pieces from the old grid and place them in the new grid bur it's referance point is the center.
@@ -13,7 +13,7 @@ import java.util.EnumMap;
  * Neighbor links enable directional traversal of the board.
  *
  * @author Erkin Tunc Boya
- * @version 1.1
+ * @version 1.2
  * @since 2025-03-26
  */
 public class Piece implements Serializable {
@@ -75,6 +75,19 @@ public class Piece implements Serializable {
         neighbors.put(direction, neighbor);
     }
 
+    /**
+     * Removes the neighbor link in the specified direction (when that piece is taken off the board).
+     *
+     * @param direction the direction of the neighbor
+     * @throws IllegalArgumentException if direction is null
+     */
+    public void removeNeighbor(Direction direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction cannot be null.");
+        }
+        neighbors.remove(direction);
+    }
+
     /**
      * Gets the neighboring piece in the specified direction.
      *
@@ -0,0 +1,224 @@
+package model;
+
+/**
+ * Rebuilds any position of a recorded game, going forwards and backwards.
+ * <p>
+ * The engine keeps one live {@link Grid} and moves it from ply to ply: a step
+ * forward places the next piece, a step back removes the last one
+ * ({@link Grid#removePiece(int, int)}). Every {@code keyframeInterval} plies a
+ * board image is kept ({@link Grid#toBoardImage()}), so a far jump restores the
+ * keyframe before the target and steps from there: a seek costs the distance to
+ * the nearest keyframe, not to the start of the game.
+ * </p>
+ *
+ * <p>
+ * Ply {@code p} is the position after the first {@code p} moves (ply 0 is the
+ * empty grid). A step back over an expansion cannot shrink the grid, so it
+ * restores a keyframe instead. An engine is not thread safe, and the grid it
+ * returns must not be changed by the caller.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-05
+ */
+public class ReplayEngine {
+
+    /** Default number of plies between two keyframes. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 16;
+
+    /** The game being replayed. */
+    private final GameRecord record;
+    /** Number of plies between two keyframes. */
+    private final int keyframeInterval;
+    /** Grid size at each ply (after the expansion a move caused, if any). */
+    private final int[] sizes;
+    /** Board images at plies {@code 0, interval, 2 * interval...}. */
+    private final byte[][] keyframes;
+
+    /** The live grid (replaced on expansion and keyframe restore). */
+    private Grid grid;
+    /** Current ply. */
+    private int ply;
+
+    /**
+     * Creates an engine with the default keyframe interval, at ply 0.
+     *
+     * @param record the game
+     * @throws IllegalArgumentException if a move of the game is illegal
+     */
+    public ReplayEngine(GameRecord record) {
+        this(record, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates an engine, at ply 0. The game is played through once to check it
+     * and to take the keyframes.
+     *
+     * @param record the game
+     * @param keyframeInterval the number of plies between two keyframes
+     * @throws IllegalArgumentException if the interval is not positive or a move of the game is illegal
+     */
+    public ReplayEngine(GameRecord record, int keyframeInterval) {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Keyframe interval must be positive.");
+        }
+        this.record = record;
+        this.keyframeInterval = keyframeInterval;
+        int moves = record.getMoveCount();
+        this.sizes = new int[moves + 1];
+        this.keyframes = new byte[moves / keyframeInterval + 1][];
+
+        sizes[0] = record.getGridSize();
+        this.grid = new Grid(record.getGridSize());
+        keyframes[0] = grid.toBoardImage();
+        for (int p = 0; p < moves; p++) {
+            sizes[p + 1] = sizes[p];
+            try {
+                forward();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Move " + (p + 1) + " is illegal: " + e.getMessage(), e);
+            }
+            if (record.isExpandable() && ply == sizes[p] * sizes[p]) {
+                sizes[p + 1] = sizes[p] * 2 - 1; // the grid was full and grows, like in GameCore
+                grid = grid.expandGrid(sizes[p + 1]);
+            }
+            if (ply % keyframeInterval == 0) {
+                keyframes[ply / keyframeInterval] = grid.toBoardImage();
+            }
+        }
+        restore(0);
+    }
+
+    /**
+     * Moves to a ply by the shortest way: steps from the current ply, or from the
+     * nearest keyframe before the target.
+     *
+     * @param target the ply, from 0 to {@link #getMoveCount()}
+     * @throws IllegalArgumentException if the ply is out of range
+     */
+    public void seek(int target) {
+        if (target < 0 || target > sizes.length - 1) {
+            throw new IllegalArgumentException("Ply must be between 0 and " + (sizes.length - 1) + ".");
+        }
+        int keyframe = target / keyframeInterval;
+        int fromKeyframe = target - keyframe * keyframeInterval + 1; // the restore counts as a step
+        int direct = Math.abs(target - ply);
+        if (direct > fromKeyframe || (target < ply && sizes[target] != sizes[ply])) {
+            restore(keyframe);
+        }
+        while (ply < target) {
+            stepForward();
+        }
+        while (ply > target) {
+            stepBack();
+        }
+    }
+
+    /**
+     * Plays the next move.
+     *
+     * @throws IllegalStateException if the game has no more moves
+     */
+    public void stepForward() {
+        if (ply == sizes.length - 1) {
+            throw new IllegalStateException("End of the game.");
+        }
+        forward();
+        if (sizes[ply] != grid.getSize()) {
+            grid = grid.expandGrid(sizes[ply]);
+        }
+    }
+
+    /**
+     * Takes back the last move (restores a keyframe if the move made the grid grow).
+     *
+     * @throws IllegalStateException if the replay is at ply 0
+     */
+    public void stepBack() {
+        if (ply == 0) {
+            throw new IllegalStateException("Start of the game.");
+        }
+        if (sizes[ply - 1] != sizes[ply]) {
+            seek(ply - 1);
+            return;
+        }
+        int move = record.getMove(ply - 1);
+        grid.removePiece(GameRecord.rowOf(move), GameRecord.colOf(move));
+        ply--;
+    }
+
+    /**
+     * Returns the grid at the current ply. It must not be changed.
+     *
+     * @return the grid
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the current ply (the number of moves on the grid).
+     *
+     * @return the ply
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Returns the number of moves of the game (the last ply).
+     *
+     * @return the move count
+     */
+    public int getMoveCount() {
+        return sizes.length - 1;
+    }
+
+    /**
+     * Returns the last move played, packed like in {@link GameRecord}.
+     *
+     * @return the move, or -1 at ply 0
+     */
+    public int getLastMove() {
+        return ply == 0 ? -1 : record.getMove(ply - 1);
+    }
+
+    /**
+     * Returns the game being replayed.
+     *
+     * @return the record
+     */
+    public GameRecord getRecord() {
+        return record;
+    }
+
+    /**
+     * Places the move of the current ply and moves to the next ply (no expansion).
+     */
+    private void forward() {
+        int move = record.getMove(ply);
+        int row = GameRecord.rowOf(move);
+        int col = GameRecord.colOf(move);
+        if (!grid.inBounds(row, col)) {
+            throw new IllegalArgumentException("Position outside the grid.");
+        }
+        Piece piece = new Piece(GameRecord.colorOf(move), row, col);
+        if (ply == 0) {
+            grid.placeTheFirstPiece(row, col, piece);
+        } else {
+            grid.placePiece(piece, row, col);
+        }
+        ply++;
+    }
+
+    /**
+     * Rebuilds the grid from a keyframe.
+     *
+     * @param keyframe the number of the keyframe
+     */
+    private void restore(int keyframe) {
+        ply = keyframe * keyframeInterval;
+        grid = Grid.fromBoardImage(sizes[ply], keyframes[keyframe]);
+    }
+}
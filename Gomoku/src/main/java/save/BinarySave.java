@@ -0,0 +1,369 @@
+package save;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import ai.AIPlayer;
+import ai.EvalWeights;
+import model.Grid;
+import model.Human;
+import model.Player;
+
+/**
+ * Compact binary format of a {@link SavedGame}, replacing Java serialization.
+ * <p>
+ * Serializing a {@link Grid} walks the neighbor links of every piece, so the
+ * files are big, slow to write, and a big expanded grid can even overflow the
+ * stack. This format only stores values and rebuilds the links with
+ * {@link Grid#fromBoardImage(int, byte[])} in one pass.
+ * </p>
+ *
+ * <p>
+ * Layout (big-endian):
+ * </p>
+ * <ul>
+ *   <li>magic {@code "GMKS"} (int), version (short)</li>
+ *   <li>since version 2: the fixed-size {@link SaveHeader} (players, grid, pieces, turn, time),
+ *       so a save can be listed without reading the rest</li>
+ *   <li>flags (byte): 1 = expandable, 2 = player 2 to move, 4 = move list present</li>
+ *   <li>grid size (int), start size (int), win length (short), pieces per player (int)</li>
+ *   <li>two players: type (byte, 0 human / 1 AI), color (byte), pieces left (int),
+ *       name (short length + UTF-8); an AI adds its win length (short) and weights
+ *       (byte count + ints)</li>
+ *   <li>board image: 2 bits per cell, 4 cells per byte, row by row</li>
+ *   <li>move list if the flag is set: count (int) + packed moves (ints)</li>
+ * </ul>
+ * <p>
+ * The whole file is built in one buffer and written with a single {@link FileChannel} write,
+ * to a temporary file which then replaces the save in one atomic rename.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-05-29
+ */
+public final class BinarySave {
+
+    /** Magic bytes at the start of every binary save. */
+    public static final int MAGIC = 0x474D4B53; // "GMKS"
+    /** Current version of the layout. */
+    public static final int VERSION = 2;
+    /** First version with a {@link SaveHeader} after the magic and version. */
+    public static final int FIRST_VERSION_WITH_HEADER = 2;
+
+    /** Flag: the grid is expandable. */
+    private static final int FLAG_EXPANDABLE = 1;
+    /** Flag: player 2 plays next. */
+    private static final int FLAG_PLAYER2_TO_MOVE = 2;
+    /** Flag: the move list is stored. */
+    private static final int FLAG_HISTORY = 4;
+
+    /** Player type: human. */
+    private static final int TYPE_HUMAN = 0;
+    /** Player type: AI. */
+    private static final int TYPE_AI = 1;
+
+    /** Biggest file accepted by {@link #read(Path)} (a 32767x32767 board image is 256 MB). */
+    private static final long MAX_FILE_SIZE = 1L << 30;
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private BinarySave() {
+    }
+
+    /**
+     * Writes a game to a file, replacing it if it exists.
+     *
+     * @param file the file to write
+     * @param game the game to save
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, SavedGame game) throws IOException {
+        writeAtomically(file, encode(game));
+    }
+
+    /**
+     * Writes encoded bytes to a temporary file next to the target, forces them to the
+     * disk and renames the temporary file over the target. A crash during the write
+     * leaves the old file untouched instead of a half-written one.
+     *
+     * @param file the file to write
+     * @param bytes the bytes to write (consumed)
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAtomically(Path file, ByteBuffer bytes) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = dir.resolve(file.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a game written by {@link #write(Path, SavedGame)}.
+     *
+     * @param file the file to read
+     * @return the game
+     * @throws IOException if the file cannot be read, is not a binary save or is damaged
+     */
+    public static SavedGame read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAX_FILE_SIZE) {
+                throw new IOException("Save file too big: " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Tells if a file starts with the binary save magic.
+     *
+     * @param file the file to check
+     * @return {@code true} if it is a binary save, {@code false} otherwise (e.g. an old serialized save)
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinarySave(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // read the 4 magic bytes
+            }
+            return head.position() == 4 && head.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Encodes a game into a buffer ready to be written.
+     *
+     * @param game the game
+     * @return the encoded bytes, positioned at 0
+     */
+    public static ByteBuffer encode(SavedGame game) {
+        Grid grid = game.getGrid();
+        int size = grid.getSize();
+        byte[] name1 = game.getPlayer1().getName().getBytes(StandardCharsets.UTF_8);
+        byte[] name2 = game.getPlayer2().getName().getBytes(StandardCharsets.UTF_8);
+        int[] moves = game.hasHistory() ? game.getMoves() : new int[0];
+        long cells = (long) size * size;
+
+        long length = 4 + 2 + SaveHeader.SIZE + 1 + 4 + 4 + 2 + 4
+                + playerLength(game.getPlayer1(), name1) + playerLength(game.getPlayer2(), name2)
+                + (cells + 3) / 4
+                + (game.hasHistory() ? 4 + 4L * moves.length : 0);
+        if (length > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("Game too big to be saved: " + length + " bytes");
+        }
+        ByteBuffer out = ByteBuffer.allocate((int) length);
+        byte[] image = grid.toBoardImage();
+        int pieces = 0;
+        for (byte cell : image) {
+            if (cell != 0) {
+                pieces++;
+            }
+        }
+
+        int flags = (game.isExpandable() ? FLAG_EXPANDABLE : 0)
+                | (game.getCurrentPlayer() == game.getPlayer2() ? FLAG_PLAYER2_TO_MOVE : 0)
+                | (game.hasHistory() ? FLAG_HISTORY : 0);
+        out.putInt(MAGIC).putShort((short) VERSION);
+        SaveHeader.of(game, pieces, System.currentTimeMillis()).writeTo(out);
+        out.put((byte) flags);
+        out.putInt(size).putInt(game.getStartSize()).putShort((short) game.getWinLength()).putInt(game.getPlayerPiece());
+        putPlayer(out, game.getPlayer1(), name1);
+        putPlayer(out, game.getPlayer2(), name2);
+
+        int packed = 0;
+        for (int k = 0; k < image.length; k++) {
+            packed |= image[k] << ((k & 3) * 2);
+            if ((k & 3) == 3) {
+                out.put((byte) packed);
+                packed = 0;
+            }
+        }
+        if ((image.length & 3) != 0) {
+            out.put((byte) packed);
+        }
+
+        if (game.hasHistory()) {
+            out.putInt(moves.length);
+            for (int move : moves) {
+                out.putInt(move);
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Decodes a game from a buffer.
+     *
+     * @param in the encoded bytes
+     * @return the game
+     * @throws IOException if the bytes are not a valid binary save
+     */
+    public static SavedGame decode(ByteBuffer in) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a binary save file.");
+            }
+            int version = in.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported save version " + version);
+            }
+            if (version >= FIRST_VERSION_WITH_HEADER) {
+                in.position(in.position() + SaveHeader.SIZE); // the summary repeats the body
+            }
+            int flags = in.get();
+            int size = in.getInt();
+            int startSize = in.getInt();
+            int winLength = in.getShort();
+            int playerPiece = in.getInt();
+            if (size <= 0 || size % 2 != 1 || (long) size * size > 4L * in.remaining()) {
+                throw new IOException("Invalid grid size " + size);
+            }
+            Player player1 = getPlayer(in);
+            Player player2 = getPlayer(in);
+
+            byte[] image = new byte[size * size];
+            int current = 0;
+            for (int k = 0; k < image.length; k++) {
+                if ((k & 3) == 0) {
+                    current = in.get();
+                }
+                image[k] = (byte) ((current >> ((k & 3) * 2)) & 3);
+            }
+            Grid grid = Grid.fromBoardImage(size, image);
+
+            int[] moves = new int[0];
+            if ((flags & FLAG_HISTORY) != 0) {
+                int count = in.getInt();
+                if (count < 0 || count > in.remaining() / 4) {
+                    throw new IOException("Invalid move count " + count);
+                }
+                moves = new int[count];
+                for (int i = 0; i < count; i++) {
+                    moves[i] = in.getInt();
+                }
+            }
+
+            Player toMove = (flags & FLAG_PLAYER2_TO_MOVE) != 0 ? player2 : player1;
+            return new SavedGame(grid, player1, player2, toMove, winLength, playerPiece,
+                    (flags & FLAG_EXPANDABLE) != 0, startSize, moves);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Save file is truncated.", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Save file is damaged: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the number of bytes of a player entry.
+     *
+     * @param player the player
+     * @param name the UTF-8 name
+     * @return the length in bytes
+     */
+    private static int playerLength(Player player, byte[] name) {
+        if (name.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Player name too long.");
+        }
+        int length = 1 + 1 + 4 + 2 + name.length;
+        if (player instanceof AIPlayer) {
+            length += 2 + 1 + 4 * EvalWeights.size();
+        }
+        return length;
+    }
+
+    /**
+     * Writes a player entry.
+     *
+     * @param out the buffer
+     * @param player the player
+     * @param name the UTF-8 name
+     */
+    private static void putPlayer(ByteBuffer out, Player player, byte[] name) {
+        boolean ai = player instanceof AIPlayer;
+        out.put((byte) (ai ? TYPE_AI : TYPE_HUMAN));
+        out.put((byte) player.getPlayerColor());
+        out.putInt(player.getPieceNum());
+        out.putShort((short) name.length).put(name);
+        if (ai) {
+            AIPlayer engine = (AIPlayer) player;
+            out.putShort((short) engine.getWinLength());
+            int[] weights = engine.getWeights().toArray();
+            out.put((byte) weights.length);
+            for (int w : weights) {
+                out.putInt(w);
+            }
+        }
+    }
+
+    /**
+     * Reads a player entry.
+     *
+     * @param in the buffer
+     * @return the player
+     * @throws IOException if the entry is invalid
+     */
+    private static Player getPlayer(ByteBuffer in) throws IOException {
+        int type = in.get();
+        int color = in.get();
+        int pieces = in.getInt();
+        int nameLength = Short.toUnsignedInt(in.getShort());
+        if (nameLength > in.remaining()) {
+            throw new IOException("Corrupted save.");
+        }
+        byte[] name = new byte[nameLength];
+        in.get(name);
+        String playerName = new String(name, StandardCharsets.UTF_8);
+        if (color != 0 && color != 1) {
+            throw new IOException("Invalid player color " + color);
+        }
+        switch (type) {
+            case TYPE_HUMAN:
+                return new Human(playerName, color, pieces);
+            case TYPE_AI:
+                AIPlayer engine = new AIPlayer(playerName, color, in.getShort(), pieces);
+                int weightCount = Byte.toUnsignedInt(in.get());
+                if (weightCount > in.remaining() / 4) {
+                    throw new IOException("Corrupted save.");
+                }
+                int[] weights = new int[weightCount];
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = in.getInt();
+                }
+                engine.setWeights(new EvalWeights(weights));
+                return engine;
+            default:
+                throw new IOException("Unknown player type " + type);
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package save;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import model.GameRecord;
+
+/**
+ * An archive of many games in a few files, with direct access to game number k.
+ * <p>
+ * Games are stored one after the other in the compact delta format of
+ * {@link RecordEncoder} (about one byte per move) in segment
+ * files of limited size ({@code segment-00000.gma}, {@code segment-00001.gma}...).
+ * A separate index file has one fixed-width entry per game (segment, offset,
+ * length, move count), so finding game k is one multiplication: no listing, no
+ * scan. Segments and index are read through memory maps, so a sequential scan
+ * reads at the speed of the disk (or of the page cache).
+ * </p>
+ *
+ * <p>
+ * The game bytes are written before the index entry, so the index is the commit
+ * point: after a crash, {@link #open(Path)} drops a torn index entry and any
+ * segment bytes no entry points to.
+ * </p>
+ *
+ * <p>
+ * Appends are serialized; reads may run from many threads at the same time.
+ * Archives of the first version (4 bytes per move) are still read and appended
+ * to in their own format.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-05-31
+ */
+public class GameArchive implements Closeable {
+
+    /** Magic bytes of the index file. */
+    static final int INDEX_MAGIC = 0x474D4B49; // "GMKI"
+    /** Magic bytes of a segment file. */
+    static final int SEGMENT_MAGIC = 0x474D4B41; // "GMKA"
+    /** Version of the archive layout. */
+    static final int VERSION = 2;
+    /** Version of the archives storing the fixed-size {@link GameRecord} encoding. */
+    static final int FIRST_VERSION = 1;
+
+    /** Size of the index header: magic, version, segment size, reserved. */
+    private static final int INDEX_HEADER = 16;
+    /** Size of one index entry: segment, offset, length, move count. */
+    private static final int ENTRY_SIZE = 16;
+    /** Size of the segment header: magic, version. */
+    private static final int SEGMENT_HEADER = 8;
+
+    /** Default maximum size of a segment (64 MB). */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    /** Name of the index file. */
+    private static final String INDEX_FILE = "index.gmi";
+
+    /** Folder of the archive. */
+    private final Path dir;
+    /** Maximum size of a segment. */
+    private final int segmentSize;
+    /** Layout version of this archive. */
+    private final int version;
+    /** Channel of the index file. */
+    private final FileChannel index;
+    /** Channels of the segments, by number. */
+    private final List<FileChannel> segments = new ArrayList<>();
+    /** Read-only maps of the segments, remapped when a segment grew. */
+    private final List<MappedByteBuffer> segmentMaps = new ArrayList<>();
+    /** Read-only map of the index, remapped when it grew. */
+    private MappedByteBuffer indexMap;
+
+    /** Number of games in the archive. */
+    private volatile long count;
+    /** Used bytes of the last segment. */
+    private long segmentEnd;
+
+    /**
+     * Opens an archive.
+     *
+     * @param dir the folder of the archive
+     * @param segmentSize the maximum size of a segment for a new archive (an existing one keeps its own)
+     * @param channel the opened index channel
+     * @throws IOException if the files cannot be read or are not an archive
+     */
+    private GameArchive(Path dir, int segmentSize, FileChannel channel) throws IOException {
+        this.dir = dir;
+        this.index = channel;
+        if (channel.size() < INDEX_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+            header.putInt(INDEX_MAGIC).putInt(VERSION).putInt(segmentSize).putInt(0).flip();
+            writeFully(channel, header, 0);
+            channel.truncate(INDEX_HEADER);
+            this.segmentSize = segmentSize;
+            this.version = VERSION;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != INDEX_MAGIC) {
+                throw new IOException("Not a game archive: " + dir);
+            }
+            this.version = header.getInt(4);
+            if (version != VERSION && version != FIRST_VERSION) {
+                throw new IOException("Unsupported archive version " + version);
+            }
+            this.segmentSize = header.getInt(8);
+        }
+        recover();
+    }
+
+    /**
+     * Opens an archive, creating it if the folder has none.
+     *
+     * @param dir the folder of the archive
+     * @return the opened archive
+     * @throws IOException if the archive cannot be opened
+     */
+    public static GameArchive open(Path dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens an archive, creating it with the given segment size if the folder has none.
+     *
+     * @param dir the folder of the archive
+     * @param segmentSize the maximum size of a segment, in bytes
+     * @return the opened archive
+     * @throws IOException if the archive cannot be opened
+     * @throws IllegalArgumentException if the segment size is too small
+     */
+    public static GameArchive open(Path dir, int segmentSize) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("Segment size must be at least 1024 bytes.");
+        }
+        Files.createDirectories(dir);
+        FileChannel channel = FileChannel.open(dir.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new GameArchive(dir, segmentSize, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a game at the end of the archive.
+     *
+     * @param record the game
+     * @return the number of the game (its index)
+     * @throws IOException if the archive cannot be written
+     * @throws IllegalArgumentException if the game does not fit in a segment
+     */
+    public synchronized long append(GameRecord record) throws IOException {
+        ByteBuffer data;
+        if (version == FIRST_VERSION) {
+            data = ByteBuffer.allocate(record.encodedSize());
+            record.writeTo(data);
+        } else {
+            data = ByteBuffer.allocate(RecordEncoder.maxEncodedSize(record));
+            RecordEncoder.encode(record, data);
+        }
+        data.flip();
+        int length = data.remaining();
+        if (length > segmentSize - SEGMENT_HEADER) {
+            throw new IllegalArgumentException("Game too big for a segment: " + length + " bytes");
+        }
+        if (segments.isEmpty() || segmentEnd + length > segmentSize) {
+            openSegment(segments.size(), true);
+        }
+        int segment = segments.size() - 1;
+
+        writeFully(segments.get(segment), data, segmentEnd);
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        entry.putInt(segment).putInt((int) segmentEnd).putInt(length).putInt(record.getMoveCount()).flip();
+        writeFully(index, entry, INDEX_HEADER + count * ENTRY_SIZE);
+
+        segmentEnd += length;
+        return count++;
+    }
+
+    /**
+     * Returns game number k.
+     *
+     * @param k the number of the game, from 0
+     * @return the game
+     * @throws IOException if the game cannot be read
+     * @throws IndexOutOfBoundsException if there is no game k
+     */
+    public GameRecord get(long k) throws IOException {
+        return decode(data(k));
+    }
+
+    /**
+     * Returns the number of moves of game k, read from the index only.
+     *
+     * @param k the number of the game, from 0
+     * @return the move count
+     * @throws IOException if the index cannot be read
+     * @throws IndexOutOfBoundsException if there is no game k
+     */
+    public int getMoveCount(long k) throws IOException {
+        return entry(k).getInt(12);
+    }
+
+    /**
+     * Reads every game in order.
+     *
+     * @param action what to do with each game
+     * @throws IOException if a game cannot be read
+     */
+    public void scan(Consumer<GameRecord> action) throws IOException {
+        long n = count;
+        ByteBuffer entries = indexView(INDEX_HEADER + n * ENTRY_SIZE);
+        ByteBuffer map = null;
+        int mapped = -1;
+        for (long k = 0; k < n; k++) {
+            int position = (int) (INDEX_HEADER + k * ENTRY_SIZE);
+            int segment = entries.getInt(position);
+            int offset = entries.getInt(position + 4);
+            int length = entries.getInt(position + 8);
+            if (segment != mapped || map.capacity() < offset + length) {
+                map = segmentView(segment, (long) offset + length); // once per segment, not per game
+                mapped = segment;
+            }
+            action.accept(decode(map.slice(offset, length)));
+        }
+    }
+
+    /**
+     * Returns the layout version of the archive ({@link #FIRST_VERSION} for the fixed-size moves).
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of games.
+     *
+     * @return the game count
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Returns the folder of the archive.
+     *
+     * @return the archive folder
+     */
+    public Path getDirectory() {
+        return dir;
+    }
+
+    /**
+     * Forces the written games to the disk.
+     *
+     * @throws IOException if the force fails
+     */
+    public synchronized void flush() throws IOException {
+        for (FileChannel segment : segments) {
+            segment.force(false);
+        }
+        index.force(false);
+    }
+
+    /**
+     * Forces and closes every file of the archive.
+     *
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : segments) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        try {
+            index.force(false);
+            index.close();
+        } catch (IOException e) {
+            failure = failure == null ? e : failure;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns a read-only view of the bytes of game k.
+     *
+     * @param k the number of the game
+     * @return the bytes, positioned at the game and limited to it
+     * @throws IOException if the files cannot be read
+     */
+    ByteBuffer data(long k) throws IOException {
+        ByteBuffer entry = entry(k);
+        int segment = entry.getInt(0);
+        int offset = entry.getInt(4);
+        int length = entry.getInt(8);
+        ByteBuffer map = segmentView(segment, (long) offset + length);
+        return map.slice(offset, length);
+    }
+
+    /**
+     * Decodes the bytes of one game in the format of this archive.
+     *
+     * @param data the bytes of the game
+     * @return the game
+     * @throws IOException if the bytes are not a valid game
+     */
+    private GameRecord decode(ByteBuffer data) throws IOException {
+        return version == FIRST_VERSION ? GameRecord.readFrom(data) : RecordDecoder.decode(data);
+    }
+
+    /**
+     * Returns the index entry of game k.
+     *
+     * @param k the number of the game
+     * @return a 16-byte view of the entry
+     * @throws IOException if the index cannot be read
+     */
+    private ByteBuffer entry(long k) throws IOException {
+        if (k < 0 || k >= count) {
+            throw new IndexOutOfBoundsException("No game " + k + " (archive has " + count + ")");
+        }
+        long position = INDEX_HEADER + k * ENTRY_SIZE;
+        return indexView(position + ENTRY_SIZE).slice((int) position, ENTRY_SIZE);
+    }
+
+    /**
+     * Returns the map of the index, remapping it if it is shorter than needed.
+     *
+     * @param needed the number of bytes which must be mapped
+     * @return the index map
+     * @throws IOException if the index cannot be mapped
+     */
+    private synchronized ByteBuffer indexView(long needed) throws IOException {
+        if (indexMap == null || indexMap.capacity() < needed) {
+            indexMap = index.map(FileChannel.MapMode.READ_ONLY, 0, index.size());
+        }
+        return indexMap;
+    }
+
+    /**
+     * Returns the map of a segment, remapping it if it is shorter than needed.
+     *
+     * @param segment the segment number
+     * @param needed the number of bytes which must be mapped
+     * @return the segment map
+     * @throws IOException if the segment cannot be mapped
+     */
+    private synchronized ByteBuffer segmentView(int segment, long needed) throws IOException {
+        if (segment < 0 || segment >= segments.size()) {
+            throw new IOException("Index points to a missing segment " + segment);
+        }
+        MappedByteBuffer map = segmentMaps.get(segment);
+        if (map == null || map.capacity() < needed) {
+            FileChannel channel = segments.get(segment);
+            if (channel.size() < needed) {
+                throw new IOException("Index points after the end of segment " + segment);
+            }
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            segmentMaps.set(segment, map);
+        }
+        return map;
+    }
+
+    /**
+     * Opens (or creates) a segment file and makes it the last one.
+     *
+     * @param number the segment number
+     * @param create {@code true} to create a new empty segment
+     * @throws IOException if the segment cannot be opened
+     */
+    private void openSegment(int number, boolean create) throws IOException {
+        Path file = dir.resolve(String.format("segment-%05d.gma", number));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (create || channel.size() < SEGMENT_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+            header.putInt(SEGMENT_MAGIC).putInt(version).flip();
+            writeFully(channel, header, 0);
+            channel.truncate(SEGMENT_HEADER);
+        }
+        segments.add(channel);
+        segmentMaps.add(null);
+        segmentEnd = SEGMENT_HEADER;
+    }
+
+    /**
+     * Makes the files consistent after a crash: drops a torn index entry, the
+     * segment bytes after the last indexed game and the segments after it.
+     *
+     * @throws IOException if the files cannot be repaired
+     */
+    private void recover() throws IOException {
+        count = (index.size() - INDEX_HEADER) / ENTRY_SIZE;
+        index.truncate(INDEX_HEADER + count * ENTRY_SIZE);
+
+        int lastSegment = 0;
+        long lastEnd = SEGMENT_HEADER;
+        if (count > 0) {
+            ByteBuffer last = ByteBuffer.allocate(ENTRY_SIZE);
+            readFully(index, last, INDEX_HEADER + (count - 1) * ENTRY_SIZE);
+            lastSegment = last.getInt(0);
+            lastEnd = (long) last.getInt(4) + last.getInt(8);
+        }
+        for (int s = 0; s <= lastSegment; s++) {
+            openSegment(s, false);
+        }
+        FileChannel tail = segments.get(lastSegment);
+        if (tail.size() < lastEnd) {
+            throw new IOException("Segment " + lastSegment + " is shorter than its index.");
+        }
+        tail.truncate(lastEnd);
+        segmentEnd = lastEnd;
+        for (int s = lastSegment + 1; Files.exists(dir.resolve(String.format("segment-%05d.gma", s))); s++) {
+            Files.delete(dir.resolve(String.format("segment-%05d.gma", s)));
+        }
+    }
+
+    /**
+     * Writes a whole buffer at a position.
+     *
+     * @param channel the file
+     * @param buffer the bytes
+     * @param position the position in the file
+     * @throws IOException if the write fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Fills a buffer from a position.
+     *
+     * @param channel the file
+     * @param buffer the buffer to fill
+     * @param position the position in the file
+     * @throws IOException if the file is too short or cannot be read
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of archive file.");
+            }
+            position += read;
+        }
+    }
+}
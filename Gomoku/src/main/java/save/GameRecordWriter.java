@@ -0,0 +1,175 @@
+package save;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import model.GameRecord;
+
+/**
+ * Streams {@link GameRecord}s to a file from many threads at once.
+ * <p>
+ * Game threads only put records into a bounded queue; one background thread takes
+ * them out and writes them through a buffered stream. So a game thread never waits
+ * for the disk, except when the queue is full (then it slows down instead of
+ * using all the memory).
+ * </p>
+ *
+ * <p>
+ * File layout: the magic {@code "GMKR"}, a version byte, then the records one after
+ * the other as written by {@link GameRecord#writeTo(java.io.DataOutput)}.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-05-22
+ */
+public class GameRecordWriter implements Closeable {
+
+    /** Magic bytes at the start of every record file. */
+    static final int MAGIC = 0x474D4B52; // "GMKR"
+    /** Version of the record file layout. */
+    static final int VERSION = 1;
+
+    /** Object put in the queue to tell the writer thread to stop. */
+    private static final GameRecord END = new GameRecord(1, 1, 0, false, 0, new int[0], GameRecord.DRAW);
+
+    /** Records waiting to be written. */
+    private final BlockingQueue<GameRecord> queue;
+    /** The thread writing the records. */
+    private final Thread writerThread;
+    /** Output stream of the file. */
+    private final DataOutputStream out;
+    /** First error of the writer thread, reported by {@link #close()}. */
+    private volatile IOException failure;
+    /** Number of records written so far. */
+    private volatile long written;
+
+    /**
+     * Opens (or replaces) a record file and starts the writer thread.
+     *
+     * @param file the file to write
+     * @param queueCapacity how many records can wait before {@link #append(GameRecord)} blocks
+     * @throws IOException if the file cannot be created
+     */
+    public GameRecordWriter(Path file, int queueCapacity) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::drain, "record-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Adds a record to be written. Can be called from any thread.
+     *
+     * @param record the record to write
+     * @throws InterruptedException if the thread is interrupted while the queue is full
+     * @throws IllegalStateException if the writer already failed
+     */
+    public void append(GameRecord record) throws InterruptedException {
+        while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+            if (failure != null) {
+                throw new IllegalStateException("Record writer failed.", failure);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records already written to the stream.
+     *
+     * @return the number of written records
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Writes the remaining records, then closes the file.
+     *
+     * @throws IOException if a record could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            while (failure == null && !queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                // wait until the writer makes room for the end marker
+            }
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Body of the writer thread: takes records and writes them until {@link #END}.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                GameRecord record = queue.take();
+                if (record == END) {
+                    break;
+                }
+                record.writeTo(out);
+                written++;
+            }
+            out.flush();
+        } catch (IOException e) {
+            failure = e;
+            queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads every record of a file written by this class.
+     *
+     * @param file the record file
+     * @return the records in file order
+     * @throws IOException if the file cannot be read or is not a record file
+     */
+    public static List<GameRecord> readAll(Path file) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a game record file: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported record file version " + version);
+            }
+            while (true) {
+                try {
+                    records.add(GameRecord.readFrom(in));
+                } catch (EOFException e) {
+                    break; // end of file
+                }
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,399 @@
+package save;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import model.GameCore;
+import model.GameListener;
+import model.GameRecord;
+import model.Player;
+
+/**
+ * Append-only journal of a game, used as a crash-safe autosave.
+ * <p>
+ * Attached to a {@link GameCore} as a listener, it appends each move as 5 bytes
+ * (a tag and the packed move). Every few turns it writes a checkpoint: the whole
+ * game in the {@link BinarySave} format, protected by a CRC. To recover, the last
+ * valid checkpoint is loaded and the moves written after it are played again
+ * (see {@link #recover(Path)}). A record cut by a crash at the end of the file is
+ * simply ignored.
+ * </p>
+ *
+ * <p>
+ * Forcing the file to the disk is the expensive part, so it is grouped: a shared
+ * background thread calls {@link FileChannel#force(boolean)} at a fixed interval,
+ * only on journals which changed. At most the last interval of moves can be lost.
+ * With an interval of 0, every record is forced before the move returns.
+ * </p>
+ *
+ * <p>
+ * Layout: magic {@code "GMKJ"} (int), version (byte), then records:
+ * {@code 'M'} + packed move (int), {@code 'C'} + length (int) + CRC32 (int) +
+ * binary save, {@code 'E'} + result (byte).
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-05-30
+ */
+public class MoveJournal implements GameListener, Closeable {
+
+    /** Magic bytes at the start of every journal. */
+    public static final int MAGIC = 0x474D4B4A; // "GMKJ"
+    /** Version of the journal layout. */
+    public static final int VERSION = 1;
+    /** File extension of journals in the {@code data} folder. */
+    public static final String EXTENSION = ".journal";
+
+    /** Record tag: a move. */
+    private static final byte TAG_MOVE = 'M';
+    /** Record tag: a checkpoint. */
+    private static final byte TAG_CHECKPOINT = 'C';
+    /** Record tag: the end of the game. */
+    private static final byte TAG_END = 'E';
+
+    /** Thread forcing the journals to the disk, shared by all journals. */
+    private static final ScheduledExecutorService SYNC = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "journal-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The journal file. */
+    private final Path file;
+    /** Channel of the journal file. */
+    private final FileChannel channel;
+    /** Buffer reused for move records. */
+    private final ByteBuffer moveBuffer = ByteBuffer.allocate(5);
+    /** Number of turns between two checkpoints. */
+    private final int checkpointEvery;
+    /** {@code true} if every record is forced at once (no group commit). */
+    private final boolean syncEveryRecord;
+    /** {@code true} if something was written since the last force. */
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    /** Periodic force task, or {@code null} when every record is forced. */
+    private final ScheduledFuture<?> syncTask;
+
+    /** Moves written since the last checkpoint. */
+    private int movesSinceCheckpoint;
+    /** {@code true} once the first checkpoint is written. */
+    private boolean hasCheckpoint;
+    /** First write error; the journal stops writing after it. */
+    private volatile IOException failure;
+    /** {@code true} once closed. */
+    private boolean closed;
+
+    /**
+     * Creates a new journal, replacing the file if it exists.
+     *
+     * @param file the journal file
+     * @param checkpointEvery number of turns between two checkpoints (at least 1)
+     * @param forceIntervalMillis interval of the group commit; 0 forces every record
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if {@code checkpointEvery < 1} or the interval is negative
+     */
+    public MoveJournal(Path file, int checkpointEvery, long forceIntervalMillis) throws IOException {
+        if (checkpointEvery < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1.");
+        }
+        if (forceIntervalMillis < 0) {
+            throw new IllegalArgumentException("Force interval cannot be negative.");
+        }
+        this.file = file;
+        this.checkpointEvery = checkpointEvery;
+        this.syncEveryRecord = forceIntervalMillis == 0;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(5);
+        header.putInt(MAGIC).put((byte) VERSION).flip();
+        writeFully(header);
+        channel.force(true);
+
+        this.syncTask = syncEveryRecord ? null
+                : SYNC.scheduleWithFixedDelay(this::forceIfDirty, forceIntervalMillis, forceIntervalMillis,
+                        TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends the move.
+     *
+     * @param game the game
+     * @param player the player who moved
+     * @param row the row
+     * @param col the column
+     */
+    @Override
+    public void onMove(GameCore game, Player player, int row, int col) {
+        moveBuffer.clear();
+        moveBuffer.put(TAG_MOVE).putInt(GameRecord.pack(player.getPlayerColor(), row, col)).flip();
+        append(moveBuffer);
+        movesSinceCheckpoint++;
+    }
+
+    /**
+     * Writes a checkpoint if enough moves were played since the last one.
+     *
+     * @param game the game
+     * @param toMove the player who plays next
+     */
+    @Override
+    public void onTurn(GameCore game, Player toMove) {
+        if (!hasCheckpoint || movesSinceCheckpoint >= checkpointEvery) {
+            checkpoint(game);
+        }
+    }
+
+    /**
+     * Marks the end of the game.
+     *
+     * @param game the game
+     * @param winner the winner
+     */
+    @Override
+    public void onWin(GameCore game, Player winner) {
+        writeEnd(winner.getPlayerColor());
+    }
+
+    /**
+     * Marks the end of the game.
+     *
+     * @param game the game
+     * @param reason why the game is a draw
+     */
+    @Override
+    public void onDraw(GameCore game, String reason) {
+        writeEnd(GameRecord.DRAW);
+    }
+
+    /**
+     * Writes a checkpoint of the game now.
+     *
+     * @param game the game
+     */
+    public void checkpoint(GameCore game) {
+        ByteBuffer image = BinarySave.encode(SavedGame.fromCore(game));
+        CRC32 crc = new CRC32();
+        crc.update(image.duplicate());
+
+        ByteBuffer record = ByteBuffer.allocate(9 + image.remaining());
+        record.put(TAG_CHECKPOINT).putInt(image.remaining()).putInt((int) crc.getValue()).put(image).flip();
+        append(record);
+        hasCheckpoint = true;
+        movesSinceCheckpoint = 0;
+    }
+
+    /**
+     * Returns the first write error, if any. Autosave must never stop the game,
+     * so errors are kept here instead of being thrown to the game loop.
+     *
+     * @return the error, or {@code null}
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return the path of the journal
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Forces the journal to the disk and closes it.
+     *
+     * @throws IOException if the last force or the close fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Closes the journal and deletes its file (the game ended normally, nothing to recover).
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    public void discard() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Rebuilds a game from a journal: loads the last valid checkpoint and plays again
+     * the moves written after it.
+     *
+     * @param file the journal file
+     * @return the game as it was after the last saved move
+     * @throws IOException if the file is not a journal, has no valid checkpoint, or its game is over
+     */
+    public static SavedGame recover(Path file) throws IOException {
+        // Read, not mapped: the file is truncated right after by the next journal, which
+        // fails on Windows while a mapping of it is still alive
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < 5 || in.getInt() != MAGIC) {
+            throw new IOException("Not a journal file.");
+        }
+        if (in.get() != VERSION) {
+            throw new IOException("Unsupported journal version.");
+        }
+
+        int checkpointAt = -1;
+        int checkpointLength = 0;
+        boolean ended = false;
+        int[] moves = new int[64];
+        int moveCount = 0;
+        try {
+            while (in.hasRemaining()) {
+                byte tag = in.get();
+                if (tag == TAG_MOVE) {
+                    int move = in.getInt(); // read first: a cut record must not be counted
+                    if (moveCount == moves.length) {
+                        moves = Arrays.copyOf(moves, moveCount * 2);
+                    }
+                    moves[moveCount++] = move;
+                } else if (tag == TAG_CHECKPOINT) {
+                    int length = in.getInt();
+                    int expected = in.getInt();
+                    if (length < 0 || length > in.remaining()) {
+                        break; // cut by a crash
+                    }
+                    ByteBuffer image = in.slice(in.position(), length);
+                    CRC32 crc = new CRC32();
+                    crc.update(image.duplicate());
+                    if ((int) crc.getValue() != expected) {
+                        break; // damaged: nothing after it can be trusted
+                    }
+                    checkpointAt = in.position();
+                    checkpointLength = length;
+                    in.position(in.position() + length);
+                    moveCount = 0; // only the moves after the last checkpoint are replayed
+                } else if (tag == TAG_END) {
+                    in.get();
+                    ended = true;
+                } else {
+                    break; // garbage at the end of the file
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // The last record was cut by a crash; everything before it is valid.
+        }
+
+        if (ended) {
+            throw new IOException("The game of this journal is already over.");
+        }
+        if (checkpointAt < 0) {
+            throw new IOException("The journal has no valid checkpoint.");
+        }
+
+        SavedGame checkpoint = BinarySave.decode(in.slice(checkpointAt, checkpointLength));
+        GameCore core = new GameCore(checkpoint.getGrid(), checkpoint.getPlayer1(), checkpoint.getPlayer2(),
+                checkpoint.getPlayerPiece(), checkpoint.getWinLength(), checkpoint.isExpandable());
+        if (checkpoint.hasHistory()) {
+            core.resume(checkpoint.getCurrentPlayer(), checkpoint.getStartSize(), checkpoint.getMoves());
+        } else {
+            core.resume(checkpoint.getCurrentPlayer());
+        }
+        for (int i = 0; i < moveCount && !core.isTerminal(); i++) {
+            int move = moves[i];
+            if (GameRecord.colorOf(move) != core.getCurrentPlayer().getPlayerColor()) {
+                throw new IOException("Journal move " + i + " is not from the player to move.");
+            }
+            try {
+                core.submitMove(GameRecord.rowOf(move), GameRecord.colOf(move));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Journal move " + i + " is illegal: " + e.getMessage(), e);
+            }
+        }
+        return SavedGame.fromCore(core);
+    }
+
+    /**
+     * Writes the end record and forces the journal.
+     *
+     * @param result the winner color or {@link GameRecord#DRAW}
+     */
+    private void writeEnd(int result) {
+        ByteBuffer record = ByteBuffer.allocate(2);
+        record.put(TAG_END).put((byte) result).flip();
+        append(record);
+        forceIfDirty();
+    }
+
+    /**
+     * Appends a record, and forces it if there is no group commit.
+     *
+     * @param record the record bytes
+     */
+    private synchronized void append(ByteBuffer record) {
+        if (closed || failure != null) {
+            return;
+        }
+        try {
+            writeFully(record);
+            if (syncEveryRecord) {
+                channel.force(false);
+            } else {
+                dirty.set(true);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Group commit: forces the journal if something was written since the last force.
+     */
+    private void forceIfDirty() {
+        if (dirty.getAndSet(false)) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                if (channel.isOpen()) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a whole buffer to the channel.
+     *
+     * @param buffer the bytes to write
+     * @throws IOException if the write fails
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
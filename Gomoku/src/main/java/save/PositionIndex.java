@@ -0,0 +1,896 @@
+package save;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import model.GameRecord;
+import model.Grid;
+import model.Piece;
+
+/**
+ * Index of the positions reached by the archived games: which games went through
+ * a position (or any of its 8 rotations and mirrors), at which ply, and how they ended.
+ * <p>
+ * A position is hashed from its pieces, with coordinates relative to the center
+ * of the grid (an expansion keeps the center, so a position keeps its hash when
+ * the grid grows). Each of the 8 symmetries gets its own hash and the smallest one
+ * is the canonical hash, so symmetric positions share their postings. Two
+ * different positions may in rare cases share a hash.
+ * </p>
+ *
+ * <p>
+ * New postings (hash, game, ply, result) go to a buffer in memory. A full buffer is
+ * sorted and written as a run file ({@code run-00000001.gpr}); a query binary
+ * searches every memory-mapped run. When {@value #MERGE_FANIN} neighbouring runs
+ * have about the same size, a background thread merges them into one, so a
+ * query looks at few runs and a posting is rewritten only a few times. The games
+ * are indexed in archive order, and each run holds the postings of one range of
+ * games; after a crash {@link #catchUp(GameArchive)} indexes the games the runs do
+ * not cover. The inputs of a merge stay on disk while they are mapped, and
+ * {@link #open(Path)} deletes them (and runs left over by a crash) before mapping
+ * anything.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-04
+ */
+public class PositionIndex implements Closeable {
+
+    /** Magic bytes of a run file. */
+    static final int MAGIC = 0x474D4B50; // "GMKP"
+    /** Version of the run layout. */
+    static final int VERSION = 1;
+    /** Size of the run header: magic, version, posting count, first game, game after the last. */
+    private static final int HEADER = 32;
+    /** Size of one posting: hash, game, ply, result, padding. */
+    private static final int POSTING_SIZE = 16;
+    /** Postings kept in memory before a run is written. */
+    static final int BUFFER_POSTINGS = 1 << 18;
+    /** Number of runs of about the same size merged together. */
+    static final int MERGE_FANIN = 4;
+    /** Biggest run a merge may create (a run is mapped as one buffer). */
+    private static final long MAX_RUN_POSTINGS = (Integer.MAX_VALUE - HEADER) / POSTING_SIZE;
+
+    /**
+     * One game that went through a position.
+     */
+    public static final class Posting {
+
+        /** Number of the game in the archive. */
+        private final long game;
+        /** Number of pieces on the board when the game reached the position. */
+        private final int ply;
+        /** Result of the game, as in {@link GameRecord}. */
+        private final int result;
+
+        /**
+         * Creates a posting.
+         *
+         * @param game the game number
+         * @param ply the ply
+         * @param result the result
+         */
+        Posting(long game, int ply, int result) {
+            this.game = game;
+            this.ply = ply;
+            this.result = result;
+        }
+
+        /**
+         * Returns the number of the game in the archive.
+         *
+         * @return the game number
+         */
+        public long getGame() {
+            return game;
+        }
+
+        /**
+         * Returns the number of pieces on the board when the game reached the position.
+         *
+         * @return the ply
+         */
+        public int getPly() {
+            return ply;
+        }
+
+        /**
+         * Returns the result of the game: the winner color, {@link GameRecord#DRAW} or {@link GameRecord#UNFINISHED}.
+         *
+         * @return the result
+         */
+        public int getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Answer to a query: how many games went through the position, their results,
+     * and the first postings.
+     */
+    public static final class Result {
+
+        /** Games by result: unfinished, draw, white won, black won. */
+        private final long[] results = new long[4];
+        /** The first postings found. */
+        private final List<Posting> postings = new ArrayList<>();
+
+        /**
+         * Returns the number of games through the position.
+         *
+         * @return the game count
+         */
+        public long getGames() {
+            return results[0] + results[1] + results[2] + results[3];
+        }
+
+        /**
+         * Returns the number of games won by a color.
+         *
+         * @param color the color (0 white, 1 black)
+         * @return the win count
+         */
+        public long getWins(int color) {
+            return results[color + 2];
+        }
+
+        /**
+         * Returns the number of drawn games.
+         *
+         * @return the draw count
+         */
+        public long getDraws() {
+            return results[1];
+        }
+
+        /**
+         * Returns the number of unfinished games.
+         *
+         * @return the unfinished count
+         */
+        public long getUnfinished() {
+            return results[0];
+        }
+
+        /**
+         * Returns the first postings found (up to the limit of the query).
+         *
+         * @return the postings
+         */
+        public List<Posting> getPostings() {
+            return postings;
+        }
+
+        /**
+         * Counts one posting, and keeps it if there is room.
+         *
+         * @param value the packed posting
+         * @param limit the most postings to keep
+         */
+        private void add(long value, int limit) {
+            int result = (byte) value;
+            results[result + 2]++;
+            if (postings.size() < limit) {
+                postings.add(new Posting(value >>> 32, (int) (value >>> 16) & 0xFFFF, result));
+            }
+        }
+    }
+
+    /**
+     * A sorted run file, mapped read-only.
+     */
+    private static final class Run {
+
+        /** Number of the run (newer runs have bigger numbers). */
+        private final long id;
+        /** The run file. */
+        private final Path file;
+        /** First game of the run. */
+        private final long from;
+        /** Game after the last game of the run. */
+        private final long to;
+        /** Number of postings. */
+        private final long count;
+        /** The mapped file. */
+        private final MappedByteBuffer map;
+
+        /**
+         * Creates a run.
+         *
+         * @param id the run number
+         * @param file the run file
+         * @param from the first game
+         * @param to the game after the last
+         * @param count the number of postings
+         * @param map the mapped file
+         */
+        Run(long id, Path file, long from, long to, long count, MappedByteBuffer map) {
+            this.id = id;
+            this.file = file;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+            this.map = map;
+        }
+
+        /**
+         * Returns the hash of a posting.
+         *
+         * @param i the posting number
+         * @return its hash
+         */
+        long hash(long i) {
+            return map.getLong((int) (HEADER + i * POSTING_SIZE));
+        }
+
+        /**
+         * Returns the packed game, ply and result of a posting.
+         *
+         * @param i the posting number
+         * @return {@code game << 32 | ply << 16 | result & 0xFF}
+         */
+        long value(long i) {
+            return map.getLong((int) (HEADER + i * POSTING_SIZE + 8));
+        }
+
+        /**
+         * Finds the first posting with a hash not smaller than the given one.
+         *
+         * @param hash the hash
+         * @return the posting number, or {@link #count}
+         */
+        long lowerBound(long hash) {
+            long low = 0;
+            long high = count;
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                if (hash(mid) < hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the size class of the run, for the merge policy.
+         *
+         * @return 0 for a run of one buffer, then one more for each {@value #MERGE_FANIN} times bigger
+         */
+        int level() {
+            int level = 0;
+            for (long size = count / BUFFER_POSTINGS; size >= MERGE_FANIN; size /= MERGE_FANIN) {
+                level++;
+            }
+            return level;
+        }
+    }
+
+    /** Folder of the run files. */
+    private final Path dir;
+    /** Runs sorted by first game; replaced as a whole on every change. */
+    private volatile List<Run> runs;
+    /** Number of the next run file. */
+    private long nextId;
+
+    /** Hashes of the buffered postings. */
+    private final long[] bufferHashes = new long[BUFFER_POSTINGS];
+    /** Packed values of the buffered postings. */
+    private final long[] bufferValues = new long[BUFFER_POSTINGS];
+    /** Number of buffered postings. */
+    private int buffered;
+    /** First game of the buffer. */
+    private long bufferFrom;
+    /** Game after the last indexed game. */
+    private long indexed;
+
+    /** Thread merging runs in the background. */
+    private final ExecutorService merger = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "position-merge");
+        t.setDaemon(true);
+        return t;
+    });
+    /** First error of a background merge, reported by {@link #flush()} and {@link #close()}. */
+    private volatile IOException mergeFailure;
+
+    /**
+     * Opens an index.
+     *
+     * @param dir the folder of the runs
+     * @param runs the valid runs
+     * @param nextId the number of the next run file
+     */
+    private PositionIndex(Path dir, List<Run> runs, long nextId) {
+        this.dir = dir;
+        this.runs = runs;
+        this.nextId = nextId;
+        for (Run run : runs) {
+            indexed = Math.max(indexed, run.to);
+        }
+        this.bufferFrom = indexed;
+    }
+
+    /**
+     * Opens the index of a folder, creating it if needed. Temporary files, broken runs
+     * and runs left by a merge (whose output was written) are deleted before any run
+     * is mapped: a mapped file cannot be deleted on every system.
+     *
+     * @param dir the folder of the runs
+     * @return the index
+     * @throws IOException if the folder cannot be read
+     */
+    public static PositionIndex open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files = new ArrayList<>();
+        List<long[]> headers = new ArrayList<>(); // {id, first game, game after the last}
+        long nextId = 1;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "run-*")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".gpr")) {
+                    deleteQuietly(file); // unfinished run
+                    continue;
+                }
+                long id = Long.parseLong(name.substring(4, name.length() - 4));
+                nextId = Math.max(nextId, id + 1);
+                long[] range = readRange(file);
+                if (range == null) {
+                    deleteQuietly(file);
+                } else {
+                    files.add(file);
+                    headers.add(new long[]{id, range[0], range[1]});
+                }
+            }
+        }
+        List<Run> valid = new ArrayList<>();
+        for (int i = 0; i < headers.size(); i++) {
+            long[] run = headers.get(i);
+            boolean covered = false;
+            for (long[] other : headers) {
+                if (other != run && other[1] <= run[1] && run[2] <= other[2]
+                        && (other[2] - other[1] > run[2] - run[1] || other[0] > run[0])) {
+                    covered = true; // input of a merge whose output was already written
+                }
+            }
+            if (covered) {
+                deleteQuietly(files.get(i));
+            } else {
+                Run mapped = mapRun(run[0], files.get(i));
+                if (mapped == null) {
+                    throw new IOException("Run changed while opening the index: " + files.get(i));
+                }
+                valid.add(mapped);
+            }
+        }
+        valid.sort(Comparator.comparingLong(r -> r.from));
+        return new PositionIndex(dir, List.copyOf(valid), nextId);
+    }
+
+    /**
+     * Indexes the archived games the index does not have yet.
+     *
+     * @param archive the archive the index belongs to
+     * @return the number of games indexed
+     * @throws IOException if a game cannot be read or a run cannot be written
+     */
+    public synchronized long catchUp(GameArchive archive) throws IOException {
+        long start = indexed;
+        long end = archive.size();
+        for (long k = start; k < end; k++) {
+            add(k, archive.get(k));
+        }
+        return end - start;
+    }
+
+    /**
+     * Returns the number of games indexed (games {@code 0} to {@code n - 1} of the archive).
+     *
+     * @return the indexed game count
+     */
+    public synchronized long getIndexedGames() {
+        return indexed;
+    }
+
+    /**
+     * Returns the number of run files.
+     *
+     * @return the run count
+     */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Finds the games which went through the position of a grid, or a symmetric one.
+     *
+     * @param grid the position
+     * @param limit the most postings to return (all games are counted anyway)
+     * @return the games through the position
+     */
+    public Result find(Grid grid, int limit) {
+        return find(canonicalHash(grid), limit);
+    }
+
+    /**
+     * Finds the games which went through a position given by its canonical hash.
+     *
+     * @param hash the canonical hash (see {@link #canonicalHash(Grid)} and {@link #positionHashes(GameRecord)})
+     * @param limit the most postings to return (all games are counted anyway)
+     * @return the games through the position
+     */
+    public Result find(long hash, int limit) {
+        Result result = new Result();
+        List<Run> snapshot;
+        synchronized (this) { // the buffer and the runs it was not written to yet
+            snapshot = runs;
+            for (int i = 0; i < buffered; i++) {
+                if (bufferHashes[i] == hash) {
+                    result.add(bufferValues[i], limit);
+                }
+            }
+        }
+        for (Run run : snapshot) {
+            for (long i = run.lowerBound(hash); i < run.count && run.hash(i) == hash; i++) {
+                result.add(run.value(i), limit);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the buffered postings as a run.
+     *
+     * @throws IOException if the run cannot be written, or a background merge failed
+     */
+    public synchronized void flush() throws IOException {
+        if (mergeFailure != null) {
+            throw mergeFailure;
+        }
+        if (buffered > 0) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Writes the buffered postings, waits for the merges and closes the index.
+     *
+     * @throws IOException if a run cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (buffered > 0) {
+                writeBuffer();
+            }
+        }
+        merger.shutdown();
+        try {
+            merger.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (mergeFailure != null) {
+            throw mergeFailure;
+        }
+    }
+
+    /**
+     * Returns the canonical hash of every position of a game, after each move.
+     *
+     * @param record the game
+     * @return the hash after move {@code i} at index {@code i}
+     */
+    public static long[] positionHashes(GameRecord record) {
+        long[] symmetric = new long[8];
+        long[] hashes = new long[record.getMoveCount()];
+        int size = record.getGridSize();
+        for (int ply = 0; ply < hashes.length; ply++) {
+            int move = record.getMove(ply);
+            int center = (size - 1) / 2;
+            addPiece(symmetric, GameRecord.colorOf(move), GameRecord.rowOf(move) - center,
+                    GameRecord.colOf(move) - center);
+            hashes[ply] = min(symmetric);
+            if (record.isExpandable() && ply + 1 == size * size) {
+                size = size * 2 - 1; // the grid is full and grows around the same center
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Returns the canonical hash of the position on a grid.
+     *
+     * @param grid the grid
+     * @return the smallest hash of its 8 symmetries
+     */
+    public static long canonicalHash(Grid grid) {
+        long[] symmetric = new long[8];
+        int size = grid.getSize();
+        int center = (size - 1) / 2;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                Piece piece = grid.getPiece(r, c);
+                if (piece != null) {
+                    addPiece(symmetric, piece.getColor(), r - center, c - center);
+                }
+            }
+        }
+        return min(symmetric);
+    }
+
+    /**
+     * Adds a piece to the 8 symmetric hashes of a position.
+     *
+     * @param hashes the hashes, one per symmetry
+     * @param color the color of the piece
+     * @param dr the row relative to the center
+     * @param dc the column relative to the center
+     */
+    private static void addPiece(long[] hashes, int color, int dr, int dc) {
+        hashes[0] ^= pieceHash(color, dr, dc);
+        hashes[1] ^= pieceHash(color, dc, -dr);
+        hashes[2] ^= pieceHash(color, -dr, -dc);
+        hashes[3] ^= pieceHash(color, -dc, dr);
+        hashes[4] ^= pieceHash(color, dr, -dc);
+        hashes[5] ^= pieceHash(color, -dr, dc);
+        hashes[6] ^= pieceHash(color, dc, dr);
+        hashes[7] ^= pieceHash(color, -dc, -dr);
+    }
+
+    /**
+     * Hashes one piece (a Zobrist key computed instead of looked up, so any grid size works).
+     *
+     * @param color the color
+     * @param dr the row relative to the center
+     * @param dc the column relative to the center
+     * @return the key of the piece
+     */
+    private static long pieceHash(int color, int dr, int dc) {
+        long z = ((long) color << 40 | (long) (dr & 0xFFFFF) << 20 | (dc & 0xFFFFF)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L; // SplitMix64 finalizer
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the smallest of the symmetric hashes.
+     *
+     * @param hashes the hashes
+     * @return the smallest one
+     */
+    private static long min(long[] hashes) {
+        long min = hashes[0];
+        for (int i = 1; i < hashes.length; i++) {
+            min = Math.min(min, hashes[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Buffers the postings of the next game.
+     *
+     * @param game the number of the game, which must be the next one
+     * @param record the game
+     * @throws IOException if a full buffer cannot be written
+     */
+    private void add(long game, GameRecord record) throws IOException {
+        if (game != indexed) {
+            throw new IllegalArgumentException("Games must be indexed in order: expected " + indexed);
+        }
+        long[] hashes = positionHashes(record);
+        int plies = Math.min(hashes.length, 0xFFFF);
+        if (buffered + plies > BUFFER_POSTINGS) {
+            writeBuffer();
+        }
+        for (int ply = 0; ply < plies; ply++) {
+            bufferHashes[buffered] = hashes[ply];
+            bufferValues[buffered] = game << 32 | (long) (ply + 1) << 16 | (record.getResult() & 0xFF);
+            buffered++;
+        }
+        indexed = game + 1;
+    }
+
+    /**
+     * Sorts the buffer, writes it as a new run and starts a merge if one is due.
+     *
+     * @throws IOException if the run cannot be written
+     */
+    private void writeBuffer() throws IOException {
+        sort(bufferHashes, bufferValues, 0, buffered - 1);
+        long id = nextId++;
+        Path file = writeRun(id, bufferFrom, indexed, buffered, new Source() {
+            private int i;
+
+            @Override
+            public long hash() {
+                return bufferHashes[i];
+            }
+
+            @Override
+            public long value() {
+                return bufferValues[i++];
+            }
+        });
+        addRun(mapRun(id, file));
+        buffered = 0;
+        bufferFrom = indexed;
+        merger.execute(this::mergeIfDue);
+    }
+
+    /**
+     * Sorted postings to write to a run: {@link #hash()} then {@link #value()} for each one.
+     */
+    private interface Source {
+
+        /**
+         * Returns the hash of the next posting.
+         *
+         * @return the hash
+         */
+        long hash();
+
+        /**
+         * Returns the value of the next posting and moves to the one after.
+         *
+         * @return the packed value
+         */
+        long value();
+    }
+
+    /**
+     * Writes a run file (under a temporary name, renamed when it is complete).
+     *
+     * @param id the run number
+     * @param from the first game
+     * @param to the game after the last
+     * @param count the number of postings
+     * @param source the postings, sorted
+     * @return the run file
+     * @throws IOException if the file cannot be written
+     */
+    private Path writeRun(long id, long from, long to, long count, Source source) throws IOException {
+        Path file = dir.resolve(String.format("run-%08d.gpr", id));
+        Path temp = dir.resolve(String.format("run-%08d.tmp", id));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(count);
+            out.writeLong(from);
+            out.writeLong(to);
+            for (long i = 0; i < count; i++) {
+                out.writeLong(source.hash());
+                out.writeLong(source.value());
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    /**
+     * Reads the header of a run file without mapping it.
+     *
+     * @param file the run file
+     * @return {first game, game after the last}, or {@code null} if the file is not a complete run
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] readRange(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            long count = header.getLong(8);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || size != HEADER + count * POSTING_SIZE) {
+                return null;
+            }
+            return new long[]{header.getLong(16), header.getLong(24)};
+        }
+    }
+
+    /**
+     * Deletes a file if it can. A run still mapped by an earlier index of this
+     * process may not be deletable yet (on Windows); it is deleted by a later
+     * {@link #open(Path)}.
+     *
+     * @param file the file
+     */
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // left for the next open
+        }
+    }
+
+    /**
+     * Maps a run file and checks its header.
+     *
+     * @param id the run number
+     * @param file the run file
+     * @return the run, or {@code null} if the file is not a complete run
+     * @throws IOException if the file cannot be read
+     */
+    private static Run mapRun(long id, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long count = map.getLong(8);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || size != HEADER + count * POSTING_SIZE) {
+                return null;
+            }
+            return new Run(id, file, map.getLong(16), map.getLong(24), count, map);
+        }
+    }
+
+    /**
+     * Adds a run to the list, keeping it sorted by first game.
+     *
+     * @param run the new run
+     */
+    private synchronized void addRun(Run run) {
+        List<Run> next = new ArrayList<>(runs);
+        next.add(run);
+        next.sort(Comparator.comparingLong(r -> r.from));
+        runs = List.copyOf(next);
+    }
+
+    /**
+     * Merges {@value #MERGE_FANIN} neighbouring runs of the same size class, as long
+     * as there are some (runs on the merge thread).
+     */
+    private void mergeIfDue() {
+        try {
+            List<Run> group;
+            while ((group = mergeGroup(runs)) != null) {
+                merge(group);
+            }
+        } catch (IOException e) {
+            mergeFailure = e;
+        }
+    }
+
+    /**
+     * Finds {@value #MERGE_FANIN} neighbouring runs of the same size class.
+     *
+     * @param current the runs, sorted by first game
+     * @return the runs to merge, or {@code null} if no merge is due
+     */
+    private static List<Run> mergeGroup(List<Run> current) {
+        for (int i = 0; i + MERGE_FANIN <= current.size(); i++) {
+            int level = current.get(i).level();
+            long total = 0;
+            boolean same = true;
+            for (int j = i; j < i + MERGE_FANIN; j++) {
+                same &= current.get(j).level() == level;
+                total += current.get(j).count;
+            }
+            if (same && total <= MAX_RUN_POSTINGS) {
+                return current.subList(i, i + MERGE_FANIN);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Merges neighbouring runs into one and replaces them by it.
+     *
+     * @param group the runs, sorted by first game
+     * @throws IOException if the new run cannot be written
+     */
+    private void merge(List<Run> group) throws IOException {
+        Run[] inputs = group.toArray(new Run[0]);
+        long[] positions = new long[inputs.length];
+        long count = 0;
+        for (Run run : inputs) {
+            count += run.count;
+        }
+        long id;
+        synchronized (this) {
+            id = nextId++;
+        }
+        Path file = writeRun(id, inputs[0].from, inputs[inputs.length - 1].to, count, new Source() {
+            private int next;
+
+            @Override
+            public long hash() {
+                next = -1;
+                for (int r = 0; r < inputs.length; r++) {
+                    if (positions[r] < inputs[r].count && (next < 0
+                            || inputs[r].hash(positions[r]) < inputs[next].hash(positions[next]))) {
+                        next = r; // ties keep the older run first, so postings stay in game order
+                    }
+                }
+                return inputs[next].hash(positions[next]);
+            }
+
+            @Override
+            public long value() {
+                return inputs[next].value(positions[next]++);
+            }
+        });
+        Run merged = mapRun(id, file);
+        synchronized (this) {
+            List<Run> next = new ArrayList<>(runs);
+            next.removeAll(Arrays.asList(inputs));
+            next.add(merged);
+            next.sort(Comparator.comparingLong(r -> r.from));
+            runs = List.copyOf(next);
+        }
+        // The input files stay while they are mapped; open() deletes them, as the new run covers them.
+    }
+
+    /**
+     * Sorts postings by hash, then by value, with the two arrays kept in step.
+     *
+     * @param hashes the hashes
+     * @param values the values
+     * @param low the first index
+     * @param high the last index
+     */
+    private static void sort(long[] hashes, long[] values, int low, int high) {
+        while (low < high) {
+            long pivotHash = hashes[(low + high) >>> 1];
+            long pivotValue = values[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (hashes[i] < pivotHash || (hashes[i] == pivotHash && values[i] < pivotValue)) {
+                    i++;
+                }
+                while (hashes[j] > pivotHash || (hashes[j] == pivotHash && values[j] > pivotValue)) {
+                    j--;
+                }
+                if (i <= j) {
+                    long h = hashes[i];
+                    hashes[i] = hashes[j];
+                    hashes[j] = h;
+                    long v = values[i];
+                    values[i] = values[j];
+                    values[j] = v;
+                    i++;
+                    j--;
+                }
+            }
+            if (j - low < high - i) { // recurse on the smaller half, loop on the bigger one
+                sort(hashes, values, low, j);
+                low = i;
+            } else {
+                sort(hashes, values, i, high);
+                high = j;
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package save;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import model.GameRecord;
+
+/**
+ * Reads the compact record streams written by {@link RecordEncoder}, one block at a time.
+ * <p>
+ * Only one block (at most a few tens of kilobytes) is in memory at once, so an
+ * archive export of any size can be read record by record.
+ * </p>
+ *
+ * <p>
+ * A decoder is not thread safe; use it from one thread.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-02
+ */
+public class RecordDecoder implements Closeable {
+
+    /** The source stream. */
+    private final DataInputStream in;
+    /** Decompressor of the blocks, or {@code null} if they are stored as they are. */
+    private final Inflater inflater;
+    /** Records of the current block. */
+    private ByteBuffer block = ByteBuffer.allocate(0);
+    /** Stored bytes of the current block, reused for every block. */
+    private byte[] stored = new byte[RecordEncoder.BLOCK_SIZE];
+    /** Inflated bytes of the current block, reused for every block. */
+    private byte[] inflated = new byte[0];
+    /** {@code true} once the end block was read. */
+    private boolean ended;
+
+    /**
+     * Creates a decoder and reads the stream header.
+     *
+     * @param in the source stream (closed with the decoder)
+     * @throws IOException if the stream is not a compact record stream
+     */
+    public RecordDecoder(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        if (this.in.readInt() != RecordEncoder.MAGIC) {
+            throw new IOException("Not a compact record stream.");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != RecordEncoder.VERSION) {
+            throw new IOException("Unsupported record stream version " + version);
+        }
+        int flags = this.in.readUnsignedByte();
+        this.inflater = (flags & RecordEncoder.DEFLATED) != 0 ? new Inflater() : null;
+    }
+
+    /**
+     * Tells if a file starts with the magic of a compact record stream.
+     *
+     * @param file the file
+     * @return {@code true} if it is a compact record stream
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isCompactStream(Path file) throws IOException {
+        try (InputStream raw = Files.newInputStream(file)) {
+            byte[] magic = raw.readNBytes(4);
+            return magic.length == 4 && ByteBuffer.wrap(magic).getInt() == RecordEncoder.MAGIC;
+        }
+    }
+
+    /**
+     * Tells if the blocks of the stream are deflated.
+     *
+     * @return {@code true} if they are
+     */
+    public boolean isCompressed() {
+        return inflater != null;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record, or {@code null} at the end of the stream
+     * @throws IOException if the stream is cut or corrupted
+     */
+    public GameRecord read() throws IOException {
+        while (!block.hasRemaining()) {
+            if (ended || !nextBlock()) {
+                return null;
+            }
+        }
+        return decode(block);
+    }
+
+    /**
+     * Closes the source stream.
+     *
+     * @throws IOException if it cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (inflater != null) {
+            inflater.end();
+        }
+        in.close();
+    }
+
+    /**
+     * Reads the next block.
+     *
+     * @return {@code false} if it was the end block
+     * @throws IOException if the stream is cut or corrupted
+     */
+    private boolean nextBlock() throws IOException {
+        long raw;
+        long length;
+        try {
+            raw = readVarint(in);
+            length = readVarint(in);
+        } catch (EOFException e) {
+            throw new IOException("Record stream is cut (no end block).", e);
+        }
+        if (raw == 0) {
+            ended = true;
+            return false;
+        }
+        if (raw > Integer.MAX_VALUE - 8 || length > Integer.MAX_VALUE - 8 || (inflater == null && length != raw)) {
+            throw new IOException("Corrupted record stream block.");
+        }
+        readBlock((int) raw, (int) length);
+        return true;
+    }
+
+    /**
+     * Reads the bytes of a block and inflates them if needed.
+     *
+     * @param raw the size of the records of the block
+     * @param length the stored size of the block
+     * @throws IOException if the stream is cut or corrupted
+     */
+    private void readBlock(int raw, int length) throws IOException {
+        if (stored.length < length) {
+            stored = new byte[length];
+        }
+        in.readFully(stored, 0, length);
+        if (inflater == null) {
+            block = ByteBuffer.wrap(stored, 0, raw);
+            return;
+        }
+        if (inflated.length < raw) {
+            inflated = new byte[Math.max(raw, RecordEncoder.BLOCK_SIZE)];
+        }
+        inflater.reset();
+        inflater.setInput(stored, 0, length);
+        try {
+            if (inflater.inflate(inflated, 0, raw) != raw || !inflater.finished()) {
+                throw new IOException("Corrupted record stream block.");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted record stream block.", e);
+        }
+        block = ByteBuffer.wrap(inflated, 0, raw);
+    }
+
+    /**
+     * Decodes one record written by {@link RecordEncoder#encode(GameRecord, ByteBuffer)}.
+     *
+     * @param in the source, positioned at the record (moved after it)
+     * @return the record
+     * @throws IOException if the bytes are not a valid record
+     */
+    public static GameRecord decode(ByteBuffer in) throws IOException {
+        try {
+            int gridSize = (int) getVarint(in);
+            int winLength = (int) getVarint(in);
+            int playerPiece = (int) getVarint(in);
+            int flags = Byte.toUnsignedInt(in.get());
+            long count = getVarint(in);
+            if (count > in.remaining()) { // every move takes at least one byte
+                throw new IOException("Corrupted game record.");
+            }
+            int[] moves = new int[(int) count];
+            if (count > 0) {
+                long first = getVarint(in);
+                int color = (int) (first & 1);
+                int row = (int) (first >>> 1);
+                int col = (int) getVarint(in);
+                moves[0] = GameRecord.pack(color, row, col);
+                for (int i = 1; i < count; i++) {
+                    long delta = getVarint(in);
+                    if ((delta & 1) == 0) {
+                        color ^= 1;
+                    }
+                    row += unZigZag(compact(delta >>> 1));
+                    col += unZigZag(compact(delta >>> 2));
+                    moves[i] = GameRecord.pack(color, row, col);
+                }
+            }
+            return new GameRecord(gridSize, winLength, playerPiece, (flags & 1) != 0, (flags >> 1) & 1,
+                    moves, ((flags >> 2) & 3) - 2);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupted game record.", e);
+        }
+    }
+
+    /**
+     * Gathers the even bits of a number, the reverse of {@link RecordEncoder#spread(long)}.
+     *
+     * @param value the interleaved value
+     * @return the 16-bit value found on its even bits
+     */
+    static long compact(long value) {
+        long x = value & 0x55555555L;
+        x = (x | x >>> 1) & 0x33333333L;
+        x = (x | x >>> 2) & 0x0F0F0F0FL;
+        x = (x | x >>> 4) & 0x00FF00FFL;
+        x = (x | x >>> 8) & 0x0000FFFFL;
+        return x;
+    }
+
+    /**
+     * Reverses {@link RecordEncoder#zigZag(int)}.
+     *
+     * @param value the zig-zag value
+     * @return the signed value
+     */
+    static int unZigZag(long value) {
+        int v = (int) value;
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Reads an unsigned varint from a buffer.
+     *
+     * @param in the source
+     * @return the value
+     * @throws IOException if the varint is longer than 10 bytes
+     */
+    static long getVarint(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupted varint.");
+    }
+
+    /**
+     * Reads an unsigned varint from a stream.
+     *
+     * @param in the source
+     * @return the value
+     * @throws IOException if the stream ends or the varint is longer than 10 bytes
+     */
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupted varint.");
+    }
+}
@@ -0,0 +1,236 @@
+package save;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import model.GameRecord;
+
+/**
+ * Writes {@link GameRecord}s in the compact delta format, as a stream of blocks.
+ * <p>
+ * Pieces of a game are put next to earlier ones, so a move is stored as the
+ * distance to the previous move instead of its coordinates. Both distances are
+ * zig-zag encoded (small negative and positive numbers become small numbers),
+ * their bits are interleaved, and the result is written as a varint with one more
+ * bit telling if the color did not alternate. A move at most 3 cells away from the
+ * previous one takes one byte, at most 31 cells away two bytes. The first move is
+ * written with its coordinates. See {@link #encode(GameRecord, ByteBuffer)}.
+ * </p>
+ *
+ * <p>
+ * Stream layout: the magic {@code "GMKC"}, a version byte, a flags byte
+ * (1 = deflated blocks), then blocks of whole records: raw length and stored
+ * length as varints, then the bytes (deflated if the flag is set). A block with a
+ * raw length of 0 ends the stream. Read it back with {@link RecordDecoder}.
+ * </p>
+ *
+ * <p>
+ * An encoder is not thread safe; use it from one thread.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-02
+ */
+public class RecordEncoder implements Closeable {
+
+    /** Magic bytes at the start of every compact record stream. */
+    static final int MAGIC = 0x474D4B43; // "GMKC"
+    /** Version of the stream layout. */
+    static final int VERSION = 1;
+    /** Stream flag: the blocks are deflated. */
+    static final int DEFLATED = 1;
+    /** Raw size after which a block is written out. */
+    static final int BLOCK_SIZE = 1 << 16;
+
+    /** The destination stream. */
+    private final OutputStream out;
+    /** Compressor of the blocks, or {@code null} to store them as they are. */
+    private final Deflater deflater;
+    /** Records of the block being filled. */
+    private ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+    /** Output of the compressor, reused for every block. */
+    private byte[] compressed = new byte[BLOCK_SIZE];
+    /** {@code true} once the end of the stream was written. */
+    private boolean closed;
+
+    /**
+     * Creates an encoder and writes the stream header.
+     *
+     * @param out the destination stream (closed with the encoder)
+     * @param compress {@code true} to deflate every block
+     * @throws IOException if the header cannot be written
+     */
+    public RecordEncoder(OutputStream out, boolean compress) throws IOException {
+        this.out = out;
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        ByteBuffer header = ByteBuffer.allocate(6);
+        header.putInt(MAGIC).put((byte) VERSION).put((byte) (compress ? DEFLATED : 0));
+        out.write(header.array());
+    }
+
+    /**
+     * Adds a record to the stream.
+     *
+     * @param record the record
+     * @throws IOException if a full block cannot be written
+     * @throws IllegalStateException if the encoder is closed
+     */
+    public void write(GameRecord record) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Encoder is closed.");
+        }
+        int needed = maxEncodedSize(record);
+        if (block.remaining() < needed) {
+            writeBlock();
+            if (block.capacity() < needed) {
+                block = ByteBuffer.allocate(needed); // a very long game gets a block of its own
+            }
+        }
+        encode(record, block);
+    }
+
+    /**
+     * Writes the last block and the end of the stream, then closes the destination.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBlock();
+            byte[] end = new byte[2]; // raw length 0, stored length 0
+            out.write(end);
+            out.flush();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the records of the current block, if any, and empties it.
+     *
+     * @throws IOException if writing fails
+     */
+    private void writeBlock() throws IOException {
+        int raw = block.position();
+        if (raw == 0) {
+            return;
+        }
+        byte[] data = block.array();
+        int stored = raw;
+        if (deflater != null) {
+            deflater.reset();
+            deflater.setInput(data, 0, raw);
+            deflater.finish();
+            stored = 0;
+            while (!deflater.finished()) {
+                if (stored == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                stored += deflater.deflate(compressed, stored, compressed.length - stored);
+            }
+            data = compressed;
+        }
+        ByteBuffer lengths = ByteBuffer.allocate(10);
+        putVarint(lengths, raw);
+        putVarint(lengths, stored);
+        out.write(lengths.array(), 0, lengths.position());
+        out.write(data, 0, stored);
+        block.clear();
+    }
+
+    /**
+     * Returns the most bytes {@link #encode(GameRecord, ByteBuffer)} can write for a record.
+     *
+     * @param record the record
+     * @return an upper bound of its encoded size
+     */
+    public static int maxEncodedSize(GameRecord record) {
+        return 32 + 5 * record.getMoveCount();
+    }
+
+    /**
+     * Encodes one record: grid size, win length and piece count as varints, a byte
+     * with the expandable flag, first color and result, the move count as a varint,
+     * then the moves (first one absolute, the others as deltas).
+     *
+     * @param record the record
+     * @param out the destination, with at least {@link #maxEncodedSize(GameRecord)} bytes remaining
+     * @return the number of bytes written
+     */
+    public static int encode(GameRecord record, ByteBuffer out) {
+        int start = out.position();
+        putVarint(out, record.getGridSize());
+        putVarint(out, record.getWinLength());
+        putVarint(out, record.getPlayerPiece());
+        out.put((byte) ((record.isExpandable() ? 1 : 0) | (record.getFirstColor() << 1)
+                | ((record.getResult() + 2) << 2)));
+        int count = record.getMoveCount();
+        putVarint(out, count);
+        if (count > 0) {
+            int first = record.getMove(0);
+            putVarint(out, (GameRecord.rowOf(first) << 1) | GameRecord.colorOf(first));
+            putVarint(out, GameRecord.colOf(first));
+            for (int i = 1; i < count; i++) {
+                int previous = record.getMove(i - 1);
+                int move = record.getMove(i);
+                long rows = zigZag(GameRecord.rowOf(move) - GameRecord.rowOf(previous));
+                long cols = zigZag(GameRecord.colOf(move) - GameRecord.colOf(previous));
+                long sameColor = GameRecord.colorOf(move) == GameRecord.colorOf(previous) ? 1 : 0;
+                putVarint(out, ((spread(rows) | spread(cols) << 1) << 1) | sameColor);
+            }
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Maps a signed number to an unsigned one: 0, -1, 1, -2, 2... become 0, 1, 2, 3, 4...
+     *
+     * @param value the signed value
+     * @return the zig-zag value
+     */
+    static long zigZag(int value) {
+        return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Spreads the 16 low bits of a number on the even bits, for interleaving.
+     *
+     * @param value the value (16 bits)
+     * @return the spread value (32 bits)
+     */
+    static long spread(long value) {
+        long x = value & 0xFFFFL;
+        x = (x | x << 8) & 0x00FF00FFL;
+        x = (x | x << 4) & 0x0F0F0F0FL;
+        x = (x | x << 2) & 0x33333333L;
+        x = (x | x << 1) & 0x55555555L;
+        return x;
+    }
+
+    /**
+     * Writes an unsigned varint: 7 bits per byte, the high bit set on every byte but the last.
+     *
+     * @param out the destination
+     * @param value the value (not negative)
+     */
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+}
@@ -0,0 +1,364 @@
+package save;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.GameCore;
+import model.GameRecord;
+import model.GameState;
+import model.Grid;
+import model.Human;
+
+/**
+ * Converts a text game collection into the {@link GameArchive}, checking every game against the rules.
+ * <p>
+ * The file is cut into chunks of about {@value #CHUNK_SIZE} bytes, each ending at
+ * the start of a game. Worker threads read their chunk through a memory map with a
+ * {@link TextRecordReader} and replay each game through a {@link GameCore}; the
+ * calling thread appends the valid games to the archive in file order. At most two
+ * chunks per thread are in flight, so the memory used does not depend on the size
+ * of the file.
+ * </p>
+ *
+ * <p>
+ * A game is rejected if its text is malformed or if it breaks the rules of this
+ * game: the first move must be the center, every move must touch an earlier
+ * piece, and no move may follow the winning one. A game which ends without a line
+ * keeps the result of the text (a resignation, a time loss); a line on the board
+ * always decides the result.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-03
+ */
+public final class RecordImporter {
+
+    /** Target size of a chunk of the file. */
+    static final int CHUNK_SIZE = 4 << 20;
+    /** Size of the window searched for the start of a game. */
+    private static final int WINDOW = 1 << 16;
+    /** How many rejection reasons are kept for the summary. */
+    private static final int MAX_ERRORS = 10;
+
+    /**
+     * What an import did: games read, archived and rejected, the first reasons of
+     * rejection, and the time it took.
+     */
+    public static final class Summary {
+
+        /** Number of games found in the file. */
+        private long read;
+        /** Number of games added to the archive. */
+        private long imported;
+        /** First rejection reasons. */
+        private final List<String> errors = new ArrayList<>();
+        /** Time of the import in nanoseconds. */
+        private long nanos;
+
+        /**
+         * Returns the number of games found in the file.
+         *
+         * @return the game count
+         */
+        public long getRead() {
+            return read;
+        }
+
+        /**
+         * Returns the number of games added to the archive.
+         *
+         * @return the imported count
+         */
+        public long getImported() {
+            return imported;
+        }
+
+        /**
+         * Returns the number of games rejected.
+         *
+         * @return the rejected count
+         */
+        public long getRejected() {
+            return read - imported;
+        }
+
+        /**
+         * Returns the first reasons of rejection (at most {@value RecordImporter#MAX_ERRORS}).
+         *
+         * @return the reasons
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns the time of the import.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns a one line summary with the speed.
+         *
+         * @return the summary
+         */
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format("%d games read, %d imported, %d rejected in %.1f ms (%.0f games/s)",
+                    read, imported, getRejected(), seconds * 1000, read / Math.max(seconds, 1e-9));
+        }
+    }
+
+    /**
+     * Games and rejections of one chunk.
+     */
+    private static final class Chunk {
+
+        /** Valid games, in file order. */
+        private final List<GameRecord> games = new ArrayList<>();
+        /** Number of games found. */
+        private long read;
+        /** First rejection reasons. */
+        private final List<String> errors = new ArrayList<>();
+    }
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private RecordImporter() {
+    }
+
+    /**
+     * Imports every valid game of a text collection into an archive.
+     *
+     * @param file the collection
+     * @param format its format
+     * @param winLength the number of aligned pieces needed to win in these games
+     * @param archive the archive to append to
+     * @param threads the number of worker threads
+     * @return what was imported
+     * @throws IOException if the file cannot be read or the archive cannot be written
+     */
+    public static Summary importFile(Path file, TextRecordFormat format, int winLength, GameArchive archive,
+                                     int threads) throws IOException {
+        long start = System.nanoTime();
+        Summary summary = new Summary();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "record-import");
+            t.setDaemon(true);
+            return t;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+            long chunkStart = 0;
+            while (chunkStart < size || !inFlight.isEmpty()) {
+                while (chunkStart < size && inFlight.size() < 2 * Math.max(1, threads)) {
+                    long chunkEnd = chunkStart + CHUNK_SIZE >= size ? size
+                            : nextGameStart(channel, chunkStart + CHUNK_SIZE, format);
+                    long from = chunkStart;
+                    inFlight.add(workers.submit(() -> readChunk(channel, from, chunkEnd, format, winLength)));
+                    chunkStart = chunkEnd;
+                }
+                Chunk chunk = inFlight.poll().get();
+                for (GameRecord game : chunk.games) {
+                    archive.append(game);
+                }
+                summary.read += chunk.read;
+                summary.imported += chunk.games.size();
+                for (String error : chunk.errors) {
+                    if (summary.errors.size() < MAX_ERRORS) {
+                        summary.errors.add(error);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Import failed: " + e.getCause(), e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        summary.nanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    /**
+     * Checks a game against the rules by replaying it.
+     *
+     * @param record the game, as read from the text
+     * @return the game with the result of the board if it has a line (else the one of the text)
+     * @throws IllegalArgumentException if a move breaks the rules
+     */
+    public static GameRecord validate(GameRecord record) {
+        int size = record.getGridSize();
+        int center = (size - 1) / 2;
+        if (record.getMoveCount() == 0) {
+            throw new IllegalArgumentException("Game without moves.");
+        }
+        int first = record.getMove(0);
+        if (GameRecord.rowOf(first) != center || GameRecord.colOf(first) != center) {
+            throw new IllegalArgumentException("First move is not the center.");
+        }
+        Human player1 = new Human("Player 1", record.getFirstColor(), record.getPlayerPiece());
+        Human player2 = new Human("Player 2", 1 - record.getFirstColor(), record.getPlayerPiece());
+        GameCore core = new GameCore(new Grid(size), player1, player2, record.getPlayerPiece(),
+                record.getWinLength(), record.isExpandable());
+        core.start();
+        for (int ply = 1; ply < record.getMoveCount(); ply++) {
+            int move = record.getMove(ply);
+            if (core.isTerminal()) {
+                throw new IllegalArgumentException("Move " + (ply + 1) + " is after the end of the game.");
+            }
+            if (GameRecord.colorOf(move) != core.getCurrentPlayer().getPlayerColor()) {
+                throw new IllegalArgumentException("Move " + (ply + 1) + " is not from the player to move.");
+            }
+            try {
+                core.submitMove(GameRecord.rowOf(move), GameRecord.colOf(move));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                throw new IllegalArgumentException("Move " + (ply + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        GameRecord replayed = core.toRecord();
+        if (core.getStatus() == GameState.Status.IN_PROGRESS) {
+            return new GameRecord(replayed.getGridSize(), replayed.getWinLength(), replayed.getPlayerPiece(),
+                    replayed.isExpandable(), replayed.getFirstColor(), replayed.getMoves(), record.getResult());
+        }
+        if (record.getResult() != GameRecord.UNFINISHED && record.getResult() != replayed.getResult()) {
+            throw new IllegalArgumentException("Result does not match the board.");
+        }
+        return replayed;
+    }
+
+    /**
+     * Reads and checks the games of one chunk (run by a worker).
+     *
+     * @param channel the file
+     * @param start the first byte of the chunk
+     * @param end the byte after the chunk
+     * @param format the format of the file
+     * @param winLength the win length of the games
+     * @return the valid games and the rejections
+     * @throws IOException if the chunk cannot be read
+     */
+    private static Chunk readChunk(FileChannel channel, long start, long end, TextRecordFormat format,
+                                   int winLength) throws IOException {
+        Chunk chunk = new Chunk();
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        BufferedReader text = new BufferedReader(new InputStreamReader(new BufferInputStream(data),
+                StandardCharsets.UTF_8), 1 << 16);
+        try (TextRecordReader reader = new TextRecordReader(text, format, winLength)) {
+            while (true) {
+                try {
+                    GameRecord game = reader.next();
+                    if (game == null) {
+                        break;
+                    }
+                    chunk.games.add(validate(game));
+                    chunk.read++;
+                } catch (IllegalArgumentException e) {
+                    chunk.read++; // malformed text or illegal game
+                    if (chunk.errors.size() < MAX_ERRORS) {
+                        chunk.errors.add("Near byte " + start + ", line " + reader.getLine() + " of its chunk: "
+                                + e.getMessage());
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Finds the start of the first game at or after a position of the file.
+     *
+     * @param channel the file
+     * @param from the position (at least 1)
+     * @param format the format of the file
+     * @return the start of the game, or the file size
+     * @throws IOException if the file cannot be read
+     */
+    private static long nextGameStart(FileChannel channel, long from, TextRecordFormat format) throws IOException {
+        long size = channel.size();
+        long at = from - 1; // a move list looks at the byte before, for the end of a line
+        while (at < size) {
+            int length = (int) Math.min(WINDOW, size - at);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, at, length);
+            int found = format.nextGameStart(window, 1);
+            if (found < length || at + length == size) {
+                return at + found;
+            }
+            at += length - 6; // overlap, so a tag cut by the window is found in the next one
+        }
+        return size;
+    }
+
+    /**
+     * Reads a (memory mapped) buffer as a stream.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        /** The bytes to read. */
+        private final ByteBuffer data;
+
+        /**
+         * Creates a stream over a buffer.
+         *
+         * @param data the bytes to read
+         */
+        BufferInputStream(ByteBuffer data) {
+            this.data = data;
+        }
+
+        /**
+         * Reads one byte.
+         *
+         * @return the byte, or -1 at the end
+         */
+        @Override
+        public int read() {
+            return data.hasRemaining() ? Byte.toUnsignedInt(data.get()) : -1;
+        }
+
+        /**
+         * Reads bytes into an array.
+         *
+         * @param b the array
+         * @param off the first index to fill
+         * @param len the most bytes to read
+         * @return the number of bytes read, or -1 at the end
+         */
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, data.remaining());
+            data.get(b, off, n);
+            return n;
+        }
+    }
+}
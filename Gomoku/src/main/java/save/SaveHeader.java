@@ -0,0 +1,321 @@
+package save;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import ai.AIPlayer;
+
+/**
+ * The summary at the start of every binary save: players, grid, moves, whose turn.
+ * <p>
+ * It has a fixed layout of {@link #SIZE} bytes right after the magic and version,
+ * so a save can be described by reading its first {@value #FILE_PREFIX} bytes,
+ * without decoding the board or creating any object of the game.
+ * </p>
+ *
+ * <p>
+ * Layout (big-endian): saved time (long), grid size (int), win length (short),
+ * flags (byte: 1 expandable, 2 player 2 to move, 4 player 1 is an AI, 8 player 2 is an AI),
+ * a reserved byte, pieces on the board (int), pieces left of both players (2 ints),
+ * and both names (1 length byte + up to {@value #NAME_BYTES} UTF-8 bytes, zero padded).
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-01
+ */
+public final class SaveHeader {
+
+    /** Maximum number of UTF-8 bytes kept of a name. */
+    public static final int NAME_BYTES = 31;
+    /** Size of the header in bytes. */
+    public static final int SIZE = 8 + 4 + 2 + 1 + 1 + 4 + 4 + 4 + 2 * (1 + NAME_BYTES);
+    /** Bytes to read from the start of a save file to get its header (magic + version + header). */
+    public static final int FILE_PREFIX = 6 + SIZE;
+
+    /** Flag: the grid is expandable. */
+    private static final int EXPANDABLE = 1;
+    /** Flag: player 2 plays next. */
+    private static final int PLAYER2_TO_MOVE = 2;
+    /** Flag: player 1 is an AI. */
+    private static final int PLAYER1_AI = 4;
+    /** Flag: player 2 is an AI. */
+    private static final int PLAYER2_AI = 8;
+
+    /** Time of the save (milliseconds since 1970). */
+    private final long savedAt;
+    /** Current grid size. */
+    private final int gridSize;
+    /** Number of aligned pieces needed to win. */
+    private final int winLength;
+    /** Flags, see the constants. */
+    private final int flags;
+    /** Number of pieces on the board. */
+    private final int pieceCount;
+    /** Pieces left of player 1. */
+    private final int piecesLeft1;
+    /** Pieces left of player 2. */
+    private final int piecesLeft2;
+    /** Name of player 1 (maybe shortened). */
+    private final String player1;
+    /** Name of player 2 (maybe shortened). */
+    private final String player2;
+
+    /**
+     * Creates a header.
+     *
+     * @param savedAt the save time in milliseconds
+     * @param gridSize the grid size
+     * @param winLength the win length
+     * @param flags the flags
+     * @param pieceCount the pieces on the board
+     * @param piecesLeft1 the pieces left of player 1
+     * @param piecesLeft2 the pieces left of player 2
+     * @param player1 the name of player 1
+     * @param player2 the name of player 2
+     */
+    private SaveHeader(long savedAt, int gridSize, int winLength, int flags, int pieceCount,
+                       int piecesLeft1, int piecesLeft2, String player1, String player2) {
+        this.savedAt = savedAt;
+        this.gridSize = gridSize;
+        this.winLength = winLength;
+        this.flags = flags;
+        this.pieceCount = pieceCount;
+        this.piecesLeft1 = piecesLeft1;
+        this.piecesLeft2 = piecesLeft2;
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+
+    /**
+     * Describes a game about to be saved.
+     *
+     * @param game the game
+     * @param pieceCount the number of pieces on the board
+     * @param savedAt the save time in milliseconds
+     * @return the header
+     */
+    public static SaveHeader of(SavedGame game, int pieceCount, long savedAt) {
+        int flags = (game.isExpandable() ? EXPANDABLE : 0)
+                | (game.getCurrentPlayer() == game.getPlayer2() ? PLAYER2_TO_MOVE : 0)
+                | (game.getPlayer1() instanceof AIPlayer ? PLAYER1_AI : 0)
+                | (game.getPlayer2() instanceof AIPlayer ? PLAYER2_AI : 0);
+        return new SaveHeader(savedAt, game.getGrid().getSize(), game.getWinLength(), flags, pieceCount,
+                game.getPlayer1().getPieceNum(), game.getPlayer2().getPieceNum(),
+                game.getPlayer1().getName(), game.getPlayer2().getName());
+    }
+
+    /**
+     * Writes the header ({@link #SIZE} bytes).
+     *
+     * @param out the destination
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putLong(savedAt).putInt(gridSize).putShort((short) winLength).put((byte) flags).put((byte) 0);
+        out.putInt(pieceCount).putInt(piecesLeft1).putInt(piecesLeft2);
+        putName(out, player1);
+        putName(out, player2);
+    }
+
+    /**
+     * Reads a header written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @param in the source, with at least {@link #SIZE} bytes remaining
+     * @return the header
+     */
+    public static SaveHeader readFrom(ByteBuffer in) {
+        long savedAt = in.getLong();
+        int gridSize = in.getInt();
+        int winLength = in.getShort();
+        int flags = in.get();
+        in.get(); // reserved
+        int pieceCount = in.getInt();
+        int piecesLeft1 = in.getInt();
+        int piecesLeft2 = in.getInt();
+        String player1 = getName(in);
+        String player2 = getName(in);
+        return new SaveHeader(savedAt, gridSize, winLength, flags, pieceCount, piecesLeft1, piecesLeft2,
+                player1, player2);
+    }
+
+    /**
+     * Reads the header of a save file, reading only its first {@link #FILE_PREFIX} bytes.
+     *
+     * @param file the save file
+     * @return the header, or {@code null} if the file is not a binary save with a header
+     *         (an old serialized save, a journal, or a first version binary save)
+     * @throws IOException if the file cannot be read
+     */
+    public static SaveHeader read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(FILE_PREFIX);
+            while (prefix.hasRemaining() && channel.read(prefix) >= 0) {
+                // read the prefix, or the whole file if it is shorter
+            }
+            prefix.flip();
+            if (prefix.remaining() < FILE_PREFIX || prefix.getInt() != BinarySave.MAGIC
+                    || prefix.getShort() < BinarySave.FIRST_VERSION_WITH_HEADER) {
+                return null;
+            }
+            return readFrom(prefix);
+        }
+    }
+
+    /**
+     * Returns a one line description, as shown by the save list.
+     *
+     * @return the description
+     */
+    public String describe() {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(savedAt));
+        return player1 + (isPlayer1Ai() ? " (AI)" : "") + " vs " + player2 + (isPlayer2Ai() ? " (AI)" : "")
+                + " | " + gridSize + "x" + gridSize + ", win " + winLength
+                + " | " + pieceCount + " pieces | " + (isPlayer2ToMove() ? player2 : player1) + " to move"
+                + " | " + time;
+    }
+
+    /**
+     * Returns the save time.
+     *
+     * @return milliseconds since 1970
+     */
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    /**
+     * Returns the current grid size.
+     *
+     * @return the grid size
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Returns the number of aligned pieces needed to win.
+     *
+     * @return the win length
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the number of pieces on the board.
+     *
+     * @return the piece count
+     */
+    public int getPieceCount() {
+        return pieceCount;
+    }
+
+    /**
+     * Returns the pieces left of player 1.
+     *
+     * @return the pieces left
+     */
+    public int getPiecesLeft1() {
+        return piecesLeft1;
+    }
+
+    /**
+     * Returns the pieces left of player 2.
+     *
+     * @return the pieces left
+     */
+    public int getPiecesLeft2() {
+        return piecesLeft2;
+    }
+
+    /**
+     * Returns the name of player 1 (at most {@value #NAME_BYTES} UTF-8 bytes).
+     *
+     * @return the name
+     */
+    public String getPlayer1() {
+        return player1;
+    }
+
+    /**
+     * Returns the name of player 2 (at most {@value #NAME_BYTES} UTF-8 bytes).
+     *
+     * @return the name
+     */
+    public String getPlayer2() {
+        return player2;
+    }
+
+    /**
+     * Tells if the grid is expandable.
+     *
+     * @return {@code true} if it is
+     */
+    public boolean isExpandable() {
+        return (flags & EXPANDABLE) != 0;
+    }
+
+    /**
+     * Tells if player 2 plays next.
+     *
+     * @return {@code true} if it is player 2's turn
+     */
+    public boolean isPlayer2ToMove() {
+        return (flags & PLAYER2_TO_MOVE) != 0;
+    }
+
+    /**
+     * Tells if player 1 is an AI.
+     *
+     * @return {@code true} if it is
+     */
+    public boolean isPlayer1Ai() {
+        return (flags & PLAYER1_AI) != 0;
+    }
+
+    /**
+     * Tells if player 2 is an AI.
+     *
+     * @return {@code true} if it is
+     */
+    public boolean isPlayer2Ai() {
+        return (flags & PLAYER2_AI) != 0;
+    }
+
+    /**
+     * Writes a name in its fixed field, cut on a character boundary if it is too long.
+     *
+     * @param out the destination
+     * @param name the name
+     */
+    private static void putName(ByteBuffer out, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, NAME_BYTES);
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--; // do not cut a multi-byte character
+        }
+        out.put((byte) length).put(bytes, 0, length);
+        for (int i = length; i < NAME_BYTES; i++) {
+            out.put((byte) 0);
+        }
+    }
+
+    /**
+     * Reads a name field.
+     *
+     * @param in the source
+     * @return the name
+     */
+    private static String getName(ByteBuffer in) {
+        int length = Math.min(Byte.toUnsignedInt(in.get()), NAME_BYTES);
+        byte[] field = new byte[NAME_BYTES];
+        in.get(field);
+        return new String(field, 0, length, StandardCharsets.UTF_8);
+    }
+}
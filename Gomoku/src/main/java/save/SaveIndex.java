@@ -0,0 +1,238 @@
+package save;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index file of a save folder: the {@link SaveHeader} of every save, in one small file.
+ * <p>
+ * Each save has one fixed-width entry (file name, modification time, size and
+ * header), updated in place when the save is written. Listing the folder then
+ * reads this one file instead of opening every save. An entry is only trusted if
+ * the time and size of its file did not change; otherwise the header is read
+ * again from the first bytes of the save. The entry number of every name is read
+ * once and kept in memory, so an update does not scan the index.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-01
+ */
+final class SaveIndex {
+
+    /** Name of the index file in the save folder. */
+    static final String FILE_NAME = "saves.idx";
+
+    /** Magic bytes of the index file. */
+    private static final int MAGIC = 0x474D4B58; // "GMKX"
+    /** Version of the index layout. */
+    private static final int VERSION = 1;
+    /** Size of the index header: magic, version. */
+    private static final int HEADER = 8;
+    /** Maximum number of UTF-8 bytes of a file name. */
+    private static final int NAME_BYTES = 63;
+    /** Size of one entry: name, time, size, save header. */
+    private static final int ENTRY_SIZE = 1 + NAME_BYTES + 8 + 8 + SaveHeader.SIZE;
+
+    /** Entry number of every save name, by index file; each is read once, then kept up to date. */
+    private static final Map<Path, Map<String, Long>> SLOTS = new HashMap<>();
+
+    /**
+     * An entry of the index: the header of a save and the state of its file when it was indexed.
+     */
+    static final class Entry {
+
+        /** Modification time of the save when it was indexed (milliseconds). */
+        private final long modified;
+        /** Size of the save when it was indexed. */
+        private final long size;
+        /** Header of the save. */
+        private final SaveHeader header;
+
+        /**
+         * Creates an entry.
+         *
+         * @param modified the modification time in milliseconds
+         * @param size the file size
+         * @param header the header of the save
+         */
+        Entry(long modified, long size, SaveHeader header) {
+            this.modified = modified;
+            this.size = size;
+            this.header = header;
+        }
+
+        /**
+         * Returns the header of the save.
+         *
+         * @return the header
+         */
+        SaveHeader getHeader() {
+            return header;
+        }
+
+        /**
+         * Tells if the entry still describes the file.
+         *
+         * @param attributes the current attributes of the file
+         * @return {@code true} if the file did not change since it was indexed
+         */
+        boolean matches(BasicFileAttributes attributes) {
+            return attributes.lastModifiedTime().toMillis() == modified && attributes.size() == size;
+        }
+    }
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private SaveIndex() {
+    }
+
+    /**
+     * Reads every entry of the index of a folder.
+     *
+     * @param dir the save folder
+     * @return the entries by file name; empty if there is no valid index
+     */
+    static synchronized Map<String, Entry> read(Path dir) {
+        Map<String, Entry> entries = new HashMap<>();
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.remaining() < HEADER || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return entries;
+            }
+            while (in.remaining() >= ENTRY_SIZE) {
+                String name = getName(in);
+                long modified = in.getLong();
+                long size = in.getLong();
+                SaveHeader header = SaveHeader.readFrom(in);
+                entries.put(name, new Entry(modified, size, header));
+            }
+        } catch (IOException | RuntimeException e) {
+            entries.clear(); // a broken index is only a slower listing
+        }
+        return entries;
+    }
+
+    /**
+     * Writes (or replaces in place) the entry of a save which was just written.
+     *
+     * @param dir the save folder
+     * @param name the file name of the save
+     * @param header the header of the save
+     * @throws IOException if the index cannot be written
+     */
+    static synchronized void update(Path dir, String name, SaveHeader header) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > NAME_BYTES) {
+            return; // not indexed, the listing reads its header from the file
+        }
+        BasicFileAttributes attributes = Files.readAttributes(dir.resolve(name), BasicFileAttributes.class);
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        entry.put((byte) nameBytes.length).put(nameBytes).put(new byte[NAME_BYTES - nameBytes.length]);
+        entry.putLong(attributes.lastModifiedTime().toMillis()).putLong(attributes.size());
+        header.writeTo(entry);
+        entry.flip();
+
+        try (FileChannel channel = FileChannel.open(dir.resolve(FILE_NAME), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER || !hasValidHeader(channel)) {
+                ByteBuffer head = ByteBuffer.allocate(HEADER);
+                head.putInt(MAGIC).putInt(VERSION).flip();
+                channel.truncate(0);
+                writeFully(channel, head, 0);
+            }
+            long entries = (channel.size() - HEADER) / ENTRY_SIZE;
+            Path key = dir.toAbsolutePath().normalize();
+            Map<String, Long> slots = SLOTS.get(key);
+            if (slots == null || slots.size() != entries) { // first use, or the file changed elsewhere
+                slots = readSlots(channel, entries);
+                SLOTS.put(key, slots);
+            }
+            Long slot = slots.get(name);
+            if (slot == null) { // append
+                slot = entries;
+                slots.put(name, slot);
+            }
+            writeFully(channel, entry, HEADER + slot * ENTRY_SIZE);
+        }
+    }
+
+    /**
+     * Reads the name of every entry of an index file.
+     *
+     * @param channel the index file
+     * @param entries the number of entries
+     * @return the entry number of every name
+     * @throws IOException if the file cannot be read
+     */
+    private static Map<String, Long> readSlots(FileChannel channel, long entries) throws IOException {
+        Map<String, Long> slots = new HashMap<>();
+        ByteBuffer in = ByteBuffer.allocate((int) (entries * ENTRY_SIZE));
+        while (in.hasRemaining() && channel.read(in, HEADER + in.position()) >= 0) {
+            // read every entry
+        }
+        in.flip();
+        for (long i = 0; i < entries && in.remaining() >= ENTRY_SIZE; i++) {
+            int at = in.position();
+            slots.putIfAbsent(getName(in), i); // the first entry of a name is the one updated
+            in.position(at + ENTRY_SIZE);
+        }
+        return slots;
+    }
+
+    /**
+     * Checks the magic and version of an index file.
+     *
+     * @param channel the index file
+     * @return {@code true} if the header is valid
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean hasValidHeader(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER);
+        while (head.hasRemaining() && channel.read(head, head.position()) >= 0) {
+            // read the header
+        }
+        return head.getInt(0) == MAGIC && head.getInt(4) == VERSION;
+    }
+
+    /**
+     * Reads a name field.
+     *
+     * @param in the source
+     * @return the name
+     */
+    private static String getName(ByteBuffer in) {
+        int length = Math.min(Byte.toUnsignedInt(in.get()), NAME_BYTES);
+        byte[] field = new byte[NAME_BYTES];
+        in.get(field);
+        return new String(field, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a whole buffer at a position.
+     *
+     * @param channel the file
+     * @param buffer the bytes
+     * @param position the position in the file
+     * @throws IOException if the write fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -2,15 +2,30 @@
 package save;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import model.GameRecord;
 import model.Grid;
 import model.Player;
 import util.ColorInConsole;
+import util.EngineLog;
 
 /**
  * Handles the saving, loading, and listing of Gomoku game states.
  * <p>
- * This class provides static methods to serialize and deserialize game data, 
- * including the grid and players, to and from the file system. 
+ * This class provides static methods to save and load game data,
+ * including the grid, players and settings, to and from the file system.
+ * Saves use the binary format of {@link BinarySave}; old serialized saves can still be loaded.
  * It saves int o "\data" folder or brings saves from there
  * creating it if necessary.
  * </p>
@@ -22,26 +37,57 @@ import util.ColorInConsole;
  * @see <a href="https://www.youtube.com/watch?v=xudKOLX_DAk&t=71s">Programming a Java Text Adventure: Saving Games</a>
  * 
  * @author Erkin Tunç Boya
- * @version 1.3
+ * @version 1.6
  * @since 2025-04-26
  */
 public class SaveManager {
 
+    /** Folder of the archive of finished games. */
+    public static final Path ARCHIVE_DIR = Paths.get("data", "archive");
+    /** Folder of the position index of the archive. */
+    public static final Path POSITIONS_DIR = ARCHIVE_DIR.resolve("positions");
+
+    /** Position index of the archive, opened by the first archived game. */
+    private static PositionIndex positions;
+    /** Archive of finished games, opened by the first archived game and kept open. */
+    private static GameArchive archive;
+
+    /** Thread writing the asynchronous saves, one at a time. */
+    private static final ExecutorService SAVE_WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "save-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Let the saves in progress finish when the program exits from the menu,
+        // then close the archive and its index.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            SAVE_WRITER.shutdown();
+            try {
+                SAVE_WRITER.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closeArchive();
+        }));
+    }
+
     /** Basic constructer */
     public SaveManager() {}
 
     /**
      * Saves the current game state to a file inside the {@code /data} directory.
      * <p>
-     * The method serializes the grid and both players into a {@code .dat} file.
+     * The game is written in the compact binary format of {@link BinarySave}
+     * (settings, players, a 2-bit-per-cell board image and the moves).
      * If the {@code /data} directory does not exist, it is created automatically.
      *
      * @param filename the name of the save file (e.g., "save1.dat")
-     * @param grid the current game grid to save
-     * @param player1 the first player
-     * @param player2 the second player
+     * @param game the game to save
+     * @return {@code true} if the game was saved
      */
-    public static void saveGame(String filename, Grid grid, Player player1, Player player2) {
+    public static boolean saveGame(String filename, SavedGame game) {
         // Ensure the 'data' folder exists
         File dir = new File("data");
         if (!dir.exists()) {
@@ -49,58 +95,199 @@ public class SaveManager {
         }
 
         // Save file inside 'data/' folder
-        try{
-            FileOutputStream fos = new FileOutputStream("data/" + filename);
-            ObjectOutputStream out = new ObjectOutputStream(fos);
-
-            // Serialize the objects
-            out.writeObject(grid);
-            out.writeObject(player1);
-            out.writeObject(player2);
-
-            out.flush(); // write out any buffered bytes
-            out.close();
+        try {
+            long start = System.nanoTime();
+            Path file = Paths.get("data", filename);
+            BinarySave.write(file, game);
+            indexSave(file);
+            if (EngineLog.SAVE_INFO) {
+                EngineLog.log(EngineLog.Event.SAVE_WRITTEN, Files.size(file), (System.nanoTime() - start) / 1000, 0);
+            }
 
             System.out.println(ColorInConsole.Green + "Game saved successfully." + ColorInConsole.Reset);
-        } catch (IOException e) {
-            System.out.println(ColorInConsole.Red + "Serialiation Error! Can't save data. \n " 
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println(ColorInConsole.Red + "Save Error! Can't save data. \n "
                             + e.getClass() + ": " + e.getMessage() + ColorInConsole.Reset);
+            return false;
         }
     }
 
+    /**
+     * Saves a game without blocking the caller.
+     * <p>
+     * The game is encoded right away on the calling thread (a few microseconds), so
+     * the save is an immutable snapshot: moves played after this call are not in it.
+     * A background thread then writes the bytes to a temporary file and renames it
+     * over the save, so a crash never leaves a half-written save. Saves are written
+     * one at a time, in the order they were asked.
+     * </p>
+     *
+     * @param filename the name of the save file (e.g., "save1.dat")
+     * @param game the game to save
+     * @return a future completed with the path of the save, or with the error
+     */
+    public static CompletableFuture<Path> saveGameAsync(String filename, SavedGame game) {
+        ByteBuffer snapshot;
+        try {
+            snapshot = BinarySave.encode(game);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Path file = Paths.get("data", filename);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long start = System.nanoTime();
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                int bytes = snapshot.remaining();
+                BinarySave.writeAtomically(file, snapshot);
+                indexSave(file);
+                if (EngineLog.SAVE_INFO) {
+                    EngineLog.log(EngineLog.Event.SAVE_WRITTEN, bytes, (System.nanoTime() - start) / 1000, 0);
+                }
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, SAVE_WRITER);
+    }
+
     /**
      * Loads a previously saved game state from the {@code /data} directory.
      * <p>
-     * This method deserializes the grid and players from the data folder
+     * Binary saves are read with {@link BinarySave}, autosave journals with
+     * {@link MoveJournal#recover(java.nio.file.Path)}. Older saves, made with Java
+     * serialization, are still read: they only contain the grid and the players,
+     * so player 1 plays next and the settings are unknown.
      *
      * @param filename the name of the file to load (e.g., "save1.dat")
-     * @return an array containing the loaded grid, player1, and player2; or {@code null} if loading fails
+     * @return the loaded game; or {@code null} if loading fails
      */
-    public static Object[] loadGame(String filename) {
+    public static SavedGame loadGame(String filename) {
 
-        try{
-            FileInputStream fis = new FileInputStream("data/" + filename);  
-            ObjectInputStream in = new ObjectInputStream(fis);
+        try {
+            Path file = Paths.get("data", filename);
+            SavedGame game;
+            if (filename.endsWith(MoveJournal.EXTENSION)) {
+                game = MoveJournal.recover(file); // autosave: last checkpoint + the moves after it
+            } else if (BinarySave.isBinarySave(file)) {
+                game = BinarySave.read(file);
+            } else {
+                game = loadSerializedGame(file);
+            }
 
-            // Deserialize the objects  
+            System.out.println(ColorInConsole.Green + "\n---- Game loaded ----\n" + ColorInConsole.Reset);
+
+            return game;
+
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            System.out.println(ColorInConsole.Red + "Load Error! Can't load data. \n "
+                            + e.getClass() + ": " + e.getMessage() + ColorInConsole.Reset);
+            return null;
+        }
+    }
+
+    /**
+     * Reads a save made with Java serialization (before the binary format).
+     *
+     * @param file the save file
+     * @return the game, with player 1 to move and no settings
+     * @throws IOException if the file cannot be read
+     * @throws ClassNotFoundException if a class of the save cannot be found
+     */
+    private static SavedGame loadSerializedGame(Path file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            // Deserialize the objects
             Grid grid = (Grid) in.readObject();
             Player player1 = (Player) in.readObject(); //TODO: if there will be more players it should be modifird |idea : use a for loop for a list of players.
             Player player2 = (Player) in.readObject();
 
-            System.out.println(ColorInConsole.Green + "\n---- Game loaded ----\n" + ColorInConsole.Reset);
-            
-            return new Object[]{grid, player1, player2};
+            return new SavedGame(grid, player1, player2, player1, 0, 0, false, 0, new int[0]);
+        }
+    }
 
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println(ColorInConsole.Red + "Serialiation Error! Can't save data. \n " 
-                            + e.getClass() + ": " + e.getMessage() + ColorInConsole.Reset);
-            return null;
+    /**
+     * Adds a finished game to the game archive in {@code /data/archive}
+     * (see {@link GameArchive}), creating it if necessary, and adds its positions
+     * to the position index (see {@link PositionIndex}).
+     * <p>
+     * The work is done on the save thread, so the game does not wait for it (the first
+     * game after an import may have a large backlog to index). The archive stays open
+     * until the program exits.
+     * </p>
+     *
+     * @param record the game
+     * @return the number of the game in the archive, or -1 if it could not be archived
+     */
+    public static CompletableFuture<Long> archiveGame(GameRecord record) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                GameArchive games = archive();
+                long game = games.append(record);
+                games.flush();
+                positionIndex().catchUp(games);
+                return game;
+            } catch (IOException | RuntimeException e) {
+                System.out.println(ColorInConsole.Red + "Archive Error! Can't archive the game. \n "
+                                + e.getClass() + ": " + e.getMessage() + ColorInConsole.Reset);
+                return -1L;
+            }
+        }, SAVE_WRITER);
+    }
+
+    /**
+     * Returns the archive of finished games, opening it the first time.
+     *
+     * @return the archive
+     * @throws IOException if the archive cannot be opened
+     */
+    private static synchronized GameArchive archive() throws IOException {
+        if (archive == null) {
+            archive = GameArchive.open(ARCHIVE_DIR);
+        }
+        return archive;
+    }
+
+    /**
+     * Returns the position index of the archive, opening it the first time.
+     * It is closed (its buffered postings written) when the program exits.
+     *
+     * @return the position index
+     * @throws IOException if the index cannot be opened
+     */
+    public static synchronized PositionIndex positionIndex() throws IOException {
+        if (positions == null) {
+            positions = PositionIndex.open(POSITIONS_DIR);
+        }
+        return positions;
+    }
+
+    /**
+     * Closes the position index and the archive if they were opened (at exit).
+     */
+    private static synchronized void closeArchive() {
+        try {
+            if (positions != null) {
+                positions.close();
+            }
+        } catch (IOException e) {
+            // the missing games are indexed again by the next catch up
+        }
+        try {
+            if (archive != null) {
+                archive.close();
+            }
+        } catch (IOException e) {
+            // every archived game was flushed when it was added
         }
     }
 
     /**
-     * Lists all saved game files available in the {@code /data} directory.
+     * Lists all saved game files available in the {@code /data} directory, with the
+     * players, grid, number of moves, whose turn it is and the save time.
      * <p>
+     * The descriptions come from the index file of the folder (see {@link SaveIndex});
+     * a save missing from it, or changed since, only has its fixed-size header read.
      * If no saved games are found, an appropriate message is displayed.
      */
     public static void listSavedGames() {
@@ -110,18 +297,65 @@ public class SaveManager {
             return;
         }
 
-        String[] saves = dir.list((d, name) -> name.endsWith(".dat"));
+        String[] saves = dir.list((d, name) -> name.endsWith(".dat") || name.endsWith(MoveJournal.EXTENSION));
 
         if (saves == null || saves.length == 0) {
             System.out.println(ColorInConsole.Red + "No saved games found in /data/." + ColorInConsole.Reset);
         } else {
+            Arrays.sort(saves);
+            Map<String, SaveIndex.Entry> index = SaveIndex.read(dir.toPath());
             System.out.println("\nAvailable saved games:");
             for (String save : saves) {
-                System.out.println("- " + ColorInConsole.BrightBlue + save + ColorInConsole.Reset);
+                System.out.println("- " + ColorInConsole.BrightBlue + save + ColorInConsole.Reset
+                        + "  " + describeSave(dir.toPath().resolve(save), index.get(save)));
             }
             System.out.println();
         }
     }
 
+    /**
+     * Describes one save for the list, from its index entry if it is up to date.
+     *
+     * @param file the save file
+     * @param entry its index entry, or {@code null}
+     * @return a one line description
+     */
+    private static String describeSave(Path file, SaveIndex.Entry entry) {
+        if (file.getFileName().toString().endsWith(MoveJournal.EXTENSION)) {
+            return "(autosave of the last unfinished game)";
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (entry != null && entry.matches(attributes)) {
+                return entry.getHeader().describe();
+            }
+            SaveHeader header = SaveHeader.read(file);
+            if (header == null) {
+                return "(old save format)";
+            }
+            indexSave(file); // next listing will not open the file again
+            return header.describe();
+        } catch (IOException e) {
+            return "(unreadable: " + e.getMessage() + ")";
+        }
+    }
+
+    /**
+     * Puts the header of a save which was just written into the index of its folder.
+     * The index only makes listing faster, so an error is ignored.
+     *
+     * @param file the save file
+     */
+    private static void indexSave(Path file) {
+        try {
+            SaveHeader header = SaveHeader.read(file);
+            if (header != null) {
+                SaveIndex.update(file.toAbsolutePath().getParent(), file.getFileName().toString(), header);
+            }
+        } catch (IOException e) {
+            // the listing reads the header from the save instead
+        }
+    }
+
 
 }
\ No newline at end of file
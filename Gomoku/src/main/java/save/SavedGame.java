@@ -0,0 +1,200 @@
+package save;
+
+import model.GameCore;
+import model.GameRecord;
+import model.Grid;
+import model.Player;
+
+/**
+ * Everything needed to continue a game: the grid, the players, who plays next,
+ * the rules, and (if known) the moves since the start.
+ * <p>
+ * Old saves made with Java serialization only contain the grid and the players,
+ * so {@link #hasSettings()} is {@code false} for them and the caller keeps its
+ * current settings.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-05-29
+ */
+public final class SavedGame {
+
+    /** The grid. */
+    private final Grid grid;
+    /** The player who started the game. */
+    private final Player player1;
+    /** The other player. */
+    private final Player player2;
+    /** The player who plays next. */
+    private final Player currentPlayer;
+    /** Number of aligned pieces needed to win, or 0 if unknown. */
+    private final int winLength;
+    /** Pieces given at the start and at each expansion, or 0 if unknown. */
+    private final int playerPiece;
+    /** {@code true} if a full grid grows instead of ending the game. */
+    private final boolean expandable;
+    /** Grid size when the game was started, or 0 if unknown. */
+    private final int startSize;
+    /** Moves since the start packed like in {@link model.GameRecord}, empty if unknown. */
+    private final int[] moves;
+
+    /**
+     * Creates a saved game.
+     *
+     * @param grid the grid
+     * @param player1 the player who started
+     * @param player2 the other player
+     * @param currentPlayer the player to move (player1 or player2)
+     * @param winLength the win length, or 0 if unknown
+     * @param playerPiece the pieces per player and per expansion, or 0 if unknown
+     * @param expandable {@code true} if the grid can grow
+     * @param startSize the grid size at the start, or 0 if unknown
+     * @param moves the moves since the start, empty if unknown
+     * @throws NullPointerException if the grid, a player or the moves are null
+     * @throws IllegalArgumentException if {@code currentPlayer} is not one of the two players
+     */
+    public SavedGame(Grid grid, Player player1, Player player2, Player currentPlayer, int winLength,
+                     int playerPiece, boolean expandable, int startSize, int[] moves) {
+        if (grid == null || player1 == null || player2 == null || moves == null) {
+            throw new NullPointerException("Grid, players and moves cannot be null.");
+        }
+        if (currentPlayer != player1 && currentPlayer != player2) {
+            throw new IllegalArgumentException("The player to move must be one of the two players.");
+        }
+        this.grid = grid;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.currentPlayer = currentPlayer;
+        this.winLength = winLength;
+        this.playerPiece = playerPiece;
+        this.expandable = expandable;
+        this.startSize = startSize;
+        this.moves = moves.clone();
+    }
+
+    /**
+     * Takes what must be saved from a running game. The move list is included
+     * when the game was played from its start.
+     *
+     * @param core the game
+     * @return the saved game (it shares the grid and players of the core)
+     */
+    public static SavedGame fromCore(GameCore core) {
+        int[] moves = new int[0];
+        int startSize = 0;
+        if (core.hasFullHistory()) {
+            GameRecord record = core.toRecord();
+            moves = record.getMoves();
+            startSize = record.getGridSize();
+        }
+        Player toMove = core.getCurrentPlayer() == null ? core.getPlayer1() : core.getCurrentPlayer();
+        return new SavedGame(core.getGrid(), core.getPlayer1(), core.getPlayer2(), toMove, core.getWinLength(),
+                core.getPlayerPiece(), core.isExpandable(), startSize, moves);
+    }
+
+    /**
+     * Tells if the rules (win length, pieces, expansion) were saved.
+     *
+     * @return {@code false} for old serialized saves
+     */
+    public boolean hasSettings() {
+        return winLength > 0;
+    }
+
+    /**
+     * Tells if the moves since the start were saved.
+     *
+     * @return {@code true} if {@link #getMoves()} starts with the center piece
+     */
+    public boolean hasHistory() {
+        return moves.length > 0 && startSize > 0;
+    }
+
+    /**
+     * Returns the grid.
+     *
+     * @return the grid
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the player who started the game.
+     *
+     * @return player 1
+     */
+    public Player getPlayer1() {
+        return player1;
+    }
+
+    /**
+     * Returns the other player.
+     *
+     * @return player 2
+     */
+    public Player getPlayer2() {
+        return player2;
+    }
+
+    /**
+     * Returns the player who plays next.
+     *
+     * @return player 1 or player 2
+     */
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Returns the number of aligned pieces needed to win.
+     *
+     * @return the win length, or 0 if unknown
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the pieces given at the start and at each expansion.
+     *
+     * @return the pieces per player, or 0 if unknown
+     */
+    public int getPlayerPiece() {
+        return playerPiece;
+    }
+
+    /**
+     * Tells if a full grid grows instead of ending the game.
+     *
+     * @return {@code true} if the grid is expandable
+     */
+    public boolean isExpandable() {
+        return expandable;
+    }
+
+    /**
+     * Returns the grid size when the game was started.
+     *
+     * @return the start size, or 0 if unknown
+     */
+    public int getStartSize() {
+        return startSize;
+    }
+
+    /**
+     * Returns the moves since the start.
+     *
+     * @return a copy of the packed moves, empty if unknown
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "SavedGame[" + player1.getName() + " vs " + player2.getName() + ", " + grid.getSize() + "x"
+                + grid.getSize() + ", win " + winLength + ", " + moves.length + " moves]";
+    }
+}
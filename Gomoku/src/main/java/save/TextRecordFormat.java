@@ -0,0 +1,148 @@
+package save;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The text formats of game collections that can be read and written
+ * (see {@link TextRecordReader} and {@link TextRecordWriter}).
+ * <p>
+ * Both use the usual Gomoku and Renju coordinates: a column letter from {@code a}
+ * and a row number from {@code 1} at the bottom, so the center of a 15x15 board
+ * is {@code h8}. Black (color 1) plays first.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-03
+ */
+public enum TextRecordFormat {
+
+    /**
+     * One game per line: an optional grid size, the moves, an optional result
+     * ({@code 1-0} black won, {@code 0-1} white won, {@code 1/2} draw, {@code *}
+     * unfinished), for example {@code 15 h8 h9 i8 g8 j8 k8 i9 1-0}.
+     * Empty lines and lines starting with {@code #} are skipped.
+     */
+    MOVE_LIST,
+
+    /**
+     * RIF-style XML collection (as published by the Renju International Federation):
+     * {@code <game ... bresult="1"><move>h8 h9 i8</move></game>} elements on a 15x15
+     * board, where {@code bresult} is 1, 0.5 or 0 for a black win, a draw or a white win.
+     */
+    RIF;
+
+    /** Biggest grid that letters {@code a} to {@code z} can describe. */
+    public static final int MAX_SIZE = 26;
+
+    /**
+     * Chooses the format from the extension of a file: {@code .xml} and {@code .rif}
+     * are {@link #RIF}, anything else is {@link #MOVE_LIST}.
+     *
+     * @param file the file
+     * @return the format
+     */
+    public static TextRecordFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".xml") || name.endsWith(".rif") ? RIF : MOVE_LIST;
+    }
+
+    /**
+     * Tells if a file name has the extension of a text game collection.
+     *
+     * @param file the file
+     * @return {@code true} for {@code .txt}, {@code .xml} and {@code .rif} files
+     */
+    public static boolean isTextFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".txt") || name.endsWith(".xml") || name.endsWith(".rif");
+    }
+
+    /**
+     * Returns the first position, at or after {@code from}, where a game of this
+     * format starts: the start of a line, or a {@code <game} tag. Used to split a
+     * file in chunks of whole games.
+     *
+     * @param data the bytes of the file
+     * @param from the position to search from
+     * @return the start of the next game, or {@code data.limit()} if there is none
+     */
+    int nextGameStart(ByteBuffer data, int from) {
+        int end = data.limit();
+        if (from <= 0) {
+            return this == MOVE_LIST ? 0 : findGameTag(data, 0);
+        }
+        if (this == MOVE_LIST) {
+            for (int i = from - 1; i < end; i++) {
+                if (data.get(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            return end;
+        }
+        return findGameTag(data, from);
+    }
+
+    /**
+     * Finds the next {@code <game} tag (but not {@code <games>}).
+     *
+     * @param data the bytes of the file
+     * @param from the position to search from
+     * @return the position of the tag, or {@code data.limit()}
+     */
+    private static int findGameTag(ByteBuffer data, int from) {
+        int end = data.limit();
+        for (int i = from; i + 5 < end; i++) {
+            if (data.get(i) == '<' && data.get(i + 1) == 'g' && data.get(i + 2) == 'a' && data.get(i + 3) == 'm'
+                    && data.get(i + 4) == 'e' && (data.get(i + 5) == ' ' || data.get(i + 5) == '>')) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Converts a coordinate like {@code h8} to a grid row and column.
+     *
+     * @param text the text holding the coordinate
+     * @param start the first character of the coordinate
+     * @param end the position after its last character
+     * @param size the grid size
+     * @return {@code row << 16 | col}
+     * @throws IllegalArgumentException if it is not a coordinate of the grid
+     */
+    static int parseCoordinate(CharSequence text, int start, int end, int size) {
+        char letter = Character.toLowerCase(text.charAt(start));
+        if (letter < 'a' || letter > 'z' || end - start < 2 || end - start > 3) {
+            throw new IllegalArgumentException("Not a coordinate: " + text.subSequence(start, end));
+        }
+        int number = 0;
+        for (int i = start + 1; i < end; i++) {
+            char digit = text.charAt(i);
+            if (digit < '0' || digit > '9') {
+                throw new IllegalArgumentException("Not a coordinate: " + text.subSequence(start, end));
+            }
+            number = number * 10 + (digit - '0');
+        }
+        int col = letter - 'a';
+        int row = size - number;
+        if (col >= size || number < 1 || number > size) {
+            throw new IllegalArgumentException("Coordinate outside the grid: " + text.subSequence(start, end));
+        }
+        return row << 16 | col;
+    }
+
+    /**
+     * Writes the coordinate of a grid cell, like {@code h8}.
+     *
+     * @param out the destination
+     * @param row the row
+     * @param col the column
+     * @param size the grid size
+     */
+    static void appendCoordinate(StringBuilder out, int row, int col, int size) {
+        out.append((char) ('a' + col)).append(size - row);
+    }
+}
@@ -0,0 +1,303 @@
+package save;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+import model.GameRecord;
+
+/**
+ * Reads the games of a text collection one at a time (see {@link TextRecordFormat}).
+ * <p>
+ * Only the game being read is kept in memory, so a collection of any size can be
+ * read. The games are not checked against the rules here: a record only says what
+ * the text says (black first, colors alternating). {@link RecordImporter} replays
+ * them before archiving.
+ * </p>
+ *
+ * <p>
+ * A reader is not thread safe; use it from one thread.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-03
+ */
+public class TextRecordReader implements Closeable {
+
+    /** Grid size of a game which does not give one (the usual board). */
+    public static final int DEFAULT_SIZE = 15;
+    /** Longest game element accepted in a RIF collection. */
+    private static final int MAX_GAME_TEXT = 1 << 20;
+
+    /** The source. */
+    private final BufferedReader in;
+    /** Format of the source. */
+    private final TextRecordFormat format;
+    /** Win length given to the games (the formats do not store it). */
+    private final int winLength;
+    /** Text read but not parsed yet (RIF only). */
+    private final StringBuilder pending = new StringBuilder();
+    /** Moves of the game being parsed, as {@code row << 16 | col}. */
+    private int[] cells = new int[256];
+    /** Number of lines read. */
+    private long line;
+
+    /**
+     * Creates a reader.
+     *
+     * @param in the source (closed with the reader)
+     * @param format the format of the source
+     * @param winLength the number of aligned pieces needed to win in these games
+     * @throws IllegalArgumentException if the win length is not positive
+     */
+    public TextRecordReader(BufferedReader in, TextRecordFormat format, int winLength) {
+        if (winLength <= 0) {
+            throw new IllegalArgumentException("winLength must be positive.");
+        }
+        this.in = in;
+        this.format = format;
+        this.winLength = winLength;
+    }
+
+    /**
+     * Reads the next game. If the text of a game is malformed an exception is
+     * thrown, and the next call goes on with the game after it.
+     *
+     * @return the game, or {@code null} at the end of the source
+     * @throws IOException if the source cannot be read
+     * @throws IllegalArgumentException if the text of the game is malformed
+     */
+    public GameRecord next() throws IOException {
+        return format == TextRecordFormat.RIF ? nextRif() : nextMoveList();
+    }
+
+    /**
+     * Returns the number of lines read so far, to locate an error.
+     *
+     * @return the line count
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Closes the source.
+     *
+     * @throws IOException if it cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads the next non empty, non comment line as a game.
+     *
+     * @return the game, or {@code null} at the end
+     * @throws IOException if the source cannot be read
+     */
+    private GameRecord nextMoveList() throws IOException {
+        String text;
+        do {
+            text = in.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            text = text.strip();
+        } while (text.isEmpty() || text.charAt(0) == '#');
+
+        int size = DEFAULT_SIZE;
+        int result = GameRecord.UNFINISHED;
+        int count = 0;
+        boolean first = true;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            while (i < length && isSeparator(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isSeparator(text.charAt(i))) {
+                i++;
+            }
+            if (start == i) {
+                break;
+            }
+            char c = text.charAt(start);
+            if (first && Character.isDigit(c)) {
+                size = parseSize(text.substring(start, i));
+            } else if (Character.isLetter(c)) {
+                count = add(count, TextRecordFormat.parseCoordinate(text, start, i, size));
+            } else if (i == length) {
+                result = parseResult(text.substring(start, i));
+            } else {
+                throw new IllegalArgumentException("Unexpected " + text.substring(start, i));
+            }
+            first = false;
+        }
+        return toRecord(size, count, result);
+    }
+
+    /**
+     * Reads the next {@code <game>} element.
+     *
+     * @return the game, or {@code null} at the end
+     * @throws IOException if the source cannot be read
+     */
+    private GameRecord nextRif() throws IOException {
+        while (true) {
+            int start = gameTag(pending, 0);
+            int end = start < 0 ? -1 : pending.indexOf("</game>", start);
+            if (end >= 0) {
+                String game = pending.substring(start, end);
+                pending.delete(0, end + "</game>".length());
+                return parseRifGame(game);
+            }
+            if (start < 0) {
+                pending.setLength(0); // text between games
+            } else if (pending.length() - start > MAX_GAME_TEXT) {
+                pending.setLength(0);
+                throw new IllegalArgumentException("Game element too long.");
+            }
+            String text = in.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            pending.append(text).append('\n');
+        }
+    }
+
+    /**
+     * Parses one RIF game element (from {@code <game} to before {@code </game>}).
+     *
+     * @param game the text of the element
+     * @return the game
+     */
+    private GameRecord parseRifGame(String game) {
+        int result = GameRecord.UNFINISHED;
+        int tagEnd = game.indexOf('>');
+        int at = game.indexOf("bresult=\"");
+        if (at >= 0 && at < tagEnd) {
+            int valueStart = at + "bresult=\"".length();
+            String value = game.substring(valueStart, game.indexOf('"', valueStart));
+            result = switch (value) {
+                case "1" -> 1;
+                case "0" -> 0;
+                case "0.5" -> GameRecord.DRAW;
+                default -> throw new IllegalArgumentException("Unknown bresult " + value);
+            };
+        }
+        int movesStart = game.indexOf("<move>");
+        int movesEnd = game.indexOf("</move>");
+        if (movesStart < 0 || movesEnd < movesStart) {
+            throw new IllegalArgumentException("Game without moves.");
+        }
+        int count = 0;
+        int i = movesStart + "<move>".length();
+        while (i < movesEnd) {
+            while (i < movesEnd && isSeparator(game.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < movesEnd && !isSeparator(game.charAt(i))) {
+                i++;
+            }
+            if (start < i) {
+                count = add(count, TextRecordFormat.parseCoordinate(game, start, i, DEFAULT_SIZE));
+            }
+        }
+        return toRecord(DEFAULT_SIZE, count, result);
+    }
+
+    /**
+     * Finds a {@code <game} tag (but not {@code <games>}).
+     *
+     * @param text the text
+     * @param from where to search from
+     * @return the position of the tag, or -1
+     */
+    private static int gameTag(StringBuilder text, int from) {
+        for (int at = text.indexOf("<game", from); at >= 0; at = text.indexOf("<game", at + 1)) {
+            if (at + 5 < text.length() && (text.charAt(at + 5) == ' ' || text.charAt(at + 5) == '>')) {
+                return at;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a cell to the moves of the game being parsed.
+     *
+     * @param count the number of moves so far
+     * @param cell the cell, {@code row << 16 | col}
+     * @return the new number of moves
+     */
+    private int add(int count, int cell) {
+        if (count == cells.length) {
+            cells = Arrays.copyOf(cells, count * 2);
+        }
+        cells[count] = cell;
+        return count + 1;
+    }
+
+    /**
+     * Builds the record of a parsed game: black plays first and the colors alternate.
+     *
+     * @param size the grid size
+     * @param count the number of moves
+     * @param result the result given by the text
+     * @return the record
+     */
+    private GameRecord toRecord(int size, int count, int result) {
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = GameRecord.pack(1 - (i & 1), cells[i] >>> 16, cells[i] & 0xFFFF);
+        }
+        return new GameRecord(size, winLength, size * size, false, 1, moves, result);
+    }
+
+    /**
+     * Parses a grid size.
+     *
+     * @param text the size
+     * @return the size
+     */
+    private int parseSize(String text) {
+        int size = Integer.parseInt(text);
+        if (size < 5 || size > TextRecordFormat.MAX_SIZE || size % 2 == 0) {
+            throw new IllegalArgumentException("Grid size must be odd, from 5 to "
+                    + TextRecordFormat.MAX_SIZE + ".");
+        }
+        return size;
+    }
+
+    /**
+     * Parses a result token of a move list.
+     *
+     * @param text the token
+     * @return the result, as in {@link GameRecord}
+     */
+    private int parseResult(String text) {
+        return switch (text) {
+            case "1-0" -> 1;
+            case "0-1" -> 0;
+            case "1/2", "1/2-1/2" -> GameRecord.DRAW;
+            case "*" -> GameRecord.UNFINISHED;
+            default -> throw new IllegalArgumentException("Unknown result " + text);
+        };
+    }
+
+    /**
+     * Tells if a character separates two moves.
+     *
+     * @param c the character
+     * @return {@code true} for white space, commas and semicolons
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == ',' || c == ';' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
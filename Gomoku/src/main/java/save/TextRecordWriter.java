@@ -0,0 +1,152 @@
+package save;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+import model.GameRecord;
+
+/**
+ * Writes games to a text collection, one at a time (see {@link TextRecordFormat}).
+ * <p>
+ * Only games on a grid that never grew (at most {@value TextRecordFormat#MAX_SIZE}
+ * cells wide, 15 for {@link TextRecordFormat#RIF}) and where the turns always
+ * alternated can be written: the formats have no way to describe an expansion or
+ * a skipped turn. The win length and the piece count are not written either. The
+ * formats call the first player black, so a game started by white is written with
+ * the colors swapped.
+ * </p>
+ *
+ * <p>
+ * A writer is not thread safe; use it from one thread.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-03
+ */
+public class TextRecordWriter implements Closeable {
+
+    /** The destination. */
+    private final Writer out;
+    /** Format of the destination. */
+    private final TextRecordFormat format;
+    /** Text of the game being written, reused for every game. */
+    private final StringBuilder text = new StringBuilder(512);
+    /** Number of games written. */
+    private long written;
+
+    /**
+     * Creates a writer and writes the start of the collection.
+     *
+     * @param out the destination (closed with the writer)
+     * @param format the format to write
+     * @throws IOException if writing fails
+     */
+    public TextRecordWriter(Writer out, TextRecordFormat format) throws IOException {
+        this.out = out;
+        this.format = format;
+        if (format == TextRecordFormat.RIF) {
+            out.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<database>\n<games>\n");
+        } else {
+            out.write("# size moves result (1-0 black won, 0-1 white won, 1/2 draw, * unfinished)\n");
+        }
+    }
+
+    /**
+     * Tells if a game can be written in a format.
+     *
+     * @param record the game
+     * @param format the format
+     * @return {@code true} if every move is on the starting grid, the turns alternate and the grid fits the format
+     */
+    public static boolean canWrite(GameRecord record, TextRecordFormat format) {
+        int size = record.getGridSize();
+        boolean fits = format == TextRecordFormat.RIF
+                ? size == TextRecordReader.DEFAULT_SIZE : size <= TextRecordFormat.MAX_SIZE;
+        if (!fits) {
+            return false;
+        }
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            int move = record.getMove(i);
+            if (GameRecord.rowOf(move) >= size || GameRecord.colOf(move) >= size
+                    || GameRecord.colorOf(move) != (record.getFirstColor() ^ (i & 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes one game.
+     *
+     * @param record the game
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the game cannot be written in this format (see {@link #canWrite})
+     */
+    public void write(GameRecord record) throws IOException {
+        if (!canWrite(record, format)) {
+            throw new IllegalArgumentException("Game cannot be written as " + format + ": " + record);
+        }
+        int size = record.getGridSize();
+        int result = record.getResult() < 0 ? record.getResult() : record.getResult() ^ record.getFirstColor() ^ 1;
+        text.setLength(0);
+        if (format == TextRecordFormat.RIF) {
+            text.append("<game id=\"").append(++written).append('"');
+            switch (result) {
+                case 1 -> text.append(" bresult=\"1\"");
+                case 0 -> text.append(" bresult=\"0\"");
+                case GameRecord.DRAW -> text.append(" bresult=\"0.5\"");
+                default -> { }
+            }
+            text.append("><move>");
+        } else {
+            text.append(size);
+            written++;
+        }
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            int move = record.getMove(i);
+            if (i > 0 || format == TextRecordFormat.MOVE_LIST) {
+                text.append(' ');
+            }
+            TextRecordFormat.appendCoordinate(text, GameRecord.rowOf(move), GameRecord.colOf(move), size);
+        }
+        if (format == TextRecordFormat.RIF) {
+            text.append("</move></game>\n");
+        } else {
+            text.append(switch (result) {
+                case 1 -> " 1-0";
+                case 0 -> " 0-1";
+                case GameRecord.DRAW -> " 1/2";
+                default -> " *";
+            }).append('\n');
+        }
+        out.append(text);
+    }
+
+    /**
+     * Returns the number of games written.
+     *
+     * @return the game count
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Writes the end of the collection and closes the destination.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format == TextRecordFormat.RIF) {
+                out.write("</games>\n</database>\n");
+            }
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+}
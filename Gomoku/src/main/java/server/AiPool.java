@@ -0,0 +1,99 @@
+package server;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import ai.AIPlayer;
+import ai.MoveSearch;
+import model.Grid;
+
+/**
+ * The computer players of all the sessions share these threads.
+ * <p>
+ * A search uses a whole core, so the server runs at most one per pool thread,
+ * however many sessions are waiting. A session asks for a move with
+ * {@link #chooseMove(AIPlayer, Grid)}: it waits for one of the {@code maxPending}
+ * places of the queue, then for the move. Sessions run on virtual threads, so
+ * waiting costs no thread; and the queue bound keeps a burst of sessions from
+ * piling up work the pool cannot do. A session interrupted while waiting cancels
+ * its search, which stops at once instead of finishing for nobody.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-09
+ */
+public final class AiPool implements AutoCloseable {
+
+    /** The threads running the searches. */
+    private final ExecutorService threads;
+    /** Places left in the queue. */
+    private final Semaphore pending;
+    /** Number of moves searched. */
+    private final LongAdder moves = new LongAdder();
+
+    /**
+     * Creates a pool.
+     *
+     * @param threadCount the number of searches running at the same time
+     * @param maxPending the most searches waiting or running
+     * @throws IllegalArgumentException if a parameter is not positive
+     */
+    public AiPool(int threadCount, int maxPending) {
+        if (threadCount <= 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("Thread count and queue size must be positive.");
+        }
+        AtomicInteger number = new AtomicInteger();
+        this.threads = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread t = new Thread(r, "ai-pool-" + number.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.pending = new Semaphore(maxPending);
+    }
+
+    /**
+     * Chooses the move of a computer player on a pool thread. The grid must not be
+     * changed until the move is returned.
+     *
+     * @param ai the player
+     * @param grid the grid
+     * @return the move {row, col}
+     * @throws InterruptedException if the session is interrupted while waiting
+     */
+    public int[] chooseMove(AIPlayer ai, Grid grid) throws InterruptedException {
+        pending.acquire();
+        MoveSearch search = MoveSearch.start(ai, grid, threads, null);
+        try {
+            int[] coords = search.result().get();
+            moves.increment();
+            return coords;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("AI failed: " + e.getCause(), e.getCause());
+        } finally {
+            search.cancel(); // a session which stopped waiting does not keep a thread busy
+            pending.release();
+        }
+    }
+
+    /**
+     * Returns the number of moves searched so far.
+     *
+     * @return the move count
+     */
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /**
+     * Stops the threads.
+     */
+    @Override
+    public void close() {
+        threads.shutdownNow();
+    }
+}
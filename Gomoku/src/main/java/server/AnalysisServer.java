@@ -0,0 +1,460 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ai.AIPlayer;
+import model.Grid;
+
+/**
+ * Local HTTP service giving the best move and its score for Gomoku positions.
+ * <p>
+ * {@code POST /analyze} takes one position, a JSON array of positions or JSON lines
+ * (one position per line). A position is an object:
+ * </p>
+ * <pre>{@code
+ * {"id": "a1", "board": ["..X..", ".OX..", "..O..", ".....", "....."], "color": 1, "winLength": 4}
+ * }</pre>
+ * <p>
+ * {@code board} is the list of rows, or one string with all the rows ({@code .} empty,
+ * {@code X} black, {@code O} white; the size must be odd). {@code color} is the player
+ * to move, 1 for black or 0 for white (by default the one with fewer pieces, black on
+ * a tie), and {@code winLength} defaults to 5. {@code id} is optional and sent back.
+ * </p>
+ *
+ * <p>
+ * The positions of a request are evaluated in parallel by the {@link AIPlayer} on a
+ * fixed pool of threads shared by all the requests. Each result is sent as one JSON
+ * line as soon as it is ready, so the lines may come in another order than the
+ * positions:
+ * </p>
+ * <pre>{@code
+ * {"id":"a1","row":1,"col":2,"score":1234,"win":false,"nodes":14,"micros":35}
+ * }</pre>
+ * <p>
+ * The query parameter {@code budgetMs} sets the time budget of a request (default
+ * {@value #DEFAULT_BUDGET_MILLIS} ms, at most {@value #MAX_BUDGET_MILLIS} ms). A
+ * position not started before the end of the budget is answered with
+ * {@code "error":"time budget exceeded"}, and one running at the end of the budget
+ * plays the best move found so far. The service accepts at most {@code queueSize}
+ * positions waiting or running: a request which does not fit is rejected at once with
+ * {@code 429 Too Many Requests}, and a request bigger than the whole queue with
+ * {@code 413}. The port is bound to the loopback address only.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes server.AnalysisServer [port] [threads] [queueSize]
+ * }</pre>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-11
+ */
+public class AnalysisServer implements AutoCloseable {
+
+    /** Default port. */
+    public static final int DEFAULT_PORT = 7880;
+    /** Default number of positions waiting or running. */
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    /** Default time budget of a request. */
+    public static final long DEFAULT_BUDGET_MILLIS = 10_000;
+    /** Biggest time budget of a request (a bigger one would overflow the deadline in nanoseconds). */
+    public static final long MAX_BUDGET_MILLIS = 60_000;
+    /** Default win length of a position. */
+    private static final int DEFAULT_WIN_LENGTH = 5;
+    /** Largest request body accepted. */
+    private static final int MAX_BODY_BYTES = 8 << 20;
+
+    /** The HTTP server. */
+    private final HttpServer http;
+    /** The threads evaluating the positions. */
+    private final ExecutorService engines;
+    /** Places left in the analysis queue, one per position. */
+    private final Semaphore queue;
+    /** Size of the analysis queue. */
+    private final int queueSize;
+    /** Positions analysed. */
+    private final LongAdder analysed = new LongAdder();
+    /** Requests rejected because the queue was full. */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates the service (call {@link #start()} to open it).
+     *
+     * @param port the port, 0 for any free one
+     * @param threads the threads evaluating positions
+     * @param queueSize the most positions waiting or running
+     * @throws IOException if the port cannot be opened
+     * @throws IllegalArgumentException if the thread count or the queue size is not positive
+     */
+    public AnalysisServer(int port, int threads, int queueSize) throws IOException {
+        if (threads <= 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Thread count and queue size must be positive.");
+        }
+        this.queueSize = queueSize;
+        this.queue = new Semaphore(queueSize);
+        AtomicInteger number = new AtomicInteger();
+        this.engines = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "analysis-" + number.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.http.createContext("/analyze", this::analyze);
+        this.http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Starts answering requests.
+     */
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * Returns the port of the service.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of positions analysed.
+     *
+     * @return the positions
+     */
+    public long getAnalysed() {
+        return analysed.sum();
+    }
+
+    /**
+     * Returns the number of requests rejected because the queue was full.
+     *
+     * @return the requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stops the service.
+     */
+    @Override
+    public void close() {
+        http.stop(0);
+        engines.shutdownNow();
+    }
+
+    /**
+     * Answers one {@code /analyze} request.
+     *
+     * @param exchange the request
+     * @throws IOException if the client went away
+     */
+    private void analyze(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Use POST.");
+                return;
+            }
+            List<Object> positions;
+            long budget;
+            try {
+                budget = budgetMillis(exchange.getRequestURI());
+                positions = readPositions(exchange.getRequestBody());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            int count = positions.size();
+            if (count > queueSize) {
+                sendError(exchange, 413, "At most " + queueSize + " positions per request.");
+                return;
+            }
+            if (!queue.tryAcquire(count)) {
+                rejected.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 429, "Analysis queue is full.");
+                return;
+            }
+
+            long deadline = System.nanoTime() + budget * 1_000_000;
+            BlockingQueue<String> results = new LinkedBlockingQueue<>();
+            for (Object position : positions) {
+                engines.execute(() -> {
+                    String line = null;
+                    try {
+                        line = System.nanoTime() - deadline > 0
+                                ? error(position, "time budget exceeded")
+                                : evaluate(position, deadline);
+                    } catch (RuntimeException e) {
+                        line = error(position, String.valueOf(e.getMessage()));
+                    } catch (Throwable e) {
+                        line = error(position, "internal error");
+                        throw e;
+                    } finally {
+                        // Every position gets a line, or the response would wait for it forever
+                        results.add(line != null ? line : error(position, "internal error"));
+                        queue.release();
+                    }
+                });
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0); // chunked: one line per result
+            OutputStream out = exchange.getResponseBody();
+            for (int i = 0; i < count; i++) {
+                out.write(results.take().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads the time budget of a request.
+     *
+     * @param uri the request URI
+     * @return the budget in milliseconds
+     * @throws IllegalArgumentException if the budget is not from 1 to {@link #MAX_BUDGET_MILLIS}
+     */
+    private static long budgetMillis(URI uri) {
+        String query = uri.getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("budgetMs=")) {
+                    try {
+                        long budget = Long.parseLong(parameter.substring("budgetMs=".length()));
+                        if (budget > 0 && budget <= MAX_BUDGET_MILLIS) {
+                            return budget;
+                        }
+                    } catch (NumberFormatException e) {
+                        // reported below
+                    }
+                    throw new IllegalArgumentException("budgetMs must be from 1 to " + MAX_BUDGET_MILLIS + " milliseconds.");
+                }
+            }
+        }
+        return DEFAULT_BUDGET_MILLIS;
+    }
+
+    /**
+     * Reads the positions of a request body.
+     *
+     * @param body the body
+     * @return the positions (not checked yet)
+     * @throws IOException if the body cannot be read
+     * @throws IllegalArgumentException if the body is too big, empty or not JSON
+     */
+    private static List<Object> readPositions(InputStream body) throws IOException {
+        byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request body is too big.");
+        }
+        Json json = new Json(new String(bytes, StandardCharsets.UTF_8));
+        List<Object> positions = new ArrayList<>();
+        while (json.hasNext()) {
+            Object value = json.next();
+            if (value instanceof List<?> list) {
+                positions.addAll(list);
+            } else {
+                positions.add(value);
+            }
+        }
+        if (positions.isEmpty()) {
+            throw new IllegalArgumentException("No position given.");
+        }
+        return positions;
+    }
+
+    /**
+     * Finds the best move of one position.
+     *
+     * @param value the position, as read from the JSON body
+     * @param deadline the {@link System#nanoTime()} at which the request is out of time
+     * @return the result line
+     * @throws IllegalArgumentException if the position is not valid
+     */
+    private String evaluate(Object value, long deadline) {
+        if (!(value instanceof Map<?, ?> position)) {
+            throw new IllegalArgumentException("A position must be a JSON object.");
+        }
+        long start = System.nanoTime();
+        String[] rows = rows(position.get("board"));
+        int size = rows.length;
+        byte[] cells = new byte[size * size];
+        int[] count = new int[2];
+        for (int r = 0; r < size; r++) {
+            if (rows[r].length() != size) {
+                throw new IllegalArgumentException("The board must be square.");
+            }
+            for (int c = 0; c < size; c++) {
+                int color = switch (rows[r].charAt(c)) {
+                    case '.', '-', '_' -> -1;
+                    case 'X', 'x' -> 1;
+                    case 'O', 'o' -> 0;
+                    default -> throw new IllegalArgumentException("Unknown cell '" + rows[r].charAt(c) + "'.");
+                };
+                if (color >= 0) {
+                    cells[r * size + c] = (byte) (color + 1);
+                    count[color]++;
+                }
+            }
+        }
+        if (size % 2 == 0) {
+            throw new IllegalArgumentException("The board size must be odd.");
+        }
+        int color = count[1] <= count[0] ? 1 : 0;
+        Object given = position.get("color");
+        if (given != null) {
+            color = switch (String.valueOf(given)) {
+                case "1", "X", "x" -> 1;
+                case "0", "O", "o" -> 0;
+                default -> throw new IllegalArgumentException("color must be 1 (black) or 0 (white).");
+            };
+        }
+        int winLength = DEFAULT_WIN_LENGTH;
+        if (position.get("winLength") instanceof Long length) {
+            if (length < 3 || length > size) {
+                throw new IllegalArgumentException("winLength must be from 3 to the board size.");
+            }
+            winLength = length.intValue();
+        }
+
+        int row = size / 2;
+        int col = size / 2;
+        int score = 0;
+        long nodes = 0;
+        if (count[0] + count[1] > 0) {
+            Grid grid = Grid.fromBoardImage(size, cells);
+            AIPlayer ai = new AIPlayer("Analysis", color, winLength);
+            int[] best;
+            try {
+                best = ai.choosePieceLocation(grid, winLength, size, deadline); // best so far when out of time
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("No free cell next to a piece.");
+            }
+            row = best[0];
+            col = best[1];
+            score = ai.getLastScore();
+            nodes = ai.getNodes();
+        }
+        analysed.increment();
+        return "{" + id(position) + "\"row\":" + row + ",\"col\":" + col + ",\"score\":" + score
+                + ",\"win\":" + (score == Integer.MAX_VALUE) + ",\"nodes\":" + nodes
+                + ",\"micros\":" + (System.nanoTime() - start) / 1000 + "}\n";
+    }
+
+    /**
+     * Reads the rows of a board.
+     *
+     * @param board a list of row strings, or one string with all the cells
+     * @return the rows
+     * @throws IllegalArgumentException if the board is missing or has the wrong shape
+     */
+    private static String[] rows(Object board) {
+        if (board instanceof List<?> list && !list.isEmpty()) {
+            String[] rows = new String[list.size()];
+            for (int i = 0; i < rows.length; i++) {
+                if (!(list.get(i) instanceof String row)) {
+                    throw new IllegalArgumentException("The rows of the board must be strings.");
+                }
+                rows[i] = row;
+            }
+            return rows;
+        }
+        if (board instanceof String all) {
+            String cells = all.replaceAll("[\\s/]", "");
+            int size = (int) Math.round(Math.sqrt(cells.length()));
+            if (size == 0 || size * size != cells.length()) {
+                throw new IllegalArgumentException("The board must be square.");
+            }
+            String[] rows = new String[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = cells.substring(i * size, (i + 1) * size);
+            }
+            return rows;
+        }
+        throw new IllegalArgumentException("board must be a list of rows or a string.");
+    }
+
+    /**
+     * Makes the result line of a position which could not be evaluated.
+     *
+     * @param position the position
+     * @param message why
+     * @return the result line
+     */
+    private static String error(Object position, String message) {
+        return "{" + (position instanceof Map<?, ?> map ? id(map) : "") + "\"error\":" + Json.quote(message) + "}\n";
+    }
+
+    /**
+     * Writes the {@code id} field of a result, if the position has one.
+     *
+     * @param position the position
+     * @return the field followed by a comma, or an empty string
+     */
+    private static String id(Map<?, ?> position) {
+        Object id = position.get("id");
+        if (id == null) {
+            return "";
+        }
+        return "\"id\":" + (id instanceof Number ? id.toString() : Json.quote(String.valueOf(id))) + ",";
+    }
+
+    /**
+     * Sends an error answer.
+     *
+     * @param exchange the request
+     * @param status the HTTP status
+     * @param message why
+     * @throws IOException if the client went away
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = ("{\"error\":" + Json.quote(message) + "}\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Runs the service from the command line.
+     *
+     * @param args optional: port, threads, queue size
+     * @throws IOException if the port cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queueSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_QUEUE_SIZE;
+
+        AnalysisServer server = new AnalysisServer(port, threads, queueSize);
+        server.start();
+        System.out.println("Analysis service on http://localhost:" + server.getPort() + "/analyze with "
+                + threads + " threads, queue " + queueSize);
+    }
+}
@@ -0,0 +1,202 @@
+package server;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import model.GameCore;
+import model.GameState;
+import save.SaveManager;
+import save.SavedGame;
+import util.MpscQueue;
+
+/**
+ * Runs one game as an actor: only the actor touches its {@link GameCore}.
+ * <p>
+ * Any thread can send commands (start, move, resign, save, query). They are put in
+ * a lock-free {@link MpscQueue} and the actor runs them one at a time, in order, on
+ * a shared {@link Executor}. An actor is scheduled only while it has commands, and
+ * never on two threads at once, so the game needs no lock: many sessions spread over
+ * the threads of the executor without sharing anything on the move path. After each
+ * command the actor publishes an immutable {@link GameState}, which
+ * {@link #snapshot()} reads without going through the queue.
+ * </p>
+ *
+ * <p>
+ * Each command returns a future completed with the state right after it, or with the
+ * exception of the game (illegal move, game over). The listeners of the core are
+ * called on the actor's thread, before the future of the command is completed.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-10
+ */
+public final class GameActor {
+
+    /** Commands run before giving the thread to other actors. */
+    private static final int BATCH = 64;
+
+    /** The game, used on the actor's thread only. */
+    private final GameCore core;
+    /** The threads running the actors. */
+    private final Executor executor;
+    /** Commands waiting to be run. */
+    private final MpscQueue<Runnable> mailbox = new MpscQueue<>();
+    /** {@code true} while the actor is waiting for or running on a thread. */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /** State after the last command. */
+    private volatile GameState state;
+
+    /**
+     * Creates the actor of a game. The core must not be used by anyone else after this.
+     *
+     * @param core the game
+     * @param executor the threads running the actors
+     */
+    public GameActor(GameCore core, Executor executor) {
+        this.core = core;
+        this.executor = executor;
+        this.state = core.currentState();
+    }
+
+    /**
+     * Starts the game (see {@link GameCore#start()}).
+     *
+     * @return the state after the start
+     */
+    public CompletableFuture<GameState> start() {
+        return ask(GameCore::start);
+    }
+
+    /**
+     * Plays a move for the player of the given color.
+     *
+     * @param color the color of the player who plays
+     * @param row the row
+     * @param col the column
+     * @return the state after the move; failed with an {@link IllegalStateException} if
+     *         it is not that player's turn, or the exception of {@link GameCore#submitMove(int, int)}
+     */
+    public CompletableFuture<GameState> move(int color, int row, int col) {
+        return ask(game -> {
+            if (game.getCurrentPlayer() == null || game.getCurrentPlayer().getPlayerColor() != color) {
+                throw new IllegalStateException("Not your turn.");
+            }
+            game.submitMove(row, col);
+        });
+    }
+
+    /**
+     * Makes the player to move resign.
+     *
+     * @return the state after the resignation
+     */
+    public CompletableFuture<GameState> resign() {
+        return ask(GameCore::resign);
+    }
+
+    /**
+     * Returns the state once every command sent before has run.
+     *
+     * @return the state
+     */
+    public CompletableFuture<GameState> query() {
+        return ask(game -> { });
+    }
+
+    /**
+     * Saves the game in the {@code data} folder. The game is encoded by the actor, in
+     * order with the other commands, and written in the background.
+     *
+     * @param filename the name of the save file, without any folder
+     * @return the path of the save
+     * @throws IllegalArgumentException if the name is not a plain file name
+     */
+    public CompletableFuture<Path> save(String filename) {
+        // The name comes from a client: it must not leave the data folder
+        if (filename == null || filename.isEmpty() || filename.equals(".") || filename.equals("..")
+                || filename.indexOf('/') >= 0 || filename.indexOf('\\') >= 0 || filename.indexOf(':') >= 0) {
+            throw new IllegalArgumentException("Save name must be a file name without a folder.");
+        }
+        CompletableFuture<Path> saved = new CompletableFuture<>();
+        send(() -> {
+            try {
+                SaveManager.saveGameAsync(filename, SavedGame.fromCore(core)).whenComplete((path, error) -> {
+                    if (error != null) {
+                        saved.completeExceptionally(error);
+                    } else {
+                        saved.complete(path);
+                    }
+                });
+            } catch (RuntimeException e) {
+                saved.completeExceptionally(e);
+            }
+        });
+        return saved;
+    }
+
+    /**
+     * Returns the state after the last command run, without waiting.
+     *
+     * @return the state
+     */
+    public GameState snapshot() {
+        return state;
+    }
+
+    /**
+     * Sends a command whose answer is the state after it.
+     *
+     * @param command what to do with the game
+     * @return the state after the command
+     */
+    private CompletableFuture<GameState> ask(Consumer<GameCore> command) {
+        CompletableFuture<GameState> answer = new CompletableFuture<>();
+        send(() -> {
+            try {
+                command.accept(core);
+                state = core.currentState();
+                answer.complete(state);
+            } catch (RuntimeException e) {
+                answer.completeExceptionally(e);
+            }
+        });
+        return answer;
+    }
+
+    /**
+     * Puts a command in the mailbox and schedules the actor if it was idle.
+     *
+     * @param command the command
+     */
+    private void send(Runnable command) {
+        mailbox.offer(command);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs the waiting commands (one thread at a time).
+     */
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Runnable command = mailbox.poll();
+            if (command == null) {
+                if (!mailbox.isEmpty()) {
+                    continue; // a producer is linking its command: look again
+                }
+                break;
+            }
+            command.run();
+        }
+        scheduled.set(false);
+        // a command sent during the last poll found the actor scheduled: take it now
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+}
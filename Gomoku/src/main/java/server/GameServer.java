@@ -0,0 +1,215 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts many games from one JVM: every client connected on the local TCP port gets a
+ * {@link Session} on its own virtual thread.
+ * <p>
+ * A virtual thread blocked on its socket holds no platform thread, so idle sessions
+ * cost only their memory (thousands of them are fine). Each game is a
+ * {@link GameActor} run on a shared work-stealing pool of one thread per core, so
+ * games need no lock. The computer players of all the sessions share one
+ * {@link AiPool}, so at most one search per pool thread runs at a time. Each game
+ * has a number and a {@link MoveBroadcaster}, so other clients can watch it. Every few
+ * seconds the server prints the open sessions and the moves played per second. The
+ * port is bound to the loopback address only.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes server.GameServer [port] [aiThreads]
+ * }</pre>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.2
+ * @since 2025-06-09
+ */
+public class GameServer implements AutoCloseable {
+
+    /** Default port. */
+    public static final int DEFAULT_PORT = 7878;
+    /** Connections waiting to be accepted. */
+    private static final int BACKLOG = 4096;
+    /** Searches waiting or running, per pool thread. */
+    private static final int PENDING_PER_THREAD = 64;
+    /** Seconds between two statistics lines. */
+    private static final int STATS_SECONDS = 5;
+
+    /** The listening socket. */
+    private final ServerSocket listener;
+    /** The computer players' threads. */
+    private final AiPool pool;
+    /** The threads running the game actors. */
+    private final ForkJoinPool actors;
+    /** Open sessions. */
+    private final AtomicInteger sessions = new AtomicInteger();
+    /** Moves played in all the sessions. */
+    private final LongAdder moves = new LongAdder();
+    /** The games being played, by number, for their watchers. */
+    private final Map<Integer, MoveBroadcaster> games = new ConcurrentHashMap<>();
+    /** Number of the next game. */
+    private final AtomicInteger nextGame = new AtomicInteger(1);
+
+    /**
+     * Opens the server on a local port.
+     *
+     * @param port the port, 0 for any free one
+     * @param aiThreads the threads of the computer players
+     * @throws IOException if the port cannot be opened
+     */
+    public GameServer(int port, int aiThreads) throws IOException {
+        this.pool = new AiPool(aiThreads, aiThreads * PENDING_PER_THREAD);
+        this.actors = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.listener = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Accepts clients until the server is closed.
+     *
+     * @throws IOException if accepting fails
+     */
+    public void serve() throws IOException {
+        Thread.Builder sessionThreads = Thread.ofVirtual().name("session-", 0);
+        while (true) {
+            Socket socket;
+            try {
+                socket = listener.accept();
+            } catch (SocketException e) {
+                if (listener.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            socket.setTcpNoDelay(true);
+            sessions.incrementAndGet();
+            sessionThreads.start(new Session(socket, pool, actors, this));
+        }
+    }
+
+    /**
+     * Counts a move played in a session.
+     */
+    void movePlayed() {
+        moves.increment();
+    }
+
+    /**
+     * Makes a game visible to the watchers.
+     *
+     * @param broadcaster the moves of the game
+     * @return the number of the game
+     */
+    int addGame(MoveBroadcaster broadcaster) {
+        int id = nextGame.getAndIncrement();
+        games.put(id, broadcaster);
+        return id;
+    }
+
+    /**
+     * Removes a game whose session started another one or closed.
+     *
+     * @param id the number of the game
+     */
+    void removeGame(int id) {
+        games.remove(id);
+    }
+
+    /**
+     * Finds a game to watch.
+     *
+     * @param id the number of the game
+     * @return its moves, or {@code null} if no such game is open
+     */
+    MoveBroadcaster findGame(int id) {
+        return games.get(id);
+    }
+
+    /**
+     * Counts a closed session.
+     */
+    void sessionClosed() {
+        sessions.decrementAndGet();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return listener.getLocalPort();
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return the sessions
+     */
+    public int getSessions() {
+        return sessions.get();
+    }
+
+    /**
+     * Returns the number of moves played in all the sessions.
+     *
+     * @return the moves
+     */
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /**
+     * Stops accepting clients, the computer players and the game actors.
+     *
+     * @throws IOException if the socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        listener.close();
+        pool.close();
+        actors.shutdownNow();
+    }
+
+    /**
+     * Runs the server from the command line.
+     *
+     * @param args optional: port, threads of the computer players
+     * @throws IOException if the port cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int aiThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        GameServer server = new GameServer(port, aiThreads);
+        System.out.println("Gomoku server on " + server.listener.getLocalSocketAddress()
+                + " with " + aiThreads + " AI threads");
+        Thread stats = new Thread(() -> {
+            long before = 0;
+            while (true) {
+                try {
+                    Thread.sleep(STATS_SECONDS * 1000L);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long now = server.getMoves();
+                System.out.printf("%d sessions, %.0f moves/s%n", server.getSessions(),
+                        (now - before) / (double) STATS_SECONDS);
+                before = now;
+            }
+        }, "server-stats");
+        stats.setDaemon(true);
+        stats.start();
+        server.serve();
+    }
+}
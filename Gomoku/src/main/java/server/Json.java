@@ -0,0 +1,305 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small JSON reader and string quoting for the {@link AnalysisServer}.
+ * <p>
+ * Reads a text holding one or more JSON values one after the other (a single
+ * object, an array or JSON lines). Objects become {@link Map}s keeping the order of
+ * the keys, arrays {@link List}s, numbers {@link Long} or {@link Double}, and
+ * {@code true}, {@code false}, {@code null} the matching Java values.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-11
+ */
+final class Json {
+
+    /** Deepest nesting of objects and arrays read (each level costs stack on the reading thread). */
+    private static final int MAX_DEPTH = 64;
+
+    /** The text. */
+    private final String text;
+    /** Index of the next character. */
+    private int pos;
+    /** Objects and arrays open around the next character. */
+    private int depth;
+
+    /**
+     * Creates a reader.
+     *
+     * @param text the JSON text
+     */
+    Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Tells if another value follows.
+     *
+     * @return {@code true} if there is something else than white space left
+     */
+    boolean hasNext() {
+        skipSpace();
+        return pos < text.length();
+    }
+
+    /**
+     * Reads the next value.
+     *
+     * @return the value
+     * @throws IllegalArgumentException if the text is not valid JSON
+     */
+    Object next() {
+        skipSpace();
+        if (pos >= text.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{', '[' -> {
+                if (depth == MAX_DEPTH) {
+                    throw error("JSON is nested too deeply");
+                }
+                depth++;
+                Object value = c == '{' ? readObject() : readArray();
+                depth--;
+                return value;
+            }
+            case '"' -> {
+                return readString();
+            }
+            case 't' -> {
+                return literal("true", Boolean.TRUE);
+            }
+            case 'f' -> {
+                return literal("false", Boolean.FALSE);
+            }
+            case 'n' -> {
+                return literal("null", null);
+            }
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+            }
+        }
+    }
+
+    /**
+     * Writes a string as a JSON string literal.
+     *
+     * @param value the string
+     * @return the quoted string
+     */
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Reads an object.
+     *
+     * @return the object
+     */
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++; // {
+        skipSpace();
+        if (peek() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            skipSpace();
+            if (peek() != '"') {
+                throw error("Expected a key");
+            }
+            String key = readString();
+            skipSpace();
+            expect(':');
+            object.put(key, next());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    /**
+     * Reads an array.
+     *
+     * @return the array
+     */
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        pos++; // [
+        skipSpace();
+        if (peek() == ']') {
+            pos++;
+            return array;
+        }
+        while (true) {
+            array.add(next());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @return the string
+     */
+    private String readString() {
+        StringBuilder sb = new StringBuilder();
+        pos++; // "
+        while (true) {
+            if (pos >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case 'r' -> sb.append('\r');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) {
+                        throw error("Bad unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Bad unicode escape");
+                    }
+                    pos += 4;
+                }
+                default -> sb.append(escaped); // " \ /
+            }
+        }
+    }
+
+    /**
+     * Reads a number.
+     *
+     * @return a {@link Long} for an integer, a {@link Double} otherwise
+     */
+    private Object readNumber() {
+        int start = pos;
+        boolean integer = true;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integer = false;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            pos++;
+        }
+        String number = text.substring(start, pos);
+        try {
+            return integer ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Bad number " + number);
+        }
+    }
+
+    /**
+     * Reads a literal word.
+     *
+     * @param word the word expected
+     * @param value its value
+     * @return the value
+     */
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) {
+            throw error("Unexpected word");
+        }
+        pos += word.length();
+        return value;
+    }
+
+    /**
+     * Skips a character which must be there.
+     *
+     * @param c the character
+     */
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Returns the next character without reading it.
+     *
+     * @return the character, or 0 at the end
+     */
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : 0;
+    }
+
+    /**
+     * Skips white space.
+     */
+    private void skipSpace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    /**
+     * Makes the exception for a syntax error.
+     *
+     * @param message what is wrong
+     * @return the exception
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at character " + pos + ".");
+    }
+}
@@ -0,0 +1,261 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local load test of a {@link GameServer}.
+ * <p>
+ * Opens {@code idle} sessions which start a game and then wait, and {@code active}
+ * sessions which play against the server's computer as fast as they can: each keeps
+ * its own copy of the grid from the {@code MOVE} messages and answers with a random
+ * empty cell next to a piece, starting a new game when one ends. Every client runs
+ * on a virtual thread. At the end it prints the moves per second seen by the
+ * clients (both sides' moves), the games finished and the sessions that failed.
+ * </p>
+ *
+ * Usage:
+ * <pre>{@code
+ * java -cp target/classes server.LoadGenerator [host] [port] [active] [seconds] [idle]
+ * }</pre>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-09
+ */
+public class LoadGenerator {
+
+    /** Grid size of the games. */
+    private static final int SIZE = 15;
+
+    /** Host of the server. */
+    private final String host;
+    /** Port of the server. */
+    private final int port;
+    /** Moves received by the clients. */
+    private final LongAdder moves = new LongAdder();
+    /** Games finished. */
+    private final LongAdder games = new LongAdder();
+    /** Sessions which got an error. */
+    private final AtomicInteger failures = new AtomicInteger();
+    /** Sessions connected and past their first game start. */
+    private final AtomicInteger connected = new AtomicInteger();
+    /** Set when the test is over. */
+    private volatile boolean stopped;
+
+    /**
+     * Creates a load generator.
+     *
+     * @param host the host of the server
+     * @param port the port of the server
+     */
+    public LoadGenerator(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Runs the test.
+     *
+     * @param active the sessions playing
+     * @param seconds how long they play
+     * @param idle the sessions only holding a game
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void run(int active, int seconds, int idle) throws InterruptedException {
+        List<Thread> clients = new ArrayList<>(active + idle);
+        long start = System.nanoTime();
+        for (int i = 0; i < idle; i++) {
+            clients.add(Thread.ofVirtual().start(this::idleClient));
+        }
+        while (connected.get() + failures.get() < idle) {
+            Thread.sleep(10);
+        }
+        System.out.printf("%d idle sessions open in %.1f s (%d failed)%n", connected.get(),
+                (System.nanoTime() - start) / 1e9, failures.get());
+
+        long before = moves.sum();
+        start = System.nanoTime();
+        for (int i = 0; i < active; i++) {
+            clients.add(Thread.ofVirtual().start(this::activeClient));
+        }
+        Thread.sleep(seconds * 1000L);
+        stopped = true;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long played = moves.sum() - before;
+        for (Thread client : clients) {
+            client.join();
+        }
+        System.out.printf("%d active sessions: %d moves in %.1f s = %.0f moves/s, %d games, %d failed%n",
+                active, played, elapsed, played / elapsed, games.sum(), failures.get());
+    }
+
+    /**
+     * A session which starts a game and waits for the end of the test.
+     */
+    private void idleClient() {
+        try (Socket socket = new Socket(host, port)) {
+            BufferedReader in = reader(socket);
+            PrintWriter out = writer(socket);
+            in.readLine(); // HELLO
+            out.println("NEW " + SIZE + " 5 HUMAN");
+            out.flush();
+            String line;
+            while ((line = in.readLine()) != null && !line.startsWith("TURN")) {
+                // skip the start of the game
+            }
+            connected.incrementAndGet();
+            while (!stopped) {
+                Thread.sleep(100);
+            }
+            out.println("QUIT");
+            out.flush();
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A session which plays games against the server's computer until the end of the test.
+     */
+    private void activeClient() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = reader(socket);
+            PrintWriter out = writer(socket);
+            in.readLine(); // HELLO
+            int size = SIZE;
+            byte[] cells = new byte[size * size];
+            out.println("NEW " + SIZE + " 5 AI EXPAND");
+            out.flush();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.split(" ");
+                switch (words[0]) {
+                    case "GAME" -> {
+                        size = Integer.parseInt(words[1]);
+                        cells = new byte[size * size];
+                    }
+                    case "MOVE" -> {
+                        cells[Integer.parseInt(words[2]) * size + Integer.parseInt(words[3])] = 1;
+                        moves.increment();
+                    }
+                    case "EXPAND" -> {
+                        int newSize = Integer.parseInt(words[1]);
+                        byte[] grown = new byte[newSize * newSize];
+                        int shift = (newSize - size) / 2;
+                        for (int r = 0; r < size; r++) {
+                            System.arraycopy(cells, r * size, grown, (r + shift) * newSize + shift, size);
+                        }
+                        size = newSize;
+                        cells = grown;
+                    }
+                    case "TURN" -> {
+                        if (!words[1].equals("1")) {
+                            continue; // the computer's turn
+                        }
+                        if (stopped) {
+                            out.println("QUIT");
+                        } else {
+                            int cell = randomMove(cells, size, random);
+                            out.println("MOVE " + cell / size + " " + cell % size);
+                        }
+                        out.flush();
+                    }
+                    case "END" -> {
+                        games.increment();
+                        out.println(stopped ? "QUIT" : "NEW " + SIZE + " 5 AI EXPAND");
+                        out.flush();
+                    }
+                    case "ERR" -> throw new IOException(line);
+                    case "BYE" -> {
+                        return;
+                    }
+                    default -> { }
+                }
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Chooses a random empty cell next to a piece.
+     *
+     * @param cells the grid, row by row, nonzero for a piece
+     * @param size the grid size
+     * @param random the random generator
+     * @return the index of the cell
+     * @throws IllegalStateException if no empty cell touches a piece
+     */
+    private static int randomMove(byte[] cells, int size, ThreadLocalRandom random) {
+        int start = random.nextInt(cells.length);
+        for (int k = 0; k < cells.length; k++) {
+            int i = (start + k) % cells.length;
+            if (cells[i] != 0) {
+                continue;
+            }
+            int row = i / size;
+            int col = i % size;
+            for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                    if (cells[r * size + c] != 0) {
+                        return i;
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("No empty cell next to a piece.");
+    }
+
+    /**
+     * Opens the reader of a connection.
+     *
+     * @param socket the connection
+     * @return the reader
+     * @throws IOException if the connection is closed
+     */
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens the writer of a connection, flushed by hand.
+     *
+     * @param socket the connection
+     * @return the writer
+     * @throws IOException if the connection is closed
+     */
+    private static PrintWriter writer(Socket socket) throws IOException {
+        return new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), false);
+    }
+
+    /**
+     * Runs the load test from the command line.
+     *
+     * @param args optional: host, port, active sessions, seconds, idle sessions
+     * @throws InterruptedException if the test is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int active = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int idle = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+        new LoadGenerator(host, port).run(active, seconds, idle);
+    }
+}
@@ -0,0 +1,376 @@
+package server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import model.GameCore;
+import model.GameListener;
+import model.GameRecord;
+import model.GameState;
+import model.Player;
+
+/**
+ * Sends the moves of one game to any number of watchers as small deltas.
+ * <p>
+ * The broadcaster is a {@link GameListener} of the game, so the game's thread is the
+ * only writer. Each event (move, expansion, end) is packed into one {@code long} and
+ * put in a ring buffer, then the sequence number is published. Readers each own a
+ * {@link Subscription} with its own cursor and read the ring at their own pace: the
+ * writer never waits for them and never copies anything per reader. A reader that
+ * falls more than the ring size behind gets {@link #RESYNC} and starts again from the
+ * newest snapshot.
+ * </p>
+ *
+ * <p>
+ * Every {@code snapshotInterval} events (and at the start and end of the game) the
+ * writer also publishes a {@link GameState} with the sequence number it matches. A
+ * late joiner starts from that snapshot and catches up with the deltas that follow
+ * it, instead of getting the whole game.
+ * </p>
+ *
+ * <p>
+ * A delta holds a type ({@link #MOVE}, {@link #EXPAND}, {@link #END}), a ply and a
+ * value: the move packed like in {@link GameRecord}, the new grid size, or the result
+ * ({@link GameRecord#DRAW} or the winner's color). Read them with
+ * {@link #typeOf(long)}, {@link #plyOf(long)} and {@link #valueOf(long)}.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public final class MoveBroadcaster implements GameListener {
+
+    /** Default ring size (deltas a reader can be behind). */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** Delta type: a piece was placed. */
+    public static final int MOVE = 1;
+    /** Delta type: the grid grew. */
+    public static final int EXPAND = 2;
+    /** Delta type: the game is over. */
+    public static final int END = 3;
+    /** Delta type: the reader fell behind and must take the snapshot again. */
+    public static final int RESYNC = 4;
+    /** Returned by {@link Subscription#poll()} when no delta is waiting. */
+    public static final long NONE = -1L;
+
+    /**
+     * A state of the game and the number of deltas published before it.
+     */
+    private static final class Snapshot {
+
+        /** The state. */
+        private final GameState state;
+        /** Deltas published when the state was taken. */
+        private final long sequence;
+
+        /**
+         * Creates a snapshot.
+         *
+         * @param state the state
+         * @param sequence the deltas published before it
+         */
+        Snapshot(GameState state, long sequence) {
+            this.state = state;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The cursor of one reader. A subscription must be used by one thread at a time.
+     */
+    public final class Subscription {
+
+        /** Sequence of the next delta to read. */
+        private long next;
+        /** Snapshot the reader started from. */
+        private GameState snapshot;
+        /** {@code true} while the subscription is in the waiters' queue. */
+        private final AtomicBoolean queued = new AtomicBoolean();
+        /** Thread waiting in {@link #take(long)}. */
+        private volatile Thread thread;
+
+        /**
+         * Creates a subscription starting from the newest snapshot.
+         */
+        private Subscription() {
+            resync();
+        }
+
+        /**
+         * Returns the state the deltas start from. After a {@link #RESYNC} delta it
+         * is a newer state: the reader must redraw from it.
+         *
+         * @return the snapshot
+         */
+        public GameState getSnapshot() {
+            return snapshot;
+        }
+
+        /**
+         * Takes the next delta without waiting.
+         *
+         * @return the delta, {@link #NONE} if there is none yet, or a {@link #RESYNC}
+         *         delta if the reader fell behind
+         */
+        public long poll() {
+            long published = sequence.get();
+            if (next >= published) {
+                return NONE;
+            }
+            if (published - next > mask) {
+                return resync();
+            }
+            long delta = ring.get((int) (next & mask));
+            if (sequence.get() - next > mask) {
+                return resync(); // the writer went round while the delta was read
+            }
+            next++;
+            return delta;
+        }
+
+        /**
+         * Takes the next delta, waiting for it if needed.
+         *
+         * @param timeoutNanos the longest wait
+         * @return the delta, or {@link #NONE} if none came in time
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        public long take(long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (true) {
+                long delta = poll();
+                if (delta != NONE) {
+                    return delta;
+                }
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return NONE;
+                }
+                thread = Thread.currentThread();
+                if (queued.compareAndSet(false, true)) {
+                    waiters.add(this);
+                } // else the writer holds it and will wake this thread
+                if (sequence.get() == next) { // checked after joining the waiters, so no wake-up is lost
+                    LockSupport.parkNanos(this, left);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        /**
+         * Returns the number of deltas waiting for this reader.
+         *
+         * @return the deltas published and not read yet
+         */
+        public long getLag() {
+            return sequence.get() - next;
+        }
+
+        /**
+         * Starts again from the newest snapshot.
+         *
+         * @return the {@link #RESYNC} delta
+         */
+        private long resync() {
+            Snapshot s = latest;
+            snapshot = s.state;
+            next = s.sequence;
+            return pack(RESYNC, s.state.getPly(), 0);
+        }
+    }
+
+    /** The deltas, at index {@code sequence & mask}. */
+    private final AtomicLongArray ring;
+    /** Ring size minus one (the size is a power of two). */
+    private final int mask;
+    /** Deltas between two snapshots. */
+    private final int snapshotInterval;
+    /** Number of deltas published. */
+    private final AtomicLong sequence = new AtomicLong();
+    /** Readers waiting in {@link Subscription#take(long)}, each once. */
+    private final ConcurrentLinkedQueue<Subscription> waiters = new ConcurrentLinkedQueue<>();
+    /** Newest snapshot. */
+    private volatile Snapshot latest;
+    /** {@code true} once the first turn of the game began (game thread). */
+    private boolean started;
+
+    /**
+     * Creates a broadcaster with the default ring size, for a game which is not started yet.
+     *
+     * @param core the game
+     */
+    public MoveBroadcaster(GameCore core) {
+        this(core, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a broadcaster for a game; it must be added as a listener before the game
+     * starts (or resumes).
+     *
+     * @param core the game
+     * @param capacity the ring size, rounded up to a power of two (at least 16)
+     */
+    public MoveBroadcaster(GameCore core, int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+        this.ring = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.snapshotInterval = size / 4; // a late joiner finds all the deltas after the snapshot
+        this.latest = new Snapshot(core.currentState(), 0);
+    }
+
+    /**
+     * Opens a subscription which starts from the newest snapshot (any thread).
+     *
+     * @return the subscription
+     */
+    public Subscription subscribe() {
+        return new Subscription();
+    }
+
+    /**
+     * Returns the number of deltas published.
+     *
+     * @return the sequence number
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Returns the type of a delta.
+     *
+     * @param delta the delta
+     * @return {@link #MOVE}, {@link #EXPAND}, {@link #END} or {@link #RESYNC}
+     */
+    public static int typeOf(long delta) {
+        return (int) (delta >>> 60);
+    }
+
+    /**
+     * Returns the ply of a delta (the number of moves played when it was sent).
+     *
+     * @param delta the delta
+     * @return the ply
+     */
+    public static int plyOf(long delta) {
+        return (int) ((delta >>> 32) & 0x0FFF_FFFF);
+    }
+
+    /**
+     * Returns the value of a delta: a packed move, a grid size or a result.
+     *
+     * @param delta the delta
+     * @return the value
+     */
+    public static int valueOf(long delta) {
+        return (int) delta;
+    }
+
+    /**
+     * Publishes a placed piece (game thread).
+     *
+     * @param core the game
+     * @param player the player who placed it
+     * @param row the row
+     * @param col the column
+     */
+    @Override
+    public void onMove(GameCore core, Player player, int row, int col) {
+        publish(pack(MOVE, core.getPly(), GameRecord.pack(player.getPlayerColor(), row, col)));
+    }
+
+    /**
+     * Publishes an expansion (game thread).
+     *
+     * @param core the game
+     * @param newSize the new grid size
+     * @param additionalPieces the pieces given to each player
+     */
+    @Override
+    public void onExpand(GameCore core, int newSize, int additionalPieces) {
+        publish(pack(EXPAND, core.getPly(), newSize));
+    }
+
+    /**
+     * Takes a snapshot at the first turn, then when enough deltas were published since
+     * the last one (game thread).
+     *
+     * @param core the game
+     * @param toMove the player to move
+     */
+    @Override
+    public void onTurn(GameCore core, Player toMove) {
+        long published = sequence.get();
+        if (!started || published - latest.sequence >= snapshotInterval) {
+            started = true;
+            latest = new Snapshot(core.currentState(), published);
+        }
+    }
+
+    /**
+     * Publishes the winner (game thread).
+     *
+     * @param core the game
+     * @param winner the winner
+     */
+    @Override
+    public void onWin(GameCore core, Player winner) {
+        finish(core, winner.getPlayerColor());
+    }
+
+    /**
+     * Publishes a draw (game thread).
+     *
+     * @param core the game
+     * @param reason why the game is a draw
+     */
+    @Override
+    public void onDraw(GameCore core, String reason) {
+        finish(core, GameRecord.DRAW);
+    }
+
+    /**
+     * Publishes the end of the game and its final snapshot.
+     *
+     * @param core the game
+     * @param result the winner's color or {@link GameRecord#DRAW}
+     */
+    private void finish(GameCore core, int result) {
+        publish(pack(END, core.getPly(), result));
+        latest = new Snapshot(core.currentState(), sequence.get());
+    }
+
+    /**
+     * Writes a delta in the ring, publishes it and wakes the waiting readers.
+     *
+     * @param delta the delta
+     */
+    private void publish(long delta) {
+        long s = sequence.get();
+        ring.setRelease((int) (s & mask), delta);
+        sequence.setRelease(s + 1);
+        Subscription waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiter.queued.set(false);
+            LockSupport.unpark(waiter.thread);
+        }
+    }
+
+    /**
+     * Packs a delta.
+     *
+     * @param type the type
+     * @param ply the ply
+     * @param value the value
+     * @return the delta
+     */
+    private static long pack(int type, int ply, int value) {
+        return (long) type << 60 | (long) (ply & 0x0FFF_FFFF) << 32 | (value & 0xFFFF_FFFFL);
+    }
+}
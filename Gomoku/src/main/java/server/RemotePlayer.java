@@ -0,0 +1,44 @@
+package server;
+
+import model.Grid;
+import model.Player;
+
+/**
+ * A player whose moves come from a network client.
+ * <p>
+ * The session submits the moves it receives to the {@link model.GameCore}, so this
+ * player is never asked to choose one.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-06-09
+ */
+class RemotePlayer extends Player {
+
+    /** Serial version UID for serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a remote player.
+     *
+     * @param name the name of the player
+     * @param playerColor the color of the player
+     * @param pieceNum the pieces of the player
+     */
+    RemotePlayer(String name, int playerColor, int pieceNum) {
+        super(name, playerColor, pieceNum);
+    }
+
+    /**
+     * Not used: the moves of a remote player are submitted by its session.
+     *
+     * @param grid the grid
+     * @return never
+     * @throws IllegalStateException always
+     */
+    @Override
+    public int[] choosePieceLocation(Grid grid) {
+        throw new IllegalStateException("The moves of a remote player come from its client.");
+    }
+}
@@ -0,0 +1,476 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import ai.AIPlayer;
+import model.GameCore;
+import model.GameListener;
+import model.GameRecord;
+import model.GameState;
+import model.Grid;
+import model.Player;
+
+/**
+ * One client connection of the {@link GameServer}, run on its own virtual thread.
+ * <p>
+ * The session reads commands line by line and sends them to the {@link GameActor}
+ * of its game, which alone touches the {@link GameCore}. The answer is made of the
+ * events of the core (the session is a {@link GameListener} of it, called on the
+ * actor's thread), so a client can follow the game from the messages alone. The
+ * computer searches a copy of the grid made from the actor's snapshot. Commands:
+ * </p>
+ * <ul>
+ *   <li>{@code NEW [size] [winLength] [AI|HUMAN] [EXPAND]}: starts a game; the client
+ *       plays black (its center piece is placed), and white is the computer by
+ *       default, or the client too with {@code HUMAN}</li>
+ *   <li>{@code MOVE row col}: plays for the player to move</li>
+ *   <li>{@code BOARD}: sends the grid</li>
+ *   <li>{@code SAVE name}: saves the game in the {@code data} folder</li>
+ *   <li>{@code RESIGN}: the player to move resigns</li>
+ *   <li>{@code WATCH id}: follows another client's game until it ends</li>
+ *   <li>{@code QUIT}: closes the connection</li>
+ * </ul>
+ * <p>
+ * Messages: {@code GAME size winLength id}, {@code MOVE color row col} for every piece
+ * placed, {@code EXPAND size}, {@code SKIP color}, {@code TURN color},
+ * {@code END WIN color}, {@code END DRAW}, {@code BOARD size} followed by one line
+ * per row, {@code SAVED path} and {@code ERR reason}. Colors are 0 for white and 1
+ * for black. The answer to a command is flushed once, after the computer's reply.
+ * </p>
+ * <p>
+ * A watcher gets {@code SNAPSHOT size ply toMove} followed by one line per row, then
+ * {@code DELTA ply color row col} for each move, {@code EXPAND size}, and at the end
+ * {@code END WIN color}, {@code END DRAW} or {@code END ABORTED} (the players left).
+ * A watcher too slow to follow gets a new snapshot. The deltas come from the
+ * game's {@link MoveBroadcaster}, so watchers never slow the game down.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.2
+ * @since 2025-06-09
+ */
+class Session implements GameListener, Runnable {
+
+    /** Default grid size of a new game. */
+    static final int DEFAULT_SIZE = 15;
+    /** Default win length of a new game. */
+    static final int DEFAULT_WIN_LENGTH = 5;
+    /** Largest grid accepted. */
+    static final int MAX_SIZE = 99;
+    /** How long a watcher waits for a delta before checking that the game is still open. */
+    private static final long WATCH_CHECK_NANOS = 1_000_000_000L;
+
+    /** The connection. */
+    private final Socket socket;
+    /** The shared computer players' threads. */
+    private final AiPool pool;
+    /** The threads running the game actors. */
+    private final Executor actors;
+    /** The server, for its counters. */
+    private final GameServer server;
+    /** Events of the last command, written on the actor's thread and sent by the session. */
+    private final StringBuilder events = new StringBuilder();
+    /** Messages to the client, flushed once per command. */
+    private PrintWriter out;
+    /** The game, {@code null} before the first {@code NEW}. */
+    private GameActor game;
+    /** Number of the game for the watchers, 0 before the first {@code NEW}. */
+    private int gameId;
+    /** The computer player, {@code null} if the client plays both sides. */
+    private AIPlayer ai;
+
+    /**
+     * Creates a session.
+     *
+     * @param socket the connection
+     * @param pool the computer players' threads
+     * @param actors the threads running the game actors
+     * @param server the server
+     */
+    Session(Socket socket, AiPool pool, Executor actors, GameServer server) {
+        this.socket = socket;
+        this.pool = pool;
+        this.actors = actors;
+        this.server = server;
+    }
+
+    /**
+     * Serves the client until it quits or disconnects.
+     */
+    @Override
+    public void run() {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.UTF_8))) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            out = new PrintWriter(writer, false);
+            out.println("HELLO gomoku 1");
+            out.flush();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!handle(line.trim())) {
+                    break;
+                }
+                out.flush();
+            }
+            out.println("BYE");
+            out.flush();
+        } catch (IOException e) {
+            // the client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            server.removeGame(gameId);
+            server.sessionClosed();
+        }
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param line the command line
+     * @return {@code false} if the session must end
+     * @throws InterruptedException if the session is interrupted while waiting for its game
+     */
+    boolean handle(String line) throws InterruptedException {
+        String[] words = line.split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "NEW" -> newGame(words);
+                case "MOVE" -> {
+                    if (words.length != 3) {
+                        throw new IllegalArgumentException("Usage: MOVE row col");
+                    }
+                    move(Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+                }
+                case "BOARD" -> board();
+                case "SAVE" -> {
+                    if (words.length != 2) {
+                        throw new IllegalArgumentException("Usage: SAVE name");
+                    }
+                    out.println("SAVED " + await(requireGame().save(words[1])));
+                }
+                case "RESIGN" -> send(requireGame().resign());
+                case "WATCH" -> {
+                    if (words.length != 2) {
+                        throw new IllegalArgumentException("Usage: WATCH id");
+                    }
+                    watch(Integer.parseInt(words[1]));
+                }
+                case "QUIT" -> {
+                    return false;
+                }
+                case "" -> { }
+                default -> throw new IllegalArgumentException("Unknown command " + words[0]);
+            }
+        } catch (IllegalArgumentException | IllegalStateException | UncheckedIOException e) {
+            out.println("ERR " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Starts a game.
+     *
+     * @param words the command and its arguments
+     * @throws InterruptedException if the session is interrupted while waiting for its game
+     */
+    private void newGame(String[] words) throws InterruptedException {
+        int size = DEFAULT_SIZE;
+        int winLength = DEFAULT_WIN_LENGTH;
+        boolean computer = true;
+        boolean expandable = false;
+        int numbers = 0;
+        for (int i = 1; i < words.length; i++) {
+            switch (words[i].toUpperCase()) {
+                case "AI" -> computer = true;
+                case "HUMAN" -> computer = false;
+                case "EXPAND" -> expandable = true;
+                default -> {
+                    int value = Integer.parseInt(words[i]);
+                    if (numbers++ == 0) {
+                        size = value;
+                    } else {
+                        winLength = value;
+                    }
+                }
+            }
+        }
+        if (size < 3 || size > MAX_SIZE || size % 2 == 0 || winLength < 3 || winLength > size) {
+            throw new IllegalArgumentException("Size must be odd, from 3 to " + MAX_SIZE
+                    + ", and win length from 3 to the size.");
+        }
+        int pieces = size * size / 2 + 1; // enough to fill the grid
+        Player black = new RemotePlayer("Black", 1, pieces);
+        ai = computer ? new AIPlayer("AI", 0, winLength, pieces) : null;
+        Player white = computer ? ai : new RemotePlayer("White", 0, pieces);
+        GameCore core = new GameCore(new Grid(size), black, white, pieces, winLength, expandable);
+        core.addListener(this);
+        MoveBroadcaster watchers = new MoveBroadcaster(core);
+        core.addListener(watchers);
+        server.removeGame(gameId);
+        gameId = server.addGame(watchers);
+        game = new GameActor(core, actors);
+        out.println("GAME " + size + " " + winLength + " " + gameId);
+        playComputer(send(game.start()));
+    }
+
+    /**
+     * Plays a move of the client, then the computer's answer.
+     *
+     * @param row the row
+     * @param col the column
+     * @throws InterruptedException if the session is interrupted while waiting for its game
+     */
+    private void move(int row, int col) throws InterruptedException {
+        GameState state = requireGame().snapshot();
+        int color = ai == null ? state.getCurrentColor() : 1 - ai.getPlayerColor();
+        state = send(game.move(color, row, col));
+        server.movePlayed();
+        playComputer(state);
+    }
+
+    /**
+     * Lets the computer play while it has the turn.
+     *
+     * @param state the state of the game
+     * @throws InterruptedException if the session is interrupted while waiting
+     */
+    private void playComputer(GameState state) throws InterruptedException {
+        while (ai != null && state.getStatus() == GameState.Status.IN_PROGRESS
+                && state.getCurrentColor() == ai.getPlayerColor()) {
+            Grid copy = Grid.fromBoardImage(state.getSize(), state.getCells());
+            int[] coords = pool.chooseMove(ai, copy);
+            state = send(game.move(ai.getPlayerColor(), coords[0], coords[1]));
+            server.movePlayed();
+        }
+    }
+
+    /**
+     * Waits for a command of the actor, then sends the events it caused.
+     *
+     * @param command the command sent to the actor
+     * @return the state after the command
+     * @throws InterruptedException if the session is interrupted while waiting
+     */
+    private GameState send(CompletableFuture<GameState> command) throws InterruptedException {
+        try {
+            return await(command);
+        } finally {
+            out.append(events);
+            events.setLength(0);
+        }
+    }
+
+    /**
+     * Waits for the answer of the actor.
+     *
+     * @param <T> the type of the answer
+     * @param answer the answer
+     * @return its value
+     * @throws InterruptedException if the session is interrupted while waiting
+     */
+    private static <T> T await(CompletableFuture<T> answer) throws InterruptedException {
+        try {
+            return answer.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Follows a game until it ends, the players leave or the watcher disconnects.
+     *
+     * @param id the number of the game
+     * @throws InterruptedException if the session is interrupted while waiting
+     */
+    private void watch(int id) throws InterruptedException {
+        MoveBroadcaster broadcaster = server.findGame(id);
+        if (broadcaster == null) {
+            throw new IllegalArgumentException("No game " + id + ".");
+        }
+        MoveBroadcaster.Subscription subscription = broadcaster.subscribe();
+        if (sendSnapshot(subscription.getSnapshot())) {
+            return;
+        }
+        while (true) {
+            long delta = subscription.poll();
+            if (delta == MoveBroadcaster.NONE) {
+                out.flush(); // everything available was sent: flush once before waiting
+                delta = subscription.take(WATCH_CHECK_NANOS);
+            }
+            if (delta == MoveBroadcaster.NONE) {
+                if (out.checkError()) {
+                    return; // the watcher went away
+                }
+                if (server.findGame(id) != broadcaster) {
+                    out.println("END ABORTED");
+                    return;
+                }
+                continue;
+            }
+            int value = MoveBroadcaster.valueOf(delta);
+            switch (MoveBroadcaster.typeOf(delta)) {
+                case MoveBroadcaster.MOVE -> out.append("DELTA ").append(String.valueOf(MoveBroadcaster.plyOf(delta)))
+                        .append(' ').append(String.valueOf(GameRecord.colorOf(value)))
+                        .append(' ').append(String.valueOf(GameRecord.rowOf(value)))
+                        .append(' ').append(String.valueOf(GameRecord.colOf(value))).append('\n');
+                case MoveBroadcaster.EXPAND -> out.println("EXPAND " + value);
+                case MoveBroadcaster.END -> {
+                    out.println(value == GameRecord.DRAW ? "END DRAW" : "END WIN " + value);
+                    return;
+                }
+                case MoveBroadcaster.RESYNC -> {
+                    if (sendSnapshot(subscription.getSnapshot())) {
+                        return;
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown delta " + delta);
+            }
+        }
+    }
+
+    /**
+     * Sends a snapshot to a watcher, and the end of the game if it is over.
+     *
+     * @param state the snapshot
+     * @return {@code true} if the game is over
+     */
+    private boolean sendSnapshot(GameState state) {
+        sendGrid("SNAPSHOT " + state.getSize() + " " + state.getPly() + " " + state.getCurrentColor(), state);
+        switch (state.getStatus()) {
+            case WON -> out.println("END WIN " + state.getWinner());
+            case DRAW -> out.println("END DRAW");
+            case ABORTED -> out.println("END ABORTED");
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends the grid of the last snapshot.
+     */
+    private void board() {
+        GameState state = requireGame().snapshot();
+        sendGrid("BOARD " + state.getSize(), state);
+    }
+
+    /**
+     * Sends a header line, then the grid one line per row ({@code .} empty,
+     * {@code X} black, {@code O} white).
+     *
+     * @param header the first line
+     * @param state the game
+     */
+    private void sendGrid(String header, GameState state) {
+        int size = state.getSize();
+        StringBuilder sb = new StringBuilder(header).append('\n');
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = state.getCell(row, col);
+                sb.append(cell < 0 ? '.' : cell == 1 ? 'X' : 'O');
+            }
+            sb.append('\n');
+        }
+        out.print(sb);
+    }
+
+    /**
+     * Returns the actor of the game.
+     *
+     * @return the actor
+     * @throws IllegalStateException if no game was started
+     */
+    private GameActor requireGame() {
+        if (game == null) {
+            throw new IllegalStateException("No game; send NEW first.");
+        }
+        return game;
+    }
+
+    /**
+     * Adds a placed piece to the answer (actor's thread).
+     *
+     * @param core the game
+     * @param player the player who placed it
+     * @param row the row
+     * @param col the column
+     */
+    @Override
+    public void onMove(GameCore core, Player player, int row, int col) {
+        events.append("MOVE ").append(player.getPlayerColor()).append(' ').append(row).append(' ').append(col)
+                .append('\n');
+    }
+
+    /**
+     * Adds the winner to the answer (actor's thread).
+     *
+     * @param core the game
+     * @param winner the winner
+     */
+    @Override
+    public void onWin(GameCore core, Player winner) {
+        events.append("END WIN ").append(winner.getPlayerColor()).append('\n');
+    }
+
+    /**
+     * Adds a draw to the answer (actor's thread).
+     *
+     * @param core the game
+     * @param reason why the game is a draw
+     */
+    @Override
+    public void onDraw(GameCore core, String reason) {
+        events.append("END DRAW\n");
+    }
+
+    /**
+     * Adds the new grid size to the answer (actor's thread).
+     *
+     * @param core the game
+     * @param newSize the new size
+     * @param additionalPieces the pieces given to each player
+     */
+    @Override
+    public void onExpand(GameCore core, int newSize, int additionalPieces) {
+        events.append("EXPAND ").append(newSize).append('\n');
+    }
+
+    /**
+     * Adds a skipped turn to the answer (actor's thread).
+     *
+     * @param core the game
+     * @param skipped the player without pieces
+     */
+    @Override
+    public void onTurnSkipped(GameCore core, Player skipped) {
+        events.append("SKIP ").append(skipped.getPlayerColor()).append('\n');
+    }
+
+    /**
+     * Adds who plays next to the answer (actor's thread).
+     *
+     * @param core the game
+     * @param toMove the player to move
+     */
+    @Override
+    public void onTurn(GameCore core, Player toMove) {
+        events.append("TURN ").append(toMove.getPlayerColor()).append('\n');
+    }
+}
@@ -0,0 +1,310 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured engine log that keeps console and file writes off the game threads.
+ * <p>
+ * A log call only stores a few primitives (event id and up to three numbers) in a
+ * lock-free ring buffer. A background thread takes the events out, formats them and
+ * writes them to the console or to a file. So the AI never waits for the terminal,
+ * and many games can log from the same JVM without fighting for {@code System.out}.
+ * </p>
+ *
+ * <p>
+ * Levels are read once from the system property {@code gomoku.log}, for example
+ * {@code -Dgomoku.log=ai:debug,save:info}. The flags like {@link #AI_INFO} are
+ * {@code static final}, so a call site written as
+ * </p>
+ * <pre>{@code
+ * if (EngineLog.AI_DEBUG) {
+ *     EngineLog.log(EngineLog.Event.AI_CANDIDATE, row, col, score);
+ * }
+ * }</pre>
+ * <p>
+ * is removed completely by the JIT when the level is off. The property
+ * {@code gomoku.log.file} sends the output to a file instead of the console.
+ * If the buffer is full, new events are dropped (and counted) instead of blocking.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.1
+ * @since 2025-05-28
+ */
+public final class EngineLog {
+
+    /**
+     * Log categories, each with its own level.
+     */
+    public enum Category {
+        /** AI move choice. */
+        AI,
+        /** Game rules and flow. */
+        GAME,
+        /** Saving and loading. */
+        SAVE
+    }
+
+    /**
+     * The events that can be logged, with the format of their numbers.
+     */
+    public enum Event {
+        /** Move chosen by the AI: row, col, score. */
+        AI_MOVE(Category.AI, "move chosen row=%d col=%d score=%d"),
+        /** One candidate scored by the AI: row, col, score. */
+        AI_CANDIDATE(Category.AI, "candidate row=%d col=%d score=%d"),
+        /** A move was played: ply, row, col. */
+        GAME_MOVE(Category.GAME, "move ply=%d row=%d col=%d"),
+        /** A game ended: result, plies. */
+        GAME_END(Category.GAME, "game end result=%d plies=%d"),
+        /** A save was written: bytes, microseconds. */
+        SAVE_WRITTEN(Category.SAVE, "save written bytes=%d time=%dus");
+
+        /** Category of the event. */
+        private final Category category;
+        /** Format of the numbers of the event. */
+        private final String format;
+
+        /**
+         * Creates an event kind.
+         *
+         * @param category the category
+         * @param format the {@link String#format} pattern of its numbers
+         */
+        Event(Category category, String format) {
+            this.category = category;
+            this.format = format;
+        }
+    }
+
+    /** Level: nothing is logged. */
+    public static final int OFF = 0;
+    /** Level: important events. */
+    public static final int INFO = 1;
+    /** Level: everything, including hot loop details. */
+    public static final int DEBUG = 2;
+
+    /** Levels of every category, read once from {@code gomoku.log}. */
+    private static final int[] LEVELS = parseLevels(System.getProperty("gomoku.log", ""));
+
+    /** {@code true} if AI events at INFO are logged. */
+    public static final boolean AI_INFO = LEVELS[Category.AI.ordinal()] >= INFO;
+    /** {@code true} if AI events at DEBUG are logged. */
+    public static final boolean AI_DEBUG = LEVELS[Category.AI.ordinal()] >= DEBUG;
+    /** {@code true} if game events at INFO are logged. */
+    public static final boolean GAME_INFO = LEVELS[Category.GAME.ordinal()] >= INFO;
+    /** {@code true} if save events at INFO are logged. */
+    public static final boolean SAVE_INFO = LEVELS[Category.SAVE.ordinal()] >= INFO;
+
+    /** Number of slots of the ring buffer (a power of two). */
+    private static final int CAPACITY = 1 << 14;
+    /** Mask turning a sequence number into a slot index. */
+    private static final int MASK = CAPACITY - 1;
+
+    /** Sequence + 1 of the event stored in each slot, 0 while the slot is being written. */
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    /** Event ordinal of each slot. */
+    private static final int[] events = new int[CAPACITY];
+    /** Thread id of each slot. */
+    private static final long[] threads = new long[CAPACITY];
+    /** Time of each slot (nanoseconds). */
+    private static final long[] times = new long[CAPACITY];
+    /** First number of each slot. */
+    private static final long[] argA = new long[CAPACITY];
+    /** Second number of each slot. */
+    private static final long[] argB = new long[CAPACITY];
+    /** Third number of each slot. */
+    private static final long[] argC = new long[CAPACITY];
+
+    /** Next sequence number to claim by a producer. */
+    private static final AtomicLong head = new AtomicLong();
+    /** Next sequence number to read by the drain thread. */
+    private static volatile long tail;
+    /** Number of events dropped because the buffer was full. */
+    private static final AtomicLong dropped = new AtomicLong();
+
+    /** Time origin of the printed timestamps. */
+    private static final long START = System.nanoTime();
+    /** The drain thread, started on the first event. */
+    private static volatile Thread drainThread;
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private EngineLog() {
+    }
+
+    /**
+     * Logs an event. Never blocks; the event is dropped if the buffer is full.
+     * Call it behind one of the level flags so disabled logging costs nothing.
+     *
+     * @param event the event kind
+     * @param a the first number
+     * @param b the second number
+     * @param c the third number
+     */
+    public static void log(Event event, long a, long b, long c) {
+        long seq;
+        do {
+            seq = head.get();
+            if (seq - tail >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!head.compareAndSet(seq, seq + 1));
+
+        int slot = (int) seq & MASK;
+        events[slot] = event.ordinal();
+        threads[slot] = Thread.currentThread().threadId();
+        times[slot] = System.nanoTime();
+        argA[slot] = a;
+        argB[slot] = b;
+        argC[slot] = c;
+        published.lazySet(slot, seq + 1); // publishes the plain writes above
+
+        if (drainThread == null) {
+            startDrain();
+        }
+    }
+
+    /**
+     * Returns how many events were dropped because the buffer was full.
+     *
+     * @return the number of dropped events
+     */
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the level of a category.
+     *
+     * @param category the category
+     * @return {@link #OFF}, {@link #INFO} or {@link #DEBUG}
+     */
+    public static int levelOf(Category category) {
+        return LEVELS[category.ordinal()];
+    }
+
+    /**
+     * Starts the drain thread once, and a shutdown hook writing the last events.
+     */
+    private static synchronized void startDrain() {
+        if (drainThread != null) {
+            return;
+        }
+        Writer sink = openSink();
+        Thread thread = new Thread(() -> drainLoop(sink), "engine-log");
+        thread.setDaemon(true);
+        drainThread = thread;
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> drainOnce(sink)));
+    }
+
+    /**
+     * Opens the output: the file of {@code gomoku.log.file}, or the console.
+     *
+     * @return the writer of the log lines
+     */
+    private static Writer openSink() {
+        String file = System.getProperty("gomoku.log.file");
+        if (file != null) {
+            try {
+                return Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("Can't open log file " + file + ", logging to the console.");
+            }
+        }
+        PrintStream console = System.out;
+        return new BufferedWriter(new OutputStreamWriter(console, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Body of the drain thread: writes events as they come, sleeping briefly when there are none.
+     *
+     * @param sink the output
+     */
+    private static void drainLoop(Writer sink) {
+        while (true) {
+            if (drainOnce(sink) == 0) {
+                LockSupport.parkNanos(1_000_000L); // 1 ms
+            }
+        }
+    }
+
+    /**
+     * Writes every published event and flushes the output.
+     *
+     * @param sink the output
+     * @return the number of events written
+     */
+    private static synchronized int drainOnce(Writer sink) {
+        int count = 0;
+        long seq = tail;
+        try {
+            while (true) {
+                int slot = (int) seq & MASK;
+                if (published.get(slot) != seq + 1) {
+                    break; // not written yet (or nothing more to read)
+                }
+                Event event = Event.values()[events[slot]];
+                String message = String.format(Locale.ROOT, event.format, argA[slot], argB[slot], argC[slot]);
+                sink.write(String.format(Locale.ROOT, "[%10.3fms] %-4s t%d %s%n",
+                        (times[slot] - START) / 1e6, event.category, threads[slot], message));
+                seq++;
+                tail = seq; // frees the slot for producers
+                count++;
+            }
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                sink.write("[engine-log] " + lost + " events dropped (buffer full)" + System.lineSeparator());
+            }
+            if (count > 0 || lost > 0) {
+                sink.flush();
+            }
+        } catch (IOException e) {
+            tail = seq; // never block producers because of a broken sink
+        }
+        return count;
+    }
+
+    /**
+     * Parses a level list like {@code "ai:debug,save:info"}. Unknown names are ignored.
+     *
+     * @param spec the property value
+     * @return the level of every category
+     */
+    private static int[] parseLevels(String spec) {
+        int[] levels = new int[Category.values().length];
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                continue;
+            }
+            int level = switch (pair[1].trim().toLowerCase(Locale.ROOT)) {
+                case "debug" -> DEBUG;
+                case "info" -> INFO;
+                default -> OFF;
+            };
+            for (Category category : Category.values()) {
+                if (category.name().equalsIgnoreCase(pair[0].trim())) {
+                    levels[category.ordinal()] = level;
+                }
+            }
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,146 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of durations in nanoseconds, used to measure how long moves take.
+ * <p>
+ * Values are put in logarithmic buckets: each power of two is split in
+ * {@value #SUB_BUCKETS} buckets, so a percentile is known within about 25% while the
+ * whole histogram is only a few hundred counters. Recording a value is one atomic
+ * increment, so many game threads can record into the same histogram.
+ * </p>
+ *
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-05-22
+ */
+public class LatencyHistogram {
+
+    /** Number of buckets inside each power of two. */
+    private static final int SUB_BUCKETS = 4;
+    /** log2 of {@link #SUB_BUCKETS}. */
+    private static final int SUB_BITS = 2;
+
+    /** The counters, one per bucket. */
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+    /** Number of recorded values. */
+    private final LongAdder count = new LongAdder();
+    /** Sum of the recorded values. */
+    private final LongAdder sum = new LongAdder();
+    /** Biggest recorded value. */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds (negative values count as 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the biggest recorded value.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns an upper bound of the given percentile.
+     *
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding that percentile, in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns a one-line summary in microseconds (mean, p50, p90, p99, max).
+     *
+     * @return the summary
+     */
+    public String summary() {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+                getCount(), getMean() / 1e3, getPercentile(50) / 1e3, getPercentile(90) / 1e3,
+                getPercentile(99) / 1e3, getMax() / 1e3);
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value a non negative value
+     * @return the bucket index
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int log = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (log - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (log - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the biggest value that falls into a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the upper bound of the bucket
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int log = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long low = (long) (SUB_BUCKETS + sub) << (log - SUB_BITS);
+        return low + (1L << (log - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,99 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free queue for many producer threads and one consumer thread.
+ * <p>
+ * The queue is a linked list. A producer swaps its node into {@code tail} with one
+ * atomic exchange, then links the previous tail to it, so producers never wait for
+ * each other or for the consumer. Only the consumer moves {@code head}, so taking an
+ * element needs no atomic operation at all. Between the exchange and the link the
+ * new element is not visible yet: {@link #poll()} then returns {@code null} although
+ * {@link #isEmpty()} is {@code false}, and the consumer must try again later.
+ * </p>
+ *
+ * @param <E> the type of the elements
+ * @author Erkin Tunc Boya
+ * @version 1.0
+ * @since 2025-06-10
+ */
+public final class MpscQueue<E> {
+
+    /**
+     * A link of the queue.
+     *
+     * @param <E> the type of the element
+     */
+    private static final class Node<E> {
+
+        /** The element, {@code null} once taken. */
+        private E value;
+        /** The next node, set by the producer of that node. */
+        private volatile Node<E> next;
+
+        /**
+         * Creates a node.
+         *
+         * @param value the element
+         */
+        Node(E value) {
+            this.value = value;
+        }
+    }
+
+    /** Last node linked by a producer. */
+    private final AtomicReference<Node<E>> tail;
+    /** Node before the first element (consumer only). */
+    private Node<E> head;
+
+    /**
+     * Creates an empty queue.
+     */
+    public MpscQueue() {
+        Node<E> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * Adds an element (any thread).
+     *
+     * @param element the element
+     * @throws IllegalArgumentException if the element is {@code null}
+     */
+    public void offer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("The queue does not take null elements.");
+        }
+        Node<E> node = new Node<>(element);
+        Node<E> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    /**
+     * Takes the first element (consumer thread only).
+     *
+     * @return the element, or {@code null} if none is visible yet
+     */
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E element = next.value;
+        next.value = null; // the node becomes the new stub
+        head = next;
+        return element;
+    }
+
+    /**
+     * Tells if no element was offered since the last one taken. An element being
+     * offered counts, even if {@link #poll()} cannot return it yet.
+     *
+     * @return {@code true} if the queue is empty
+     */
+    public boolean isEmpty() {
+        return tail.get() == head;
+    }
+}